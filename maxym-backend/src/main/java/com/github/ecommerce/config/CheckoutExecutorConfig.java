@@ -0,0 +1,27 @@
+package com.github.ecommerce.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+@Configuration
+public class CheckoutExecutorConfig {
+
+    @Bean(name = "checkoutExecutor")
+    public TaskExecutor checkoutExecutor(@Value("${app.checkout.threads:0}") int threads,
+                                         @Value("${app.checkout.queue-capacity:1000}") int queueCapacity) {
+        // Stages release their connection between steps, so size by cores rather than by the Hikari pool
+        int poolSize = threads > 0 ? threads : Runtime.getRuntime().availableProcessors() * 2;
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setThreadNamePrefix("checkout-");
+        executor.setCorePoolSize(poolSize);
+        executor.setMaxPoolSize(poolSize);
+        executor.setQueueCapacity(queueCapacity);
+        executor.setWaitForTasksToCompleteOnShutdown(true);
+        executor.setAwaitTerminationSeconds(30);
+        executor.initialize();
+        return executor;
+    }
+}
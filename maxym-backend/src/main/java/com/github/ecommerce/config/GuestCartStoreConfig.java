@@ -0,0 +1,39 @@
+package com.github.ecommerce.config;
+
+import com.github.ecommerce.service.cart.GuestCartStore;
+import com.github.ecommerce.service.cart.InMemoryGuestCartStore;
+import com.github.ecommerce.service.cart.RedisGuestCartStore;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.serializer.RedisSerializer;
+import org.springframework.data.redis.serializer.StringRedisSerializer;
+
+import java.time.Duration;
+
+@Configuration
+public class GuestCartStoreConfig {
+
+    @Value("${app.cart.guest-store.ttl-days:30}")
+    private long ttlDays;
+
+    @Bean
+    @ConditionalOnProperty(name = "app.cart.guest-store.type", havingValue = "redis", matchIfMissing = true)
+    public GuestCartStore redisGuestCartStore(RedisConnectionFactory connectionFactory) {
+        RedisTemplate<String, byte[]> template = new RedisTemplate<>();
+        template.setConnectionFactory(connectionFactory);
+        template.setKeySerializer(StringRedisSerializer.UTF_8);
+        template.setValueSerializer(RedisSerializer.byteArray());
+        template.afterPropertiesSet();
+        return new RedisGuestCartStore(template, Duration.ofDays(ttlDays));
+    }
+
+    @Bean
+    @ConditionalOnProperty(name = "app.cart.guest-store.type", havingValue = "memory")
+    public GuestCartStore inMemoryGuestCartStore() {
+        return new InMemoryGuestCartStore(Duration.ofDays(ttlDays));
+    }
+}
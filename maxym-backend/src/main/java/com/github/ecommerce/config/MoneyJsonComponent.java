@@ -0,0 +1,49 @@
+package com.github.ecommerce.config;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.databind.DeserializationContext;
+import com.fasterxml.jackson.databind.JsonDeserializer;
+import com.fasterxml.jackson.databind.JsonMappingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.JsonSerializer;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.github.ecommerce.util.Money;
+import org.springframework.boot.jackson.JsonComponent;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+
+/**
+ * Writes {@link Money} as {@code {"amount": 12.34, "currency": "EUR"}} and reads the same shape;
+ * a missing currency means the default one.
+ */
+@JsonComponent
+public class MoneyJsonComponent {
+
+    public static class Serializer extends JsonSerializer<Money> {
+
+        @Override
+        public void serialize(Money money, JsonGenerator generator, SerializerProvider provider) throws IOException {
+            generator.writeStartObject();
+            generator.writeNumberField("amount", money.toBigDecimal());
+            generator.writeStringField("currency", money.getCurrencyCode());
+            generator.writeEndObject();
+        }
+    }
+
+    public static class Deserializer extends JsonDeserializer<Money> {
+
+        @Override
+        public Money deserialize(JsonParser parser, DeserializationContext context) throws IOException {
+            JsonNode node = parser.getCodec().readTree(parser);
+            JsonNode amount = node.get("amount");
+            if (amount == null || !(amount.isNumber() || amount.isTextual())) {
+                throw JsonMappingException.from(parser, "Money requires a numeric amount");
+            }
+            BigDecimal value = amount.isNumber() ? amount.decimalValue() : new BigDecimal(amount.asText());
+            String currency = node.hasNonNull("currency") ? node.get("currency").asText() : Money.DEFAULT_CURRENCY;
+            return Money.of(value, currency);
+        }
+    }
+}
@@ -0,0 +1,42 @@
+package com.github.ecommerce.config;
+
+import com.github.ecommerce.service.payment.GatewaySettings;
+import com.github.ecommerce.service.payment.PayPalPaymentGateway;
+import com.github.ecommerce.service.payment.StripePaymentGateway;
+import com.github.ecommerce.service.payment.StubPaymentGateway;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+
+@Configuration
+public class PaymentGatewayConfig {
+
+    @Bean
+    @ConditionalOnProperty(name = "app.payment.gateway-mode", havingValue = "live", matchIfMissing = true)
+    public StripePaymentGateway stripePaymentGateway(@Value("${app.payment.stripe.api-key:}") String apiKey,
+                                                     Environment environment) {
+        return new StripePaymentGateway(apiKey, GatewaySettings.of(environment, "stripe"));
+    }
+
+    @Bean
+    @ConditionalOnProperty(name = "app.payment.gateway-mode", havingValue = "live", matchIfMissing = true)
+    public PayPalPaymentGateway payPalPaymentGateway(@Value("${app.payment.paypal.client-id:}") String clientId,
+                                                     @Value("${app.payment.paypal.client-secret:}") String clientSecret,
+                                                     @Value("${app.payment.paypal.mode:sandbox}") String mode) {
+        return new PayPalPaymentGateway(clientId, clientSecret, mode);
+    }
+
+    @Bean
+    @ConditionalOnProperty(name = "app.payment.gateway-mode", havingValue = "stub")
+    public StubPaymentGateway stubStripeGateway() {
+        return new StubPaymentGateway("stripe");
+    }
+
+    @Bean
+    @ConditionalOnProperty(name = "app.payment.gateway-mode", havingValue = "stub")
+    public StubPaymentGateway stubPayPalGateway() {
+        return new StubPaymentGateway("paypal");
+    }
+}
@@ -0,0 +1,61 @@
+package com.github.ecommerce.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.ecommerce.service.webhook.FakePaymentGateway;
+import com.github.ecommerce.service.webhook.PayPalWebhookProvider;
+import com.github.ecommerce.service.webhook.PaymentWebhookIngestor;
+import com.github.ecommerce.service.webhook.StripeWebhookProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+@Configuration
+public class PaymentWebhookConfig {
+
+    @Value("${app.webhooks.stripe.tolerance-seconds:300}")
+    private long toleranceSeconds;
+
+    @Bean
+    public StripeWebhookProvider stripeWebhookProvider(@Value("${app.payment.stripe.webhook-secret:}") String secret,
+                                                       ObjectMapper objectMapper) {
+        return new StripeWebhookProvider("stripe", secret, toleranceSeconds, objectMapper);
+    }
+
+    @Bean
+    public PayPalWebhookProvider payPalWebhookProvider(@Value("${app.payment.paypal.webhook-id:}") String webhookId,
+                                                       ObjectMapper objectMapper) {
+        return new PayPalWebhookProvider(webhookId, objectMapper);
+    }
+
+    @Bean
+    @ConditionalOnProperty(name = "app.webhooks.fake-gateway.enabled", havingValue = "true")
+    public StripeWebhookProvider fakeWebhookProvider(@Value("${app.webhooks.fake-gateway.secret}") String secret,
+                                                     ObjectMapper objectMapper) {
+        return new StripeWebhookProvider(FakePaymentGateway.PROVIDER, secret, toleranceSeconds, objectMapper);
+    }
+
+    @Bean
+    @ConditionalOnProperty(name = "app.webhooks.fake-gateway.enabled", havingValue = "true")
+    public FakePaymentGateway fakePaymentGateway(@Value("${app.webhooks.fake-gateway.secret}") String secret,
+                                                 PaymentWebhookIngestor ingestor,
+                                                 ObjectMapper objectMapper) {
+        return new FakePaymentGateway(secret, ingestor, objectMapper);
+    }
+
+    @Bean(name = "webhookExecutor")
+    public TaskExecutor webhookExecutor(@Value("${app.webhooks.workers:4}") int workers) {
+        // One thread per lane; the dispatcher never has more lanes in flight than workers
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setThreadNamePrefix("webhook-");
+        executor.setCorePoolSize(workers);
+        executor.setMaxPoolSize(workers);
+        executor.setQueueCapacity(workers);
+        executor.setWaitForTasksToCompleteOnShutdown(true);
+        executor.setAwaitTerminationSeconds(30);
+        executor.initialize();
+        return executor;
+    }
+}
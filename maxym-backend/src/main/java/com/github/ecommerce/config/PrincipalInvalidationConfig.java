@@ -0,0 +1,29 @@
+package com.github.ecommerce.config;
+
+import com.github.ecommerce.security.JwtAuthenticationService;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+
+import java.nio.charset.StandardCharsets;
+
+// Every node subscribes, so a user change made on one node drops the cached principal on all of them
+@Configuration
+public class PrincipalInvalidationConfig {
+
+    @Bean
+    public RedisMessageListenerContainer principalInvalidationListener(
+            RedisConnectionFactory connectionFactory,
+            JwtAuthenticationService authenticationService,
+            @Value("${app.security.jwt.invalidation-channel:auth:principal-invalidations}") String channel) {
+        RedisMessageListenerContainer container = new RedisMessageListenerContainer();
+        container.setConnectionFactory(connectionFactory);
+        container.addMessageListener((message, pattern) ->
+            authenticationService.onInvalidation(new String(message.getBody(), StandardCharsets.UTF_8)),
+            new ChannelTopic(channel));
+        return container;
+    }
+}
@@ -1,8 +1,8 @@
 package com.github.ecommerce.config;
 
 import com.ecommerce.security.JwtAuthenticationEntryPoint;
-import com.ecommerce.security.JwtAuthenticationFilter;
 import com.ecommerce.security.RateLimitingFilter;
+import com.github.ecommerce.security.JwtAuthenticationFilter;
 import lombok.RequiredArgsConstructor;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
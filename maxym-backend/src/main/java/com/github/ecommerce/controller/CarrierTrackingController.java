@@ -0,0 +1,29 @@
+package com.github.ecommerce.controller;
+
+import com.github.ecommerce.service.shipping.TrackingFeedParser;
+import com.github.ecommerce.service.shipping.TrackingIngestionService;
+import com.github.ecommerce.service.shipping.TrackingIngestionSummary;
+import jakarta.servlet.http.HttpServletRequest;
+import lombok.RequiredArgsConstructor;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.io.IOException;
+
+/**
+ * Carrier tracking feeds, uploaded as JSON or CSV ({@code Content-Type: text/csv}). The body
+ * is read as a stream, so feeds of any size can be posted; see {@link TrackingIngestionService}.
+ */
+@RestController
+@RequestMapping("/api/admin/shipping/tracking")
+@RequiredArgsConstructor
+public class CarrierTrackingController {
+
+    private final TrackingIngestionService ingestionService;
+
+    @PostMapping
+    public TrackingIngestionSummary ingest(HttpServletRequest request) throws IOException {
+        return ingestionService.ingest(request.getInputStream(), TrackingFeedParser.Format.of(request.getContentType()));
+    }
+}
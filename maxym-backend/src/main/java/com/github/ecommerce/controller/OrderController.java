@@ -0,0 +1,37 @@
+package com.github.ecommerce.controller;
+
+import com.github.ecommerce.dto.response.OrderHistoryResponse;
+import com.github.ecommerce.dto.response.OrderSummaryResponse;
+import com.github.ecommerce.security.JwtPrincipal;
+import com.github.ecommerce.service.OrderHistoryService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+/**
+ * The signed-in customer's orders: the history pages from the read model, and single orders
+ * by number from either tier, see {@link OrderHistoryService}.
+ */
+@RestController
+@RequestMapping("/api/orders")
+@RequiredArgsConstructor
+public class OrderController {
+
+    private final OrderHistoryService orderHistoryService;
+
+    @GetMapping
+    public OrderHistoryResponse history(@AuthenticationPrincipal JwtPrincipal principal,
+                                        @RequestParam(required = false) String cursor,
+                                        @RequestParam(defaultValue = "20") int size) {
+        return orderHistoryService.findOrders(principal.userId(), cursor, size);
+    }
+
+    @GetMapping("/{orderNumber}")
+    public OrderSummaryResponse order(@AuthenticationPrincipal JwtPrincipal principal, @PathVariable String orderNumber) {
+        return orderHistoryService.findOrder(principal.userId(), orderNumber);
+    }
+}
@@ -0,0 +1,42 @@
+package com.github.ecommerce.controller;
+
+import com.github.ecommerce.exception.WebhookSignatureException;
+import com.github.ecommerce.service.webhook.PaymentWebhookIngestor;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+/**
+ * Gateway callbacks. The body is taken as raw bytes because signatures cover the exact payload;
+ * the event is only queued here and acknowledged, see {@link PaymentWebhookIngestor}.
+ */
+@RestController
+@RequestMapping("/api/webhook")
+@RequiredArgsConstructor
+public class PaymentWebhookController {
+
+    private final PaymentWebhookIngestor ingestor;
+
+    @PostMapping("/{provider}")
+    public ResponseEntity<Void> receive(@PathVariable String provider,
+                                        @RequestHeader HttpHeaders headers,
+                                        @RequestBody byte[] body) {
+        return switch (ingestor.ingest(provider, headers, body)) {
+            // A duplicate was stored already, so acknowledge it to stop the gateway retrying
+            case ACCEPTED, DUPLICATE -> ResponseEntity.ok().build();
+            case UNKNOWN_PROVIDER -> ResponseEntity.notFound().build();
+        };
+    }
+
+    @ExceptionHandler(WebhookSignatureException.class)
+    public ResponseEntity<Void> rejected() {
+        return ResponseEntity.badRequest().build();
+    }
+}
@@ -0,0 +1,44 @@
+package com.github.ecommerce.dto.request;
+
+import com.github.ecommerce.entity.Order;
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class BulkOrderTransitionRequest {
+
+    @NotNull
+    private Order.OrderStatus targetStatus;
+
+    @NotEmpty
+    @Valid
+    private List<Line> orders;
+
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Line {
+
+        @NotBlank
+        private String orderNumber;
+
+        // Tracking data is only applied when moving to SHIPPED
+        private String carrier;
+
+        private String trackingNumber;
+
+        private String trackingUrl;
+    }
+}
@@ -0,0 +1,33 @@
+package com.github.ecommerce.dto.request;
+
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Positive;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class CartMutationRequest {
+
+    @NotNull
+    private Operation operation;
+
+    @NotNull
+    private Long productId;
+
+    private Long variantId;
+
+    // Omitted on REMOVE; an UPDATE without a quantity removes the line
+    @Positive
+    private Integer quantity;
+
+    public enum Operation {
+        ADD,
+        UPDATE,
+        REMOVE
+    }
+}
@@ -0,0 +1,41 @@
+package com.github.ecommerce.dto.response;
+
+import com.github.ecommerce.entity.Order;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * Outcome of a bulk transition. Only failures are listed; every other order of the request
+ * was moved to the target status.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class BulkOrderTransitionResponse {
+
+    private long batchId;
+
+    private Order.OrderStatus targetStatus;
+
+    private int requested;
+
+    private int transitioned;
+
+    private List<Failure> failures;
+
+    private long durationMillis;
+
+    public record Failure(String orderNumber, Reason reason, Order.OrderStatus currentStatus) {
+    }
+
+    public enum Reason {
+        NOT_FOUND,
+        DUPLICATE,
+        INVALID_TRANSITION
+    }
+}
@@ -0,0 +1,81 @@
+package com.github.ecommerce.dto.response;
+
+import com.github.ecommerce.entity.Order;
+import com.github.ecommerce.entity.OrderItem;
+import com.github.ecommerce.entity.OrderSummary;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.Comparator;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class OrderSummaryResponse {
+
+    private Long orderId;
+
+    private String orderNumber;
+
+    private String status;
+
+    private String paymentStatus;
+
+    private String shippingStatus;
+
+    private BigDecimal totalAmount;
+
+    private String currencyCode;
+
+    private int itemCount;
+
+    private String firstItemName;
+
+    private String firstItemImageUrl;
+
+    private String trackingNumber;
+
+    private LocalDateTime createdAt;
+
+    public static OrderSummaryResponse from(OrderSummary summary) {
+        return OrderSummaryResponse.builder()
+            .orderId(summary.getOrderId())
+            .orderNumber(summary.getOrderNumber())
+            .status(summary.getStatus().name())
+            .paymentStatus(summary.getPaymentStatus() != null ? summary.getPaymentStatus().name() : null)
+            .shippingStatus(summary.getShippingStatus() != null ? summary.getShippingStatus().name() : null)
+            .totalAmount(summary.getTotalAmount())
+            .currencyCode(summary.getCurrencyCode())
+            .itemCount(summary.getItemCount())
+            .firstItemName(summary.getFirstItemName())
+            .firstItemImageUrl(summary.getFirstItemImageUrl())
+            .trackingNumber(summary.getTrackingNumber())
+            .createdAt(summary.getCreatedAt())
+            .build();
+    }
+
+    // Same figures as the order_summaries row, for orders read from the source tables or the archive
+    public static OrderSummaryResponse from(Order order) {
+        OrderItem first = order.getItems().stream().min(Comparator.comparing(OrderItem::getId)).orElse(null);
+        String shippingTracking = order.getShipping() != null ? order.getShipping().getTrackingNumber() : null;
+        return OrderSummaryResponse.builder()
+            .orderId(order.getId())
+            .orderNumber(order.getOrderNumber())
+            .status(order.getStatus().name())
+            .paymentStatus(order.getPayment() != null ? order.getPayment().getStatus().name() : null)
+            .shippingStatus(order.getShipping() != null ? order.getShipping().getStatus().name() : null)
+            .totalAmount(order.getTotalAmount())
+            .currencyCode(order.getCurrencyCode())
+            .itemCount(order.getItems().stream().mapToInt(OrderItem::getQuantity).sum())
+            .firstItemName(first != null ? first.getProductName() : null)
+            .firstItemImageUrl(first != null ? first.getProductImageUrl() : null)
+            .trackingNumber(shippingTracking != null ? shippingTracking : order.getTrackingNumber())
+            .createdAt(order.getCreatedAt())
+            .build();
+    }
+}
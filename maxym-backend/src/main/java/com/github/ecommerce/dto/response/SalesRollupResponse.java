@@ -0,0 +1,35 @@
+package com.github.ecommerce.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDateTime;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class SalesRollupResponse {
+
+    // Null for totals over a whole range
+    private LocalDateTime bucketStart;
+
+    private String dimensionKey;
+
+    private BigDecimal revenue;
+
+    private long orderCount;
+
+    private long units;
+
+    public BigDecimal getAverageOrderValue() {
+        if (orderCount == 0) {
+            return BigDecimal.ZERO;
+        }
+        return revenue.divide(BigDecimal.valueOf(orderCount), 2, RoundingMode.HALF_UP);
+    }
+}
@@ -0,0 +1,31 @@
+package com.github.ecommerce.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class StockLevelResponse {
+
+    private Long inventoryId;
+
+    private String sku;
+
+    private int quantity;
+
+    private int reservedQuantity;
+
+    private Long lastMovementId;
+
+    private LocalDateTime asOf;
+
+    public int getAvailableQuantity() {
+        return quantity - reservedQuantity;
+    }
+}
@@ -65,10 +65,11 @@ public class Address {
     @Column(columnDefinition = "TEXT")
     private String instructions;
 
-    @Column(precision = 10, scale = 6)
+    // Floating point columns take no precision or scale
+    @Column
     private Double latitude;
 
-    @Column(precision = 11, scale = 6)
+    @Column
     private Double longitude;
 
     @CreationTimestamp
@@ -1,5 +1,7 @@
 package com.github.ecommerce.entity;
 
+import com.github.ecommerce.entity.converter.MoneyConverter;
+import com.github.ecommerce.util.Money;
 import jakarta.persistence.*;
 import lombok.*;
 import org.hibernate.annotations.CreationTimestamp;
@@ -8,7 +10,10 @@ import org.hibernate.annotations.UpdateTimestamp;
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.UUID;
 
 @Entity
@@ -21,7 +26,7 @@ import java.util.UUID;
 @NoArgsConstructor
 @AllArgsConstructor
 @EqualsAndHashCode(of = "id")
-@ToString(exclude = {"user", "items"})
+@ToString(exclude = {"user", "items", "lineIndex", "runningSubtotal"})
 public class Cart {
 
     @Id
@@ -43,16 +48,18 @@ public class Cart {
     @Builder.Default
     private Integer totalItems = 0;
 
+    @Convert(converter = MoneyConverter.class)
     @Column(name = "total_amount", precision = 10, scale = 2)
     @Builder.Default
-    private BigDecimal totalAmount = BigDecimal.ZERO;
+    private Money totalAmount = Money.zero(Money.DEFAULT_CURRENCY);
 
     @Column(name = "coupon_code", length = 50)
     private String couponCode;
 
+    @Convert(converter = MoneyConverter.class)
     @Column(name = "discount_amount", precision = 10, scale = 2)
     @Builder.Default
-    private BigDecimal discountAmount = BigDecimal.ZERO;
+    private Money discountAmount = Money.zero(Money.DEFAULT_CURRENCY);
 
     @Column(name = "expires_at")
     private LocalDateTime expiresAt;
@@ -65,6 +72,18 @@ public class Cart {
     @Column(name = "updated_at", nullable = false)
     private LocalDateTime updatedAt;
 
+    // Lines by product, then by variant (null for none), with their position in items; built on first use
+    @Transient
+    @Getter(AccessLevel.NONE)
+    @Setter(AccessLevel.NONE)
+    private Map<Long, Map<Long, Line>> lineIndex;
+
+    // Minor units (cents), so line edits add and subtract longs instead of BigDecimals
+    @Transient
+    @Getter(AccessLevel.NONE)
+    @Setter(AccessLevel.NONE)
+    private long runningSubtotal;
+
     @PrePersist
     public void prePersist() {
         if (sessionId == null && user == null) {
@@ -76,6 +95,7 @@ public class Cart {
         updateTotals();
     }
 
+    // Lines may have been edited directly (CartItem setters, setItems), so persisted totals are recomputed
     @PreUpdate
     public void preUpdate() {
         updateTotals();
@@ -83,56 +103,108 @@ public class Cart {
 
     // Helper methods
     public void updateTotals() {
-        this.totalItems = items.stream()
-            .mapToInt(CartItem::getQuantity)
-            .sum();
-        
-        this.totalAmount = items.stream()
-            .map(CartItem::getTotalPrice)
-            .reduce(BigDecimal.ZERO, BigDecimal::add)
-            .subtract(discountAmount != null ? discountAmount : BigDecimal.ZERO);
+        // Full recompute; line edits below keep the totals current incrementally between flushes
+        lineIndex = new HashMap<>(Math.max(16, items.size() * 2));
+        int count = 0;
+        long subtotal = 0;
+        for (int i = 0; i < items.size(); i++) {
+            CartItem item = items.get(i);
+            index(item, i);
+            count += item.getQuantity();
+            subtotal += item.getTotalMinor();
+        }
+        this.totalItems = count;
+        this.runningSubtotal = subtotal;
+        refreshTotals();
     }
 
     public void addItem(CartItem item) {
-        // Check if product already exists in cart
-        CartItem existingItem = items.stream()
-            .filter(i -> i.getProduct().getId().equals(item.getProduct().getId()))
-            .findFirst()
-            .orElse(null);
-
-        if (existingItem != null) {
-            existingItem.setQuantity(existingItem.getQuantity() + item.getQuantity());
+        ensureIndexed();
+        Line existing = line(productIdOf(item), variantIdOf(item));
+
+        if (existing != null) {
+            setLineQuantity(existing.item, existing.item.getQuantity() + item.getQuantity());
         } else {
             item.setCart(this);
             items.add(item);
+            index(item, items.size() - 1);
+            this.totalItems += item.getQuantity();
+            this.runningSubtotal += item.getTotalMinor();
         }
-        updateTotals();
+        refreshTotals();
     }
 
+    // Removes every line of the product, whatever its variant
     public void removeItem(Long productId) {
-        items.removeIf(item -> item.getProduct().getId().equals(productId));
-        updateTotals();
+        ensureIndexed();
+        Map<Long, Line> lines = lineIndex.get(productId);
+        if (lines == null) {
+            return;
+        }
+        // Unlinked while still indexed, so a line of this product moved into a freed slot is found
+        lines.values().forEach(this::unlink);
+        lineIndex.remove(productId);
+        refreshTotals();
+    }
+
+    public void removeItem(Long productId, Long variantId) {
+        ensureIndexed();
+        Map<Long, Line> lines = lineIndex.get(productId);
+        Line line = lines != null ? lines.get(variantId) : null;
+        if (line != null) {
+            unlink(line);
+            lines.remove(variantId);
+            if (lines.isEmpty()) {
+                lineIndex.remove(productId);
+            }
+            refreshTotals();
+        }
     }
 
+    // Updates the first line of the product, whatever its variant
     public void updateItemQuantity(Long productId, Integer quantity) {
-        items.stream()
-            .filter(item -> item.getProduct().getId().equals(productId))
-            .findFirst()
-            .ifPresent(item -> {
-                if (quantity <= 0) {
-                    items.remove(item);
-                } else {
-                    item.setQuantity(quantity);
-                }
-            });
-        updateTotals();
+        ensureIndexed();
+        Map<Long, Line> lines = lineIndex.get(productId);
+        if (lines != null) {
+            CartItem first = lines.values().iterator().next().item;
+            updateItemQuantity(productId, variantIdOf(first), quantity);
+        }
+    }
+
+    public void updateItemQuantity(Long productId, Long variantId, Integer quantity) {
+        ensureIndexed();
+        Line line = line(productId, variantId);
+        if (line == null) {
+            return;
+        }
+        if (quantity <= 0) {
+            removeItem(productId, variantId);
+        } else {
+            setLineQuantity(line.item, quantity);
+            refreshTotals();
+        }
+    }
+
+    // A replaced list invalidates the line positions, so the index is rebuilt on next use
+    public void setItems(List<CartItem> items) {
+        this.items = items;
+        this.lineIndex = null;
+    }
+
+    public CartItem findItem(Long productId, Long variantId) {
+        ensureIndexed();
+        Line line = line(productId, variantId);
+        return line != null ? line.item : null;
     }
 
     public void clear() {
         items.clear();
         couponCode = null;
-        discountAmount = BigDecimal.ZERO;
-        updateTotals();
+        discountAmount = Money.zero(Money.DEFAULT_CURRENCY);
+        lineIndex = new HashMap<>();
+        totalItems = 0;
+        runningSubtotal = 0;
+        refreshTotals();
     }
 
     public boolean isEmpty() {
@@ -144,21 +216,22 @@ public class Cart {
     }
 
     public BigDecimal getSubtotal() {
-        return items.stream()
-            .map(CartItem::getTotalPrice)
-            .reduce(BigDecimal.ZERO, BigDecimal::add);
+        ensureIndexed();
+        return Money.toDecimal(runningSubtotal);
     }
 
     public void applyCoupon(String couponCode, BigDecimal discountAmount) {
         this.couponCode = couponCode;
-        this.discountAmount = discountAmount;
-        updateTotals();
+        this.discountAmount = Money.of(discountAmount, Money.DEFAULT_CURRENCY);
+        ensureIndexed();
+        refreshTotals();
     }
 
     public void removeCoupon() {
         this.couponCode = null;
-        this.discountAmount = BigDecimal.ZERO;
-        updateTotals();
+        this.discountAmount = Money.zero(Money.DEFAULT_CURRENCY);
+        ensureIndexed();
+        refreshTotals();
     }
 
     public void mergeWith(Cart otherCart) {
@@ -166,6 +239,7 @@ public class Cart {
             otherCart.getItems().forEach(item -> {
                 CartItem newItem = CartItem.builder()
                     .product(item.getProduct())
+                    .productVariant(item.getProductVariant())
                     .quantity(item.getQuantity())
                     .price(item.getPrice())
                     .build();
@@ -173,4 +247,64 @@ public class Cart {
             });
         }
     }
-}
\ No newline at end of file
+
+    private void setLineQuantity(CartItem item, int quantity) {
+        long before = item.getTotalMinor();
+        this.totalItems += quantity - item.getQuantity();
+        item.setQuantity(quantity);
+        this.runningSubtotal += item.getTotalMinor() - before;
+    }
+
+    private void index(CartItem item, int position) {
+        lineIndex.computeIfAbsent(productIdOf(item), productId -> new LinkedHashMap<>(4))
+            .put(variantIdOf(item), new Line(item, position));
+    }
+
+    private Line line(Long productId, Long variantId) {
+        Map<Long, Line> lines = lineIndex.get(productId);
+        return lines != null ? lines.get(variantId) : null;
+    }
+
+    // Takes the line out of items by moving the last line into its slot; the index entry is the caller's
+    private void unlink(Line line) {
+        int last = items.size() - 1;
+        if (line.position != last) {
+            CartItem moved = items.get(last);
+            items.set(line.position, moved);
+            line(productIdOf(moved), variantIdOf(moved)).position = line.position;
+        }
+        items.remove(last);
+        this.totalItems -= line.item.getQuantity();
+        this.runningSubtotal -= line.item.getTotalMinor();
+    }
+
+    private static Long productIdOf(CartItem item) {
+        return item.getProduct().getId();
+    }
+
+    private static Long variantIdOf(CartItem item) {
+        return item.getProductVariant() != null ? item.getProductVariant().getId() : null;
+    }
+
+    private void ensureIndexed() {
+        if (lineIndex == null) {
+            updateTotals();
+        }
+    }
+
+    private void refreshTotals() {
+        long discount = discountAmount != null ? discountAmount.getMinorUnits() : 0;
+        this.totalAmount = Money.ofMinor(runningSubtotal - discount, Money.DEFAULT_CURRENCY);
+    }
+
+    private static final class Line {
+
+        private final CartItem item;
+        private int position;
+
+        private Line(CartItem item, int position) {
+            this.item = item;
+            this.position = position;
+        }
+    }
+}
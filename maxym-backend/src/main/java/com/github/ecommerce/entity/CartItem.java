@@ -1,5 +1,8 @@
 package com.github.ecommerce.entity;
 
+import com.github.ecommerce.entity.converter.MoneyConverter;
+import com.github.ecommerce.entity.id.SnowflakeId;
+import com.github.ecommerce.util.Money;
 import jakarta.persistence.*;
 import lombok.*;
 import org.hibernate.annotations.CreationTimestamp;
@@ -22,7 +25,7 @@ import java.time.LocalDateTime;
 public class CartItem {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @SnowflakeId
     private Long id;
 
     @ManyToOne(fetch = FetchType.LAZY)
@@ -41,12 +44,14 @@ public class CartItem {
     @Builder.Default
     private Integer quantity = 1;
 
+    @Convert(converter = MoneyConverter.class)
     @Column(nullable = false, precision = 10, scale = 2)
-    private BigDecimal price;
+    private Money price;
 
+    @Convert(converter = MoneyConverter.class)
     @Column(name = "discount_amount", precision = 10, scale = 2)
     @Builder.Default
-    private BigDecimal discountAmount = BigDecimal.ZERO;
+    private Money discountAmount = Money.zero(Money.DEFAULT_CURRENCY);
 
     @Column(columnDefinition = "TEXT")
     private String notes;
@@ -63,18 +68,29 @@ public class CartItem {
     @PreUpdate
     public void prePersistOrUpdate() {
         if (price == null && product != null) {
-            price = product.getPrice();
+            price = Money.of(product.getPrice(), Money.DEFAULT_CURRENCY);
         }
     }
 
     // Helper methods
     public BigDecimal getTotalPrice() {
-        BigDecimal itemTotal = price.multiply(new BigDecimal(quantity));
-        return itemTotal.subtract(discountAmount != null ? discountAmount : BigDecimal.ZERO);
+        return Money.toDecimal(getTotalMinor());
+    }
+
+    // Line total in minor units, for allocation-free accumulation in Cart
+    public long getTotalMinor() {
+        // The price is filled in on persist, so a new line may not have one yet
+        long unit = price != null ? price.getMinorUnits() : 0;
+        long discount = discountAmount != null ? discountAmount.getMinorUnits() : 0;
+        return Math.multiplyExact(unit, quantity.longValue()) - discount;
     }
 
     public BigDecimal getUnitPrice() {
-        return price;
+        return price != null ? price.toBigDecimal() : null;
+    }
+
+    public BigDecimal getDiscount() {
+        return discountAmount != null ? discountAmount.toBigDecimal() : BigDecimal.ZERO;
     }
 
     public boolean isAvailable() {
@@ -0,0 +1,76 @@
+package com.github.ecommerce.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+import org.hibernate.annotations.CreationTimestamp;
+import org.hibernate.annotations.UpdateTimestamp;
+
+import java.time.LocalDateTime;
+
+@Entity
+@Table(name = "checkout_requests", indexes = {
+    @Index(name = "idx_checkout_idempotency_key", columnList = "idempotency_key", unique = true),
+    @Index(name = "idx_checkout_status", columnList = "status,updated_at"),
+    @Index(name = "idx_checkout_order", columnList = "order_id")
+})
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@EqualsAndHashCode(of = "id")
+public class CheckoutRequest {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "idempotency_key", nullable = false, unique = true, length = 100)
+    private String idempotencyKey;
+
+    @Column(name = "user_id", nullable = false)
+    private Long userId;
+
+    @Column(name = "cart_id", nullable = false)
+    private Long cartId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "payment_method", nullable = false, length = 20)
+    private Payment.PaymentMethod paymentMethod;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 20)
+    @Builder.Default
+    private CheckoutStatus status = CheckoutStatus.RECEIVED;
+
+    @Column(name = "order_id")
+    private Long orderId;
+
+    @Column(name = "order_number", length = 50)
+    private String orderNumber;
+
+    @Column(name = "failure_reason", columnDefinition = "TEXT")
+    private String failureReason;
+
+    @CreationTimestamp
+    @Column(name = "created_at", nullable = false, updatable = false)
+    private LocalDateTime createdAt;
+
+    @UpdateTimestamp
+    @Column(name = "updated_at", nullable = false)
+    private LocalDateTime updatedAt;
+
+    // Helper methods
+    public boolean isFinished() {
+        return status == CheckoutStatus.COMPLETED || status == CheckoutStatus.FAILED;
+    }
+
+    public enum CheckoutStatus {
+        RECEIVED,
+        VALIDATED,
+        RESERVED,
+        PRICED,
+        PERSISTED,
+        COMPLETED,
+        FAILED
+    }
+}
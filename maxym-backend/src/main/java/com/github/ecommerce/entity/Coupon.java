@@ -11,7 +11,8 @@ import java.time.LocalDateTime;
 @Table(name = "coupons", indexes = {
     @Index(name = "idx_coupon_user", columnList = "user_id"),
     @Index(name = "idx_coupon_order", columnList = "order_id"),
-    @Index(name = "idx_coupon_discount", columnList = "discount_id")
+    // Also counts one user's redemptions of a discount, see CouponRedemptionService
+    @Index(name = "idx_coupon_discount", columnList = "discount_id, user_id")
 })
 @Data
 @Builder
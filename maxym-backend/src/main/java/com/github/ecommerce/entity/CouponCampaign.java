@@ -0,0 +1,51 @@
+package com.github.ecommerce.entity;
+
+import com.github.ecommerce.entity.id.SnowflakeId;
+import jakarta.persistence.*;
+import lombok.*;
+import org.hibernate.annotations.CreationTimestamp;
+
+import java.time.LocalDateTime;
+
+/**
+ * A batch of single-use codes for one {@link Discount}. Codes are derived from a sequence
+ * number through a permutation keyed by {@code secret}, so they are unique by construction and
+ * can be validated without a lookup, see
+ * {@link com.github.ecommerce.service.coupon.CouponCodeFormat}. {@code issued} is the next
+ * free sequence number.
+ */
+@Entity
+@Table(name = "coupon_campaigns", uniqueConstraints = {
+    @UniqueConstraint(name = "uk_coupon_campaign_prefix", columnNames = "prefix")
+})
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@EqualsAndHashCode(of = "id")
+@ToString(exclude = {"discount", "secret"})
+public class CouponCampaign {
+
+    @Id
+    @SnowflakeId
+    private Long id;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "discount_id", nullable = false)
+    private Discount discount;
+
+    @Column(nullable = false, length = 12)
+    private String prefix;
+
+    // 128-bit permutation key as hex; anyone who has it can enumerate valid codes
+    @Column(nullable = false, length = 32)
+    private String secret;
+
+    @Column(nullable = false)
+    @Builder.Default
+    private Long issued = 0L;
+
+    @CreationTimestamp
+    @Column(name = "created_at", nullable = false, updatable = false)
+    private LocalDateTime createdAt;
+}
@@ -0,0 +1,51 @@
+package com.github.ecommerce.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.LocalDateTime;
+
+/**
+ * One issued campaign code. Rows are bulk-inserted and redeemed with JDBC; the entity only
+ * defines the table. A code is used once: redemption sets {@code redeemed_at} with a
+ * conditional update that only matches an unredeemed row. Releasing it clears that again
+ * and stamps {@code released_at}, which other nodes pick up to make the code redeemable.
+ */
+@Entity
+@Table(name = "coupon_codes", uniqueConstraints = {
+    @UniqueConstraint(name = "uk_coupon_code", columnNames = "code"),
+    @UniqueConstraint(name = "uk_coupon_code_sequence", columnNames = {"campaign_id", "sequence"})
+}, indexes = {
+    @Index(name = "idx_coupon_code_redeemed", columnList = "redeemed_at"),
+    @Index(name = "idx_coupon_code_released", columnList = "released_at"),
+    @Index(name = "idx_coupon_code_order", columnList = "order_id")
+})
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@EqualsAndHashCode(of = "id")
+public class CouponCode {
+
+    // Snowflake id assigned at issue
+    @Id
+    private Long id;
+
+    @Column(name = "campaign_id", nullable = false)
+    private Long campaignId;
+
+    @Column(nullable = false)
+    private Long sequence;
+
+    @Column(nullable = false, length = 32)
+    private String code;
+
+    @Column(name = "redeemed_at")
+    private LocalDateTime redeemedAt;
+
+    @Column(name = "released_at")
+    private LocalDateTime releasedAt;
+
+    @Column(name = "order_id")
+    private Long orderId;
+}
@@ -1,5 +1,7 @@
 package com.github.ecommerce.entity;
 
+import com.github.ecommerce.entity.listener.DiscountChangeListener;
+import com.github.ecommerce.util.Money;
 import jakarta.persistence.*;
 import lombok.*;
 import org.hibernate.annotations.CreationTimestamp;
@@ -11,6 +13,7 @@ import java.util.HashSet;
 import java.util.Set;
 
 @Entity
+@EntityListeners(DiscountChangeListener.class)
 @Table(name = "discounts", indexes = {
     @Index(name = "idx_discount_code", columnList = "code", unique = true),
     @Index(name = "idx_discount_active", columnList = "active"),
@@ -107,7 +110,11 @@ public class Discount {
 
     // Helper methods
     public boolean isValid() {
-        LocalDateTime now = LocalDateTime.now();
+        return isValidAt(LocalDateTime.now());
+    }
+
+    // For loops over many lines: read the clock once and pass it in
+    public boolean isValidAt(LocalDateTime now) {
         return active && 
                now.isAfter(startDate) && 
                (endDate == null || now.isBefore(endDate)) &&
@@ -120,28 +127,49 @@ public class Discount {
     }
 
     public BigDecimal calculateDiscount(BigDecimal amount) {
-        if (!isValid() || amount.compareTo(minimumPurchaseAmount != null ? minimumPurchaseAmount : BigDecimal.ZERO) < 0) {
-            return BigDecimal.ZERO;
+        return Money.toDecimal(calculateDiscountMinor(Money.toMinor(amount)));
+    }
+
+    // Percentages are rounded half up to the cent
+    public long calculateDiscountMinor(long amountMinor) {
+        if (!isValid()) {
+            return 0;
+        }
+        return discountMinor(type, Money.toMinor(value), Money.toMinor(minimumPurchaseAmount),
+            maximumDiscountAmount != null ? Money.toMinor(maximumDiscountAmount) : null, amountMinor);
+    }
+
+    /**
+     * The discount math without the validity check, shared with the compiled pricing rules.
+     * {@code valueMinor} is the value scaled by 100: basis points for a percentage, minor
+     * units for a fixed amount.
+     */
+    public static long discountMinor(DiscountType type, long valueMinor, long minimumPurchaseMinor,
+                                     Long maximumDiscountMinor, long amountMinor) {
+        if (amountMinor < minimumPurchaseMinor) {
+            return 0;
         }
 
-        BigDecimal discount;
+        long discount;
         if (type == DiscountType.PERCENTAGE) {
-            discount = amount.multiply(value).divide(new BigDecimal("100"));
+            discount = Money.percentageMinor(amountMinor, valueMinor, Money.RoundingPolicy.HALF_UP);
         } else {
-            discount = value;
+            discount = valueMinor;
         }
 
-        if (maximumDiscountAmount != null && discount.compareTo(maximumDiscountAmount) > 0) {
-            discount = maximumDiscountAmount;
+        if (maximumDiscountMinor != null) {
+            discount = Math.min(discount, maximumDiscountMinor);
         }
 
-        return discount.min(amount);
+        return Math.min(discount, amountMinor);
     }
 
+    // Not safe against concurrent redemptions; checkout goes through CouponRedemptionService
     public void incrementUsage() {
         this.usageCount++;
     }
 
+    // Initializes the lazy target sets; hot paths use DiscountEligibilityIndex instead
     public boolean appliesToProduct(Product product) {
         switch (appliesTo) {
             case ALL:
@@ -1,11 +1,17 @@
+package com.github.ecommerce.entity;
+
+import com.github.ecommerce.entity.listener.InventoryJournalListener;
 import jakarta.persistence.*;
 import lombok.*;
 import org.hibernate.annotations.CreationTimestamp;
 import org.hibernate.annotations.UpdateTimestamp;
 
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
 
 @Entity
+@EntityListeners(InventoryJournalListener.class)
 @Table(name = "inventory", indexes = {
     @Index(name = "idx_inventory_product", columnList = "product_id"),
     @Index(name = "idx_inventory_variant", columnList = "product_variant_id"),
@@ -16,7 +22,7 @@ import java.time.LocalDateTime;
 @NoArgsConstructor
 @AllArgsConstructor
 @EqualsAndHashCode(of = "id")
-@ToString(exclude = {"product", "productVariant"})
+@ToString(exclude = {"product", "productVariant", "pendingMovements"})
 public class Inventory {
 
     @Id
@@ -38,15 +44,16 @@ public class Inventory {
     @Builder.Default
     private String warehouseLocation = "MAIN";
 
-    @Column(nullable = false)
+    // The stock level columns hold the opening level only; the live level is the journal's
+    @Column(nullable = false, updatable = false)
     @Builder.Default
     private Integer quantity = 0;
 
-    @Column(name = "reserved_quantity", nullable = false)
+    @Column(name = "reserved_quantity", nullable = false, updatable = false)
     @Builder.Default
     private Integer reservedQuantity = 0;
 
-    @Column(name = "available_quantity", nullable = false)
+    @Column(name = "available_quantity", nullable = false, updatable = false)
     @Builder.Default
     private Integer availableQuantity = 0;
 
@@ -74,14 +81,14 @@ public class Inventory {
     private Integer backorderQuantity = 0;
 
     @Enumerated(EnumType.STRING)
-    @Column(name = "stock_status", nullable = false, length = 20)
+    @Column(name = "stock_status", nullable = false, length = 20, updatable = false)
     @Builder.Default
     private StockStatus stockStatus = StockStatus.OUT_OF_STOCK;
 
-    @Column(name = "last_restocked_at")
+    @Column(name = "last_restocked_at", updatable = false)
     private LocalDateTime lastRestockedAt;
 
-    @Column(name = "last_sold_at")
+    @Column(name = "last_sold_at", updatable = false)
     private LocalDateTime lastSoldAt;
 
     @Column(name = "stock_alert_sent_at")
@@ -95,6 +102,11 @@ public class Inventory {
     @Column(name = "updated_at", nullable = false)
     private LocalDateTime updatedAt;
 
+    // Movements produced by the mutators below, appended to the journal when the transaction commits
+    @Transient
+    @Builder.Default
+    private List<StockMovement> pendingMovements = new ArrayList<>();
+
     @PrePersist
     @PreUpdate
     public void updateCalculatedFields() {
@@ -131,32 +143,60 @@ public class Inventory {
             throw new IllegalArgumentException("Insufficient stock available");
         }
         this.reservedQuantity += quantity;
+        pendingMovements.add(StockMovement.reservation(id, quantity, null));
         updateCalculatedFields();
     }
 
     public void releaseStock(int quantity) {
-        this.reservedQuantity = Math.max(0, this.reservedQuantity - quantity);
+        int released = Math.min(quantity, this.reservedQuantity);
+        this.reservedQuantity -= released;
+        pendingMovements.add(StockMovement.release(id, released, null));
         updateCalculatedFields();
     }
 
     public void commitStock(int quantity) {
+        int released = Math.min(quantity, this.reservedQuantity);
         this.quantity -= quantity;
-        this.reservedQuantity = Math.max(0, this.reservedQuantity - quantity);
+        this.reservedQuantity -= released;
         this.lastSoldAt = LocalDateTime.now();
+        pendingMovements.add(StockMovement.sale(id, quantity, released, null));
         updateCalculatedFields();
     }
 
     public void addStock(int quantity) {
         this.quantity += quantity;
         this.lastRestockedAt = LocalDateTime.now();
+        pendingMovements.add(StockMovement.receipt(id, quantity, null));
         updateCalculatedFields();
     }
 
     public void adjustStock(int newQuantity) {
+        int delta = newQuantity - this.quantity;
         this.quantity = newQuantity;
+        pendingMovements.add(StockMovement.adjustment(id, delta, null));
+        updateCalculatedFields();
+    }
+
+    // Live level from the journal; not a change, so nothing is queued
+    public void applyLevel(int quantity, int reservedQuantity) {
+        this.quantity = quantity;
+        this.reservedQuantity = reservedQuantity;
         updateCalculatedFields();
     }
 
+    public List<StockMovement> drainPendingMovements() {
+        List<StockMovement> drained = new ArrayList<>(pendingMovements);
+        pendingMovements.clear();
+        return drained;
+    }
+
+    public String getSku() {
+        if (productVariant != null && productVariant.getSku() != null) {
+            return productVariant.getSku();
+        }
+        return product != null ? product.getSku() : null;
+    }
+
     public enum StockStatus {
         IN_STOCK,
         LOW_STOCK,
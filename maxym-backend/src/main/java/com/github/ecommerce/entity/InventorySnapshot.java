@@ -0,0 +1,38 @@
+package com.github.ecommerce.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.LocalDateTime;
+
+@Entity
+@Table(name = "inventory_snapshots", indexes = {
+    @Index(name = "idx_inventory_snapshot_inventory", columnList = "inventory_id,taken_at"),
+    @Index(name = "idx_inventory_snapshot_movement", columnList = "last_movement_id")
+})
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@EqualsAndHashCode(of = "id")
+public class InventorySnapshot {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "inventory_id", nullable = false)
+    private Long inventoryId;
+
+    @Column(name = "last_movement_id", nullable = false)
+    private Long lastMovementId;
+
+    @Column(nullable = false)
+    private Integer quantity;
+
+    @Column(name = "reserved_quantity", nullable = false)
+    private Integer reservedQuantity;
+
+    @Column(name = "taken_at", nullable = false)
+    private LocalDateTime takenAt;
+}
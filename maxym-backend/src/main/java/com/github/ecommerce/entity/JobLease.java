@@ -0,0 +1,31 @@
+package com.github.ecommerce.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.LocalDateTime;
+
+/**
+ * Time-limited ownership of a background job across nodes, see
+ * {@link com.github.ecommerce.service.lease.JobLeaseStore}. Rows are written with JDBC; the
+ * entity only defines the table.
+ */
+@Entity
+@Table(name = "job_leases")
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@EqualsAndHashCode(of = "name")
+public class JobLease {
+
+    @Id
+    @Column(length = 50)
+    private String name;
+
+    @Column(length = 100)
+    private String owner;
+
+    @Column(name = "expires_at", nullable = false)
+    private LocalDateTime expiresAt;
+}
@@ -1,4 +1,9 @@
 package com.github.ecommerce.entity;
+import com.github.ecommerce.entity.id.SnowflakeId;
+import com.github.ecommerce.entity.listener.OrderEventListener;
+import com.github.ecommerce.entity.listener.OrderSummaryListener;
+import com.github.ecommerce.util.Money;
+import com.github.ecommerce.util.OrderNumberGenerator;
 import jakarta.persistence.*;
 import lombok.*;
 import org.hibernate.annotations.CreationTimestamp;
@@ -7,10 +12,14 @@ import org.hibernate.annotations.UpdateTimestamp;
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.EnumSet;
 import java.util.List;
-import java.util.UUID;
+import java.util.Map;
+import java.util.Set;
 
 @Entity
+@EntityListeners({OrderSummaryListener.class, OrderEventListener.class})
 @Table(name = "orders", indexes = {
     @Index(name = "idx_order_number", columnList = "order_number", unique = true),
     @Index(name = "idx_order_user", columnList = "user_id"),
@@ -26,7 +35,7 @@ import java.util.UUID;
 public class Order {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @SnowflakeId
     private Long id;
 
     @Column(name = "order_number", nullable = false, unique = true, length = 50)
@@ -135,6 +144,12 @@ public class Order {
     @Column(name = "refund_reason")
     private String refundReason;
 
+    // Status as last loaded or written, used to detect transitions for outbox events
+    @Transient
+    @Getter(AccessLevel.NONE)
+    @Setter(AccessLevel.NONE)
+    private OrderStatus persistedStatus;
+
     @PrePersist
     public void prePersist() {
         if (orderNumber == null) {
@@ -152,16 +167,27 @@ public class Order {
         updateStatusTimestamps();
     }
 
+    @PostLoad
+    public void postLoad() {
+        persistedStatus = status;
+    }
+
     // Helper methods
     private String generateOrderNumber() {
-        return "ORD-" + System.currentTimeMillis() + "-" + UUID.randomUUID().toString().substring(0, 8).toUpperCase();
+        return OrderNumberGenerator.getInstance().next();
     }
 
+    // Same minor units as getTotal(), so both round to the currency's fraction digits
     public void calculateTotalAmount() {
-        this.totalAmount = subtotalAmount
-            .add(taxAmount)
-            .add(shippingAmount)
-            .subtract(discountAmount != null ? discountAmount : BigDecimal.ZERO);
+        long total = Money.toMinor(subtotalAmount, currencyCode)
+            + Money.toMinor(taxAmount, currencyCode)
+            + Money.toMinor(shippingAmount, currencyCode)
+            - Money.toMinor(discountAmount, currencyCode);
+        this.totalAmount = Money.toDecimal(total, currencyCode);
+    }
+
+    public Money getTotal() {
+        return Money.of(totalAmount, currencyCode != null ? currencyCode : Money.DEFAULT_CURRENCY);
     }
 
     private void updateStatusTimestamps() {
@@ -185,6 +211,16 @@ public class Order {
         }
     }
 
+    /**
+     * Returns the status the database held before the current flush and records the current
+     * status as persisted. Returns null for a new order.
+     */
+    public OrderStatus acknowledgeStatus() {
+        OrderStatus previous = persistedStatus;
+        persistedStatus = status;
+        return previous;
+    }
+
     public boolean canBeCancelled() {
         return status == OrderStatus.PENDING || status == OrderStatus.PROCESSING;
     }
@@ -237,6 +273,31 @@ public class Order {
         DELIVERED,
         CANCELLED,
         REFUNDED,
-        FAILED
+        FAILED;
+
+        // Allowed status graph; CANCELLED, REFUNDED and FAILED are terminal
+        private static final Map<OrderStatus, Set<OrderStatus>> TRANSITIONS = new EnumMap<>(OrderStatus.class);
+
+        static {
+            TRANSITIONS.put(PENDING, EnumSet.of(PROCESSING, PAID, CANCELLED, FAILED));
+            TRANSITIONS.put(PROCESSING, EnumSet.of(PAID, SHIPPED, CANCELLED, FAILED));
+            TRANSITIONS.put(PAID, EnumSet.of(PROCESSING, SHIPPED, REFUNDED));
+            TRANSITIONS.put(SHIPPED, EnumSet.of(DELIVERED));
+            TRANSITIONS.put(DELIVERED, EnumSet.of(REFUNDED));
+        }
+
+        public boolean canTransitionTo(OrderStatus target) {
+            return TRANSITIONS.getOrDefault(this, Set.of()).contains(target);
+        }
+
+        public static Set<OrderStatus> sourcesOf(OrderStatus target) {
+            Set<OrderStatus> sources = EnumSet.noneOf(OrderStatus.class);
+            TRANSITIONS.forEach((source, targets) -> {
+                if (targets.contains(target)) {
+                    sources.add(source);
+                }
+            });
+            return sources;
+        }
     }
 }
\ No newline at end of file
@@ -1,11 +1,15 @@
 package com.github.ecommerce.entity;
 
+import com.github.ecommerce.entity.id.SnowflakeId;
+import com.github.ecommerce.entity.listener.OrderSummaryListener;
+import com.github.ecommerce.util.Money;
 import jakarta.persistence.*;
 import lombok.*;
 
 import java.math.BigDecimal;
 
 @Entity
+@EntityListeners(OrderSummaryListener.class)
 @Table(name = "order_items", indexes = {
     @Index(name = "idx_order_item_order", columnList = "order_id"),
     @Index(name = "idx_order_item_product", columnList = "product_id")
@@ -19,7 +23,7 @@ import java.math.BigDecimal;
 public class OrderItem {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @SnowflakeId
     private Long id;
 
     @ManyToOne(fetch = FetchType.LAZY)
@@ -66,9 +70,10 @@ public class OrderItem {
     @PrePersist
     @PreUpdate
     public void calculateTotalPrice() {
-        BigDecimal subtotal = unitPrice.multiply(new BigDecimal(quantity));
-        BigDecimal afterDiscount = subtotal.subtract(discountAmount != null ? discountAmount : BigDecimal.ZERO);
-        this.totalPrice = afterDiscount.add(taxAmount != null ? taxAmount : BigDecimal.ZERO);
+        String currencyCode = order != null ? order.getCurrencyCode() : null;
+        long subtotal = Math.multiplyExact(Money.toMinor(unitPrice, currencyCode), quantity.longValue());
+        this.totalPrice = Money.toDecimal(subtotal - Money.toMinor(discountAmount, currencyCode)
+            + Money.toMinor(taxAmount, currencyCode), currencyCode);
     }
 
     // Helper methods
@@ -84,8 +89,8 @@ public class OrderItem {
             .productSku(cartItem.getProduct().getSku())
             .productImageUrl(cartItem.getProductImageUrl())
             .quantity(cartItem.getQuantity())
-            .unitPrice(cartItem.getPrice())
-            .discountAmount(cartItem.getDiscountAmount())
+            .unitPrice(cartItem.getUnitPrice())
+            .discountAmount(cartItem.getDiscount())
             .build();
     }
 }
\ No newline at end of file
@@ -0,0 +1,71 @@
+package com.github.ecommerce.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * Denormalized row per order for the customer order history. Written by
+ * {@link com.github.ecommerce.service.OrderSummaryProjector} in the same transaction as the
+ * order, payment, shipping or order item change, and never updated through JPA.
+ */
+@Entity
+@Table(name = "order_summaries", indexes = {
+    @Index(name = "idx_order_summary_user_created", columnList = "user_id, created_at DESC, order_id DESC")
+})
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@EqualsAndHashCode(of = "orderId")
+public class OrderSummary {
+
+    @Id
+    @Column(name = "order_id")
+    private Long orderId;
+
+    @Column(name = "user_id", nullable = false)
+    private Long userId;
+
+    @Column(name = "order_number", nullable = false, length = 50)
+    private String orderNumber;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 20)
+    private Order.OrderStatus status;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "payment_status", length = 20)
+    private Payment.PaymentStatus paymentStatus;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "shipping_status", length = 20)
+    private Shipping.ShippingStatus shippingStatus;
+
+    @Column(name = "total_amount", nullable = false, precision = 10, scale = 2)
+    private BigDecimal totalAmount;
+
+    @Column(name = "currency_code", length = 3)
+    private String currencyCode;
+
+    @Column(name = "item_count", nullable = false)
+    @Builder.Default
+    private Integer itemCount = 0;
+
+    @Column(name = "first_item_name", length = 200)
+    private String firstItemName;
+
+    @Column(name = "first_item_image_url")
+    private String firstItemImageUrl;
+
+    @Column(name = "tracking_number", length = 100)
+    private String trackingNumber;
+
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt;
+
+    @Column(name = "updated_at", nullable = false)
+    private LocalDateTime updatedAt;
+}
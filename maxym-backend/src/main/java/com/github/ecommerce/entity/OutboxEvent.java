@@ -0,0 +1,57 @@
+package com.github.ecommerce.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.LocalDateTime;
+
+/**
+ * Domain event recorded in the same transaction as the state change that produced it.
+ * Rows are written with JDBC by {@link com.github.ecommerce.service.outbox.OutboxWriter},
+ * numbered in commit order just before that transaction commits, and drained in that order
+ * by {@link com.github.ecommerce.scheduler.OutboxRelay}.
+ */
+@Entity
+@Table(name = "outbox_events", indexes = {
+    @Index(name = "idx_outbox_event_created", columnList = "created_at"),
+    @Index(name = "idx_outbox_event_sequence", columnList = "commit_sequence", unique = true)
+})
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@EqualsAndHashCode(of = "id")
+public class OutboxEvent {
+
+    public static final String AGGREGATE_ORDER = "order";
+    public static final String AGGREGATE_INVENTORY = "inventory";
+    public static final String AGGREGATE_ORDER_BATCH = "order_batch";
+
+    public static final String ORDER_CREATED = "ORDER_CREATED";
+    public static final String STOCK_CHANGED = "STOCK_CHANGED";
+    // One event per bulk transition chunk, listing every order it moved
+    public static final String ORDER_BATCH_TRANSITIONED = "ORDER_BATCH_TRANSITIONED";
+
+    // Snowflake id assigned by the writer, so ids follow creation time
+    @Id
+    private Long id;
+
+    @Column(name = "aggregate_type", nullable = false, length = 50)
+    private String aggregateType;
+
+    @Column(name = "aggregate_id", nullable = false, length = 100)
+    private String aggregateId;
+
+    @Column(name = "event_type", nullable = false, length = 50)
+    private String eventType;
+
+    @Column(columnDefinition = "TEXT", nullable = false)
+    private String payload;
+
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt;
+
+    // Position in commit order; relay and consumer offsets count in it. Null only until commit
+    @Column(name = "commit_sequence")
+    private Long commitSequence;
+}
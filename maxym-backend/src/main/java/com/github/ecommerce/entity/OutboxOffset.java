@@ -0,0 +1,31 @@
+package com.github.ecommerce.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.LocalDateTime;
+
+/**
+ * Last outbox commit sequence handled by the relay or by an in-process consumer. The
+ * {@code sequence} row is the counter those numbers are taken from.
+ */
+@Entity
+@Table(name = "outbox_offsets")
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@EqualsAndHashCode(of = "consumer")
+public class OutboxOffset {
+
+    @Id
+    @Column(length = 100)
+    private String consumer;
+
+    @Column(name = "last_event_id", nullable = false)
+    @Builder.Default
+    private Long lastEventId = 0L;
+
+    @Column(name = "updated_at", nullable = false)
+    private LocalDateTime updatedAt;
+}
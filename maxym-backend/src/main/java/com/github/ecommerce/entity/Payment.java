@@ -1,7 +1,10 @@
 package com.github.ecommerce.entity;
 
+import com.github.ecommerce.entity.id.SnowflakeId;
+import com.github.ecommerce.entity.listener.OrderSummaryListener;
 import jakarta.persistence.*;
 import lombok.*;
+import org.hibernate.annotations.ColumnDefault;
 import org.hibernate.annotations.CreationTimestamp;
 import org.hibernate.annotations.UpdateTimestamp;
 
@@ -9,10 +12,12 @@ import java.math.BigDecimal;
 import java.time.LocalDateTime;
 
 @Entity
+@EntityListeners(OrderSummaryListener.class)
 @Table(name = "payments", indexes = {
     @Index(name = "idx_payment_order", columnList = "order_id"),
     @Index(name = "idx_payment_transaction", columnList = "transaction_id"),
-    @Index(name = "idx_payment_status", columnList = "status")
+    @Index(name = "idx_payment_status", columnList = "status"),
+    @Index(name = "idx_payment_retry", columnList = "next_retry_at, id")
 })
 @Data
 @Builder
@@ -23,7 +28,7 @@ import java.time.LocalDateTime;
 public class Payment {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @SnowflakeId
     private Long id;
 
     @OneToOne(fetch = FetchType.LAZY)
@@ -45,6 +50,7 @@ public class Payment {
     @Builder.Default
     private String currencyCode = "EUR";
 
+    // Binary collation from V4: provider ids are case-sensitive, and reconciliation merges this index against String order
     @Column(name = "transaction_id", unique = true, length = 100)
     private String transactionId;
 
@@ -78,6 +84,16 @@ public class Payment {
     @Column(name = "refund_reason", columnDefinition = "TEXT")
     private String refundReason;
 
+    // Retries made by the payment retry scheduler, counted against its per-payment budget
+    @Column(name = "retry_attempts", nullable = false)
+    @ColumnDefault("0")
+    @Builder.Default
+    private Integer retryAttempts = 0;
+
+    // When the retry scheduler should look at the payment again; null when nothing is pending
+    @Column(name = "next_retry_at")
+    private LocalDateTime nextRetryAt;
+
     @CreationTimestamp
     @Column(name = "created_at", nullable = false, updatable = false)
     private LocalDateTime createdAt;
@@ -150,12 +166,28 @@ public class Payment {
     }
 
     public enum PaymentStatus {
-        PENDING,
-        PROCESSING,
-        COMPLETED,
-        FAILED,
-        CANCELLED,
-        REFUNDED,
-        PARTIALLY_REFUNDED
+        PENDING(0),
+        PROCESSING(1),
+        COMPLETED(2),
+        FAILED(2),
+        CANCELLED(2),
+        REFUNDED(4),
+        PARTIALLY_REFUNDED(3);
+
+        // Position in the payment lifecycle; the three outcomes of a charge share a stage
+        private final int stage;
+
+        PaymentStatus(int stage) {
+            this.stage = stage;
+        }
+
+        public boolean supersedes(PaymentStatus current) {
+            return stage > current.stage;
+        }
+
+        // Still waiting for the gateway to decide
+        public boolean isOpen() {
+            return this == PENDING || this == PROCESSING;
+        }
     }
 }
\ No newline at end of file
@@ -1,5 +1,6 @@
 package com.github.ecommerce.entity;
 
+import com.github.ecommerce.util.Money;
 import jakarta.persistence.*;
 import lombok.*;
 import org.hibernate.annotations.CreationTimestamp;
@@ -168,9 +169,11 @@ public class Product {
 
     public BigDecimal getDiscountPercentage() {
         if (isOnSale()) {
-            BigDecimal discount = compareAtPrice.subtract(price);
-            return discount.divide(compareAtPrice, 2, BigDecimal.ROUND_HALF_UP)
-                .multiply(new BigDecimal("100"));
+            long compareAt = Money.toMinor(compareAtPrice);
+            // A whole percentage shown with two decimals, e.g. 33.00; the ratio does not depend on the currency
+            long percent = Money.divide(Math.multiplyExact(compareAt - Money.toMinor(price), 100), compareAt,
+                Money.RoundingPolicy.HALF_UP);
+            return BigDecimal.valueOf(percent).setScale(2);
         }
         return BigDecimal.ZERO;
     }
@@ -11,7 +11,7 @@ import java.util.UUID;
 @Table(name = "refresh_tokens", indexes = {
     @Index(name = "idx_refresh_token", columnList = "token", unique = true),
     @Index(name = "idx_refresh_token_user", columnList = "user_id"),
-    @Index(name = "idx_refresh_token_expiry", columnList = "expiry_date")
+    @Index(name = "idx_refresh_token_expiry", columnList = "expiry_date, id")
 })
 @Data
 @Builder
@@ -0,0 +1,73 @@
+package com.github.ecommerce.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.io.Serializable;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * Pre-aggregated net sales per hour or day, overall ({@code ALL}) or broken down by category,
+ * brand or shipping country. Maintained with additive upserts by
+ * {@link com.github.ecommerce.service.rollup.SalesRollupService}.
+ */
+@Entity
+@Table(name = "sales_rollups", indexes = {
+    @Index(name = "idx_sales_rollup_range", columnList = "granularity,dimension,bucket_start,dimension_key")
+})
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@EqualsAndHashCode(of = "key")
+public class SalesRollup {
+
+    @EmbeddedId
+    private Key key;
+
+    @Column(nullable = false, precision = 14, scale = 2)
+    @Builder.Default
+    private BigDecimal revenue = BigDecimal.ZERO;
+
+    @Column(name = "order_count", nullable = false)
+    @Builder.Default
+    private Long orderCount = 0L;
+
+    @Column(nullable = false)
+    @Builder.Default
+    private Long units = 0L;
+
+    @Embeddable
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Key implements Serializable {
+
+        @Enumerated(EnumType.STRING)
+        @Column(nullable = false, length = 10)
+        private Granularity granularity;
+
+        @Enumerated(EnumType.STRING)
+        @Column(nullable = false, length = 20)
+        private Dimension dimension;
+
+        @Column(name = "bucket_start", nullable = false)
+        private LocalDateTime bucketStart;
+
+        @Column(name = "dimension_key", nullable = false, length = 50)
+        private String dimensionKey;
+    }
+
+    public enum Granularity {
+        HOUR,
+        DAY
+    }
+
+    public enum Dimension {
+        ALL,
+        CATEGORY,
+        BRAND,
+        COUNTRY
+    }
+}
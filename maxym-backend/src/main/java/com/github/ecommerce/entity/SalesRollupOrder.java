@@ -0,0 +1,34 @@
+package com.github.ecommerce.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * What an order currently contributes to the sales rollups: the paid time its figures were
+ * bucketed under and the share of its total counted as net revenue (1 when paid, less after a
+ * partial refund, 0 when cancelled or refunded). Re-applying an order only adds the
+ * difference, so replays and overlapping backfills never double count.
+ */
+@Entity
+@Table(name = "sales_rollup_orders")
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@EqualsAndHashCode(of = "orderId")
+public class SalesRollupOrder {
+
+    @Id
+    @Column(name = "order_id")
+    private Long orderId;
+
+    @Column(name = "paid_at")
+    private LocalDateTime paidAt;
+
+    @Column(name = "applied_ratio", nullable = false, precision = 9, scale = 6)
+    @Builder.Default
+    private BigDecimal appliedRatio = BigDecimal.ZERO;
+}
@@ -1,5 +1,7 @@
 package com.github.ecommerce.entity;
 
+import com.github.ecommerce.entity.id.SnowflakeId;
+import com.github.ecommerce.entity.listener.OrderSummaryListener;
 import jakarta.persistence.*;
 import lombok.*;
 import org.hibernate.annotations.CreationTimestamp;
@@ -9,6 +11,7 @@ import java.math.BigDecimal;
 import java.time.LocalDateTime;
 
 @Entity
+@EntityListeners(OrderSummaryListener.class)
 @Table(name = "shipping", indexes = {
     @Index(name = "idx_shipping_order", columnList = "order_id"),
     @Index(name = "idx_shipping_tracking", columnList = "tracking_number")
@@ -22,7 +25,7 @@ import java.time.LocalDateTime;
 public class Shipping {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @SnowflakeId
     private Long id;
 
     @OneToOne(fetch = FetchType.LAZY)
@@ -92,6 +95,10 @@ public class Shipping {
     @Column(name = "delivered_at")
     private LocalDateTime deliveredAt;
 
+    // Carrier time of the latest tracking event applied, so late or replayed events are skipped
+    @Column(name = "tracking_updated_at")
+    private LocalDateTime trackingUpdatedAt;
+
     @PreUpdate
     public void preUpdate() {
         updateStatusTimestamps();
@@ -149,6 +156,19 @@ public class Shipping {
         DELIVERED,
         FAILED,
         RETURNED,
-        CANCELLED
+        CANCELLED;
+
+        // Carrier updates never reopen a shipment that was returned or cancelled, nor undo a delivery
+        public boolean acceptsCarrierUpdate(ShippingStatus next) {
+            return switch (this) {
+                case DELIVERED -> next == RETURNED;
+                case RETURNED, CANCELLED -> false;
+                default -> next != this;
+            };
+        }
+
+        public boolean hasLeftWarehouse() {
+            return this == SHIPPED || this == IN_TRANSIT || this == OUT_FOR_DELIVERY || this == DELIVERED;
+        }
     }
 }
\ No newline at end of file
@@ -0,0 +1,87 @@
+package com.github.ecommerce.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+import org.hibernate.annotations.CreationTimestamp;
+
+import java.time.LocalDateTime;
+
+@Entity
+@Table(name = "stock_movements", indexes = {
+    @Index(name = "idx_stock_movement_inventory", columnList = "inventory_id,id"),
+    @Index(name = "idx_stock_movement_created", columnList = "created_at"),
+    // Checkout settles its reservations by idempotency key
+    @Index(name = "idx_stock_movement_reference", columnList = "reference")
+})
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@EqualsAndHashCode(of = "id")
+public class StockMovement {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "inventory_id", nullable = false)
+    private Long inventoryId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 20)
+    private MovementType type;
+
+    @Column(name = "quantity_delta", nullable = false)
+    @Builder.Default
+    private Integer quantityDelta = 0;
+
+    @Column(name = "reserved_delta", nullable = false)
+    @Builder.Default
+    private Integer reservedDelta = 0;
+
+    @Column(name = "reference", length = 100)
+    private String reference;
+
+    @CreationTimestamp
+    @Column(name = "created_at", nullable = false, updatable = false)
+    private LocalDateTime createdAt;
+
+    // Helper methods
+    public static StockMovement receipt(Long inventoryId, int quantity, String reference) {
+        return of(inventoryId, MovementType.RECEIPT, quantity, 0, reference);
+    }
+
+    public static StockMovement reservation(Long inventoryId, int quantity, String reference) {
+        return of(inventoryId, MovementType.RESERVATION, 0, quantity, reference);
+    }
+
+    public static StockMovement release(Long inventoryId, int quantity, String reference) {
+        return of(inventoryId, MovementType.RELEASE, 0, -quantity, reference);
+    }
+
+    public static StockMovement sale(Long inventoryId, int quantity, int releasedReservation, String reference) {
+        return of(inventoryId, MovementType.SALE, -quantity, -releasedReservation, reference);
+    }
+
+    public static StockMovement adjustment(Long inventoryId, int delta, String reference) {
+        return of(inventoryId, MovementType.ADJUSTMENT, delta, 0, reference);
+    }
+
+    private static StockMovement of(Long inventoryId, MovementType type, int quantityDelta, int reservedDelta, String reference) {
+        return StockMovement.builder()
+            .inventoryId(inventoryId)
+            .type(type)
+            .quantityDelta(quantityDelta)
+            .reservedDelta(reservedDelta)
+            .reference(reference)
+            .build();
+    }
+
+    public enum MovementType {
+        RECEIPT,
+        RESERVATION,
+        RELEASE,
+        SALE,
+        ADJUSTMENT
+    }
+}
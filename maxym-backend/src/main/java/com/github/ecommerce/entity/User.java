@@ -1,5 +1,6 @@
 package com.github.ecommerce.entity;
 
+import com.github.ecommerce.entity.listener.UserChangeListener;
 import jakarta.persistence.*;
 import lombok.*;
 import org.hibernate.annotations.CreationTimestamp;
@@ -14,6 +15,7 @@ import java.util.stream.Collectors;
 
 @Entity
 @Table(name = "users")
+@EntityListeners(UserChangeListener.class)
 @Data
 @Builder
 @NoArgsConstructor
@@ -78,6 +80,11 @@ public class User implements UserDetails {
     @Column(name = "updated_at", nullable = false)
     private LocalDateTime updatedAt;
 
+    // Also bumped when only the roles change, so role edits update the row and reach UserChangeListener
+    @Version
+    @Column(nullable = false)
+    private Long version;
+
     @Column(name = "last_login")
     private LocalDateTime lastLogin;
 
@@ -0,0 +1,77 @@
+package com.github.ecommerce.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.LocalDateTime;
+
+/**
+ * Raw payment gateway webhook, stored as received once its signature checks out and drained
+ * by {@link com.github.ecommerce.scheduler.WebhookEventDispatcher}. The unique key on
+ * (provider, event_id) drops gateway redeliveries at ingestion. Rows are written and updated
+ * with JDBC; the entity only defines the table.
+ */
+@Entity
+@Table(name = "webhook_events", uniqueConstraints = {
+    @UniqueConstraint(name = "uk_webhook_event", columnNames = {"provider", "event_id"})
+}, indexes = {
+    @Index(name = "idx_webhook_event_pending", columnList = "processed_at, id"),
+    @Index(name = "idx_webhook_event_received", columnList = "received_at")
+})
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@EqualsAndHashCode(of = "id")
+public class WebhookEvent {
+
+    // Snowflake id assigned at ingestion, so ids follow arrival order
+    @Id
+    private Long id;
+
+    @Column(nullable = false, length = 20)
+    private String provider;
+
+    @Column(name = "event_id", nullable = false, length = 100)
+    private String eventId;
+
+    @Column(name = "event_type", nullable = false, length = 100)
+    private String eventType;
+
+    @Column(name = "transaction_id", length = 100)
+    private String transactionId;
+
+    // Payment status the event maps to, null for event types that are only recorded
+    @Enumerated(EnumType.STRING)
+    @Column(name = "payment_status", length = 20)
+    private Payment.PaymentStatus paymentStatus;
+
+    @Column(nullable = false, columnDefinition = "TEXT")
+    private String payload;
+
+    @Column(name = "received_at", nullable = false)
+    private LocalDateTime receivedAt;
+
+    @Column(nullable = false)
+    @Builder.Default
+    private Integer attempts = 0;
+
+    @Column(name = "available_at", nullable = false)
+    private LocalDateTime availableAt;
+
+    @Column(name = "processed_at")
+    private LocalDateTime processedAt;
+
+    @Enumerated(EnumType.STRING)
+    @Column(length = 20)
+    private Outcome outcome;
+
+    public enum Outcome {
+        APPLIED,
+        // Older than the payment's current status, e.g. a late "processing" after "succeeded"
+        STALE,
+        IGNORED,
+        UNMATCHED,
+        FAILED
+    }
+}
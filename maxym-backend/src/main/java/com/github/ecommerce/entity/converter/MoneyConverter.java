@@ -0,0 +1,30 @@
+package com.github.ecommerce.entity.converter;
+
+import com.github.ecommerce.util.Money;
+import jakarta.persistence.AttributeConverter;
+import jakarta.persistence.Converter;
+import org.hibernate.annotations.Immutable;
+
+import java.math.BigDecimal;
+
+/**
+ * Maps a {@link Money} attribute to a DECIMAL(10,2) column in the default currency, so the
+ * entity holds minor units and sums them without going through {@link BigDecimal}. Entities
+ * that store amounts in several currencies keep the currency in its own column and build the
+ * {@link Money} in a getter instead. Money is immutable, so Hibernate compares the loaded
+ * values for dirty checking instead of deep-copying them.
+ */
+@Converter
+@Immutable
+public class MoneyConverter implements AttributeConverter<Money, BigDecimal> {
+
+    @Override
+    public BigDecimal convertToDatabaseColumn(Money money) {
+        return money != null ? money.toBigDecimal() : null;
+    }
+
+    @Override
+    public Money convertToEntityAttribute(BigDecimal amount) {
+        return amount != null ? Money.of(amount, Money.DEFAULT_CURRENCY) : null;
+    }
+}
@@ -0,0 +1,41 @@
+package com.github.ecommerce.entity.listener;
+
+import com.github.ecommerce.entity.Discount;
+import com.github.ecommerce.service.pricing.DiscountEligibilityService;
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Keeps the discount eligibility index in step with discount writes. The index reloads the
+ * discount from the database, so the update waits for the commit. The service is looked up
+ * lazily because it depends on the JPA repositories this listener is created alongside.
+ */
+@Component
+@RequiredArgsConstructor
+public class DiscountChangeListener {
+
+    private final ObjectProvider<DiscountEligibilityService> eligibility;
+
+    @PostPersist
+    @PostUpdate
+    @PostRemove
+    public void afterChange(Discount discount) {
+        Long discountId = discount.getId();
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            eligibility.getObject().discountChanged(discountId);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                eligibility.getObject().discountChanged(discountId);
+            }
+        });
+    }
+}
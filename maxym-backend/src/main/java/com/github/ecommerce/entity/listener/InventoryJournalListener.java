@@ -0,0 +1,81 @@
+package com.github.ecommerce.entity.listener;
+
+import com.github.ecommerce.entity.Inventory;
+import com.github.ecommerce.service.StockJournalService;
+import jakarta.persistence.PostLoad;
+import jakarta.persistence.PostPersist;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.Set;
+
+/**
+ * Makes the stock journal the only write of a stock change. A loaded row gets its live level
+ * from the journal, and the movements queued by the {@link Inventory} mutators are appended when
+ * the transaction commits, whether or not they net to zero, so no caller has to remember to do
+ * it. Callers that want a reference on the movements flush them through
+ * {@link StockJournalService#flush} first. The service is looked up lazily because it depends
+ * on the JPA repositories this listener is created alongside.
+ */
+@Component
+@RequiredArgsConstructor
+public class InventoryJournalListener {
+
+    private final ObjectProvider<StockJournalService> stockJournalService;
+
+    @PostPersist
+    public void afterInsert(Inventory inventory) {
+        stockJournalService.getObject().open(inventory);
+        track(inventory);
+    }
+
+    @PostLoad
+    public void afterLoad(Inventory inventory) {
+        stockJournalService.getObject().loadLevel(inventory);
+        track(inventory);
+    }
+
+    private void track(Inventory inventory) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()
+                || TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            return;
+        }
+        // Synchronizations are suspended with their transaction, so a nested one gets its own
+        for (TransactionSynchronization synchronization : TransactionSynchronizationManager.getSynchronizations()) {
+            if (synchronization instanceof JournalSynchronization journal && journal.owner == this) {
+                journal.inventories.add(inventory);
+                return;
+            }
+        }
+        JournalSynchronization journal = new JournalSynchronization(this);
+        journal.inventories.add(inventory);
+        TransactionSynchronizationManager.registerSynchronization(journal);
+    }
+
+    private static final class JournalSynchronization implements TransactionSynchronization {
+
+        private final InventoryJournalListener owner;
+        private final Set<Inventory> inventories = Collections.newSetFromMap(new IdentityHashMap<>());
+
+        private JournalSynchronization(InventoryJournalListener owner) {
+            this.owner = owner;
+        }
+
+        @Override
+        public void beforeCommit(boolean readOnly) {
+            StockJournalService journal = owner.stockJournalService.getObject();
+            inventories.forEach(inventory -> journal.flush(inventory, null));
+        }
+
+        @Override
+        public void afterCompletion(int status) {
+            // Movements of a rolled-back transaction never happened
+            inventories.forEach(Inventory::drainPendingMovements);
+        }
+    }
+}
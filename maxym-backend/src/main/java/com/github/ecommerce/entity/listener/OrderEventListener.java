@@ -0,0 +1,44 @@
+package com.github.ecommerce.entity.listener;
+
+import com.github.ecommerce.entity.Order;
+import com.github.ecommerce.entity.OutboxEvent;
+import com.github.ecommerce.service.outbox.OutboxWriter;
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostUpdate;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Records an outbox event for every order status transition: {@code ORDER_CREATED} on insert,
+ * then {@code ORDER_<STATUS>} (ORDER_PAID, ORDER_SHIPPED, ...) whenever the status changes.
+ */
+@Component
+@RequiredArgsConstructor
+public class OrderEventListener {
+
+    private final OutboxWriter outboxWriter;
+
+    @PostPersist
+    @PostUpdate
+    public void afterWrite(Order order) {
+        Order.OrderStatus previous = order.acknowledgeStatus();
+        if (previous == order.getStatus()) {
+            return;
+        }
+        String eventType = previous == null ? OutboxEvent.ORDER_CREATED : "ORDER_" + order.getStatus().name();
+
+        Map<String, Object> payload = new HashMap<>();
+        payload.put("orderId", order.getId());
+        payload.put("orderNumber", order.getOrderNumber());
+        payload.put("userId", order.getUser().getId());
+        payload.put("status", order.getStatus());
+        payload.put("previousStatus", previous);
+        payload.put("totalAmount", order.getTotalAmount());
+        payload.put("currencyCode", order.getCurrencyCode());
+        payload.put("trackingNumber", order.getTrackingNumber());
+        outboxWriter.append(OutboxEvent.AGGREGATE_ORDER, order.getId(), eventType, payload);
+    }
+}
@@ -0,0 +1,52 @@
+package com.github.ecommerce.entity.listener;
+
+import com.github.ecommerce.entity.Order;
+import com.github.ecommerce.entity.OrderItem;
+import com.github.ecommerce.entity.Payment;
+import com.github.ecommerce.entity.Shipping;
+import com.github.ecommerce.service.OrderSummaryProjector;
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+/**
+ * Feeds order, order item, payment and shipping changes into the order summary read model.
+ * Hibernate obtains the listener from the Spring bean container, so it can be injected.
+ */
+@Component
+@RequiredArgsConstructor
+public class OrderSummaryListener {
+
+    private final OrderSummaryProjector projector;
+
+    @PostPersist
+    public void afterInsert(Object entity) {
+        if (entity instanceof OrderItem item) {
+            projector.itemAdded(item);
+        } else {
+            afterUpdate(entity);
+        }
+    }
+
+    @PostUpdate
+    public void afterUpdate(Object entity) {
+        if (entity instanceof Order order) {
+            projector.orderChanged(order);
+        } else if (entity instanceof Payment payment) {
+            projector.paymentChanged(payment);
+        } else if (entity instanceof Shipping shipping) {
+            projector.shippingChanged(shipping);
+        }
+    }
+
+    @PostRemove
+    public void afterDelete(Object entity) {
+        if (entity instanceof Order order) {
+            projector.orderRemoved(order);
+        } else if (entity instanceof OrderItem item) {
+            projector.itemRemoved(item);
+        }
+    }
+}
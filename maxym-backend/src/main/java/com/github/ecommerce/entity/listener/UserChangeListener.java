@@ -0,0 +1,41 @@
+package com.github.ecommerce.entity.listener;
+
+import com.github.ecommerce.entity.User;
+import com.github.ecommerce.security.JwtAuthenticationService;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Drops a user's cached JWT principal on every node once a change to the user commits. That
+ * covers locking, disabling and password changes, and role changes too: {@code User.roles} is
+ * versioned, so editing it bumps {@code users.version} and fires {@code @PostUpdate}. Contexts
+ * without the service, such as JPA slice tests, have nothing to invalidate.
+ */
+@Component
+@RequiredArgsConstructor
+public class UserChangeListener {
+
+    private final ObjectProvider<JwtAuthenticationService> authentication;
+
+    @PostUpdate
+    @PostRemove
+    public void afterChange(User user) {
+        Long userId = user.getId();
+        String email = user.getEmail();
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            authentication.ifAvailable(service -> service.invalidateEverywhere(userId, email));
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                authentication.ifAvailable(service -> service.invalidateEverywhere(userId, email));
+            }
+        });
+    }
+}
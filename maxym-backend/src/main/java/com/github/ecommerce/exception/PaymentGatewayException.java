@@ -0,0 +1,24 @@
+package com.github.ecommerce.exception;
+
+/**
+ * A gateway call that did not produce an answer. Declines are answers and are returned as
+ * results instead; this covers timeouts, rejected calls and errors on the gateway side.
+ */
+public class PaymentGatewayException extends RuntimeException {
+
+    private final boolean retryable;
+
+    public PaymentGatewayException(String message, boolean retryable) {
+        super(message);
+        this.retryable = retryable;
+    }
+
+    public PaymentGatewayException(String message, boolean retryable, Throwable cause) {
+        super(message, cause);
+        this.retryable = retryable;
+    }
+
+    public boolean isRetryable() {
+        return retryable;
+    }
+}
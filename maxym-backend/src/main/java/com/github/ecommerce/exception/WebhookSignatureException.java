@@ -0,0 +1,12 @@
+package com.github.ecommerce.exception;
+
+public class WebhookSignatureException extends RuntimeException {
+
+    public WebhookSignatureException(String message) {
+        super(message);
+    }
+
+    public WebhookSignatureException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
@@ -0,0 +1,22 @@
+package com.github.ecommerce.repository;
+
+import com.github.ecommerce.entity.Cart;
+import org.springframework.data.jpa.repository.EntityGraph;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.Optional;
+
+@Repository
+public interface CartRepository extends JpaRepository<Cart, Long> {
+
+    Optional<Cart> findByUserId(Long userId);
+
+    Optional<Cart> findBySessionId(String sessionId);
+
+    @EntityGraph(attributePaths = "items")
+    @Query("SELECT c FROM Cart c WHERE c.id = :id")
+    Optional<Cart> findWithItemsById(@Param("id") Long id);
+}
@@ -0,0 +1,46 @@
+package com.github.ecommerce.repository;
+
+import com.github.ecommerce.entity.CheckoutRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface CheckoutRequestRepository extends JpaRepository<CheckoutRequest, Long> {
+
+    Optional<CheckoutRequest> findByIdempotencyKey(String idempotencyKey);
+
+    Optional<CheckoutRequest> findByOrderId(Long orderId);
+
+    // Unfinished requests no stage has written since the cutoff, oldest first
+    @Query("SELECT c FROM CheckoutRequest c WHERE c.status NOT IN :finished AND c.updatedAt < :cutoff ORDER BY c.updatedAt")
+    List<CheckoutRequest> findStale(@Param("finished") Collection<CheckoutRequest.CheckoutStatus> finished,
+                                    @Param("cutoff") LocalDateTime cutoff,
+                                    Pageable pageable);
+
+    // Takes a stale request over; fails if a stage wrote it since, so only one caller gets it
+    @Modifying
+    @Query("UPDATE CheckoutRequest c SET c.updatedAt = CURRENT_TIMESTAMP " +
+           "WHERE c.id = :id AND c.status = :status AND c.updatedAt < :cutoff")
+    int claim(@Param("id") Long id,
+              @Param("status") CheckoutRequest.CheckoutStatus status,
+              @Param("cutoff") LocalDateTime cutoff);
+
+    @Modifying
+    @Query("UPDATE CheckoutRequest c SET c.status = :status, c.orderId = COALESCE(:orderId, c.orderId), " +
+           "c.orderNumber = COALESCE(:orderNumber, c.orderNumber), c.failureReason = :failureReason, " +
+           "c.updatedAt = CURRENT_TIMESTAMP WHERE c.id = :id")
+    int updateStatus(@Param("id") Long id,
+                     @Param("status") CheckoutRequest.CheckoutStatus status,
+                     @Param("orderId") Long orderId,
+                     @Param("orderNumber") String orderNumber,
+                     @Param("failureReason") String failureReason);
+}
@@ -0,0 +1,13 @@
+package com.github.ecommerce.repository;
+
+import com.github.ecommerce.entity.CouponCampaign;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.Optional;
+
+@Repository
+public interface CouponCampaignRepository extends JpaRepository<CouponCampaign, Long> {
+
+    Optional<CouponCampaign> findByPrefix(String prefix);
+}
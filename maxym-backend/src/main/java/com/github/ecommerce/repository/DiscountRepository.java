@@ -0,0 +1,37 @@
+package com.github.ecommerce.repository;
+
+import com.github.ecommerce.entity.Discount;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface DiscountRepository extends JpaRepository<Discount, Long> {
+
+    Optional<Discount> findByCode(String code);
+
+    List<Discount> findByActiveTrue();
+
+    // Active discounts that have not ended, through idx_discount_active and idx_discount_dates
+    @Query("SELECT d FROM Discount d WHERE d.active = true AND (d.endDate IS NULL OR d.endDate > :now)")
+    List<Discount> findActiveNotEnded(@Param("now") LocalDateTime now);
+
+    // {discountId, productId} pairs, read without initializing the lazy sets
+    @Query("SELECT d.id, p.id FROM Discount d JOIN d.products p WHERE d.active = true")
+    List<Object[]> findActiveProductTargets();
+
+    // {discountId, categoryId} pairs, read without initializing the lazy sets
+    @Query("SELECT d.id, c.id FROM Discount d JOIN d.categories c WHERE d.active = true")
+    List<Object[]> findActiveCategoryTargets();
+
+    @Query("SELECT p.id FROM Discount d JOIN d.products p WHERE d.id = :discountId")
+    List<Long> findProductTargetIds(@Param("discountId") Long discountId);
+
+    @Query("SELECT c.id FROM Discount d JOIN d.categories c WHERE d.id = :discountId")
+    List<Long> findCategoryTargetIds(@Param("discountId") Long discountId);
+}
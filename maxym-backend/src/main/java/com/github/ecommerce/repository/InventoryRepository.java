@@ -0,0 +1,31 @@
+package com.github.ecommerce.repository;
+
+import com.github.ecommerce.entity.Inventory;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface InventoryRepository extends JpaRepository<Inventory, Long> {
+
+    @Query("SELECT i.id FROM Inventory i LEFT JOIN i.product p LEFT JOIN i.productVariant v " +
+           "WHERE v.sku = :sku OR (v IS NULL AND p.sku = :sku)")
+    List<Long> findIdsBySku(@Param("sku") String sku);
+
+    // Locks rows in id order so concurrent checkouts cannot deadlock on each other
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT i FROM Inventory i WHERE i.id IN :ids ORDER BY i.id")
+    List<Inventory> findAllByIdForUpdate(@Param("ids") Collection<Long> ids);
+
+    // Waits for in-flight stock changes to commit without blocking other readers
+    @Lock(LockModeType.PESSIMISTIC_READ)
+    @Query("SELECT i FROM Inventory i WHERE i.id = :id")
+    Optional<Inventory> findByIdForShare(@Param("id") Long id);
+}
@@ -0,0 +1,20 @@
+package com.github.ecommerce.repository;
+
+import com.github.ecommerce.entity.InventorySnapshot;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+@Repository
+public interface InventorySnapshotRepository extends JpaRepository<InventorySnapshot, Long> {
+
+    Optional<InventorySnapshot> findFirstByInventoryIdOrderByLastMovementIdDesc(Long inventoryId);
+
+    Optional<InventorySnapshot> findFirstByInventoryIdAndTakenAtLessThanEqualOrderByTakenAtDesc(Long inventoryId, LocalDateTime asOf);
+
+    @Query("SELECT COALESCE(MAX(s.lastMovementId), 0) FROM InventorySnapshot s")
+    Long findSnapshotWatermark();
+}
@@ -0,0 +1,27 @@
+package com.github.ecommerce.repository;
+
+import com.github.ecommerce.entity.OrderSummary;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+// Both queries are a single range scan of idx_order_summary_user_created
+@Repository
+public interface OrderSummaryRepository extends JpaRepository<OrderSummary, Long> {
+
+    @Query("SELECT s FROM OrderSummary s WHERE s.userId = :userId ORDER BY s.createdAt DESC, s.orderId DESC")
+    List<OrderSummary> findLatest(@Param("userId") Long userId, Limit limit);
+
+    @Query("SELECT s FROM OrderSummary s WHERE s.userId = :userId " +
+           "AND (s.createdAt < :createdAt OR (s.createdAt = :createdAt AND s.orderId < :orderId)) " +
+           "ORDER BY s.createdAt DESC, s.orderId DESC")
+    List<OrderSummary> findOlderThan(@Param("userId") Long userId,
+                                     @Param("createdAt") LocalDateTime createdAt,
+                                     @Param("orderId") Long orderId,
+                                     Limit limit);
+}
@@ -0,0 +1,28 @@
+package com.github.ecommerce.repository;
+
+import com.github.ecommerce.entity.Payment;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface PaymentRepository extends JpaRepository<Payment, Long> {
+
+    Optional<Payment> findByTransactionId(String transactionId);
+
+    // Serializes the retry claim: a second worker waits and then sees next_retry_at already moved
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT p FROM Payment p WHERE p.id = :id")
+    Optional<Payment> findByIdForUpdate(@Param("id") Long id);
+
+    // Shipping is fetched too: the order's inverse one-to-ones would otherwise load one by one
+    @Query("SELECT p FROM Payment p JOIN FETCH p.order o LEFT JOIN FETCH o.shipping WHERE p.transactionId IN :transactionIds")
+    List<Payment> findAllWithOrderByTransactionIdIn(@Param("transactionIds") Collection<String> transactionIds);
+}
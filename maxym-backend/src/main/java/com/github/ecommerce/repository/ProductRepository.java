@@ -0,0 +1,23 @@
+package com.github.ecommerce.repository;
+
+import com.github.ecommerce.entity.Product;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface ProductRepository extends JpaRepository<Product, Long> {
+
+    // The inverse one-to-one to Inventory cannot be lazy, so it is fetched in the same query
+    @Query("SELECT p FROM Product p LEFT JOIN FETCH p.inventory WHERE p.id IN :ids")
+    List<Product> findAllWithInventoryByIdIn(@Param("ids") Collection<Long> ids);
+
+    // {productId, url} with the primary image of each product first
+    @Query("SELECT i.product.id, i.url FROM ProductImage i WHERE i.product.id IN :productIds " +
+           "ORDER BY i.product.id, i.isPrimary DESC, i.displayOrder, i.id")
+    List<Object[]> findImageUrlsByProductIdIn(@Param("productIds") Collection<Long> productIds);
+}
@@ -0,0 +1,17 @@
+package com.github.ecommerce.repository;
+
+import com.github.ecommerce.entity.ProductVariant;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface ProductVariantRepository extends JpaRepository<ProductVariant, Long> {
+
+    @Query("SELECT v FROM ProductVariant v LEFT JOIN FETCH v.inventory WHERE v.id IN :ids")
+    List<ProductVariant> findAllWithInventoryByIdIn(@Param("ids") Collection<Long> ids);
+}
@@ -0,0 +1,35 @@
+package com.github.ecommerce.repository;
+
+import com.github.ecommerce.entity.StockMovement;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface StockMovementRepository extends JpaRepository<StockMovement, Long> {
+
+    @Query("SELECT COALESCE(MAX(m.id), 0) FROM StockMovement m WHERE m.createdAt < :cutoff")
+    Long findMaxIdCreatedBefore(@Param("cutoff") LocalDateTime cutoff);
+
+    @Query("SELECT DISTINCT m.inventoryId FROM StockMovement m WHERE m.id > :afterId AND m.id <= :upToId")
+    List<Long> findInventoryIdsWithMovementsBetween(@Param("afterId") Long afterId, @Param("upToId") Long upToId);
+
+    // Returns {sum(quantity_delta), sum(reserved_delta), max(id)} for the journal tail
+    @Query("SELECT COALESCE(SUM(m.quantityDelta), 0), COALESCE(SUM(m.reservedDelta), 0), COALESCE(MAX(m.id), :afterId) " +
+           "FROM StockMovement m WHERE m.inventoryId = :inventoryId AND m.id > :afterId AND m.id <= :upToId")
+    List<Object[]> sumTail(@Param("inventoryId") Long inventoryId,
+                           @Param("afterId") Long afterId,
+                           @Param("upToId") Long upToId);
+
+    @Query("SELECT COALESCE(SUM(m.quantityDelta), 0), COALESCE(SUM(m.reservedDelta), 0), COALESCE(MAX(m.id), :afterId) " +
+           "FROM StockMovement m WHERE m.inventoryId = :inventoryId AND m.id > :afterId AND m.createdAt <= :asOf")
+    List<Object[]> sumTailAsOf(@Param("inventoryId") Long inventoryId,
+                               @Param("afterId") Long afterId,
+                               @Param("asOf") LocalDateTime asOf);
+
+    List<StockMovement> findByInventoryIdAndCreatedAtBetweenOrderByIdAsc(Long inventoryId, LocalDateTime from, LocalDateTime to);
+}
@@ -0,0 +1,53 @@
+package com.github.ecommerce.scheduler;
+
+import com.github.ecommerce.service.checkout.CheckoutPipeline;
+import com.github.ecommerce.service.lease.JobLeaseStore;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+/**
+ * Hands checkout requests that stopped moving to {@link CheckoutPipeline#recoverStale}, on the
+ * node holding the {@code checkout-recovery} lease. Each request is also claimed on its own
+ * row, so a node that lost the lease mid-run cannot take one over twice.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class CheckoutRecoveryScheduler {
+
+    private static final String LEASE = "checkout-recovery";
+
+    private final CheckoutPipeline checkoutPipeline;
+    private final JobLeaseStore leaseStore;
+
+    @Value("${app.checkout.recovery.stale-after-seconds:600}")
+    private long staleAfterSeconds;
+
+    @Value("${app.checkout.recovery.batch-size:100}")
+    private int batchSize;
+
+    @Value("${app.checkout.recovery.lease-seconds:120}")
+    private long leaseSeconds;
+
+    @Scheduled(fixedDelayString = "${app.checkout.recovery.interval:60000}")
+    public void recover() {
+        if (!leaseStore.acquire(LEASE, Duration.ofSeconds(leaseSeconds))) {
+            return;
+        }
+        try {
+            int recovered = checkoutPipeline.recoverStale(Duration.ofSeconds(staleAfterSeconds), batchSize);
+            if (recovered > 0) {
+                log.info("Took over {} stalled checkout requests", recovered);
+            }
+        } catch (RuntimeException e) {
+            log.warn("Checkout recovery failed: {}", e.getMessage());
+        } finally {
+            leaseStore.release(LEASE);
+        }
+    }
+}
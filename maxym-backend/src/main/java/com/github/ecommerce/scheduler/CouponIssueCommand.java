@@ -0,0 +1,61 @@
+package com.github.ecommerce.scheduler;
+
+import com.github.ecommerce.entity.CouponCampaign;
+import com.github.ecommerce.service.coupon.CouponCampaignService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.stereotype.Component;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * Issues campaign codes and writes them to a file, one per line, e.g.
+ * {@code --issue-coupons=<campaign id> --count=1000000 --out=codes.txt}. A new campaign is
+ * created first with {@code --create-campaign=<prefix> --discount=<discount id>}, in which
+ * case {@code --issue-coupons} needs no value.
+ */
+@Component
+@RequiredArgsConstructor
+public class CouponIssueCommand implements ApplicationRunner {
+
+    private final CouponCampaignService campaignService;
+
+    @Override
+    public void run(ApplicationArguments args) throws IOException {
+        if (!args.containsOption("issue-coupons")) {
+            return;
+        }
+        Long campaignId;
+        if (args.containsOption("create-campaign")) {
+            CouponCampaign campaign = campaignService.create(
+                Long.valueOf(value(args, "discount")), value(args, "create-campaign"));
+            campaignId = campaign.getId();
+        } else {
+            campaignId = Long.valueOf(value(args, "issue-coupons"));
+        }
+        long count = Long.parseLong(value(args, "count"));
+        Path out = Path.of(args.containsOption("out") ? value(args, "out") : "coupon-codes-" + campaignId + ".txt");
+        try (BufferedWriter writer = Files.newBufferedWriter(out)) {
+            campaignService.issue(campaignId, count, code -> {
+                try {
+                    writer.write(code);
+                    writer.newLine();
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        }
+    }
+
+    private static String value(ApplicationArguments args, String option) {
+        if (!args.containsOption(option) || args.getOptionValues(option).isEmpty()) {
+            throw new IllegalArgumentException("--" + option + " is required");
+        }
+        return args.getOptionValues(option).get(0);
+    }
+}
@@ -0,0 +1,223 @@
+package com.github.ecommerce.scheduler;
+
+import com.github.ecommerce.service.lease.JobLeaseStore;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Deletes expired carts, refresh tokens and other TTL'd rows in small keyset-ordered chunks,
+ * one short transaction per chunk. The chunk size adapts to observed statement latency
+ * (additive increase, multiplicative decrease) and the sweep pauses while replication
+ * lag is above the configured limit, so it never competes with OLTP traffic for long.
+ * <p>
+ * Every DELETE checks the expiry again, so a row extended after it was selected is kept,
+ * together with its children.
+ * <p>
+ * Only the node holding the {@code expired-row-sweep} lease runs; the lease is renewed after
+ * every chunk, and a run stops as soon as renewal fails, so nodes never sweep side by side.
+ */
+@Component
+@Slf4j
+public class ExpiredRowSweeper {
+
+    private static final String LEASE = "expired-row-sweep";
+
+    private static final List<SweepTarget> TARGETS = List.of(
+        new SweepTarget("carts",
+            "SELECT id, expires_at AS expiry FROM carts WHERE id > :lastId AND expires_at < :cutoff ORDER BY id LIMIT :limit",
+            // The join share-locks the carts, so an extension waits until the chunk commits
+            List.of("DELETE ci FROM cart_items ci JOIN carts c ON c.id = ci.cart_id " +
+                "WHERE ci.cart_id IN (:ids) AND c.expires_at < :cutoff"),
+            "DELETE FROM carts WHERE id IN (:ids) AND expires_at < :cutoff"),
+        // Walks idx_refresh_token_expiry (expiry_date, id), see migration V9
+        new SweepTarget("refresh_tokens",
+            "SELECT id, expiry_date AS expiry FROM refresh_tokens WHERE expiry_date < :cutoff " +
+            "AND (expiry_date > :lastExpiry OR (expiry_date = :lastExpiry AND id > :lastId)) " +
+            "ORDER BY expiry_date, id LIMIT :limit",
+            List.of(),
+            "DELETE FROM refresh_tokens WHERE id IN (:ids) AND expiry_date < :cutoff")
+    );
+
+    private final NamedParameterJdbcTemplate namedJdbcTemplate;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final JobLeaseStore leaseStore;
+    private final MeterRegistry meterRegistry;
+    private final Timer chunkTimer;
+    private final AtomicInteger chunkSize;
+    private final AtomicLong replicationLagSeconds = new AtomicLong();
+
+    @Value("${app.sweeper.enabled:true}")
+    private boolean enabled;
+
+    @Value("${app.sweeper.min-chunk-size:50}")
+    private int minChunkSize;
+
+    @Value("${app.sweeper.max-chunk-size:2000}")
+    private int maxChunkSize;
+
+    @Value("${app.sweeper.target-chunk-millis:50}")
+    private long targetChunkMillis;
+
+    @Value("${app.sweeper.run-budget-millis:60000}")
+    private long runBudgetMillis;
+
+    @Value("${app.sweeper.max-replication-lag-seconds:5}")
+    private long maxReplicationLagSeconds;
+
+    // e.g. a pt-heartbeat query; replication lag is not checked when empty
+    @Value("${app.sweeper.replication-lag-query:}")
+    private String replicationLagQuery;
+
+    @Value("${app.sweeper.lease-seconds:120}")
+    private long leaseSeconds;
+
+    public ExpiredRowSweeper(NamedParameterJdbcTemplate namedJdbcTemplate,
+                             TransactionTemplate transactionTemplate,
+                             JobLeaseStore leaseStore,
+                             MeterRegistry meterRegistry,
+                             @Value("${app.sweeper.initial-chunk-size:200}") int initialChunkSize) {
+        this.namedJdbcTemplate = namedJdbcTemplate;
+        this.jdbcTemplate = namedJdbcTemplate.getJdbcTemplate();
+        this.transactionTemplate = transactionTemplate;
+        this.leaseStore = leaseStore;
+        this.meterRegistry = meterRegistry;
+        this.chunkSize = new AtomicInteger(initialChunkSize);
+        this.chunkTimer = Timer.builder("sweeper.chunk.duration").register(meterRegistry);
+        meterRegistry.gauge("sweeper.chunk.size", chunkSize);
+        meterRegistry.gauge("sweeper.replication.lag.seconds", replicationLagSeconds);
+    }
+
+    @Scheduled(fixedDelayString = "${app.sweeper.interval:300000}")
+    public void sweep() {
+        Duration lease = Duration.ofSeconds(leaseSeconds);
+        if (!enabled || !leaseStore.acquire(LEASE, lease)) {
+            return;
+        }
+        try {
+            long deadline = System.currentTimeMillis() + runBudgetMillis;
+            LocalDateTime cutoff = LocalDateTime.now();
+            for (SweepTarget target : TARGETS) {
+                // Also renews between tables, and stops the run if a table's sweep lost the lease
+                if (!leaseStore.acquire(LEASE, lease)) {
+                    log.warn("Lost the sweeper lease, stopping before {}", target.table());
+                    break;
+                }
+                long deleted = sweep(target, cutoff, deadline, lease);
+                if (deleted > 0) {
+                    log.info("Swept {} expired rows from {}", deleted, target.table());
+                }
+            }
+        } finally {
+            leaseStore.release(LEASE);
+        }
+    }
+
+    private long sweep(SweepTarget target, LocalDateTime cutoff, long deadline, Duration lease) {
+        Counter deletedCounter = meterRegistry.counter("sweeper.rows.deleted", "table", target.table());
+        Timestamp lastExpiry = new Timestamp(0);
+        long lastId = 0;
+        long total = 0;
+
+        while (System.currentTimeMillis() < deadline) {
+            if (!waitForReplication(deadline)) {
+                break;
+            }
+
+            int limit = chunkSize.get();
+            MapSqlParameterSource select = new MapSqlParameterSource()
+                .addValue("lastExpiry", lastExpiry)
+                .addValue("lastId", lastId)
+                .addValue("cutoff", Timestamp.valueOf(cutoff))
+                .addValue("limit", limit);
+            List<ExpiredRow> rows = namedJdbcTemplate.query(target.selectSql(), select,
+                (rs, rowNum) -> new ExpiredRow(rs.getLong("id"), rs.getTimestamp("expiry")));
+            if (rows.isEmpty()) {
+                break;
+            }
+
+            long started = System.nanoTime();
+            MapSqlParameterSource delete = new MapSqlParameterSource()
+                .addValue("ids", rows.stream().map(ExpiredRow::id).toList())
+                .addValue("cutoff", Timestamp.valueOf(cutoff));
+            Integer deleted = transactionTemplate.execute(status -> {
+                target.childDeleteSql().forEach(sql -> namedJdbcTemplate.update(sql, delete));
+                return namedJdbcTemplate.update(target.deleteSql(), delete);
+            });
+            long elapsedNanos = System.nanoTime() - started;
+            chunkTimer.record(elapsedNanos, TimeUnit.NANOSECONDS);
+            adapt(elapsedNanos / 1_000_000);
+
+            total += deleted != null ? deleted : 0;
+            deletedCounter.increment(deleted != null ? deleted : 0);
+            ExpiredRow last = rows.get(rows.size() - 1);
+            lastExpiry = last.expiry();
+            lastId = last.id();
+            if (rows.size() < limit) {
+                break;
+            }
+            if (!leaseStore.acquire(LEASE, lease)) {
+                log.warn("Lost the sweeper lease after {} rows of {}, stopping", total, target.table());
+                break;
+            }
+        }
+        return total;
+    }
+
+    private void adapt(long elapsedMillis) {
+        if (elapsedMillis > targetChunkMillis) {
+            chunkSize.updateAndGet(size -> Math.max(minChunkSize, size / 2));
+            // Give the database the same amount of time back before the next chunk
+            sleep(elapsedMillis);
+        } else {
+            chunkSize.updateAndGet(size -> Math.min(maxChunkSize, size + minChunkSize));
+        }
+    }
+
+    private boolean waitForReplication(long deadline) {
+        if (replicationLagQuery == null || replicationLagQuery.isBlank()) {
+            return true;
+        }
+        while (System.currentTimeMillis() < deadline) {
+            Long lag = jdbcTemplate.queryForObject(replicationLagQuery, Long.class);
+            replicationLagSeconds.set(lag != null ? lag : 0);
+            if (lag == null || lag <= maxReplicationLagSeconds) {
+                return true;
+            }
+            log.debug("Sweeper paused, replication lag {}s", lag);
+            sleep(1000);
+        }
+        return false;
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private record SweepTarget(String table, String selectSql, List<String> childDeleteSql, String deleteSql) {
+    }
+
+    private record ExpiredRow(long id, Timestamp expiry) {
+    }
+}
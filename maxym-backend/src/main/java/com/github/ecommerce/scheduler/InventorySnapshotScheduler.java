@@ -0,0 +1,30 @@
+package com.github.ecommerce.scheduler;
+
+import com.github.ecommerce.service.StockJournalService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class InventorySnapshotScheduler {
+
+    private final StockJournalService stockJournalService;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void openJournals() {
+        int opened = stockJournalService.openJournals();
+        if (opened > 0) {
+            log.info("Wrote {} opening stock movements for inventory rows without a journal", opened);
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${app.inventory.snapshot-interval:300000}")
+    public void takeSnapshots() {
+        stockJournalService.takeSnapshots();
+    }
+}
@@ -0,0 +1,234 @@
+package com.github.ecommerce.scheduler;
+
+import com.github.ecommerce.service.lease.JobLeaseStore;
+import com.github.ecommerce.util.SnowflakeIdGenerator;
+import db.migration.ArchiveTables;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Moves orders that reached a terminal status more than {@code app.archive.months} ago from
+ * the hot tables to the compressed, partitioned {@code *_archive} tables, together with their
+ * items, payment and shipping rows. Each chunk of order ids is copied and deleted in its own
+ * short transaction that only locks those rows, so checkout never waits behind the job.
+ * Orders still referenced by a review or a coupon stay in the hot tier.
+ * <p>
+ * Only the node holding the {@code order-archive} lease runs; the lease is renewed after every
+ * chunk, and a run stops as soon as renewal fails, so two nodes never copy the same chunk.
+ * <p>
+ * Archive tables missing because the schema was new when migration V3 ran are created at the
+ * start of a run. If an archive table still cannot be created, or shares no columns with its
+ * hot table, the run stops before moving anything.
+ */
+@Component
+@Slf4j
+public class OrderArchiver {
+
+    private static final String LEASE = "order-archive";
+
+    private static final String SELECT_CANDIDATES =
+        "SELECT o.id FROM orders o WHERE o.id > :lastId AND o.id < :maxId AND o.created_at < :cutoff " +
+        "AND o.status IN ('DELIVERED', 'CANCELLED', 'REFUNDED', 'FAILED') " +
+        "AND NOT EXISTS (SELECT 1 FROM reviews r WHERE r.order_id = o.id) " +
+        "AND NOT EXISTS (SELECT 1 FROM coupons c WHERE c.order_id = o.id) " +
+        "ORDER BY o.id LIMIT :limit";
+
+    // Parents first for the copy; the delete runs in reverse order
+    private static final List<ArchivedTable> TABLES = List.of(
+        new ArchivedTable("orders", "id"),
+        new ArchivedTable("order_items", "order_id"),
+        new ArchivedTable("payments", "order_id"),
+        new ArchivedTable("shipping", "order_id")
+    );
+
+    private static final DateTimeFormatter PARTITION_NAME = DateTimeFormatter.ofPattern("'p'yyyyMM");
+
+    private final NamedParameterJdbcTemplate namedJdbcTemplate;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final JobLeaseStore leaseStore;
+    private final Counter archivedCounter;
+
+    @Value("${app.archive.enabled:true}")
+    private boolean enabled;
+
+    @Value("${app.archive.months:12}")
+    private int months;
+
+    @Value("${app.archive.chunk-size:200}")
+    private int chunkSize;
+
+    @Value("${app.archive.pause-millis:50}")
+    private long pauseMillis;
+
+    @Value("${app.archive.run-budget-millis:600000}")
+    private long runBudgetMillis;
+
+    @Value("${app.archive.lease-seconds:120}")
+    private long leaseSeconds;
+
+    public OrderArchiver(NamedParameterJdbcTemplate namedJdbcTemplate,
+                         TransactionTemplate transactionTemplate,
+                         JobLeaseStore leaseStore,
+                         MeterRegistry meterRegistry) {
+        this.namedJdbcTemplate = namedJdbcTemplate;
+        this.jdbcTemplate = namedJdbcTemplate.getJdbcTemplate();
+        this.transactionTemplate = transactionTemplate;
+        this.leaseStore = leaseStore;
+        this.archivedCounter = meterRegistry.counter("archive.orders.moved");
+    }
+
+    @Scheduled(cron = "${app.archive.cron:0 30 3 * * *}")
+    public void archive() {
+        Duration lease = Duration.ofSeconds(leaseSeconds);
+        if (!enabled || !leaseStore.acquire(LEASE, lease)) {
+            return;
+        }
+        try {
+            archiveUnderLease(lease);
+        } finally {
+            leaseStore.release(LEASE);
+        }
+    }
+
+    private void archiveUnderLease(Duration lease) {
+        Map<String, String> copySql = copyStatements();
+        if (copySql == null) {
+            return;
+        }
+        LocalDateTime cutoff = LocalDate.now().withDayOfMonth(1).minusMonths(months).atStartOfDay();
+        long maxId = SnowflakeIdGenerator.minIdAt(cutoff.toInstant(ZoneOffset.UTC).toEpochMilli());
+        ensurePartitions(YearMonth.from(cutoff));
+
+        long deadline = System.currentTimeMillis() + runBudgetMillis;
+        long lastId = 0;
+        long total = 0;
+        while (System.currentTimeMillis() < deadline) {
+            MapSqlParameterSource select = new MapSqlParameterSource()
+                .addValue("lastId", lastId)
+                .addValue("maxId", maxId)
+                .addValue("cutoff", Timestamp.valueOf(cutoff))
+                .addValue("limit", chunkSize);
+            List<Long> ids = namedJdbcTemplate.queryForList(SELECT_CANDIDATES, select, Long.class);
+            if (ids.isEmpty()) {
+                break;
+            }
+
+            MapSqlParameterSource chunk = new MapSqlParameterSource("ids", ids);
+            transactionTemplate.executeWithoutResult(status -> {
+                for (ArchivedTable table : TABLES) {
+                    namedJdbcTemplate.update(copySql.get(table.name()), chunk);
+                }
+                for (int i = TABLES.size() - 1; i >= 0; i--) {
+                    ArchivedTable table = TABLES.get(i);
+                    namedJdbcTemplate.update("DELETE FROM " + table.name() + " WHERE " + table.orderColumn() + " IN (:ids)", chunk);
+                }
+            });
+            total += ids.size();
+            archivedCounter.increment(ids.size());
+            lastId = ids.get(ids.size() - 1);
+            if (ids.size() < chunkSize) {
+                break;
+            }
+            if (!leaseStore.acquire(LEASE, lease)) {
+                log.warn("Lost the archive lease after {} orders, stopping", total);
+                break;
+            }
+            sleep(pauseMillis);
+        }
+        if (total > 0) {
+            log.info("Archived {} orders created before {}", total, cutoff);
+        }
+    }
+
+    // One INSERT ... SELECT per table over the columns both tiers have; null when a table cannot be archived
+    private Map<String, String> copyStatements() {
+        Map<String, String> copySql = new HashMap<>();
+        for (ArchivedTable table : TABLES) {
+            Boolean created = jdbcTemplate.execute((ConnectionCallback<Boolean>) connection ->
+                ArchiveTables.create(connection, table.name()));
+            List<String> columns = Boolean.TRUE.equals(created) ? sharedColumns(table.name()) : List.of();
+            if (!columns.contains("id") || !columns.contains(table.orderColumn())) {
+                log.error("Not archiving orders: {}_archive is missing or shares no usable columns with {} ({})",
+                    table.name(), table.name(), columns);
+                return null;
+            }
+            String list = String.join(", ", columns);
+            copySql.put(table.name(), "INSERT INTO " + table.name() + "_archive (" + list + ") SELECT " + list +
+                " FROM " + table.name() + " WHERE " + table.orderColumn() + " IN (:ids)");
+        }
+        return copySql;
+    }
+
+    // Splits one partition per month off p_max, up to and including the cutoff month
+    private void ensurePartitions(YearMonth upTo) {
+        for (ArchivedTable table : TABLES) {
+            String archive = table.name() + "_archive";
+            List<String> existing = jdbcTemplate.queryForList(
+                "SELECT PARTITION_NAME FROM information_schema.PARTITIONS " +
+                "WHERE TABLE_SCHEMA = DATABASE() AND TABLE_NAME = ? AND PARTITION_NAME IS NOT NULL " +
+                "ORDER BY PARTITION_ORDINAL_POSITION", String.class, archive);
+            if (existing.isEmpty()) {
+                continue;
+            }
+            YearMonth month = existing.size() > 1
+                ? YearMonth.parse(existing.get(existing.size() - 2), PARTITION_NAME).plusMonths(1)
+                : YearMonth.from(Instant.ofEpochMilli(SnowflakeIdGenerator.EPOCH_MILLIS).atZone(ZoneOffset.UTC));
+            List<String> partitions = new ArrayList<>();
+            for (; !month.isAfter(upTo); month = month.plusMonths(1)) {
+                long upperBound = SnowflakeIdGenerator.minIdAt(
+                    month.plusMonths(1).atDay(1).atStartOfDay().toInstant(ZoneOffset.UTC).toEpochMilli());
+                partitions.add("PARTITION " + month.format(PARTITION_NAME) + " VALUES LESS THAN (" + upperBound + ")");
+            }
+            if (!partitions.isEmpty()) {
+                partitions.add("PARTITION p_max VALUES LESS THAN MAXVALUE");
+                jdbcTemplate.execute("ALTER TABLE " + archive + " REORGANIZE PARTITION p_max INTO (" +
+                    String.join(", ", partitions) + ")");
+                log.info("Added {} monthly partitions to {}", partitions.size() - 1, archive);
+            }
+        }
+    }
+
+    private List<String> sharedColumns(String table) {
+        String sql = "SELECT COLUMN_NAME FROM information_schema.COLUMNS " +
+            "WHERE TABLE_SCHEMA = DATABASE() AND TABLE_NAME = ? ORDER BY ORDINAL_POSITION";
+        Set<String> hot = Set.copyOf(jdbcTemplate.queryForList(sql, String.class, table));
+        return jdbcTemplate.queryForList(sql, String.class, table + "_archive").stream()
+            .filter(hot::contains)
+            .toList();
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private record ArchivedTable(String name, String orderColumn) {
+    }
+}
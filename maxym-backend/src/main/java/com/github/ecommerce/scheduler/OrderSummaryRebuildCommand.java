@@ -0,0 +1,37 @@
+package com.github.ecommerce.scheduler;
+
+import com.github.ecommerce.service.OrderSummaryProjector;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * Backfills or repairs the order history read model, e.g. {@code --rebuild-order-summaries}
+ * for all orders or {@code --rebuild-order-summaries=123,456} for specific order ids.
+ */
+@Component
+@RequiredArgsConstructor
+public class OrderSummaryRebuildCommand implements ApplicationRunner {
+
+    private final OrderSummaryProjector orderSummaryProjector;
+
+    @Override
+    public void run(ApplicationArguments args) {
+        if (!args.containsOption("rebuild-order-summaries")) {
+            return;
+        }
+        List<String> orderIds = args.getOptionValues("rebuild-order-summaries");
+        if (orderIds.isEmpty()) {
+            orderSummaryProjector.rebuildAll();
+            return;
+        }
+        for (String value : orderIds) {
+            for (String orderId : value.split(",")) {
+                orderSummaryProjector.rebuild(Long.parseLong(orderId.trim()));
+            }
+        }
+    }
+}
@@ -0,0 +1,146 @@
+package com.github.ecommerce.scheduler;
+
+import com.github.ecommerce.service.outbox.OutboxMessage;
+import com.github.ecommerce.service.outbox.OutboxOffsetStore;
+import com.github.ecommerce.service.outbox.OutboxSink;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Drains {@code outbox_events} in commit sequence order and hands each batch to every enabled
+ * sink.
+ * <p>
+ * One batch is one transaction: the relay offset row is locked, the next events after the
+ * offset are read, all sinks publish, and the offset moves forward. If any sink fails the
+ * transaction rolls back and the same batch is offered again on the next pass, so delivery is
+ * at least once. The offset lock also serializes relays running on several nodes. Sequences
+ * are assigned at commit by {@link com.github.ecommerce.service.outbox.OutboxWriter}, so an
+ * event can never commit below an offset that already moved past it, however long its
+ * transaction ran.
+ */
+@Component
+@Slf4j
+public class OutboxRelay {
+
+    private static final String RELAY_OFFSET = "relay";
+
+    private static final String SELECT_BATCH =
+        "SELECT id, commit_sequence, aggregate_type, aggregate_id, event_type, payload, created_at FROM outbox_events " +
+        "WHERE commit_sequence > ? ORDER BY commit_sequence LIMIT ?";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final OutboxOffsetStore offsetStore;
+    private final List<OutboxSink> sinks;
+    private final MeterRegistry meterRegistry;
+    private final Timer batchTimer;
+    private final Counter failureCounter;
+    private final AtomicLong lagSeconds = new AtomicLong();
+
+    @Value("${app.outbox.relay.batch-size:500}")
+    private int batchSize;
+
+    @Value("${app.outbox.relay.run-budget-millis:5000}")
+    private long runBudgetMillis;
+
+    @Value("${app.outbox.retention-hours:72}")
+    private long retentionHours;
+
+    public OutboxRelay(JdbcTemplate jdbcTemplate,
+                       TransactionTemplate transactionTemplate,
+                       OutboxOffsetStore offsetStore,
+                       List<OutboxSink> sinks,
+                       MeterRegistry meterRegistry,
+                       @Value("${app.outbox.sinks:in-process}") Set<String> enabledSinks) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.offsetStore = offsetStore;
+        this.sinks = sinks.stream().filter(sink -> enabledSinks.contains(sink.name())).toList();
+        this.meterRegistry = meterRegistry;
+        this.batchTimer = Timer.builder("outbox.relay.batch.duration").register(meterRegistry);
+        this.failureCounter = meterRegistry.counter("outbox.relay.failures");
+        meterRegistry.gauge("outbox.relay.lag.seconds", lagSeconds);
+        log.info("Outbox relay publishing to {}", this.sinks.stream().map(OutboxSink::name).toList());
+    }
+
+    @Scheduled(fixedDelayString = "${app.outbox.relay.interval:500}")
+    public void relay() {
+        if (sinks.isEmpty()) {
+            return;
+        }
+        long deadline = System.currentTimeMillis() + runBudgetMillis;
+        try {
+            while (System.currentTimeMillis() < deadline) {
+                int relayed = relayBatch();
+                if (relayed < batchSize) {
+                    break;
+                }
+            }
+        } catch (RuntimeException e) {
+            failureCounter.increment();
+            log.warn("Outbox relay failed, batch will be retried: {}", e.getMessage());
+        }
+        updateLag();
+    }
+
+    @Scheduled(fixedDelayString = "${app.outbox.purge-interval:3600000}")
+    public void purge() {
+        Long offset = jdbcTemplate.queryForObject(
+            "SELECT COALESCE(MAX(last_event_id), 0) FROM outbox_offsets WHERE consumer = ?", Long.class, RELAY_OFFSET);
+        Timestamp cutoff = Timestamp.valueOf(LocalDateTime.now().minusHours(retentionHours));
+        int deleted;
+        do {
+            // Rows without a sequence predate it; committed rows always have one
+            deleted = jdbcTemplate.update("DELETE FROM outbox_events " +
+                "WHERE (commit_sequence IS NULL OR commit_sequence <= ?) AND created_at < ? ORDER BY created_at LIMIT ?",
+                offset, cutoff, batchSize);
+        } while (deleted == batchSize);
+    }
+
+    private int relayBatch() {
+        Integer relayed = transactionTemplate.execute(status -> {
+            long offset = offsetStore.lock(RELAY_OFFSET);
+            List<OutboxMessage> batch = jdbcTemplate.query(SELECT_BATCH, (rs, rowNum) -> new OutboxMessage(
+                rs.getLong("id"),
+                rs.getLong("commit_sequence"),
+                rs.getString("aggregate_type"),
+                rs.getString("aggregate_id"),
+                rs.getString("event_type"),
+                rs.getString("payload"),
+                rs.getTimestamp("created_at").toLocalDateTime()), offset, batchSize);
+            if (batch.isEmpty()) {
+                return 0;
+            }
+            batchTimer.record(() -> sinks.forEach(sink -> {
+                sink.publish(batch);
+                meterRegistry.counter("outbox.events.relayed", "sink", sink.name()).increment(batch.size());
+            }));
+            offsetStore.advance(RELAY_OFFSET, batch.get(batch.size() - 1).sequence());
+            return batch.size();
+        });
+        return relayed != null ? relayed : 0;
+    }
+
+    private void updateLag() {
+        List<Timestamp> oldest = jdbcTemplate.queryForList(
+            "SELECT e.created_at FROM outbox_events e WHERE e.commit_sequence > " +
+            "(SELECT COALESCE(MAX(o.last_event_id), 0) FROM outbox_offsets o WHERE o.consumer = ?) ORDER BY e.commit_sequence LIMIT 1",
+            Timestamp.class, RELAY_OFFSET);
+        lagSeconds.set(oldest.isEmpty() ? 0
+            : Math.max(0, Duration.between(oldest.get(0).toLocalDateTime(), LocalDateTime.now()).getSeconds()));
+    }
+}
@@ -0,0 +1,201 @@
+package com.github.ecommerce.scheduler;
+
+import com.github.ecommerce.service.lease.JobLeaseStore;
+import com.github.ecommerce.service.payment.PaymentChargeService;
+import com.github.ecommerce.service.payment.PaymentGatewayRouter;
+import com.google.common.util.concurrent.RateLimiter;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Retries payments that are stuck: charges that got no answer from the gateway, and payments
+ * still open long after their charge because the webhook never came. Due payments are read in
+ * keyset batches along {@code idx_payment_retry}, oldest first, and handed to
+ * {@link PaymentChargeService#retry} on a few threads behind one rate limiter, so the gateway
+ * and the database see a steady trickle however large the backlog. Backoff and the
+ * per-payment budget live in the service.
+ * <p>
+ * Only the node holding the {@code payment-retry} lease runs; the lease is renewed after every
+ * batch, and a run stops as soon as renewal fails. A row lock cannot be used as in the outbox
+ * relay because it would keep a connection open across the gateway calls. Stuck payments that
+ * were never scheduled, e.g. when the node died between checkout and the charge, are scheduled
+ * at the start of each run.
+ */
+@Component
+@Slf4j
+public class PaymentRetryScheduler {
+
+    private static final String LEASE = "payment-retry";
+
+    private static final String SELECT_DUE =
+        "SELECT id, next_retry_at FROM payments WHERE next_retry_at <= :cutoff " +
+        "AND (next_retry_at > :lastDue OR (next_retry_at = :lastDue AND id > :lastId)) " +
+        "ORDER BY next_retry_at, id LIMIT :limit";
+
+    private static final String SCHEDULE_UNTRACKED =
+        "UPDATE payments SET next_retry_at = :now WHERE status IN ('PENDING', 'PROCESSING') AND next_retry_at IS NULL " +
+        "AND retry_attempts = 0 AND method IN (:methods) AND created_at < :stuckBefore LIMIT :limit";
+
+    private final NamedParameterJdbcTemplate namedJdbcTemplate;
+    private final JobLeaseStore leaseStore;
+    private final PaymentChargeService chargeService;
+    private final PaymentGatewayRouter gatewayRouter;
+    private final RateLimiter rateLimiter;
+    private final Counter succeededCounter;
+    private final Counter failedCounter;
+    private final AtomicLong due = new AtomicLong();
+    private final AtomicLong scheduled = new AtomicLong();
+    private final AtomicLong oldestDueSeconds = new AtomicLong();
+
+    @Value("${app.payment.retry.batch-size:200}")
+    private int batchSize;
+
+    @Value("${app.payment.retry.concurrency:4}")
+    private int concurrency;
+
+    @Value("${app.payment.retry.run-budget-millis:60000}")
+    private long runBudgetMillis;
+
+    @Value("${app.payment.retry.lease-seconds:120}")
+    private long leaseSeconds;
+
+    @Value("${app.payment.retry.stuck-after-minutes:15}")
+    private long stuckAfterMinutes;
+
+    public PaymentRetryScheduler(NamedParameterJdbcTemplate namedJdbcTemplate,
+                                 JobLeaseStore leaseStore,
+                                 PaymentChargeService chargeService,
+                                 PaymentGatewayRouter gatewayRouter,
+                                 MeterRegistry meterRegistry,
+                                 @Value("${app.payment.retry.max-per-second:20}") double maxPerSecond) {
+        this.namedJdbcTemplate = namedJdbcTemplate;
+        this.leaseStore = leaseStore;
+        this.chargeService = chargeService;
+        this.gatewayRouter = gatewayRouter;
+        this.rateLimiter = RateLimiter.create(maxPerSecond);
+        this.succeededCounter = meterRegistry.counter("payments.retry.attempts", "result", "completed");
+        this.failedCounter = meterRegistry.counter("payments.retry.attempts", "result", "error");
+        meterRegistry.gauge("payments.retry.backlog", due);
+        meterRegistry.gauge("payments.retry.scheduled", scheduled);
+        meterRegistry.gauge("payments.retry.oldest.seconds", oldestDueSeconds);
+    }
+
+    @Scheduled(fixedDelayString = "${app.payment.retry.interval:15000}")
+    public void run() {
+        Duration lease = Duration.ofSeconds(leaseSeconds);
+        if (!gatewayRouter.methods().isEmpty() && leaseStore.acquire(LEASE, lease)) {
+            try {
+                scheduleUntracked();
+                retryDue(lease);
+            } catch (RuntimeException e) {
+                log.warn("Payment retry run failed: {}", e.getMessage());
+            } finally {
+                leaseStore.release(LEASE);
+            }
+        }
+        updateBacklog();
+    }
+
+    private void scheduleUntracked() {
+        LocalDateTime now = LocalDateTime.now();
+        int scheduledNow = namedJdbcTemplate.update(SCHEDULE_UNTRACKED, new MapSqlParameterSource()
+            .addValue("now", Timestamp.valueOf(now))
+            .addValue("methods", gatewayRouter.methods().stream().map(Enum::name).toList())
+            .addValue("stuckBefore", Timestamp.valueOf(now.minusMinutes(stuckAfterMinutes)))
+            .addValue("limit", batchSize));
+        if (scheduledNow > 0) {
+            log.info("Scheduled {} stuck payments for a retry", scheduledNow);
+        }
+    }
+
+    private void retryDue(Duration lease) {
+        long deadline = System.currentTimeMillis() + runBudgetMillis;
+        Timestamp cutoff = Timestamp.valueOf(LocalDateTime.now());
+        Timestamp lastDue = new Timestamp(0);
+        long lastId = 0;
+        ExecutorService executor = Executors.newFixedThreadPool(concurrency);
+        try {
+            while (System.currentTimeMillis() < deadline) {
+                List<DuePayment> batch = namedJdbcTemplate.query(SELECT_DUE, new MapSqlParameterSource()
+                    .addValue("cutoff", cutoff)
+                    .addValue("lastDue", lastDue)
+                    .addValue("lastId", lastId)
+                    .addValue("limit", batchSize),
+                    (rs, rowNum) -> new DuePayment(rs.getLong("id"), rs.getTimestamp("next_retry_at")));
+                if (batch.isEmpty()) {
+                    break;
+                }
+                List<Future<?>> retries = new ArrayList<>(batch.size());
+                for (DuePayment payment : batch) {
+                    rateLimiter.acquire();
+                    retries.add(executor.submit(() -> retry(payment.id())));
+                }
+                for (Future<?> retry : retries) {
+                    retry.get();
+                }
+                DuePayment last = batch.get(batch.size() - 1);
+                lastDue = last.nextRetryAt();
+                lastId = last.id();
+                if (batch.size() < batchSize) {
+                    break;
+                }
+                if (!leaseStore.acquire(LEASE, lease)) {
+                    log.warn("Lost the payment retry lease, stopping this run");
+                    break;
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException e) {
+            throw new IllegalStateException(e.getCause());
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    private void retry(long paymentId) {
+        try {
+            chargeService.retry(paymentId);
+            succeededCounter.increment();
+        } catch (RuntimeException e) {
+            failedCounter.increment();
+            log.warn("Retry of payment {} failed: {}", paymentId, e.getMessage());
+        }
+    }
+
+    private void updateBacklog() {
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        namedJdbcTemplate.query(
+            "SELECT COUNT(*) AS scheduled, COALESCE(SUM(next_retry_at <= :now), 0) AS due, " +
+            "MIN(next_retry_at) AS oldest FROM payments WHERE next_retry_at IS NOT NULL",
+            Map.of("now", now), rs -> {
+                scheduled.set(rs.getLong("scheduled"));
+                due.set(rs.getLong("due"));
+                Timestamp oldest = rs.getTimestamp("oldest");
+                oldestDueSeconds.set(oldest == null || oldest.after(now)
+                    ? 0
+                    : Duration.between(oldest.toLocalDateTime(), now.toLocalDateTime()).getSeconds());
+            });
+    }
+
+    private record DuePayment(long id, Timestamp nextRetryAt) {
+    }
+}
@@ -0,0 +1,57 @@
+package com.github.ecommerce.scheduler;
+
+import com.github.ecommerce.exception.BusinessException;
+import com.github.ecommerce.service.reconciliation.SettlementReconciler;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.List;
+
+/**
+ * Reconciles a settlement report, e.g.
+ * {@code --reconcile-settlement=stripe-2026-09.csv --month=2026-09 --report=discrepancies.csv}.
+ * Instead of {@code --month}, {@code --from} and {@code --to} give any range of days; the end is
+ * exclusive. Without {@code --report} the report is written next to the settlement file.
+ */
+@Component
+@RequiredArgsConstructor
+public class SettlementReconciliationCommand implements ApplicationRunner {
+
+    private final SettlementReconciler reconciler;
+
+    @Override
+    public void run(ApplicationArguments args) throws IOException {
+        if (!args.containsOption("reconcile-settlement")) {
+            return;
+        }
+        Path settlementFile = Path.of(single(args, "reconcile-settlement"));
+        LocalDate from;
+        LocalDate to;
+        if (args.containsOption("month")) {
+            YearMonth month = YearMonth.parse(single(args, "month"));
+            from = month.atDay(1);
+            to = month.plusMonths(1).atDay(1);
+        } else {
+            from = LocalDate.parse(single(args, "from"));
+            to = LocalDate.parse(single(args, "to"));
+        }
+        Path report = args.containsOption("report")
+            ? Path.of(single(args, "report"))
+            : settlementFile.resolveSibling(settlementFile.getFileName() + ".discrepancies.csv");
+        reconciler.reconcile(settlementFile, from, to, report);
+    }
+
+    private static String single(ApplicationArguments args, String option) {
+        List<String> values = args.getOptionValues(option);
+        if (values == null || values.size() != 1 || values.get(0).isBlank()) {
+            throw new BusinessException("--" + option + " needs exactly one value");
+        }
+        return values.get(0);
+    }
+}
@@ -0,0 +1,43 @@
+package com.github.ecommerce.scheduler;
+
+import com.github.ecommerce.dto.response.StockLevelResponse;
+import com.github.ecommerce.service.StockJournalService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Recomputes stock for a SKU from the journal, e.g.
+ * {@code --rebuild-stock=SKU-123 --as-of=2024-01-31T23:59:59}.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class StockRebuildCommand implements ApplicationRunner {
+
+    private final StockJournalService stockJournalService;
+
+    @Override
+    public void run(ApplicationArguments args) {
+        if (!args.containsOption("rebuild-stock")) {
+            return;
+        }
+        LocalDateTime asOf = args.containsOption("as-of")
+            ? LocalDateTime.parse(args.getOptionValues("as-of").get(0))
+            : LocalDateTime.now();
+
+        for (String sku : args.getOptionValues("rebuild-stock")) {
+            List<StockLevelResponse> levels = stockJournalService.rebuild(sku, asOf);
+            if (levels.isEmpty()) {
+                log.warn("No inventory found for SKU {}", sku);
+            }
+            levels.forEach(level -> log.info("SKU {} inventory {} as of {}: quantity={}, reserved={}, available={}",
+                sku, level.getInventoryId(), asOf, level.getQuantity(), level.getReservedQuantity(), level.getAvailableQuantity()));
+        }
+    }
+}
@@ -0,0 +1,37 @@
+package com.github.ecommerce.scheduler;
+
+import com.github.ecommerce.service.shipping.TrackingFeedParser;
+import com.github.ecommerce.service.shipping.TrackingIngestionService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * Applies carrier tracking files, e.g. {@code --ingest-tracking=brt-2026-10-19.csv}. The option
+ * may be repeated; files are read in the order given, and {@code .csv} files as CSV.
+ */
+@Component
+@RequiredArgsConstructor
+public class TrackingFeedCommand implements ApplicationRunner {
+
+    private final TrackingIngestionService ingestionService;
+
+    @Override
+    public void run(ApplicationArguments args) throws IOException {
+        if (!args.containsOption("ingest-tracking")) {
+            return;
+        }
+        for (String file : args.getOptionValues("ingest-tracking")) {
+            Path path = Path.of(file);
+            try (InputStream in = Files.newInputStream(path)) {
+                ingestionService.ingest(in, TrackingFeedParser.Format.of(path.getFileName().toString()));
+            }
+        }
+    }
+}
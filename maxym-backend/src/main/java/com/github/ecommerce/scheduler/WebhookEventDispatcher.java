@@ -0,0 +1,166 @@
+package com.github.ecommerce.scheduler;
+
+import com.github.ecommerce.entity.Payment;
+import com.github.ecommerce.service.lease.JobLeaseStore;
+import com.github.ecommerce.service.webhook.PaymentWebhookProcessor;
+import com.github.ecommerce.service.webhook.PendingWebhook;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Drains {@code webhook_events} into {@link PaymentWebhookProcessor}.
+ * <p>
+ * Each pass takes the oldest pending events in id order and splits them into lanes by the hash
+ * of their transaction id, so all events of one payment land in the same lane and are applied
+ * in arrival order while different payments proceed on separate workers. The pass waits for
+ * every lane before reading the next batch, which keeps a later event of a transaction from
+ * overtaking an earlier one still in flight. A lane that fails is pushed back with a growing
+ * delay and does not hold up the others.
+ * <p>
+ * Only the node holding the {@code payment-webhooks} lease dispatches; the lease is renewed
+ * after every batch and a run stops as soon as renewal fails. Batches are read without a
+ * transaction: a row lock held while the lanes run would keep a connection open per pass, and
+ * the lanes' own commits would queue behind it.
+ */
+@Component
+@Slf4j
+public class WebhookEventDispatcher {
+
+    private static final String LEASE = "payment-webhooks";
+
+    private static final String SELECT_PENDING =
+        "SELECT id, provider, event_id, event_type, transaction_id, payment_status, attempts FROM webhook_events " +
+        "WHERE processed_at IS NULL AND available_at <= ? ORDER BY id LIMIT ?";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final JobLeaseStore leaseStore;
+    private final PaymentWebhookProcessor processor;
+    private final TaskExecutor webhookExecutor;
+    private final Timer batchTimer;
+    private final Counter failureCounter;
+    private final AtomicLong backlog = new AtomicLong();
+
+    @Value("${app.webhooks.workers:4}")
+    private int workers;
+
+    @Value("${app.webhooks.batch-size:500}")
+    private int batchSize;
+
+    @Value("${app.webhooks.run-budget-millis:5000}")
+    private long runBudgetMillis;
+
+    @Value("${app.webhooks.lease-seconds:30}")
+    private long leaseSeconds;
+
+    @Value("${app.webhooks.retention-days:14}")
+    private long retentionDays;
+
+    public WebhookEventDispatcher(JdbcTemplate jdbcTemplate,
+                                  JobLeaseStore leaseStore,
+                                  PaymentWebhookProcessor processor,
+                                  @Qualifier("webhookExecutor") TaskExecutor webhookExecutor,
+                                  MeterRegistry meterRegistry) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.leaseStore = leaseStore;
+        this.processor = processor;
+        this.webhookExecutor = webhookExecutor;
+        this.batchTimer = Timer.builder("webhooks.dispatch.batch.duration").register(meterRegistry);
+        this.failureCounter = meterRegistry.counter("webhooks.dispatch.failures");
+        meterRegistry.gauge("webhooks.backlog", backlog);
+    }
+
+    @Scheduled(fixedDelayString = "${app.webhooks.poll-interval:200}")
+    public void dispatch() {
+        Duration lease = Duration.ofSeconds(leaseSeconds);
+        if (leaseStore.acquire(LEASE, lease)) {
+            long deadline = System.currentTimeMillis() + runBudgetMillis;
+            try {
+                while (System.currentTimeMillis() < deadline) {
+                    int dispatched = dispatchBatch();
+                    if (dispatched < batchSize) {
+                        break;
+                    }
+                    if (!leaseStore.acquire(LEASE, lease)) {
+                        log.warn("Lost the webhook dispatch lease, stopping this run");
+                        break;
+                    }
+                }
+            } catch (RuntimeException e) {
+                failureCounter.increment();
+                log.warn("Webhook dispatch failed, events will be retried: {}", e.getMessage());
+            } finally {
+                leaseStore.release(LEASE);
+            }
+        }
+        Long pending = jdbcTemplate.queryForObject(
+            "SELECT COUNT(*) FROM webhook_events WHERE processed_at IS NULL", Long.class);
+        backlog.set(pending != null ? pending : 0);
+    }
+
+    @Scheduled(fixedDelayString = "${app.webhooks.purge-interval:3600000}")
+    public void purge() {
+        // Kept well past the gateways' retry windows, since the rows are also the de-duplication record
+        Timestamp cutoff = Timestamp.valueOf(LocalDateTime.now().minusDays(retentionDays));
+        int deleted;
+        do {
+            deleted = jdbcTemplate.update(
+                "DELETE FROM webhook_events WHERE processed_at IS NOT NULL AND received_at < ? ORDER BY id LIMIT ?",
+                cutoff, batchSize);
+        } while (deleted == batchSize);
+    }
+
+    private int dispatchBatch() {
+        List<PendingWebhook> batch = jdbcTemplate.query(SELECT_PENDING, (rs, rowNum) -> {
+            String paymentStatus = rs.getString("payment_status");
+            return new PendingWebhook(
+                rs.getLong("id"),
+                rs.getString("provider"),
+                rs.getString("event_id"),
+                rs.getString("event_type"),
+                rs.getString("transaction_id"),
+                paymentStatus != null ? Payment.PaymentStatus.valueOf(paymentStatus) : null,
+                rs.getInt("attempts"));
+        }, Timestamp.valueOf(LocalDateTime.now()), batchSize);
+        if (batch.isEmpty()) {
+            return 0;
+        }
+
+        Map<Integer, List<PendingWebhook>> lanes = new HashMap<>();
+        for (PendingWebhook event : batch) {
+            lanes.computeIfAbsent(Math.floorMod(event.orderingKey().hashCode(), workers), lane -> new ArrayList<>())
+                .add(event);
+        }
+        batchTimer.record(() -> CompletableFuture.allOf(lanes.values().stream()
+            .map(lane -> CompletableFuture.runAsync(() -> applyLane(lane), webhookExecutor))
+            .toArray(CompletableFuture[]::new)).join());
+        return batch.size();
+    }
+
+    private void applyLane(List<PendingWebhook> lane) {
+        try {
+            processor.applyBatch(lane);
+        } catch (RuntimeException e) {
+            failureCounter.increment();
+            log.warn("Failed to apply {} webhook events starting at {}: {}", lane.size(), lane.get(0).id(), e.getMessage());
+            processor.deferFailed(lane);
+        }
+    }
+}
@@ -0,0 +1,50 @@
+package com.github.ecommerce.security;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.web.authentication.WebAuthenticationDetailsSource;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+
+/**
+ * Authenticates requests carrying a bearer token. Requests without one, or with a token
+ * {@link JwtAuthenticationService} does not accept, continue unauthenticated and are turned
+ * away by the authorization rules where authentication is required.
+ */
+@Component
+public class JwtAuthenticationFilter extends OncePerRequestFilter {
+
+    private final JwtAuthenticationService authenticationService;
+    private final String header;
+    private final String prefix;
+
+    public JwtAuthenticationFilter(JwtAuthenticationService authenticationService,
+                                   @Value("${app.security.jwt.header:Authorization}") String header,
+                                   @Value("${app.security.jwt.prefix:Bearer}") String prefix) {
+        this.authenticationService = authenticationService;
+        this.header = header;
+        this.prefix = prefix + " ";
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        String value = request.getHeader(header);
+        if (value != null && value.startsWith(prefix) && SecurityContextHolder.getContext().getAuthentication() == null) {
+            authenticationService.authenticate(value.substring(prefix.length()).trim()).ifPresent(principal -> {
+                UsernamePasswordAuthenticationToken authentication =
+                    new UsernamePasswordAuthenticationToken(principal, null, principal.authorities());
+                authentication.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
+                SecurityContextHolder.getContext().setAuthentication(authentication);
+            });
+        }
+        chain.doFilter(request, response);
+    }
+}
@@ -0,0 +1,183 @@
+package com.github.ecommerce.security;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.hash.HashCode;
+import com.google.common.hash.Hashing;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtException;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.io.Decoders;
+import io.jsonwebtoken.security.Keys;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+
+import javax.crypto.SecretKey;
+import java.nio.charset.StandardCharsets;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Turns a bearer token into a {@link JwtPrincipal} without a query or a signature check for
+ * tokens seen before. Two caches sit in front of the work:
+ * <ul>
+ *   <li>verified tokens, keyed by the SHA-256 of the token, hold the subject and {@code exp};
+ *   an entry is never used past {@code exp} and is dropped after the configured token
+ *   lifetime at the latest, so it cannot outlive the token</li>
+ *   <li>principals, keyed by email, hold the user id and role bitmask loaded with one join
+ *   instead of the {@code User} entity and its eagerly fetched roles</li>
+ * </ul>
+ * A principal is dropped on every node when its user or the user's roles change (see
+ * {@link com.github.ecommerce.entity.listener.UserChangeListener}): the node that made the
+ * change publishes the user on a Redis channel that all nodes subscribe to. Entries also expire
+ * after {@code principal-ttl-seconds}, which bounds staleness if a message is lost.
+ */
+@Service
+@Slf4j
+public class JwtAuthenticationService {
+
+    private static final String LOAD_PRINCIPAL =
+        "SELECT u.id, u.enabled, u.account_non_locked, r.name FROM users u " +
+        "LEFT JOIN user_roles ur ON ur.user_id = u.id LEFT JOIN roles r ON r.id = ur.role_id WHERE u.email = ?";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final StringRedisTemplate redisTemplate;
+    private final MeterRegistry meterRegistry;
+    private final SecretKey signingKey;
+    private final Cache<HashCode, VerifiedToken> verifiedTokens;
+    private final Cache<String, Optional<JwtPrincipal>> principals;
+
+    @Value("${app.security.jwt.invalidation-channel:auth:principal-invalidations}")
+    private String invalidationChannel;
+
+    public JwtAuthenticationService(JdbcTemplate jdbcTemplate,
+                                    StringRedisTemplate redisTemplate,
+                                    MeterRegistry meterRegistry,
+                                    @Value("${app.security.jwt.secret}") String secret,
+                                    @Value("${app.security.jwt.expiration:900000}") long tokenLifetimeMillis,
+                                    @Value("${app.security.jwt.token-cache-size:100000}") long tokenCacheSize,
+                                    @Value("${app.security.jwt.principal-cache-size:100000}") long principalCacheSize,
+                                    @Value("${app.security.jwt.principal-ttl-seconds:60}") long principalTtlSeconds) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.redisTemplate = redisTemplate;
+        this.meterRegistry = meterRegistry;
+        this.signingKey = Keys.hmacShaKeyFor(Decoders.BASE64.decode(secret));
+        this.verifiedTokens = CacheBuilder.newBuilder()
+            .maximumSize(tokenCacheSize)
+            .expireAfterWrite(tokenLifetimeMillis, TimeUnit.MILLISECONDS)
+            .build();
+        this.principals = CacheBuilder.newBuilder()
+            .maximumSize(principalCacheSize)
+            .expireAfterWrite(principalTtlSeconds, TimeUnit.SECONDS)
+            .build();
+    }
+
+    /**
+     * @return the principal of a valid token whose user is enabled and not locked, or empty
+     */
+    public Optional<JwtPrincipal> authenticate(String token) {
+        HashCode key = Hashing.sha256().hashString(token, StandardCharsets.UTF_8);
+        long now = System.currentTimeMillis();
+        VerifiedToken verified = verifiedTokens.getIfPresent(key);
+        if (verified == null) {
+            verified = verify(token);
+            if (verified == null) {
+                meterRegistry.counter("security.jwt.tokens", "result", "rejected").increment();
+                return Optional.empty();
+            }
+            verifiedTokens.put(key, verified);
+            meterRegistry.counter("security.jwt.tokens", "result", "verified").increment();
+        } else {
+            meterRegistry.counter("security.jwt.tokens", "result", "cached").increment();
+        }
+        if (verified.expiresAt() <= now) {
+            verifiedTokens.invalidate(key);
+            return Optional.empty();
+        }
+        return principal(verified.subject());
+    }
+
+    /**
+     * Drops the user's cached principal here and tells the other nodes to do the same.
+     */
+    public void invalidateEverywhere(Long userId, String email) {
+        invalidate(userId, email);
+        try {
+            redisTemplate.convertAndSend(invalidationChannel, userId + ":" + (email != null ? email : ""));
+        } catch (RuntimeException e) {
+            log.warn("Could not publish principal invalidation of user {}: {}", userId, e.getMessage());
+        }
+    }
+
+    // Message published by invalidateEverywhere, possibly on this node
+    public void onInvalidation(String message) {
+        int separator = message.indexOf(':');
+        if (separator < 0) {
+            return;
+        }
+        String userId = message.substring(0, separator);
+        String email = message.substring(separator + 1);
+        invalidate("null".equals(userId) ? null : Long.valueOf(userId), email.isEmpty() ? null : email);
+    }
+
+    /**
+     * Drops the cached principal of a user, e.g. after a role, lock or password change. Tokens
+     * stay verified; the next request reloads the user's state. The id also finds the entry
+     * under the user's previous email.
+     */
+    public void invalidate(Long userId, String email) {
+        if (email != null) {
+            principals.invalidate(email);
+        }
+        if (userId != null) {
+            principals.asMap().values().removeIf(principal -> principal.isPresent() && principal.get().userId() == userId);
+        }
+    }
+
+    private VerifiedToken verify(String token) {
+        try {
+            Claims claims = Jwts.parser().verifyWith(signingKey).build().parseSignedClaims(token).getPayload();
+            if (claims.getSubject() == null || claims.getExpiration() == null) {
+                return null;
+            }
+            return new VerifiedToken(claims.getSubject(), claims.getExpiration().getTime());
+        } catch (JwtException | IllegalArgumentException e) {
+            log.debug("Rejected JWT: {}", e.getMessage());
+            return null;
+        }
+    }
+
+    private Optional<JwtPrincipal> principal(String email) {
+        Optional<JwtPrincipal> cached = principals.getIfPresent(email);
+        if (cached == null) {
+            cached = load(email);
+            principals.put(email, cached);
+        }
+        return cached;
+    }
+
+    // Empty for unknown, disabled and locked users, so repeated requests with their tokens stay cheap too
+    private Optional<JwtPrincipal> load(String email) {
+        long[] user = {-1, 0};
+        boolean[] active = {false};
+        jdbcTemplate.query(LOAD_PRINCIPAL, rs -> {
+            user[0] = rs.getLong("id");
+            active[0] = rs.getBoolean("enabled") && rs.getBoolean("account_non_locked");
+            String role = rs.getString("name");
+            if (role != null) {
+                user[1] |= JwtPrincipal.roleBit(role);
+            }
+        }, email);
+        if (user[0] < 0 || !active[0]) {
+            return Optional.empty();
+        }
+        return Optional.of(new JwtPrincipal(user[0], email, (int) user[1]));
+    }
+
+    private record VerifiedToken(String subject, long expiresAt) {
+    }
+}
@@ -0,0 +1,56 @@
+package com.github.ecommerce.security;
+
+import com.github.ecommerce.entity.Role;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+
+import java.security.Principal;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Authenticated user as seen by request handling: the user id, the email the token names and
+ * the user's roles as a bitmask. Immutable and small enough to cache for every active user;
+ * the authority lists are shared, one per combination of roles.
+ */
+public record JwtPrincipal(long userId, String email, int roles) implements Principal {
+
+    private static final List<String> ROLE_NAMES = List.of(Role.ROLE_USER, Role.ROLE_ADMIN, Role.ROLE_MODERATOR);
+    private static final List<List<GrantedAuthority>> AUTHORITIES = buildAuthorityTable();
+
+    /**
+     * @return the bit of a role name, or 0 for a role that grants nothing here
+     */
+    public static int roleBit(String roleName) {
+        int index = ROLE_NAMES.indexOf(roleName);
+        return index >= 0 ? 1 << index : 0;
+    }
+
+    public boolean hasRole(String roleName) {
+        return (roles & roleBit(roleName)) != 0;
+    }
+
+    public Collection<GrantedAuthority> authorities() {
+        return AUTHORITIES.get(roles);
+    }
+
+    @Override
+    public String getName() {
+        return email;
+    }
+
+    private static List<List<GrantedAuthority>> buildAuthorityTable() {
+        List<List<GrantedAuthority>> byMask = new ArrayList<>(1 << ROLE_NAMES.size());
+        for (int mask = 0; mask < 1 << ROLE_NAMES.size(); mask++) {
+            List<GrantedAuthority> granted = new ArrayList<>();
+            for (int i = 0; i < ROLE_NAMES.size(); i++) {
+                if ((mask & (1 << i)) != 0) {
+                    granted.add(new SimpleGrantedAuthority(ROLE_NAMES.get(i)));
+                }
+            }
+            byMask.add(List.copyOf(granted));
+        }
+        return List.copyOf(byMask);
+    }
+}
@@ -0,0 +1,88 @@
+package com.github.ecommerce.service;
+
+import com.github.ecommerce.dto.response.OrderHistoryResponse;
+import com.github.ecommerce.dto.response.OrderSummaryResponse;
+import com.github.ecommerce.entity.OrderSummary;
+import com.github.ecommerce.exception.BusinessException;
+import com.github.ecommerce.exception.ResourceNotFoundException;
+import com.github.ecommerce.repository.OrderSummaryRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Base64;
+import java.util.List;
+
+/**
+ * Customer order history served from {@code order_summaries}. Pages are addressed by a keyset
+ * cursor (created_at, order_id) of the last row returned, so page N costs the same as page 1.
+ * A single order is read through {@link OrderLookupService}, so orders that have moved to the
+ * archive can still be opened.
+ */
+@Service
+@RequiredArgsConstructor
+public class OrderHistoryService {
+
+    private final OrderSummaryRepository orderSummaryRepository;
+    private final OrderLookupService orderLookupService;
+
+    @Value("${app.order-summary.max-page-size:100}")
+    private int maxPageSize;
+
+    @Transactional(readOnly = true)
+    public OrderHistoryResponse findOrders(Long userId, String cursor, int size) {
+        int pageSize = Math.max(1, Math.min(size, maxPageSize));
+        // One extra row tells whether another page exists without a count query
+        Limit limit = Limit.of(pageSize + 1);
+
+        List<OrderSummary> rows;
+        if (cursor == null || cursor.isBlank()) {
+            rows = orderSummaryRepository.findLatest(userId, limit);
+        } else {
+            Cursor position = Cursor.decode(cursor);
+            rows = orderSummaryRepository.findOlderThan(userId, position.createdAt(), position.orderId(), limit);
+        }
+
+        boolean hasMore = rows.size() > pageSize;
+        List<OrderSummary> page = hasMore ? rows.subList(0, pageSize) : rows;
+        String nextCursor = null;
+        if (hasMore) {
+            OrderSummary last = page.get(page.size() - 1);
+            nextCursor = new Cursor(last.getCreatedAt(), last.getOrderId()).encode();
+        }
+        return OrderHistoryResponse.builder()
+            .orders(page.stream().map(OrderSummaryResponse::from).toList())
+            .nextCursor(nextCursor)
+            .build();
+    }
+
+    @Transactional(readOnly = true)
+    public OrderSummaryResponse findOrder(Long userId, String orderNumber) {
+        return orderLookupService.findByOrderNumber(orderNumber)
+            .filter(order -> order.getUser().getId().equals(userId))
+            .map(OrderSummaryResponse::from)
+            .orElseThrow(() -> new ResourceNotFoundException("Order", orderNumber));
+    }
+
+    record Cursor(LocalDateTime createdAt, Long orderId) {
+
+        String encode() {
+            String raw = createdAt + "|" + orderId;
+            return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+        }
+
+        static Cursor decode(String cursor) {
+            try {
+                String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+                int separator = raw.indexOf('|');
+                return new Cursor(LocalDateTime.parse(raw.substring(0, separator)), Long.parseLong(raw.substring(separator + 1)));
+            } catch (RuntimeException e) {
+                throw new BusinessException("Invalid order history cursor");
+            }
+        }
+    }
+}
@@ -0,0 +1,99 @@
+package com.github.ecommerce.service;
+
+import com.github.ecommerce.entity.Order;
+import com.github.ecommerce.entity.OrderItem;
+import com.github.ecommerce.entity.Payment;
+import com.github.ecommerce.entity.Shipping;
+import com.github.ecommerce.repository.OrderRepository;
+import com.github.ecommerce.util.OrderNumberGenerator;
+import jakarta.persistence.EntityManager;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Finds orders in either tier. The hot tables are tried first, except for order numbers whose
+ * embedded creation time is older than the archive horizon, which go to the archive first.
+ * Orders read from the archive are detached and must be treated as read-only.
+ */
+@Service
+@RequiredArgsConstructor
+public class OrderLookupService {
+
+    private final OrderRepository orderRepository;
+    private final EntityManager entityManager;
+
+    @Value("${app.archive.months:12}")
+    private int archiveMonths;
+
+    @Transactional(readOnly = true)
+    public Optional<Order> findById(Long orderId) {
+        Optional<Order> hot = orderRepository.findById(orderId);
+        return hot.isPresent() ? hot : findArchived("id", orderId);
+    }
+
+    @Transactional(readOnly = true)
+    public Optional<Order> findByOrderNumber(String orderNumber) {
+        if (OrderNumberGenerator.isValid(orderNumber) && OrderNumberGenerator.timestampOf(orderNumber) < archiveHorizonMillis()) {
+            Optional<Order> archived = findArchived("order_number", orderNumber);
+            return archived.isPresent() ? archived : orderRepository.findByOrderNumber(orderNumber);
+        }
+        Optional<Order> hot = orderRepository.findByOrderNumber(orderNumber);
+        return hot.isPresent() ? hot : findArchived("order_number", orderNumber);
+    }
+
+    @SuppressWarnings("unchecked")
+    private Optional<Order> findArchived(String column, Object value) {
+        List<Order> orders = entityManager.createNativeQuery(
+                "SELECT * FROM orders_archive WHERE " + column + " = :value", Order.class)
+            .setParameter("value", value)
+            .getResultList();
+        if (orders.isEmpty()) {
+            return Optional.empty();
+        }
+        Order order = orders.get(0);
+        // Detach before touching associations so nothing is ever flushed to the hot tables
+        entityManager.detach(order);
+
+        List<OrderItem> items = entityManager.createNativeQuery(
+                "SELECT * FROM order_items_archive WHERE order_id = :orderId ORDER BY id", OrderItem.class)
+            .setParameter("orderId", order.getId())
+            .getResultList();
+        List<Payment> payments = entityManager.createNativeQuery(
+                "SELECT * FROM payments_archive WHERE order_id = :orderId", Payment.class)
+            .setParameter("orderId", order.getId())
+            .getResultList();
+        List<Shipping> shipments = entityManager.createNativeQuery(
+                "SELECT * FROM shipping_archive WHERE order_id = :orderId", Shipping.class)
+            .setParameter("orderId", order.getId())
+            .getResultList();
+
+        items.forEach(item -> {
+            entityManager.detach(item);
+            item.setOrder(order);
+        });
+        order.setItems(items);
+        payments.stream().findFirst().ifPresent(payment -> {
+            entityManager.detach(payment);
+            payment.setOrder(order);
+            order.setPayment(payment);
+        });
+        shipments.stream().findFirst().ifPresent(shipping -> {
+            entityManager.detach(shipping);
+            shipping.setOrder(order);
+            order.setShipping(shipping);
+        });
+        return Optional.of(order);
+    }
+
+    private long archiveHorizonMillis() {
+        return LocalDate.now().withDayOfMonth(1).minusMonths(archiveMonths)
+            .atStartOfDay().toInstant(ZoneOffset.UTC).toEpochMilli();
+    }
+}
@@ -0,0 +1,166 @@
+package com.github.ecommerce.service;
+
+import com.github.ecommerce.entity.Order;
+import com.github.ecommerce.entity.OrderItem;
+import com.github.ecommerce.entity.Payment;
+import com.github.ecommerce.entity.Shipping;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Maintains {@code order_summaries} from entity lifecycle callbacks. Every change is applied as
+ * a single-row delta (upsert, counter increment, column overwrite), never by re-reading the
+ * source tables: Hibernate may still hold the triggering statement in a JDBC batch when the
+ * callback fires. The statements run on the connection of the surrounding JPA transaction, so
+ * the summary commits or rolls back together with the order.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class OrderSummaryProjector {
+
+    private static final String UPSERT_ORDER =
+        "INSERT INTO order_summaries (order_id, user_id, order_number, status, total_amount, currency_code, " +
+        "item_count, tracking_number, created_at, updated_at) VALUES (?, ?, ?, ?, ?, ?, 0, ?, ?, ?) " +
+        "ON DUPLICATE KEY UPDATE status = VALUES(status), total_amount = VALUES(total_amount), " +
+        "currency_code = VALUES(currency_code), tracking_number = COALESCE(VALUES(tracking_number), tracking_number), " +
+        "updated_at = VALUES(updated_at)";
+
+    // first_item_image_url is assigned before first_item_name because MySQL applies SET left to right
+    private static final String ADD_ITEM =
+        "UPDATE order_summaries SET item_count = item_count + ?, " +
+        "first_item_image_url = IF(first_item_name IS NULL, ?, first_item_image_url), " +
+        "first_item_name = COALESCE(first_item_name, ?) WHERE order_id = ?";
+
+    private static final String REBUILD_RANGE =
+        "INSERT INTO order_summaries (order_id, user_id, order_number, status, payment_status, shipping_status, " +
+        "total_amount, currency_code, item_count, first_item_name, first_item_image_url, tracking_number, " +
+        "created_at, updated_at) " +
+        "SELECT o.id, o.user_id, o.order_number, o.status, p.status, s.status, o.total_amount, o.currency_code, " +
+        "COALESCE((SELECT SUM(i.quantity) FROM order_items i WHERE i.order_id = o.id), 0), " +
+        "(SELECT i.product_name FROM order_items i WHERE i.order_id = o.id ORDER BY i.id LIMIT 1), " +
+        "(SELECT i.product_image_url FROM order_items i WHERE i.order_id = o.id ORDER BY i.id LIMIT 1), " +
+        "COALESCE(s.tracking_number, o.tracking_number), o.created_at, o.updated_at " +
+        "FROM orders o LEFT JOIN payments p ON p.order_id = o.id LEFT JOIN shipping s ON s.order_id = o.id " +
+        "WHERE o.id >= ? AND o.id <= ? " +
+        "ON DUPLICATE KEY UPDATE user_id = VALUES(user_id), order_number = VALUES(order_number), " +
+        "status = VALUES(status), payment_status = VALUES(payment_status), shipping_status = VALUES(shipping_status), " +
+        "total_amount = VALUES(total_amount), currency_code = VALUES(currency_code), item_count = VALUES(item_count), " +
+        "first_item_name = VALUES(first_item_name), first_item_image_url = VALUES(first_item_image_url), " +
+        "tracking_number = VALUES(tracking_number), created_at = VALUES(created_at), updated_at = VALUES(updated_at)";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Value("${app.order-summary.rebuild-batch-size:1000}")
+    private int rebuildBatchSize;
+
+    public void orderChanged(Order order) {
+        LocalDateTime now = LocalDateTime.now();
+        jdbcTemplate.update(UPSERT_ORDER,
+            order.getId(),
+            order.getUser().getId(),
+            order.getOrderNumber(),
+            order.getStatus().name(),
+            order.getTotalAmount(),
+            order.getCurrencyCode(),
+            order.getTrackingNumber(),
+            Timestamp.valueOf(order.getCreatedAt() != null ? order.getCreatedAt() : now),
+            Timestamp.valueOf(now));
+    }
+
+    public void orderRemoved(Order order) {
+        jdbcTemplate.update("DELETE FROM order_summaries WHERE order_id = ?", order.getId());
+    }
+
+    public void itemAdded(OrderItem item) {
+        jdbcTemplate.update(ADD_ITEM,
+            item.getQuantity(),
+            item.getProductImageUrl(),
+            item.getProductName(),
+            item.getOrder().getId());
+    }
+
+    // Lines of a placed order are not edited in place, so updates need no delta
+    public void itemRemoved(OrderItem item) {
+        jdbcTemplate.update("UPDATE order_summaries SET item_count = GREATEST(item_count - ?, 0) WHERE order_id = ?",
+            item.getQuantity(), item.getOrder().getId());
+    }
+
+    public void paymentChanged(Payment payment) {
+        jdbcTemplate.update("UPDATE order_summaries SET payment_status = ?, updated_at = ? WHERE order_id = ?",
+            payment.getStatus().name(), Timestamp.valueOf(LocalDateTime.now()), payment.getOrder().getId());
+    }
+
+    public void shippingChanged(Shipping shipping) {
+        jdbcTemplate.update("UPDATE order_summaries SET shipping_status = ?, " +
+                "tracking_number = COALESCE(?, tracking_number), updated_at = ? WHERE order_id = ?",
+            shipping.getStatus().name(), shipping.getTrackingNumber(),
+            Timestamp.valueOf(LocalDateTime.now()), shipping.getOrder().getId());
+    }
+
+    /**
+     * Applies a bulk status change. {@code trackingNumbers} maps each order id to its new
+     * tracking number, or to null to keep the current one. The shipping status is read back
+     * from {@code shipping}, which the bulk caller has already updated with plain JDBC.
+     */
+    public void statusChanged(Order.OrderStatus status, Map<Long, String> trackingNumbers) {
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        List<Object[]> rows = new ArrayList<>(trackingNumbers.size());
+        trackingNumbers.forEach((orderId, trackingNumber) ->
+            rows.add(new Object[] {status.name(), trackingNumber, now, orderId}));
+        jdbcTemplate.batchUpdate("UPDATE order_summaries SET status = ?, " +
+            "shipping_status = COALESCE((SELECT s.status FROM shipping s WHERE s.order_id = order_summaries.order_id), shipping_status), " +
+            "tracking_number = COALESCE(?, tracking_number), updated_at = ? WHERE order_id = ?", rows);
+    }
+
+    /**
+     * Bulk counterpart of {@link #shippingChanged(Shipping)} for orders whose own status did
+     * not change; the shipping status and tracking number are read back from {@code shipping}.
+     */
+    public void shippingStatusesChanged(Collection<Long> orderIds) {
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        List<Object[]> rows = new ArrayList<>(orderIds.size());
+        orderIds.forEach(orderId -> rows.add(new Object[] {now, orderId}));
+        jdbcTemplate.batchUpdate("UPDATE order_summaries SET " +
+            "shipping_status = COALESCE((SELECT s.status FROM shipping s WHERE s.order_id = order_summaries.order_id), shipping_status), " +
+            "tracking_number = COALESCE((SELECT s.tracking_number FROM shipping s WHERE s.order_id = order_summaries.order_id), tracking_number), " +
+            "updated_at = ? WHERE order_id = ?", rows);
+    }
+
+    public void rebuild(Long orderId) {
+        jdbcTemplate.update(REBUILD_RANGE, orderId, orderId);
+    }
+
+    /**
+     * Recomputes summaries from the source tables in keyset batches of order ids. Used to
+     * backfill existing orders and to repair drift; each batch is its own short statement.
+     */
+    public long rebuildAll() {
+        long afterId = 0;
+        long rebuilt = 0;
+        while (true) {
+            List<Long> ids = jdbcTemplate.queryForList(
+                "SELECT id FROM orders WHERE id > ? ORDER BY id LIMIT ?", Long.class, afterId, rebuildBatchSize);
+            if (ids.isEmpty()) {
+                break;
+            }
+            long fromId = ids.get(0);
+            long toId = ids.get(ids.size() - 1);
+            jdbcTemplate.update(REBUILD_RANGE, fromId, toId);
+            rebuilt += ids.size();
+            afterId = toId;
+        }
+        log.info("Rebuilt {} order summaries", rebuilt);
+        return rebuilt;
+    }
+}
@@ -0,0 +1,231 @@
+package com.github.ecommerce.service;
+
+import com.github.ecommerce.dto.request.BulkOrderTransitionRequest;
+import com.github.ecommerce.dto.response.BulkOrderTransitionResponse;
+import com.github.ecommerce.dto.response.BulkOrderTransitionResponse.Failure;
+import com.github.ecommerce.dto.response.BulkOrderTransitionResponse.Reason;
+import com.github.ecommerce.entity.Order.OrderStatus;
+import com.github.ecommerce.entity.OutboxEvent;
+import com.github.ecommerce.exception.BusinessException;
+import com.github.ecommerce.service.outbox.OutboxWriter;
+import com.github.ecommerce.util.SnowflakeIdGenerator;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Moves many orders to one target status without loading them as entities. Each chunk of order
+ * numbers is locked and checked against the allowed status graph with a single query, then
+ * {@code orders}, {@code shipping} and {@code order_summaries} are updated with JDBC batches and
+ * one {@link OutboxEvent#ORDER_BATCH_TRANSITIONED} event records every order the chunk moved.
+ * Chunks commit independently, so a large batch never holds its row locks for long.
+ */
+@Service
+@Slf4j
+public class OrderTransitionService {
+
+    private static final String LOCK_ORDERS =
+        "SELECT id, order_number, status, status IN (:sources) AS allowed FROM orders " +
+        "WHERE order_number IN (:orderNumbers) FOR UPDATE";
+
+    private final NamedParameterJdbcTemplate namedJdbcTemplate;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final OrderSummaryProjector orderSummaryProjector;
+    private final OutboxWriter outboxWriter;
+    private final MeterRegistry meterRegistry;
+
+    @Value("${app.order-transitions.chunk-size:1000}")
+    private int chunkSize;
+
+    @Value("${app.order-transitions.max-batch-size:20000}")
+    private int maxBatchSize;
+
+    public OrderTransitionService(NamedParameterJdbcTemplate namedJdbcTemplate,
+                                  TransactionTemplate transactionTemplate,
+                                  OrderSummaryProjector orderSummaryProjector,
+                                  OutboxWriter outboxWriter,
+                                  MeterRegistry meterRegistry) {
+        this.namedJdbcTemplate = namedJdbcTemplate;
+        this.jdbcTemplate = namedJdbcTemplate.getJdbcTemplate();
+        this.transactionTemplate = transactionTemplate;
+        this.orderSummaryProjector = orderSummaryProjector;
+        this.outboxWriter = outboxWriter;
+        this.meterRegistry = meterRegistry;
+    }
+
+    public BulkOrderTransitionResponse transition(BulkOrderTransitionRequest request) {
+        OrderStatus target = request.getTargetStatus();
+        Set<OrderStatus> sources = OrderStatus.sourcesOf(target);
+        if (sources.isEmpty()) {
+            throw new BusinessException("Orders cannot be moved to " + target);
+        }
+        if (request.getOrders().size() > maxBatchSize) {
+            throw new BusinessException("A batch can transition at most " + maxBatchSize + " orders");
+        }
+        long started = System.nanoTime();
+        long batchId = SnowflakeIdGenerator.getInstance().nextId();
+
+        List<Failure> failures = new ArrayList<>();
+        Map<String, BulkOrderTransitionRequest.Line> lines = new LinkedHashMap<>();
+        for (BulkOrderTransitionRequest.Line line : request.getOrders()) {
+            if (lines.putIfAbsent(line.getOrderNumber(), line) != null) {
+                failures.add(new Failure(line.getOrderNumber(), Reason.DUPLICATE, null));
+            }
+        }
+
+        List<BulkOrderTransitionRequest.Line> unique = new ArrayList<>(lines.values());
+        List<String> sourceNames = sources.stream().map(Enum::name).toList();
+        int transitioned = 0;
+        for (int from = 0; from < unique.size(); from += chunkSize) {
+            List<BulkOrderTransitionRequest.Line> chunk = unique.subList(from, Math.min(from + chunkSize, unique.size()));
+            List<Failure> chunkFailures = new ArrayList<>();
+            Integer moved = transactionTemplate.execute(status ->
+                transitionChunk(batchId, target, sourceNames, chunk, chunkFailures));
+            transitioned += moved != null ? moved : 0;
+            failures.addAll(chunkFailures);
+        }
+
+        long durationNanos = System.nanoTime() - started;
+        meterRegistry.timer("orders.bulk-transition.duration", "status", target.name())
+            .record(durationNanos, TimeUnit.NANOSECONDS);
+        meterRegistry.counter("orders.bulk-transition.orders", "status", target.name()).increment(transitioned);
+        log.info("Bulk transition {} moved {} of {} orders to {} ({} failures)",
+            batchId, transitioned, request.getOrders().size(), target, failures.size());
+
+        return BulkOrderTransitionResponse.builder()
+            .batchId(batchId)
+            .targetStatus(target)
+            .requested(request.getOrders().size())
+            .transitioned(transitioned)
+            .failures(failures)
+            .durationMillis(TimeUnit.NANOSECONDS.toMillis(durationNanos))
+            .build();
+    }
+
+    private int transitionChunk(long batchId, OrderStatus target, List<String> sourceNames,
+                                List<BulkOrderTransitionRequest.Line> chunk, List<Failure> failures) {
+        MapSqlParameterSource params = new MapSqlParameterSource()
+            .addValue("sources", sourceNames)
+            .addValue("orderNumbers", chunk.stream().map(BulkOrderTransitionRequest.Line::getOrderNumber).toList());
+        Map<String, LockedOrder> locked = new HashMap<>();
+        namedJdbcTemplate.query(LOCK_ORDERS, params, (rs, rowNum) -> new LockedOrder(
+                rs.getLong("id"), rs.getString("order_number"), OrderStatus.valueOf(rs.getString("status")), rs.getBoolean("allowed")))
+            .forEach(order -> locked.put(order.orderNumber(), order));
+
+        Map<Long, BulkOrderTransitionRequest.Line> moving = new LinkedHashMap<>();
+        for (BulkOrderTransitionRequest.Line line : chunk) {
+            LockedOrder order = locked.get(line.getOrderNumber());
+            if (order == null) {
+                failures.add(new Failure(line.getOrderNumber(), Reason.NOT_FOUND, null));
+            } else if (!order.allowed()) {
+                failures.add(new Failure(line.getOrderNumber(), Reason.INVALID_TRANSITION, order.status()));
+            } else {
+                moving.put(order.id(), line);
+            }
+        }
+        if (moving.isEmpty()) {
+            return 0;
+        }
+
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        updateOrders(target, moving, now);
+        updateShipping(target, moving, now);
+
+        Map<Long, String> trackingNumbers = new LinkedHashMap<>();
+        moving.forEach((orderId, line) ->
+            trackingNumbers.put(orderId, target == OrderStatus.SHIPPED ? line.getTrackingNumber() : null));
+        orderSummaryProjector.statusChanged(target, trackingNumbers);
+
+        Map<String, Object> payload = new HashMap<>();
+        payload.put("batchId", batchId);
+        payload.put("status", target);
+        payload.put("orderIds", List.copyOf(moving.keySet()));
+        outboxWriter.append(OutboxEvent.AGGREGATE_ORDER_BATCH, batchId, OutboxEvent.ORDER_BATCH_TRANSITIONED, payload);
+        return moving.size();
+    }
+
+    // Mirrors Order#updateStatusTimestamps; amounts are untouched by a status change
+    private void updateOrders(OrderStatus target, Map<Long, BulkOrderTransitionRequest.Line> moving, Timestamp now) {
+        String timestampColumn = switch (target) {
+            case PAID -> "paid_at";
+            case SHIPPED -> "shipped_at";
+            case DELIVERED -> "delivered_at";
+            case CANCELLED -> "cancelled_at";
+            case REFUNDED -> "refunded_at";
+            default -> null;
+        };
+        boolean shipped = target == OrderStatus.SHIPPED;
+        StringBuilder sql = new StringBuilder("UPDATE orders SET status = ?, updated_at = ?");
+        if (timestampColumn != null) {
+            sql.append(", ").append(timestampColumn).append(" = COALESCE(").append(timestampColumn).append(", ?)");
+        }
+        if (shipped) {
+            sql.append(", tracking_number = COALESCE(?, tracking_number), tracking_url = COALESCE(?, tracking_url)");
+        }
+        sql.append(" WHERE id = ?");
+
+        List<Object[]> rows = new ArrayList<>(moving.size());
+        moving.forEach((orderId, line) -> {
+            List<Object> args = new ArrayList<>(6);
+            args.add(target.name());
+            args.add(now);
+            if (timestampColumn != null) {
+                args.add(now);
+            }
+            if (shipped) {
+                args.add(line.getTrackingNumber());
+                args.add(line.getTrackingUrl());
+            }
+            args.add(orderId);
+            rows.add(args.toArray());
+        });
+        jdbcTemplate.batchUpdate(sql.toString(), rows);
+    }
+
+    // Mirrors Shipping#updateStatusTimestamps
+    private void updateShipping(OrderStatus target, Map<Long, BulkOrderTransitionRequest.Line> moving, Timestamp now) {
+        List<Object[]> rows = new ArrayList<>(moving.size());
+        switch (target) {
+            case SHIPPED -> {
+                moving.forEach((orderId, line) -> rows.add(new Object[] {
+                    now, line.getCarrier(), line.getTrackingNumber(), line.getTrackingUrl(), now, orderId}));
+                jdbcTemplate.batchUpdate("UPDATE shipping SET status = 'SHIPPED', shipped_at = COALESCE(shipped_at, ?), " +
+                    "carrier = COALESCE(?, carrier), tracking_number = COALESCE(?, tracking_number), " +
+                    "tracking_url = COALESCE(?, tracking_url), updated_at = ? WHERE order_id = ?", rows);
+            }
+            case DELIVERED -> {
+                moving.keySet().forEach(orderId -> rows.add(new Object[] {now, now, now, orderId}));
+                jdbcTemplate.batchUpdate("UPDATE shipping SET status = 'DELIVERED', delivered_at = COALESCE(delivered_at, ?), " +
+                    "actual_delivery_date = COALESCE(actual_delivery_date, ?), updated_at = ? WHERE order_id = ?", rows);
+            }
+            case CANCELLED -> {
+                // Only shipments that have not left the warehouse, as in Shipping#canBeCancelled
+                moving.keySet().forEach(orderId -> rows.add(new Object[] {now, orderId}));
+                jdbcTemplate.batchUpdate("UPDATE shipping SET status = 'CANCELLED', updated_at = ? " +
+                    "WHERE order_id = ? AND status IN ('PENDING', 'PROCESSING')", rows);
+            }
+            default -> {
+                // Other transitions leave the shipment as it is
+            }
+        }
+    }
+
+    private record LockedOrder(long id, String orderNumber, OrderStatus status, boolean allowed) {
+    }
+}
@@ -0,0 +1,286 @@
+package com.github.ecommerce.service;
+
+import com.github.ecommerce.dto.response.StockLevelResponse;
+import com.github.ecommerce.entity.Inventory;
+import com.github.ecommerce.entity.InventorySnapshot;
+import com.github.ecommerce.entity.OutboxEvent;
+import com.github.ecommerce.entity.StockMovement;
+import com.github.ecommerce.repository.InventoryRepository;
+import com.github.ecommerce.repository.InventorySnapshotRepository;
+import com.github.ecommerce.repository.StockMovementRepository;
+import com.github.ecommerce.service.outbox.OutboxWriter;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Append-only stock journal, and the only place a stock change is written. The mutators queue
+ * movements and {@link com.github.ecommerce.entity.listener.InventoryJournalListener} appends
+ * them when the transaction commits; the inventory row keeps its opening level and is only
+ * locked, so changes to one row still apply one at a time. A loaded row reads its live level
+ * from the latest snapshot plus the journal tail. Snapshots go to {@code inventory_snapshots}
+ * to bound that replay and never write back to the row.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class StockJournalService {
+
+    private static final String INSERT_MOVEMENT =
+        "INSERT INTO stock_movements (inventory_id, type, quantity_delta, reserved_delta, reference, created_at) " +
+        "VALUES (?, ?, ?, ?, ?, ?)";
+
+    private static final String SELECT_LATEST_SNAPSHOT =
+        "SELECT quantity, reserved_quantity, last_movement_id FROM inventory_snapshots " +
+        "WHERE inventory_id = ? ORDER BY last_movement_id DESC LIMIT 1";
+
+    private static final String SUM_TAIL =
+        "SELECT COALESCE(SUM(quantity_delta), 0), COALESCE(SUM(reserved_delta), 0), COUNT(*) " +
+        "FROM stock_movements WHERE inventory_id = ? AND id > ?";
+
+    private static final String SELECT_RESERVING_INVENTORIES =
+        "SELECT DISTINCT inventory_id FROM stock_movements WHERE reference = ?";
+
+    private static final String SUM_RESERVED_BY_REFERENCE =
+        "SELECT inventory_id, SUM(reserved_delta) FROM stock_movements WHERE reference = ? GROUP BY inventory_id";
+
+    private static final String SELECT_UNJOURNALED =
+        "SELECT i.id, i.quantity, i.reserved_quantity FROM inventory i " +
+        "WHERE NOT EXISTS (SELECT 1 FROM stock_movements m WHERE m.inventory_id = i.id)";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final StockMovementRepository movementRepository;
+    private final InventorySnapshotRepository snapshotRepository;
+    private final InventoryRepository inventoryRepository;
+    private final OutboxWriter outboxWriter;
+    private final TransactionTemplate transactionTemplate;
+
+    @Value("${app.inventory.journal.batch-size:500}")
+    private int batchSize;
+
+    @Value("${app.inventory.journal.settle-seconds:5}")
+    private long settleSeconds;
+
+    @Transactional
+    public void append(List<StockMovement> movements) {
+        if (movements.isEmpty()) {
+            return;
+        }
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        jdbcTemplate.batchUpdate(INSERT_MOVEMENT, movements, batchSize, (ps, movement) -> {
+            ps.setLong(1, movement.getInventoryId());
+            ps.setString(2, movement.getType().name());
+            ps.setInt(3, movement.getQuantityDelta());
+            ps.setInt(4, movement.getReservedDelta());
+            ps.setString(5, movement.getReference());
+            ps.setTimestamp(6, movement.getCreatedAt() != null ? Timestamp.valueOf(movement.getCreatedAt()) : now);
+        });
+        outboxWriter.appendAll(stockChangedEvents(movements));
+    }
+
+    // One STOCK_CHANGED event per inventory row touched by the batch, with the net deltas
+    private List<OutboxWriter.PendingEvent> stockChangedEvents(List<StockMovement> movements) {
+        Map<Long, int[]> deltas = new LinkedHashMap<>();
+        for (StockMovement movement : movements) {
+            int[] delta = deltas.computeIfAbsent(movement.getInventoryId(), id -> new int[2]);
+            delta[0] += movement.getQuantityDelta();
+            delta[1] += movement.getReservedDelta();
+        }
+        List<OutboxWriter.PendingEvent> events = new ArrayList<>(deltas.size());
+        deltas.forEach((inventoryId, delta) -> {
+            if (delta[0] != 0 || delta[1] != 0) {
+                events.add(new OutboxWriter.PendingEvent(OutboxEvent.AGGREGATE_INVENTORY, inventoryId, OutboxEvent.STOCK_CHANGED,
+                    Map.of("inventoryId", inventoryId, "quantityDelta", delta[0], "reservedDelta", delta[1])));
+            }
+        });
+        return events;
+    }
+
+    @Transactional
+    public void flush(Inventory inventory, String reference) {
+        List<StockMovement> movements = inventory.drainPendingMovements();
+        movements.forEach(movement -> {
+            if (movement.getInventoryId() == null) {
+                movement.setInventoryId(inventory.getId());
+            }
+            if (movement.getReference() == null) {
+                movement.setReference(reference);
+            }
+        });
+        append(movements);
+    }
+
+    // A new row starts its journal with its initial level; that level already includes anything queued
+    @Transactional
+    public void open(Inventory inventory) {
+        inventory.drainPendingMovements();
+        List<StockMovement> openings = new ArrayList<>(2);
+        // Written even at zero, so openJournals does not take the row for an unjournaled one
+        openings.add(StockMovement.adjustment(inventory.getId(), inventory.getQuantity(), "OPENING"));
+        if (inventory.getReservedQuantity() != 0) {
+            openings.add(StockMovement.reservation(inventory.getId(), inventory.getReservedQuantity(), "OPENING"));
+        }
+        append(openings);
+    }
+
+    /**
+     * Sets the live level on a row being loaded. Plain JDBC, as it runs inside Hibernate's load;
+     * a row locked for a change reads the journal after the lock, so it sees every movement of
+     * the changes before it. A row without a journal yet keeps its stored level.
+     */
+    public void loadLevel(Inventory inventory) {
+        int[] base = {0, 0};
+        long[] afterId = {0};
+        jdbcTemplate.query(SELECT_LATEST_SNAPSHOT, rs -> {
+            base[0] = rs.getInt(1);
+            base[1] = rs.getInt(2);
+            afterId[0] = rs.getLong(3);
+        }, inventory.getId());
+        jdbcTemplate.query(SUM_TAIL, rs -> {
+            if (afterId[0] > 0 || rs.getLong(3) > 0) {
+                inventory.applyLevel(base[0] + rs.getInt(1), base[1] + rs.getInt(2));
+            }
+        }, inventory.getId(), afterId[0]);
+    }
+
+    @Transactional(readOnly = true)
+    public StockLevelResponse currentLevel(Long inventoryId) {
+        Optional<InventorySnapshot> snapshot = snapshotRepository.findFirstByInventoryIdOrderByLastMovementIdDesc(inventoryId);
+        long afterId = snapshot.map(InventorySnapshot::getLastMovementId).orElse(0L);
+        Object[] tail = movementRepository.sumTail(inventoryId, afterId, Long.MAX_VALUE).get(0);
+        return toLevel(inventoryId, snapshot, tail, LocalDateTime.now());
+    }
+
+    @Transactional(readOnly = true)
+    public List<StockLevelResponse> rebuild(String sku, LocalDateTime asOf) {
+        List<StockLevelResponse> levels = new ArrayList<>();
+        for (Long inventoryId : inventoryRepository.findIdsBySku(sku)) {
+            Optional<InventorySnapshot> snapshot =
+                snapshotRepository.findFirstByInventoryIdAndTakenAtLessThanEqualOrderByTakenAtDesc(inventoryId, asOf);
+            long afterId = snapshot.map(InventorySnapshot::getLastMovementId).orElse(0L);
+            Object[] tail = movementRepository.sumTailAsOf(inventoryId, afterId, asOf).get(0);
+            StockLevelResponse level = toLevel(inventoryId, snapshot, tail, asOf);
+            level.setSku(sku);
+            levels.add(level);
+        }
+        return levels;
+    }
+
+    // Goes through the locked row like every other stock change, so row and journal move together
+    @Transactional
+    public void adjustTo(Long inventoryId, int newQuantity, String reference) {
+        for (Inventory inventory : inventoryRepository.findAllByIdForUpdate(List.of(inventoryId))) {
+            inventory.adjustStock(newQuantity);
+            flush(inventory, reference);
+        }
+    }
+
+    /**
+     * Turns what is still reserved under a reference into a sale, or gives it back. Works from
+     * the journal, summed after the rows are locked, so repeating it for a settled reference
+     * changes nothing.
+     */
+    @Transactional
+    public void settleReservations(String reference, boolean sold) {
+        List<Long> inventoryIds = jdbcTemplate.queryForList(SELECT_RESERVING_INVENTORIES, Long.class, reference);
+        if (inventoryIds.isEmpty()) {
+            return;
+        }
+        List<Inventory> inventories = inventoryRepository.findAllByIdForUpdate(inventoryIds);
+        Map<Long, Integer> reserved = new HashMap<>();
+        jdbcTemplate.query(SUM_RESERVED_BY_REFERENCE, rs -> {
+            reserved.put(rs.getLong(1), rs.getInt(2));
+        }, reference);
+        for (Inventory inventory : inventories) {
+            int quantity = reserved.getOrDefault(inventory.getId(), 0);
+            if (quantity <= 0) {
+                continue;
+            }
+            if (sold) {
+                inventory.commitStock(quantity);
+            } else {
+                inventory.releaseStock(quantity);
+            }
+            flush(inventory, reference);
+        }
+    }
+
+    @Transactional
+    public int openJournals() {
+        List<StockMovement> openings = new ArrayList<>();
+        jdbcTemplate.query(SELECT_UNJOURNALED, rs -> {
+            long inventoryId = rs.getLong(1);
+            openings.add(StockMovement.adjustment(inventoryId, rs.getInt(2), "OPENING"));
+            if (rs.getInt(3) > 0) {
+                openings.add(StockMovement.reservation(inventoryId, rs.getInt(3), "OPENING"));
+            }
+        });
+        append(openings);
+        return openings.size();
+    }
+
+    /**
+     * Snapshots every inventory with movements since the last run, one short transaction each.
+     * The row is share-locked while its tail is summed: journal writers hold the row's write
+     * lock until they commit, so the snapshot sees all of its movements or waits for them.
+     */
+    public int takeSnapshots() {
+        long watermark = snapshotRepository.findSnapshotWatermark();
+        // Only picks the rows to look at; a movement that commits late is counted by the row's next snapshot
+        long upToId = movementRepository.findMaxIdCreatedBefore(LocalDateTime.now().minusSeconds(settleSeconds));
+        if (upToId <= watermark) {
+            return 0;
+        }
+
+        List<Long> inventoryIds = movementRepository.findInventoryIdsWithMovementsBetween(watermark, upToId);
+        for (Long inventoryId : inventoryIds) {
+            transactionTemplate.executeWithoutResult(status -> {
+                if (inventoryRepository.findByIdForShare(inventoryId).isEmpty()) {
+                    return;
+                }
+                Optional<InventorySnapshot> previous = snapshotRepository.findFirstByInventoryIdOrderByLastMovementIdDesc(inventoryId);
+                long afterId = previous.map(InventorySnapshot::getLastMovementId).orElse(0L);
+                Object[] tail = movementRepository.sumTail(inventoryId, afterId, Long.MAX_VALUE).get(0);
+                LocalDateTime takenAt = LocalDateTime.now();
+                StockLevelResponse level = toLevel(inventoryId, previous, tail, takenAt);
+                if (level.getLastMovementId() == afterId) {
+                    return;
+                }
+                snapshotRepository.save(InventorySnapshot.builder()
+                    .inventoryId(inventoryId)
+                    .lastMovementId(level.getLastMovementId())
+                    .quantity(level.getQuantity())
+                    .reservedQuantity(level.getReservedQuantity())
+                    .takenAt(takenAt)
+                    .build());
+            });
+        }
+        log.debug("Took {} inventory snapshots up to movement {}", inventoryIds.size(), upToId);
+        return inventoryIds.size();
+    }
+
+    private StockLevelResponse toLevel(Long inventoryId, Optional<InventorySnapshot> snapshot, Object[] tail, LocalDateTime asOf) {
+        int baseQuantity = snapshot.map(InventorySnapshot::getQuantity).orElse(0);
+        int baseReserved = snapshot.map(InventorySnapshot::getReservedQuantity).orElse(0);
+        return StockLevelResponse.builder()
+            .inventoryId(inventoryId)
+            .quantity(baseQuantity + ((Number) tail[0]).intValue())
+            .reservedQuantity(baseReserved + ((Number) tail[1]).intValue())
+            .lastMovementId(((Number) tail[2]).longValue())
+            .asOf(asOf)
+            .build();
+    }
+}
@@ -0,0 +1,83 @@
+package com.github.ecommerce.service.cart;
+
+import com.github.ecommerce.dto.request.CartMutationRequest;
+import com.github.ecommerce.entity.Cart;
+import com.github.ecommerce.entity.CartItem;
+import com.github.ecommerce.entity.Product;
+import com.github.ecommerce.entity.ProductVariant;
+import com.github.ecommerce.exception.ResourceNotFoundException;
+import com.github.ecommerce.repository.CartRepository;
+import com.github.ecommerce.repository.ProductRepository;
+import com.github.ecommerce.repository.ProductVariantRepository;
+import com.github.ecommerce.util.Money;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+@Service
+@RequiredArgsConstructor
+public class CartService {
+
+    private final CartRepository cartRepository;
+    private final ProductRepository productRepository;
+    private final ProductVariantRepository productVariantRepository;
+
+    /**
+     * Applies many add/update/remove operations to a cart in one transaction. Products and
+     * variants referenced by ADD operations are loaded in two queries up front, and all
+     * changes are written in a single flush at commit.
+     */
+    @Transactional
+    public Cart applyMutations(Long cartId, List<CartMutationRequest> mutations) {
+        Cart cart = cartRepository.findWithItemsById(cartId)
+            .orElseThrow(() -> new ResourceNotFoundException("Cart", cartId));
+
+        Set<Long> productIds = new HashSet<>();
+        Set<Long> variantIds = new HashSet<>();
+        for (CartMutationRequest mutation : mutations) {
+            if (mutation.getOperation() == CartMutationRequest.Operation.ADD) {
+                productIds.add(mutation.getProductId());
+                if (mutation.getVariantId() != null) {
+                    variantIds.add(mutation.getVariantId());
+                }
+            }
+        }
+        Map<Long, Product> products = productRepository.findAllById(productIds).stream()
+            .collect(Collectors.toMap(Product::getId, Function.identity()));
+        Map<Long, ProductVariant> variants = productVariantRepository.findAllById(variantIds).stream()
+            .collect(Collectors.toMap(ProductVariant::getId, Function.identity()));
+
+        for (CartMutationRequest mutation : mutations) {
+            switch (mutation.getOperation()) {
+                case ADD -> {
+                    Product product = products.get(mutation.getProductId());
+                    if (product == null) {
+                        throw new ResourceNotFoundException("Product", mutation.getProductId());
+                    }
+                    ProductVariant variant = mutation.getVariantId() != null ? variants.get(mutation.getVariantId()) : null;
+                    if (mutation.getVariantId() != null && variant == null) {
+                        throw new ResourceNotFoundException("Product variant", mutation.getVariantId());
+                    }
+                    cart.addItem(CartItem.builder()
+                        .product(product)
+                        .productVariant(variant)
+                        .quantity(mutation.getQuantity() != null ? mutation.getQuantity() : 1)
+                        .price(Money.of(variant != null ? variant.getEffectivePrice() : product.getEffectivePrice(),
+                            Money.DEFAULT_CURRENCY))
+                        .build());
+                }
+                case UPDATE -> cart.updateItemQuantity(mutation.getProductId(), mutation.getVariantId(),
+                    mutation.getQuantity() != null ? mutation.getQuantity() : 0);
+                case REMOVE -> cart.removeItem(mutation.getProductId(), mutation.getVariantId());
+            }
+        }
+        return cart;
+    }
+}
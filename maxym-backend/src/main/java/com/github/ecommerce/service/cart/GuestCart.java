@@ -0,0 +1,99 @@
+package com.github.ecommerce.service.cart;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Anonymous cart kept outside the database until it converts or its owner logs in.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class GuestCart {
+
+    private String sessionId;
+
+    @Builder.Default
+    private List<Line> lines = new ArrayList<>();
+
+    private String couponCode;
+
+    @Builder.Default
+    private BigDecimal discountAmount = BigDecimal.ZERO;
+
+    private LocalDateTime expiresAt;
+
+    // Helper methods
+    public void addItem(Long productId, Long variantId, int quantity, BigDecimal price) {
+        Line existing = findLine(productId, variantId);
+        if (existing != null) {
+            existing.setQuantity(existing.getQuantity() + quantity);
+        } else {
+            lines.add(new Line(productId, variantId, quantity, price));
+        }
+    }
+
+    public void updateItemQuantity(Long productId, Long variantId, int quantity) {
+        Line existing = findLine(productId, variantId);
+        if (existing == null) {
+            return;
+        }
+        if (quantity <= 0) {
+            lines.remove(existing);
+        } else {
+            existing.setQuantity(quantity);
+        }
+    }
+
+    public void removeItem(Long productId, Long variantId) {
+        lines.removeIf(line -> line.matches(productId, variantId));
+    }
+
+    public boolean isEmpty() {
+        return lines.isEmpty();
+    }
+
+    public boolean isExpired() {
+        return expiresAt != null && expiresAt.isBefore(LocalDateTime.now());
+    }
+
+    public int getTotalItems() {
+        return lines.stream().mapToInt(Line::getQuantity).sum();
+    }
+
+    public BigDecimal getSubtotal() {
+        return lines.stream()
+            .map(line -> line.getPrice().multiply(BigDecimal.valueOf(line.getQuantity())))
+            .reduce(BigDecimal.ZERO, BigDecimal::add);
+    }
+
+    private Line findLine(Long productId, Long variantId) {
+        return lines.stream()
+            .filter(line -> line.matches(productId, variantId))
+            .findFirst()
+            .orElse(null);
+    }
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Line {
+        private Long productId;
+        private Long variantId;
+        private int quantity;
+        private BigDecimal price;
+
+        public boolean matches(Long productId, Long variantId) {
+            return this.productId.equals(productId) && Objects.equals(this.variantId, variantId);
+        }
+    }
+}
@@ -0,0 +1,106 @@
+package com.github.ecommerce.service.cart;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Compact binary form of a {@link GuestCart}: ids, quantities and amounts (in cents)
+ * are written as unsigned varints, so a typical cart fits in well under 100 bytes.
+ */
+public final class GuestCartCodec {
+
+    private static final byte VERSION = 1;
+
+    private GuestCartCodec() {
+    }
+
+    public static byte[] encode(GuestCart cart) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(64);
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            out.writeByte(VERSION);
+            out.writeUTF(cart.getSessionId());
+            writeVarLong(out, cart.getExpiresAt() != null ? cart.getExpiresAt().toEpochSecond(ZoneOffset.UTC) + 1 : 0);
+            out.writeUTF(cart.getCouponCode() != null ? cart.getCouponCode() : "");
+            writeVarLong(out, toCents(cart.getDiscountAmount()));
+            writeVarLong(out, cart.getLines().size());
+            for (GuestCart.Line line : cart.getLines()) {
+                writeVarLong(out, line.getProductId());
+                writeVarLong(out, line.getVariantId() != null ? line.getVariantId() + 1 : 0);
+                writeVarLong(out, line.getQuantity());
+                writeVarLong(out, toCents(line.getPrice()));
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return bytes.toByteArray();
+    }
+
+    public static GuestCart decode(byte[] data) {
+        try (DataInputStream in = new DataInputStream(new ByteArrayInputStream(data))) {
+            byte version = in.readByte();
+            if (version != VERSION) {
+                throw new IllegalArgumentException("Unsupported guest cart version: " + version);
+            }
+            String sessionId = in.readUTF();
+            long expiresAt = readVarLong(in);
+            String couponCode = in.readUTF();
+            BigDecimal discountAmount = fromCents(readVarLong(in));
+            int lineCount = (int) readVarLong(in);
+            List<GuestCart.Line> lines = new ArrayList<>(lineCount);
+            for (int i = 0; i < lineCount; i++) {
+                long productId = readVarLong(in);
+                long variantId = readVarLong(in);
+                int quantity = (int) readVarLong(in);
+                BigDecimal price = fromCents(readVarLong(in));
+                lines.add(new GuestCart.Line(productId, variantId == 0 ? null : variantId - 1, quantity, price));
+            }
+            return GuestCart.builder()
+                .sessionId(sessionId)
+                .lines(lines)
+                .couponCode(couponCode.isEmpty() ? null : couponCode)
+                .discountAmount(discountAmount)
+                .expiresAt(expiresAt == 0 ? null : LocalDateTime.ofEpochSecond(expiresAt - 1, 0, ZoneOffset.UTC))
+                .build();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static long toCents(BigDecimal amount) {
+        return amount == null ? 0 : amount.setScale(2, RoundingMode.HALF_UP).unscaledValue().longValueExact();
+    }
+
+    private static BigDecimal fromCents(long cents) {
+        return BigDecimal.valueOf(cents, 2);
+    }
+
+    private static void writeVarLong(DataOutputStream out, long value) throws IOException {
+        while ((value & ~0x7FL) != 0) {
+            out.writeByte((int) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        out.writeByte((int) value);
+    }
+
+    private static long readVarLong(DataInputStream in) throws IOException {
+        long value = 0;
+        for (int shift = 0; shift < 64; shift += 7) {
+            byte b = in.readByte();
+            value |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return value;
+            }
+        }
+        throw new IOException("Malformed varint");
+    }
+}
@@ -0,0 +1,102 @@
+package com.github.ecommerce.service.cart;
+
+import com.github.ecommerce.entity.Cart;
+import com.github.ecommerce.entity.CartItem;
+import com.github.ecommerce.entity.Product;
+import com.github.ecommerce.entity.ProductVariant;
+import com.github.ecommerce.entity.User;
+import com.github.ecommerce.repository.CartRepository;
+import com.github.ecommerce.util.Money;
+import jakarta.persistence.EntityManager;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.math.BigDecimal;
+import java.util.Optional;
+
+/**
+ * Guest cart operations. State lives only in the {@link GuestCartStore}; a cart is
+ * written to MySQL when it converts to an order or its owner logs in. Every change goes
+ * through {@link GuestCartStore#update}, so two requests of one session editing the cart at
+ * once cannot lose each other's lines.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class GuestCartService {
+
+    private final GuestCartStore guestCartStore;
+    private final CartRepository cartRepository;
+    private final EntityManager entityManager;
+
+    public GuestCart getCart(String sessionId) {
+        return guestCartStore.find(sessionId)
+            .orElseGet(() -> GuestCart.builder().sessionId(sessionId).build());
+    }
+
+    public GuestCart addItem(String sessionId, Long productId, Long variantId, int quantity, BigDecimal price) {
+        return guestCartStore.update(sessionId, cart -> cart.addItem(productId, variantId, quantity, price));
+    }
+
+    public GuestCart updateItemQuantity(String sessionId, Long productId, Long variantId, int quantity) {
+        return guestCartStore.update(sessionId, cart -> cart.updateItemQuantity(productId, variantId, quantity));
+    }
+
+    public GuestCart removeItem(String sessionId, Long productId, Long variantId) {
+        return guestCartStore.update(sessionId, cart -> cart.removeItem(productId, variantId));
+    }
+
+    public GuestCart applyCoupon(String sessionId, String couponCode, BigDecimal discountAmount) {
+        return guestCartStore.update(sessionId, cart -> {
+            cart.setCouponCode(couponCode);
+            cart.setDiscountAmount(discountAmount);
+        });
+    }
+
+    public void clear(String sessionId) {
+        guestCartStore.delete(sessionId);
+    }
+
+    /**
+     * Persists the guest cart into the user's database cart, e.g. on login or at checkout.
+     * The guest entry is only dropped once the transaction commits.
+     */
+    @Transactional
+    public Optional<Cart> persistForUser(String sessionId, User user) {
+        Optional<GuestCart> guestCart = guestCartStore.find(sessionId);
+        if (guestCart.isEmpty() || guestCart.get().isEmpty()) {
+            return cartRepository.findByUserId(user.getId());
+        }
+
+        Cart cart = cartRepository.findByUserId(user.getId())
+            .orElseGet(() -> Cart.builder().user(user).build());
+        GuestCart source = guestCart.get();
+        for (GuestCart.Line line : source.getLines()) {
+            cart.addItem(CartItem.builder()
+                .product(entityManager.getReference(Product.class, line.getProductId()))
+                .productVariant(line.getVariantId() != null
+                    ? entityManager.getReference(ProductVariant.class, line.getVariantId())
+                    : null)
+                .quantity(line.getQuantity())
+                .price(Money.of(line.getPrice(), Money.DEFAULT_CURRENCY))
+                .build());
+        }
+        if (source.getCouponCode() != null && cart.getCouponCode() == null) {
+            cart.applyCoupon(source.getCouponCode(), source.getDiscountAmount());
+        }
+        Cart saved = cartRepository.save(cart);
+
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                guestCartStore.delete(sessionId);
+            }
+        });
+        log.debug("Persisted guest cart {} ({} lines) for user {}", sessionId, source.getLines().size(), user.getId());
+        return Optional.of(saved);
+    }
+}
@@ -0,0 +1,28 @@
+package com.github.ecommerce.service.cart;
+
+import java.util.Optional;
+import java.util.function.Consumer;
+
+/**
+ * Key-value storage for anonymous carts, keyed by session id. Implementations must
+ * drop a cart once its {@code expiresAt} has passed.
+ */
+public interface GuestCartStore {
+
+    Optional<GuestCart> find(String sessionId);
+
+    void save(GuestCart cart);
+
+    /**
+     * Reads the cart, applies {@code change} and writes it back only if no other write to the
+     * cart happened in between, starting over from a fresh read otherwise, so {@code change}
+     * may run more than once. A missing or expired cart starts out empty.
+     *
+     * @return the cart as written
+     * @throws org.springframework.dao.OptimisticLockingFailureException if every attempt lost
+     * to a concurrent write
+     */
+    GuestCart update(String sessionId, Consumer<GuestCart> change);
+
+    void delete(String sessionId);
+}
@@ -0,0 +1,78 @@
+package com.github.ecommerce.service.cart;
+
+import org.springframework.dao.OptimisticLockingFailureException;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+
+/**
+ * Process-local store used in tests and single-node development. Carts are kept in
+ * their encoded form so the codec is exercised exactly as with Redis, and updates
+ * compare-and-replace the encoded bytes they read the way Redis watches the key.
+ */
+public class InMemoryGuestCartStore implements GuestCartStore {
+
+    private static final int MAX_UPDATE_ATTEMPTS = 5;
+
+    private final Map<String, byte[]> carts = new ConcurrentHashMap<>();
+    private final Duration defaultTtl;
+
+    public InMemoryGuestCartStore(Duration defaultTtl) {
+        this.defaultTtl = defaultTtl;
+    }
+
+    @Override
+    public Optional<GuestCart> find(String sessionId) {
+        byte[] data = carts.get(sessionId);
+        if (data == null) {
+            return Optional.empty();
+        }
+        GuestCart cart = GuestCartCodec.decode(data);
+        if (cart.isExpired()) {
+            carts.remove(sessionId, data);
+            return Optional.empty();
+        }
+        return Optional.of(cart);
+    }
+
+    @Override
+    public void save(GuestCart cart) {
+        if (cart.getExpiresAt() == null) {
+            cart.setExpiresAt(LocalDateTime.now().plus(defaultTtl));
+        }
+        carts.put(cart.getSessionId(), GuestCartCodec.encode(cart));
+    }
+
+    @Override
+    public GuestCart update(String sessionId, Consumer<GuestCart> change) {
+        for (int attempt = 0; attempt < MAX_UPDATE_ATTEMPTS; attempt++) {
+            byte[] data = carts.get(sessionId);
+            GuestCart cart = data != null ? GuestCartCodec.decode(data) : null;
+            if (cart == null || cart.isExpired()) {
+                cart = GuestCart.builder().sessionId(sessionId).build();
+            }
+            change.accept(cart);
+            if (cart.getExpiresAt() == null) {
+                cart.setExpiresAt(LocalDateTime.now().plus(defaultTtl));
+            }
+            byte[] encoded = GuestCartCodec.encode(cart);
+            // The map compares arrays by identity, so this only succeeds if the bytes read are still there
+            boolean written = data == null
+                ? carts.putIfAbsent(sessionId, encoded) == null
+                : carts.replace(sessionId, data, encoded);
+            if (written) {
+                return cart;
+            }
+        }
+        throw new OptimisticLockingFailureException("Guest cart " + sessionId + " kept changing concurrently");
+    }
+
+    @Override
+    public void delete(String sessionId) {
+        carts.remove(sessionId);
+    }
+}
@@ -0,0 +1,100 @@
+package com.github.ecommerce.service.cart;
+
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.data.redis.core.RedisOperations;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.SessionCallback;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+import java.util.function.Consumer;
+
+/**
+ * Keeps each guest cart under its own key with the cart's remaining lifetime as TTL. Updates
+ * are optimistic: the key is watched while the cart is read and changed, and the write goes
+ * through MULTI/EXEC, which Redis aborts if another client wrote the key in the meantime.
+ */
+public class RedisGuestCartStore implements GuestCartStore {
+
+    private static final String KEY_PREFIX = "cart:guest:";
+    private static final int MAX_UPDATE_ATTEMPTS = 5;
+
+    private final RedisTemplate<String, byte[]> redisTemplate;
+    private final Duration defaultTtl;
+
+    public RedisGuestCartStore(RedisTemplate<String, byte[]> redisTemplate, Duration defaultTtl) {
+        this.redisTemplate = redisTemplate;
+        this.defaultTtl = defaultTtl;
+    }
+
+    @Override
+    public Optional<GuestCart> find(String sessionId) {
+        byte[] data = redisTemplate.opsForValue().get(KEY_PREFIX + sessionId);
+        return data == null ? Optional.empty() : Optional.of(GuestCartCodec.decode(data));
+    }
+
+    @Override
+    public void save(GuestCart cart) {
+        Duration ttl = ttlOf(cart);
+        if (ttl.isNegative() || ttl.isZero()) {
+            delete(cart.getSessionId());
+            return;
+        }
+        redisTemplate.opsForValue().set(KEY_PREFIX + cart.getSessionId(), GuestCartCodec.encode(cart), ttl);
+    }
+
+    @Override
+    public GuestCart update(String sessionId, Consumer<GuestCart> change) {
+        for (int attempt = 0; attempt < MAX_UPDATE_ATTEMPTS; attempt++) {
+            GuestCart written = redisTemplate.execute(new SessionCallback<GuestCart>() {
+                @Override
+                @SuppressWarnings("unchecked")
+                public <K, V> GuestCart execute(RedisOperations<K, V> operations) {
+                    return tryUpdate((RedisOperations<String, byte[]>) operations, sessionId, change);
+                }
+            });
+            if (written != null) {
+                return written;
+            }
+        }
+        throw new OptimisticLockingFailureException("Guest cart " + sessionId + " kept changing concurrently");
+    }
+
+    @Override
+    public void delete(String sessionId) {
+        redisTemplate.delete(KEY_PREFIX + sessionId);
+    }
+
+    // Returns null if EXEC was aborted because the watched key changed
+    private GuestCart tryUpdate(RedisOperations<String, byte[]> redis, String sessionId, Consumer<GuestCart> change) {
+        String key = KEY_PREFIX + sessionId;
+        redis.watch(key);
+        GuestCart cart;
+        try {
+            byte[] data = redis.opsForValue().get(key);
+            cart = data != null ? GuestCartCodec.decode(data) : GuestCart.builder().sessionId(sessionId).build();
+            change.accept(cart);
+        } catch (RuntimeException e) {
+            redis.unwatch();
+            throw e;
+        }
+        Duration ttl = ttlOf(cart);
+        redis.multi();
+        if (ttl.isNegative() || ttl.isZero()) {
+            redis.delete(key);
+        } else {
+            redis.opsForValue().set(key, GuestCartCodec.encode(cart), ttl);
+        }
+        List<Object> results = redis.exec();
+        return results.isEmpty() ? null : cart;
+    }
+
+    private Duration ttlOf(GuestCart cart) {
+        if (cart.getExpiresAt() == null) {
+            cart.setExpiresAt(LocalDateTime.now().plus(defaultTtl));
+        }
+        return Duration.between(LocalDateTime.now(), cart.getExpiresAt());
+    }
+}
@@ -0,0 +1,147 @@
+package com.github.ecommerce.service.checkout;
+
+import com.github.ecommerce.entity.Cart;
+import com.github.ecommerce.entity.CartItem;
+import com.github.ecommerce.entity.Inventory;
+import com.github.ecommerce.entity.Order;
+import com.github.ecommerce.entity.OrderItem;
+import com.github.ecommerce.entity.Product;
+import com.github.ecommerce.entity.ProductVariant;
+import com.github.ecommerce.repository.ProductRepository;
+import com.github.ecommerce.repository.ProductVariantRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Converts cart lines to checkout lines and order item snapshots without walking a lazy
+ * association per line. Products and variants are loaded with one query each, together with
+ * their inventory rows, and image urls with a third, so a conversion issues the same number
+ * of statements for a one-line cart as for a hundred-line one. Must run inside a transaction,
+ * on a cart loaded with its items.
+ */
+@Service
+@RequiredArgsConstructor
+public class CartConversionService {
+
+    private final ProductRepository productRepository;
+    private final ProductVariantRepository productVariantRepository;
+
+    public Catalog prefetch(Cart cart) {
+        // Reading the id of a lazy proxy does not initialize it
+        Set<Long> productIds = new HashSet<>();
+        Set<Long> variantIds = new HashSet<>();
+        for (CartItem item : cart.getItems()) {
+            productIds.add(item.getProduct().getId());
+            if (item.getProductVariant() != null) {
+                variantIds.add(item.getProductVariant().getId());
+            }
+        }
+
+        Map<Long, Product> products = new HashMap<>();
+        Map<Long, ProductVariant> variants = new HashMap<>();
+        Map<Long, String> imageUrls = new HashMap<>();
+        if (!productIds.isEmpty()) {
+            productRepository.findAllWithInventoryByIdIn(productIds)
+                .forEach(product -> products.put(product.getId(), product));
+            for (Object[] row : productRepository.findImageUrlsByProductIdIn(productIds)) {
+                imageUrls.putIfAbsent((Long) row[0], (String) row[1]);
+            }
+        }
+        if (!variantIds.isEmpty()) {
+            productVariantRepository.findAllWithInventoryByIdIn(variantIds)
+                .forEach(variant -> variants.put(variant.getId(), variant));
+        }
+        return new Catalog(products, variants, imageUrls);
+    }
+
+    public List<OrderItem> toOrderItems(Cart cart, Order order) {
+        Catalog catalog = prefetch(cart);
+        List<OrderItem> items = new ArrayList<>(cart.getItems().size());
+        for (CartItem cartItem : cart.getItems()) {
+            items.add(OrderItem.builder()
+                .order(order)
+                .product(catalog.product(cartItem))
+                .productVariant(catalog.variant(cartItem))
+                .productName(catalog.productName(cartItem))
+                .productSku(catalog.productSku(cartItem))
+                .productImageUrl(catalog.productImageUrl(cartItem))
+                .quantity(cartItem.getQuantity())
+                .unitPrice(cartItem.getUnitPrice())
+                .discountAmount(cartItem.getDiscount())
+                .build());
+        }
+        return items;
+    }
+
+    List<CheckoutContext.Line> toLines(Cart cart, Catalog catalog) {
+        List<CheckoutContext.Line> lines = new ArrayList<>(cart.getItems().size());
+        for (CartItem item : cart.getItems()) {
+            Product product = catalog.product(item);
+            ProductVariant variant = catalog.variant(item);
+            lines.add(new CheckoutContext.Line(
+                product.getId(),
+                variant != null ? variant.getId() : null,
+                product.getCategory() != null ? product.getCategory().getId() : null,
+                catalog.inventoryId(item),
+                catalog.productName(item),
+                catalog.productSku(item),
+                catalog.productImageUrl(item),
+                item.getQuantity(),
+                item.getUnitPrice(),
+                item.getDiscount()));
+        }
+        return lines;
+    }
+
+    /**
+     * Products, variants (with their inventory rows) and image urls of one cart. The lookups
+     * follow the rules of {@link CartItem#getProductName()} and {@link CartItem#getProductImageUrl()},
+     * except that the image marked primary wins over display order.
+     */
+    public record Catalog(Map<Long, Product> products, Map<Long, ProductVariant> variants, Map<Long, String> imageUrls) {
+
+        public Product product(CartItem item) {
+            return products.get(item.getProduct().getId());
+        }
+
+        public ProductVariant variant(CartItem item) {
+            return item.getProductVariant() != null ? variants.get(item.getProductVariant().getId()) : null;
+        }
+
+        public String productName(CartItem item) {
+            String name = product(item).getName();
+            ProductVariant variant = variant(item);
+            if (variant != null && variant.getName() != null) {
+                name += " - " + variant.getName();
+            }
+            return name;
+        }
+
+        public String productSku(CartItem item) {
+            ProductVariant variant = variant(item);
+            return variant != null && variant.getSku() != null ? variant.getSku() : product(item).getSku();
+        }
+
+        public String productImageUrl(CartItem item) {
+            ProductVariant variant = variant(item);
+            if (variant != null && variant.getImageUrl() != null) {
+                return variant.getImageUrl();
+            }
+            return imageUrls.get(item.getProduct().getId());
+        }
+
+        // Variant lines draw from the variant's stock, others from the product's
+        public Long inventoryId(CartItem item) {
+            ProductVariant variant = variant(item);
+            Inventory inventory = variant != null ? variant.getInventory() : product(item).getInventory();
+            return inventory != null ? inventory.getId() : null;
+        }
+    }
+}
@@ -0,0 +1,48 @@
+package com.github.ecommerce.service.checkout;
+
+import com.github.ecommerce.entity.Payment;
+import com.github.ecommerce.service.pricing.CartQuote;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * State carried between checkout stages. Only ids and snapshots are kept, never managed
+ * entities, since every stage runs in its own transaction.
+ */
+@Data
+class CheckoutContext {
+
+    private final Long requestId;
+    private final String idempotencyKey;
+    private final Long userId;
+    private final Long cartId;
+    private final Payment.PaymentMethod paymentMethod;
+
+    private String couponCode;
+    private List<Line> lines = new ArrayList<>();
+    private CartQuote quote;
+    private Long orderId;
+    private String orderNumber;
+    private Long paymentId;
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    static class Line {
+        private Long productId;
+        private Long variantId;
+        private Long categoryId;
+        private Long inventoryId;
+        private String productName;
+        private String productSku;
+        private String productImageUrl;
+        private int quantity;
+        private BigDecimal unitPrice;
+        private BigDecimal discountAmount;
+    }
+}
@@ -0,0 +1,401 @@
+package com.github.ecommerce.service.checkout;
+
+import com.github.ecommerce.entity.Cart;
+import com.github.ecommerce.entity.CartItem;
+import com.github.ecommerce.entity.CheckoutRequest;
+import com.github.ecommerce.entity.CheckoutRequest.CheckoutStatus;
+import com.github.ecommerce.entity.Inventory;
+import com.github.ecommerce.entity.Order;
+import com.github.ecommerce.entity.OrderItem;
+import com.github.ecommerce.entity.Payment;
+import com.github.ecommerce.entity.Product;
+import com.github.ecommerce.entity.ProductVariant;
+import com.github.ecommerce.entity.User;
+import com.github.ecommerce.exception.BusinessException;
+import com.github.ecommerce.repository.CartRepository;
+import com.github.ecommerce.repository.CheckoutRequestRepository;
+import com.github.ecommerce.repository.InventoryRepository;
+import com.github.ecommerce.repository.OrderRepository;
+import com.github.ecommerce.service.OrderLookupService;
+import com.github.ecommerce.service.StockJournalService;
+import com.github.ecommerce.service.coupon.CouponCodeValidator;
+import com.github.ecommerce.service.coupon.CouponRedemptionService;
+import com.github.ecommerce.service.payment.PaymentChargeService;
+import com.github.ecommerce.service.pricing.CartPricingEngine;
+import com.github.ecommerce.service.pricing.PricingLine;
+import jakarta.persistence.EntityManager;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.Consumer;
+
+/**
+ * Runs checkout as a sequence of short stages (validate, reserve, price, persist, pay) on a
+ * bounded executor. Each stage commits its own transaction, so no pooled connection is held
+ * across the whole checkout; when a stage fails, the compensations of the stages that already
+ * completed run in reverse order. Requests are keyed by a client idempotency key, and a retry
+ * with the same key returns the original request, finished or still in flight, instead of
+ * starting a second checkout.
+ * <p>
+ * Stock is reserved under the idempotency key and settled from the journal by that key: given
+ * back by the compensation, or sold or given back by {@link
+ * com.github.ecommerce.service.payment.PaymentStatusApplier} once the payment has an outcome.
+ * {@link #recoverStale} picks up requests that stopped moving, because the executor had no room
+ * for them or their node went away mid-pipeline.
+ */
+@Service
+@Slf4j
+public class CheckoutPipeline {
+
+    private final CheckoutRequestRepository checkoutRequestRepository;
+    private final CartRepository cartRepository;
+    private final InventoryRepository inventoryRepository;
+    private final OrderRepository orderRepository;
+    private final OrderLookupService orderLookupService;
+    private final StockJournalService stockJournalService;
+    private final CartPricingEngine pricingEngine;
+    private final CartConversionService cartConversionService;
+    private final CouponRedemptionService couponRedemptionService;
+    private final CouponCodeValidator couponCodeValidator;
+    private final PaymentChargeService paymentChargeService;
+    private final EntityManager entityManager;
+    private final TransactionTemplate transactionTemplate;
+    private final TaskExecutor checkoutExecutor;
+    private final List<Stage> stages;
+
+    public CheckoutPipeline(CheckoutRequestRepository checkoutRequestRepository,
+                            CartRepository cartRepository,
+                            InventoryRepository inventoryRepository,
+                            OrderRepository orderRepository,
+                            OrderLookupService orderLookupService,
+                            StockJournalService stockJournalService,
+                            CartPricingEngine pricingEngine,
+                            CartConversionService cartConversionService,
+                            CouponRedemptionService couponRedemptionService,
+                            CouponCodeValidator couponCodeValidator,
+                            PaymentChargeService paymentChargeService,
+                            EntityManager entityManager,
+                            TransactionTemplate transactionTemplate,
+                            @Qualifier("checkoutExecutor") TaskExecutor checkoutExecutor) {
+        this.checkoutRequestRepository = checkoutRequestRepository;
+        this.cartRepository = cartRepository;
+        this.inventoryRepository = inventoryRepository;
+        this.orderRepository = orderRepository;
+        this.orderLookupService = orderLookupService;
+        this.stockJournalService = stockJournalService;
+        this.pricingEngine = pricingEngine;
+        this.cartConversionService = cartConversionService;
+        this.couponRedemptionService = couponRedemptionService;
+        this.couponCodeValidator = couponCodeValidator;
+        this.paymentChargeService = paymentChargeService;
+        this.entityManager = entityManager;
+        this.transactionTemplate = transactionTemplate;
+        this.checkoutExecutor = checkoutExecutor;
+        this.stages = List.of(
+            new Stage(CheckoutStatus.VALIDATED, this::validate, null),
+            new Stage(CheckoutStatus.RESERVED, this::reserve, this::releaseReservation),
+            new Stage(CheckoutStatus.PRICED, this::price, null),
+            new Stage(CheckoutStatus.PERSISTED, this::persist, this::cancelOrder),
+            new Stage(CheckoutStatus.COMPLETED, this::pay, null)
+        );
+    }
+
+    public CheckoutRequest submit(String idempotencyKey, Long userId, Long cartId, Payment.PaymentMethod paymentMethod) {
+        CheckoutRequest request;
+        try {
+            request = transactionTemplate.execute(status -> checkoutRequestRepository.saveAndFlush(
+                CheckoutRequest.builder()
+                    .idempotencyKey(idempotencyKey)
+                    .userId(userId)
+                    .cartId(cartId)
+                    .paymentMethod(paymentMethod)
+                    .build()));
+        } catch (DataIntegrityViolationException e) {
+            CheckoutRequest existing = checkoutRequestRepository.findByIdempotencyKey(idempotencyKey)
+                .orElseThrow(() -> e);
+            if (!existing.getUserId().equals(userId) || !existing.getCartId().equals(cartId)) {
+                throw new BusinessException("Idempotency key was already used for a different checkout");
+            }
+            return existing;
+        }
+
+        CheckoutContext context = new CheckoutContext(request.getId(), idempotencyKey, userId, cartId, paymentMethod);
+        try {
+            checkoutExecutor.execute(() -> run(context));
+        } catch (TaskRejectedException e) {
+            // Accepted all the same: the request stays RECEIVED and recoverStale starts it later
+            log.warn("Checkout executor is full, {} waits for recovery", idempotencyKey);
+        }
+        return request;
+    }
+
+    /**
+     * Takes over unfinished requests that no stage has written for {@code staleAfter}. One that
+     * never started is started. One that stopped mid-pipeline is compensated and failed, unless
+     * its payment was already created: then the payment's outcome settles the stock, and the
+     * checkout itself is complete.
+     *
+     * @return the number of requests taken over
+     */
+    public int recoverStale(Duration staleAfter, int limit) {
+        LocalDateTime cutoff = LocalDateTime.now().minus(staleAfter);
+        List<CheckoutRequest> stale = checkoutRequestRepository.findStale(
+            List.of(CheckoutStatus.COMPLETED, CheckoutStatus.FAILED), cutoff, PageRequest.of(0, limit));
+        int recovered = 0;
+        for (CheckoutRequest request : stale) {
+            Integer claimed = transactionTemplate.execute(status ->
+                checkoutRequestRepository.claim(request.getId(), request.getStatus(), cutoff));
+            if (claimed == null || claimed == 0) {
+                continue;
+            }
+            CheckoutContext context = new CheckoutContext(request.getId(), request.getIdempotencyKey(),
+                request.getUserId(), request.getCartId(), request.getPaymentMethod());
+            context.setOrderId(request.getOrderId());
+            context.setOrderNumber(request.getOrderNumber());
+            if (request.getStatus() == CheckoutStatus.RECEIVED) {
+                try {
+                    checkoutExecutor.execute(() -> run(context));
+                } catch (TaskRejectedException e) {
+                    // Still no room; the claim only delays the next attempt
+                    continue;
+                }
+            } else {
+                recoverInterrupted(context, request.getStatus());
+            }
+            recovered++;
+        }
+        return recovered;
+    }
+
+    public Optional<CheckoutRequest> find(String idempotencyKey) {
+        return checkoutRequestRepository.findByIdempotencyKey(idempotencyKey);
+    }
+
+    void run(CheckoutContext context) {
+        Deque<Stage> completed = new ArrayDeque<>();
+        for (Stage stage : stages) {
+            try {
+                stage.action().accept(context);
+                completed.push(stage);
+                transactionTemplate.executeWithoutResult(status -> checkoutRequestRepository.updateStatus(
+                    context.getRequestId(), stage.reached(), context.getOrderId(), context.getOrderNumber(), null));
+            } catch (RuntimeException e) {
+                log.warn("Checkout {} failed before {}: {}", context.getIdempotencyKey(), stage.reached(), e.getMessage());
+                compensate(context, completed);
+                markFailed(context, e.getMessage());
+                return;
+            }
+        }
+    }
+
+    private void compensate(CheckoutContext context, Deque<Stage> completed) {
+        while (!completed.isEmpty()) {
+            Stage stage = completed.pop();
+            if (stage.compensation() == null) {
+                continue;
+            }
+            try {
+                stage.compensation().accept(context);
+            } catch (RuntimeException e) {
+                log.error("Compensation for {} failed on checkout {}", stage.reached(), context.getIdempotencyKey(), e);
+            }
+        }
+    }
+
+    private void recoverInterrupted(CheckoutContext context, CheckoutStatus reached) {
+        boolean paid = context.getOrderId() != null && Boolean.TRUE.equals(transactionTemplate.execute(status ->
+            orderLookupService.findById(context.getOrderId()).map(order -> order.getPayment() != null).orElse(false)));
+        if (paid) {
+            transactionTemplate.executeWithoutResult(status -> checkoutRequestRepository.updateStatus(
+                context.getRequestId(), CheckoutStatus.COMPLETED, context.getOrderId(), context.getOrderNumber(), null));
+            return;
+        }
+        log.warn("Checkout {} stopped after {}, compensating", context.getIdempotencyKey(), reached);
+        Deque<Stage> all = new ArrayDeque<>();
+        stages.forEach(all::push);
+        compensate(context, all);
+        markFailed(context, "Checkout was interrupted");
+    }
+
+    private void markFailed(CheckoutContext context, String reason) {
+        transactionTemplate.executeWithoutResult(status -> checkoutRequestRepository.updateStatus(
+            context.getRequestId(), CheckoutStatus.FAILED, context.getOrderId(), context.getOrderNumber(), reason));
+    }
+
+    private void validate(CheckoutContext context) {
+        transactionTemplate.executeWithoutResult(status -> {
+            status.setRollbackOnly();
+            Cart cart = cartRepository.findWithItemsById(context.getCartId())
+                .orElseThrow(() -> new BusinessException("Cart not found"));
+            if (cart.getUser() == null || !cart.getUser().getId().equals(context.getUserId())) {
+                throw new BusinessException("Cart does not belong to the user");
+            }
+            if (cart.isEmpty()) {
+                throw new BusinessException("Cart is empty");
+            }
+
+            context.setCouponCode(cart.getCouponCode());
+            if (cart.getCouponCode() != null) {
+                CouponCodeValidator.Status code = couponCodeValidator.check(cart.getCouponCode()).status();
+                if (code == CouponCodeValidator.Status.INVALID || code == CouponCodeValidator.Status.REDEEMED) {
+                    throw new BusinessException("Coupon " + cart.getCouponCode() + " is not valid");
+                }
+            }
+            CartConversionService.Catalog catalog = cartConversionService.prefetch(cart);
+            for (CartItem item : cart.getItems()) {
+                Product product = catalog.product(item);
+                ProductVariant variant = catalog.variant(item);
+                if (!product.getActive() || (variant != null && !variant.getActive())) {
+                    throw new BusinessException("Product is no longer available: " + product.getName());
+                }
+            }
+            context.getLines().addAll(cartConversionService.toLines(cart, catalog));
+        });
+    }
+
+    private void reserve(CheckoutContext context) {
+        transactionTemplate.executeWithoutResult(status -> {
+            Map<Long, Inventory> inventories = lockInventories(context);
+            for (CheckoutContext.Line line : context.getLines()) {
+                Inventory inventory = inventories.get(line.getInventoryId());
+                if (inventory == null || !inventory.getTrackInventory()) {
+                    continue;
+                }
+                try {
+                    inventory.reserveStock(line.getQuantity());
+                } catch (IllegalArgumentException e) {
+                    throw new BusinessException("Insufficient stock for " + line.getProductName());
+                }
+            }
+            inventories.values().forEach(inventory -> stockJournalService.flush(inventory, context.getIdempotencyKey()));
+        });
+    }
+
+    // Gives back what the journal still holds under the key, so it needs no lines and is safe to repeat
+    private void releaseReservation(CheckoutContext context) {
+        stockJournalService.settleReservations(context.getIdempotencyKey(), false);
+    }
+
+    private void price(CheckoutContext context) {
+        List<PricingLine> lines = context.getLines().stream()
+            .map(line -> new PricingLine(line.getProductId(), line.getVariantId(), line.getCategoryId(),
+                line.getQuantity(), line.getUnitPrice(), line.getDiscountAmount()))
+            .toList();
+        context.setQuote(pricingEngine.quote(lines, discountCodeOf(context)));
+    }
+
+    private void persist(CheckoutContext context) {
+        transactionTemplate.executeWithoutResult(status -> {
+            Order order = Order.builder()
+                .user(entityManager.getReference(User.class, context.getUserId()))
+                .status(Order.OrderStatus.PENDING)
+                .subtotalAmount(context.getQuote().subtotal())
+                .discountAmount(context.getQuote().discountAmount())
+                .couponCode(context.getCouponCode())
+                .build();
+            for (CheckoutContext.Line line : context.getLines()) {
+                OrderItem item = OrderItem.builder()
+                    .order(order)
+                    .product(entityManager.getReference(Product.class, line.getProductId()))
+                    .productVariant(line.getVariantId() != null
+                        ? entityManager.getReference(ProductVariant.class, line.getVariantId())
+                        : null)
+                    .productName(line.getProductName())
+                    .productSku(line.getProductSku())
+                    .productImageUrl(line.getProductImageUrl())
+                    .quantity(line.getQuantity())
+                    .unitPrice(line.getUnitPrice())
+                    .discountAmount(line.getDiscountAmount())
+                    .build();
+                order.getItems().add(item);
+            }
+            Order saved = orderRepository.save(order);
+            // Claims a use of the coupon; a coupon used up since pricing fails the checkout here
+            String discountCode = discountCodeOf(context);
+            if (discountCode != null && context.getQuote().appliedDiscountCodes().stream()
+                    .anyMatch(discountCode::equalsIgnoreCase)) {
+                couponRedemptionService.redeem(context.getCouponCode(), context.getUserId(), saved.getId());
+            }
+            context.setOrderId(saved.getId());
+            context.setOrderNumber(saved.getOrderNumber());
+            // With the order, so a request that stops after this point can always find it
+            checkoutRequestRepository.updateStatus(
+                context.getRequestId(), CheckoutStatus.PERSISTED, saved.getId(), saved.getOrderNumber(), null);
+        });
+    }
+
+    // Campaign codes price as the discount they belong to
+    private String discountCodeOf(CheckoutContext context) {
+        return context.getCouponCode() != null ? couponCodeValidator.discountCodeFor(context.getCouponCode()) : null;
+    }
+
+    private void cancelOrder(CheckoutContext context) {
+        if (context.getOrderId() == null) {
+            return;
+        }
+        transactionTemplate.executeWithoutResult(status -> {
+            orderRepository.findById(context.getOrderId()).ifPresent(order -> {
+                order.setStatus(Order.OrderStatus.CANCELLED);
+                order.setCancellationReason("Checkout failed");
+            });
+            couponRedemptionService.release(context.getOrderId());
+        });
+    }
+
+    private void pay(CheckoutContext context) {
+        transactionTemplate.executeWithoutResult(status -> {
+            Order order = orderRepository.findById(context.getOrderId())
+                .orElseThrow(() -> new BusinessException("Order not found"));
+            Payment payment = Payment.builder()
+                .order(order)
+                .method(context.getPaymentMethod())
+                .status(Payment.PaymentStatus.PENDING)
+                .amount(order.getTotalAmount())
+                .currencyCode(order.getCurrencyCode())
+                .build();
+            entityManager.persist(payment);
+            order.setPayment(payment);
+            order.setStatus(Order.OrderStatus.PROCESSING);
+            context.setPaymentId(payment.getId());
+
+            // The order now owns the lines; empty the cart in the same transaction
+            cartRepository.findById(context.getCartId()).ifPresent(Cart::clear);
+        });
+        // Outside the transaction: a failed call leaves the payment FAILED for retry, not the checkout
+        paymentChargeService.charge(context.getPaymentId());
+    }
+
+    private Map<Long, Inventory> lockInventories(CheckoutContext context) {
+        Set<Long> inventoryIds = new HashSet<>();
+        context.getLines().forEach(line -> {
+            if (line.getInventoryId() != null) {
+                inventoryIds.add(line.getInventoryId());
+            }
+        });
+        Map<Long, Inventory> inventories = new HashMap<>();
+        if (!inventoryIds.isEmpty()) {
+            inventoryRepository.findAllByIdForUpdate(inventoryIds)
+                .forEach(inventory -> inventories.put(inventory.getId(), inventory));
+        }
+        return inventories;
+    }
+
+    private record Stage(CheckoutStatus reached, Consumer<CheckoutContext> action, Consumer<CheckoutContext> compensation) {
+    }
+}
@@ -0,0 +1,129 @@
+package com.github.ecommerce.service.coupon;
+
+import com.github.ecommerce.entity.CouponCampaign;
+import com.github.ecommerce.entity.Discount;
+import com.github.ecommerce.exception.BusinessException;
+import com.github.ecommerce.repository.CouponCampaignRepository;
+import com.github.ecommerce.repository.DiscountRepository;
+import com.github.ecommerce.util.SnowflakeIdGenerator;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.security.SecureRandom;
+import java.util.ArrayList;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Locale;
+import java.util.function.Consumer;
+
+/**
+ * Creates coupon campaigns and issues their codes. Issuing encodes and inserts the codes in
+ * JDBC batches, one transaction per batch, each taking its range of sequence numbers under the
+ * campaign row lock and raising {@code issued} only once the rows are in. Codes are unique by construction, so nothing is checked
+ * against existing codes; the unique key on {@code code} only guards against a reused prefix.
+ */
+@Service
+@Slf4j
+public class CouponCampaignService {
+
+    private static final String INSERT_CODE = "INSERT INTO coupon_codes (id, campaign_id, sequence, code) VALUES (?, ?, ?, ?)";
+
+    private final CouponCampaignRepository campaignRepository;
+    private final DiscountRepository discountRepository;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final CouponCodeValidator validator;
+    private final SecureRandom random = new SecureRandom();
+
+    @Value("${app.coupons.codes.batch-size:5000}")
+    private int batchSize;
+
+    public CouponCampaignService(CouponCampaignRepository campaignRepository,
+                                 DiscountRepository discountRepository,
+                                 JdbcTemplate jdbcTemplate,
+                                 TransactionTemplate transactionTemplate,
+                                 CouponCodeValidator validator) {
+        this.campaignRepository = campaignRepository;
+        this.discountRepository = discountRepository;
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.validator = validator;
+    }
+
+    public CouponCampaign create(Long discountId, String prefix) {
+        String normalized = prefix.toUpperCase(Locale.ROOT);
+        if (!CouponCodeFormat.isValidPrefix(normalized)) {
+            throw new BusinessException("Campaign prefix must be 1 to 12 characters of " + CouponCodeFormat.ALPHABET);
+        }
+        byte[] secret = new byte[16];
+        random.nextBytes(secret);
+        CouponCampaign campaign = transactionTemplate.execute(status -> {
+            Discount discount = discountRepository.findById(discountId)
+                .orElseThrow(() -> new BusinessException("Discount not found"));
+            if (campaignRepository.findByPrefix(normalized).isPresent()) {
+                throw new BusinessException("Campaign prefix " + normalized + " is taken");
+            }
+            return campaignRepository.save(CouponCampaign.builder()
+                .discount(discount)
+                .prefix(normalized)
+                .secret(HexFormat.of().formatHex(secret))
+                .build());
+        });
+        validator.refresh();
+        return campaign;
+    }
+
+    /**
+     * Issues {@code count} new codes and hands each one to {@code codes} once it is stored,
+     * e.g. to write an export file. If a batch fails, the codes handed out so far stay issued.
+     */
+    public void issue(Long campaignId, long count, Consumer<String> codes) {
+        if (count <= 0) {
+            throw new BusinessException("Count must be positive");
+        }
+        CouponCampaign campaign = campaignRepository.findById(campaignId)
+            .orElseThrow(() -> new BusinessException("Campaign not found"));
+        if (campaign.getIssued() + count > CouponCodeFormat.MAX_SEQUENCE) {
+            throw new BusinessException("Campaign cannot hold " + count + " more codes");
+        }
+        CouponCodeFormat format = new CouponCodeFormat(campaign.getPrefix(), campaign.getSecret());
+
+        long started = System.nanoTime();
+        for (long remaining = count; remaining > 0; ) {
+            int size = (int) Math.min(batchSize, remaining);
+            List<String> batch = transactionTemplate.execute(status -> insertBatch(campaignId, format, size));
+            batch.forEach(codes);
+            remaining -= size;
+        }
+        validator.refresh();
+        log.info("Issued {} codes for campaign {} ({}) in {} ms", count, campaign.getPrefix(), campaignId,
+            (System.nanoTime() - started) / 1_000_000);
+    }
+
+    /**
+     * Takes the next {@code size} sequence numbers and inserts their codes. {@code issued} is
+     * raised in the same transaction after the inserts, so it never counts a sequence without
+     * a row; the campaign row lock makes a concurrent issue take the range after this one.
+     */
+    private List<String> insertBatch(Long campaignId, CouponCodeFormat format, int size) {
+        Long first = jdbcTemplate.queryForObject("SELECT issued FROM coupon_campaigns WHERE id = ? FOR UPDATE",
+            Long.class, campaignId);
+        if (first + size > CouponCodeFormat.MAX_SEQUENCE) {
+            throw new BusinessException("Campaign cannot hold " + size + " more codes");
+        }
+        SnowflakeIdGenerator ids = SnowflakeIdGenerator.getInstance();
+        List<String> batch = new ArrayList<>(size);
+        List<Object[]> rows = new ArrayList<>(size);
+        for (long sequence = first; sequence < first + size; sequence++) {
+            String code = format.encode(sequence);
+            rows.add(new Object[] {ids.nextId(), campaignId, sequence, code});
+            batch.add(code);
+        }
+        jdbcTemplate.batchUpdate(INSERT_CODE, rows);
+        jdbcTemplate.update("UPDATE coupon_campaigns SET issued = ? WHERE id = ?", first + size, campaignId);
+        return batch;
+    }
+}
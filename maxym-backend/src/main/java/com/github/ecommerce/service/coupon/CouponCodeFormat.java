@@ -0,0 +1,201 @@
+package com.github.ecommerce.service.coupon;
+
+import com.google.common.hash.HashFunction;
+import com.google.common.hash.Hashing;
+
+import java.util.Arrays;
+
+/**
+ * Turns campaign sequence numbers into codes and back. A code is the campaign prefix, ten
+ * characters holding a 50-bit value, and one check character, all in Crockford's base 32
+ * (no I, L, O or U), e.g. {@code XMAS26-7K3M9-QXP4T-6}:
+ * <ul>
+ *   <li>The 50-bit value is the sequence number run through a four-round Feistel network
+ *   keyed with the campaign secret. It is a permutation, so distinct sequence numbers give
+ *   distinct codes and no uniqueness check is needed; without the key, issued codes are not
+ *   guessable from each other.</li>
+ *   <li>The check character is Luhn mod 32 over prefix and value, which catches every single
+ *   mistyped character and most swaps of neighbours.</li>
+ * </ul>
+ * Decoding inverts the network, so validating a code is arithmetic: no table, no lookup.
+ * Instances are immutable and thread-safe.
+ */
+public final class CouponCodeFormat {
+
+    static final String ALPHABET = "0123456789ABCDEFGHJKMNPQRSTVWXYZ";
+    static final int VALUE_CHARS = 10;
+    static final long MAX_SEQUENCE = 1L << (VALUE_CHARS * 5);
+
+    private static final int HALF_BITS = VALUE_CHARS * 5 / 2;
+    private static final long HALF_MASK = (1L << HALF_BITS) - 1;
+    private static final int ROUNDS = 4;
+    private static final int GROUP = 5;
+    private static final byte[] VALUES = new byte[128];
+
+    static {
+        Arrays.fill(VALUES, (byte) -1);
+        for (int i = 0; i < ALPHABET.length(); i++) {
+            VALUES[ALPHABET.charAt(i)] = (byte) i;
+            VALUES[Character.toLowerCase(ALPHABET.charAt(i))] = (byte) i;
+        }
+        // Crockford's decoding of look-alikes
+        VALUES['O'] = VALUES['o'] = 0;
+        VALUES['I'] = VALUES['i'] = VALUES['L'] = VALUES['l'] = 1;
+    }
+
+    private final String prefix;
+    private final HashFunction roundFunction;
+
+    public CouponCodeFormat(String prefix, String secret) {
+        if (!isValidPrefix(prefix)) {
+            throw new IllegalArgumentException("Prefix must be 1 to 12 characters of " + ALPHABET);
+        }
+        if (secret == null || secret.length() != 32) {
+            throw new IllegalArgumentException("Secret must be 32 hex characters");
+        }
+        this.prefix = prefix;
+        this.roundFunction = Hashing.sipHash24(
+            Long.parseUnsignedLong(secret.substring(0, 16), 16),
+            Long.parseUnsignedLong(secret.substring(16), 16));
+    }
+
+    public static boolean isValidPrefix(String prefix) {
+        if (prefix == null || prefix.isEmpty() || prefix.length() > 12) {
+            return false;
+        }
+        for (int i = 0; i < prefix.length(); i++) {
+            if (ALPHABET.indexOf(prefix.charAt(i)) < 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * @return the code in canonical form (upper case, no separators, look-alikes mapped), or
+     * null if it contains a character no code can contain
+     */
+    public static String canonical(CharSequence code) {
+        StringBuilder canonical = new StringBuilder(code.length());
+        for (int i = 0; i < code.length(); i++) {
+            char c = code.charAt(i);
+            if (c == '-' || c == ' ') {
+                continue;
+            }
+            if (c >= 128 || VALUES[c] < 0) {
+                return null;
+            }
+            canonical.append(ALPHABET.charAt(VALUES[c]));
+        }
+        return canonical.toString();
+    }
+
+    /**
+     * @return the prefix of a canonical code, or null if it is too short to be a code
+     */
+    public static String prefixOf(String canonical) {
+        return canonical.length() > VALUE_CHARS + 1 ? canonical.substring(0, canonical.length() - VALUE_CHARS - 1) : null;
+    }
+
+    public String getPrefix() {
+        return prefix;
+    }
+
+    public String encode(long sequence) {
+        if (sequence < 0 || sequence >= MAX_SEQUENCE) {
+            throw new IllegalArgumentException("Sequence out of range: " + sequence);
+        }
+        long value = permute(sequence);
+        char[] chars = new char[VALUE_CHARS + 1];
+        for (int i = VALUE_CHARS - 1; i >= 0; i--) {
+            chars[i] = ALPHABET.charAt((int) (value & 31));
+            value >>>= 5;
+        }
+        chars[VALUE_CHARS] = ALPHABET.charAt(checkValue(prefix, chars, VALUE_CHARS));
+
+        StringBuilder code = new StringBuilder(prefix.length() + VALUE_CHARS + 4).append(prefix);
+        for (int i = 0; i < chars.length; i += GROUP) {
+            code.append('-').append(chars, i, Math.min(GROUP, chars.length - i));
+        }
+        return code.toString();
+    }
+
+    /**
+     * @return the sequence number of a code of this campaign, or -1 if the code is not one;
+     * case, dashes and spaces are ignored, and O, I and L read as 0, 1 and 1
+     */
+    public long decode(CharSequence code) {
+        char[] chars = new char[VALUE_CHARS + 1];
+        int count = 0;
+        int prefixMatched = 0;
+        for (int i = 0; i < code.length(); i++) {
+            char c = code.charAt(i);
+            if (c == '-' || c == ' ') {
+                continue;
+            }
+            if (c >= 128 || VALUES[c] < 0) {
+                return -1;
+            }
+            char canonical = ALPHABET.charAt(VALUES[c]);
+            if (prefixMatched < prefix.length()) {
+                if (canonical != prefix.charAt(prefixMatched++)) {
+                    return -1;
+                }
+            } else if (count == chars.length) {
+                return -1;
+            } else {
+                chars[count++] = canonical;
+            }
+        }
+        if (count != chars.length || VALUES[chars[VALUE_CHARS]] != checkValue(prefix, chars, VALUE_CHARS)) {
+            return -1;
+        }
+        long value = 0;
+        for (int i = 0; i < VALUE_CHARS; i++) {
+            value = (value << 5) | VALUES[chars[i]];
+        }
+        return invert(value);
+    }
+
+    private long permute(long sequence) {
+        long left = sequence >>> HALF_BITS;
+        long right = sequence & HALF_MASK;
+        for (int round = 0; round < ROUNDS; round++) {
+            long next = left ^ round(right, round);
+            left = right;
+            right = next;
+        }
+        return (left << HALF_BITS) | right;
+    }
+
+    private long invert(long value) {
+        long left = value >>> HALF_BITS;
+        long right = value & HALF_MASK;
+        for (int round = ROUNDS - 1; round >= 0; round--) {
+            long previous = right ^ round(left, round);
+            right = left;
+            left = previous;
+        }
+        return (left << HALF_BITS) | right;
+    }
+
+    private long round(long half, int round) {
+        return roundFunction.hashLong((half << 3) | round).asLong() & HALF_MASK;
+    }
+
+    // Luhn mod N: doubling every second character from the right, digits summed in base 32
+    private static int checkValue(String prefix, char[] value, int length) {
+        int sum = 0;
+        boolean doubled = true;
+        for (int i = length - 1; i >= -prefix.length(); i--) {
+            int addend = VALUES[i >= 0 ? value[i] : prefix.charAt(prefix.length() + i)];
+            if (doubled) {
+                addend *= 2;
+                addend = addend / 32 + addend % 32;
+            }
+            sum += addend;
+            doubled = !doubled;
+        }
+        return (32 - sum % 32) % 32;
+    }
+}
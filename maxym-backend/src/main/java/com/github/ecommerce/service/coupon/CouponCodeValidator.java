@@ -0,0 +1,204 @@
+package com.github.ecommerce.service.coupon;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Checks campaign codes in memory, so typos, guesses and reused codes are turned away without
+ * a query. A code is accepted only if its characters, check character, campaign prefix and
+ * decoded sequence number all hold up and the sequence's bit in the campaign's redeemed bitmap
+ * is clear. The bitmap holds one bit per issued code (125 KB per million) and is kept current
+ * from {@code idx_coupon_code_redeemed} and {@code idx_coupon_code_released}; it may briefly
+ * miss a redemption made on another node, which the conditional update in
+ * {@link CouponRedemptionService} still catches, or briefly turn away a code another node has
+ * released.
+ */
+@Service
+@Slf4j
+public class CouponCodeValidator {
+
+    // Redemptions committed just before a refresh may carry an earlier redeemed_at
+    private static final long REFRESH_OVERLAP_SECONDS = 60;
+
+    private final JdbcTemplate jdbcTemplate;
+    private volatile Map<String, Campaign> campaigns;
+    private LocalDateTime redeemedWatermark;
+
+    public CouponCodeValidator(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    public enum Status {
+        VALID,
+        // No campaign uses the prefix; the code may be a plain discount code
+        NOT_A_CAMPAIGN_CODE,
+        INVALID,
+        REDEEMED
+    }
+
+    public record Check(Status status, Campaign campaign, long sequence) {
+
+        public boolean isCampaignCode() {
+            return status != Status.NOT_A_CAMPAIGN_CODE;
+        }
+    }
+
+    public Check check(String code) {
+        String canonical = code != null ? CouponCodeFormat.canonical(code) : null;
+        String prefix = canonical != null ? CouponCodeFormat.prefixOf(canonical) : null;
+        Campaign campaign = prefix != null ? campaigns().get(prefix) : null;
+        if (campaign == null) {
+            return new Check(Status.NOT_A_CAMPAIGN_CODE, null, -1);
+        }
+        long sequence = campaign.format().decode(canonical);
+        if (sequence < 0 || sequence >= campaign.issued()) {
+            return new Check(Status.INVALID, campaign, sequence);
+        }
+        return new Check(campaign.isRedeemed(sequence) ? Status.REDEEMED : Status.VALID, campaign, sequence);
+    }
+
+    /**
+     * @return the code of the discount a campaign code redeems, or the code itself if it is
+     * not a campaign code
+     */
+    public String discountCodeFor(String code) {
+        Check check = check(code);
+        return check.isCampaignCode() ? check.campaign().discountCode() : code;
+    }
+
+    void markRedeemed(long campaignId, long sequence, boolean redeemed) {
+        for (Campaign campaign : campaigns().values()) {
+            if (campaign.id() == campaignId) {
+                campaign.mark(sequence, redeemed);
+                return;
+            }
+        }
+    }
+
+    /**
+     * Reloads campaigns and their issued counts, and applies redemptions and releases made
+     * since the last refresh. A campaign whose count grew gets a larger bitmap with the known
+     * bits copied.
+     */
+    @Scheduled(fixedDelayString = "${app.coupons.codes.refresh-interval:30000}")
+    public synchronized void refresh() {
+        LocalDateTime started = LocalDateTime.now();
+        Map<String, Campaign> previous = campaigns != null ? campaigns : Map.of();
+        Map<String, Campaign> loaded = new HashMap<>();
+        jdbcTemplate.query("SELECT c.id, c.prefix, c.secret, c.issued, d.id AS discount_id, d.code AS discount_code " +
+            "FROM coupon_campaigns c JOIN discounts d ON d.id = c.discount_id", rs -> {
+                String prefix = rs.getString("prefix");
+                long issued = rs.getLong("issued");
+                Campaign known = previous.get(prefix);
+                Campaign campaign = known != null && known.issued() == issued
+                    ? known
+                    : new Campaign(rs.getLong("id"), rs.getLong("discount_id"), rs.getString("discount_code"),
+                        new CouponCodeFormat(prefix, rs.getString("secret")), issued, known);
+                loaded.put(prefix, campaign);
+            });
+
+        Map<Long, Campaign> byId = new HashMap<>();
+        loaded.values().forEach(campaign -> byId.put(campaign.id(), campaign));
+        String since = redeemedWatermark != null ? " AND redeemed_at >= ?" : "";
+        Object[] args = redeemedWatermark != null
+            ? new Object[] {Timestamp.valueOf(redeemedWatermark.minusSeconds(REFRESH_OVERLAP_SECONDS))}
+            : new Object[0];
+        long[] applied = new long[2];
+        jdbcTemplate.query("SELECT campaign_id, sequence FROM coupon_codes WHERE redeemed_at IS NOT NULL" + since, rs -> {
+            Campaign campaign = byId.get(rs.getLong("campaign_id"));
+            if (campaign != null) {
+                campaign.mark(rs.getLong("sequence"), true);
+                applied[0]++;
+            }
+        }, args);
+        if (redeemedWatermark != null) {
+            // A code released and redeemed again since the watermark was marked above
+            jdbcTemplate.query("SELECT campaign_id, sequence FROM coupon_codes WHERE released_at >= ? AND redeemed_at IS NULL", rs -> {
+                Campaign campaign = byId.get(rs.getLong("campaign_id"));
+                if (campaign != null) {
+                    campaign.mark(rs.getLong("sequence"), false);
+                    applied[1]++;
+                }
+            }, args);
+        }
+
+        campaigns = Map.copyOf(loaded);
+        redeemedWatermark = started;
+        log.debug("Refreshed {} coupon campaigns, {} redemptions and {} releases applied",
+            loaded.size(), applied[0], applied[1]);
+    }
+
+    private Map<String, Campaign> campaigns() {
+        Map<String, Campaign> current = campaigns;
+        if (current == null) {
+            refresh();
+            current = campaigns;
+        }
+        return current;
+    }
+
+    public static final class Campaign {
+
+        private final long id;
+        private final long discountId;
+        private final String discountCode;
+        private final CouponCodeFormat format;
+        private final long issued;
+        private final AtomicLongArray redeemed;
+
+        Campaign(long id, long discountId, String discountCode, CouponCodeFormat format, long issued, Campaign previous) {
+            this.id = id;
+            this.discountId = discountId;
+            this.discountCode = discountCode;
+            this.format = format;
+            this.issued = issued;
+            this.redeemed = new AtomicLongArray((int) ((issued + 63) >>> 6));
+            if (previous != null) {
+                for (int i = 0; i < Math.min(previous.redeemed.length(), redeemed.length()); i++) {
+                    redeemed.set(i, previous.redeemed.get(i));
+                }
+            }
+        }
+
+        public long id() {
+            return id;
+        }
+
+        public long discountId() {
+            return discountId;
+        }
+
+        public String discountCode() {
+            return discountCode;
+        }
+
+        CouponCodeFormat format() {
+            return format;
+        }
+
+        long issued() {
+            return issued;
+        }
+
+        boolean isRedeemed(long sequence) {
+            return (redeemed.get((int) (sequence >>> 6)) & (1L << sequence)) != 0;
+        }
+
+        void mark(long sequence, boolean value) {
+            if (sequence >= issued) {
+                return;
+            }
+            int word = (int) (sequence >>> 6);
+            long bit = 1L << sequence;
+            redeemed.getAndUpdate(word, bits -> value ? bits | bit : bits & ~bit);
+        }
+    }
+}
@@ -0,0 +1,208 @@
+package com.github.ecommerce.service.coupon;
+
+import com.github.ecommerce.exception.BusinessException;
+import com.github.ecommerce.service.pricing.DiscountEligibilityService;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Redeems coupons against {@code usage_limit} and {@code usage_limit_per_user} without
+ * check-then-act races. The global limit is a single conditional update that only increments
+ * {@code usage_count} while it is below the limit, so the database decides which of two
+ * concurrent redemptions gets the last use. That update also holds the discount row lock until
+ * the order commits, which serializes the per-user count that follows it on
+ * {@code idx_coupon_discount (discount_id, user_id)}.
+ * <p>
+ * Per-user counts are cached once known. A cached count only ever lags behind the database,
+ * so it is used to turn away users who are already at their limit without taking the lock,
+ * never to let a redemption through.
+ * <p>
+ * Campaign codes from {@link CouponCampaignService} are checked by {@link CouponCodeValidator}
+ * first, then claimed with a conditional update of their {@code coupon_codes} row before the
+ * campaign's discount goes through the same limits as a shared code.
+ */
+@Service
+@Slf4j
+public class CouponRedemptionService {
+
+    private static final String FIND_DISCOUNT = "SELECT id, usage_limit_per_user FROM discounts WHERE code = ?";
+
+    // Same conditions as Discount#isValid, evaluated against the row as of the update
+    private static final String CLAIM_USE =
+        "UPDATE discounts SET usage_count = usage_count + 1, updated_at = ? WHERE id = ? AND active = TRUE " +
+        "AND start_date <= ? AND (end_date IS NULL OR end_date > ?) AND (usage_limit IS NULL OR usage_count < usage_limit)";
+
+    private static final String COUNT_USER_USES = "SELECT COUNT(*) FROM coupons WHERE discount_id = ? AND user_id = ?";
+
+    private static final String INSERT_COUPON =
+        "INSERT INTO coupons (user_id, order_id, discount_id, coupon_code, used_at) VALUES (?, ?, ?, ?, ?)";
+
+    private static final String CLAIM_CODE =
+        "UPDATE coupon_codes SET redeemed_at = ?, order_id = ? WHERE campaign_id = ? AND sequence = ? AND redeemed_at IS NULL";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final DiscountEligibilityService eligibility;
+    private final CouponCodeValidator codeValidator;
+    private final MeterRegistry meterRegistry;
+    private final Cache<UsageKey, Integer> userUsage;
+
+    public CouponRedemptionService(JdbcTemplate jdbcTemplate,
+                                   DiscountEligibilityService eligibility,
+                                   CouponCodeValidator codeValidator,
+                                   MeterRegistry meterRegistry,
+                                   @Value("${app.coupons.user-usage-cache-size:100000}") long userUsageCacheSize,
+                                   @Value("${app.coupons.user-usage-ttl-seconds:600}") long userUsageTtlSeconds) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.eligibility = eligibility;
+        this.codeValidator = codeValidator;
+        this.meterRegistry = meterRegistry;
+        this.userUsage = CacheBuilder.newBuilder()
+            .maximumSize(userUsageCacheSize)
+            .expireAfterWrite(userUsageTtlSeconds, TimeUnit.SECONDS)
+            .build();
+    }
+
+    /**
+     * Uses one redemption of the coupon for the user's order. Must run in the transaction that
+     * writes the order: the discount row stays locked until it commits, and a rollback gives
+     * the use back.
+     *
+     * @throws BusinessException if the coupon is unknown, no longer valid, used up, or the
+     * user has reached their own limit, or if a campaign code is mistyped or already redeemed
+     */
+    public void redeem(String couponCode, long userId, Long orderId) {
+        if (!TransactionSynchronizationManager.isActualTransactionActive()) {
+            throw new IllegalStateException("Coupons are redeemed inside the order's transaction");
+        }
+        CouponCodeValidator.Check campaignCode = codeValidator.check(couponCode);
+        switch (campaignCode.status()) {
+            case INVALID -> reject("invalid", "Coupon " + couponCode + " does not exist");
+            case REDEEMED -> reject("redeemed", "Coupon " + couponCode + " was already redeemed");
+            default -> {
+            }
+        }
+        String discountCode = campaignCode.isCampaignCode() ? campaignCode.campaign().discountCode() : couponCode;
+        List<DiscountLimits> found = jdbcTemplate.query(FIND_DISCOUNT, (rs, rowNum) -> {
+            int perUser = rs.getInt("usage_limit_per_user");
+            // wasNull() answers for the last column read, so it has to come before the id
+            Integer perUserLimit = rs.wasNull() ? null : perUser;
+            return new DiscountLimits(rs.getLong("id"), perUserLimit);
+        }, discountCode);
+        if (found.isEmpty()) {
+            reject("unknown", "Coupon " + couponCode + " does not exist");
+        }
+        DiscountLimits discount = found.get(0);
+        UsageKey key = new UsageKey(discount.id(), userId);
+        Integer known = userUsage.getIfPresent(key);
+        if (discount.perUserLimit() != null && known != null && known >= discount.perUserLimit()) {
+            reject("user_limit", "Coupon " + couponCode + " was already used the maximum number of times");
+        }
+
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        if (campaignCode.isCampaignCode()) {
+            claimCode(campaignCode, couponCode, orderId, now);
+        }
+        if (jdbcTemplate.update(CLAIM_USE, now, discount.id(), now, now) == 0) {
+            // The eligibility index may still list the discount; refresh it so pricing stops offering it
+            eligibility.discountChanged(discount.id());
+            reject("exhausted", "Coupon " + couponCode + " is no longer available");
+        }
+        if (discount.perUserLimit() != null) {
+            Integer used = jdbcTemplate.queryForObject(COUNT_USER_USES, Integer.class, discount.id(), userId);
+            int uses = used != null ? used : 0;
+            if (uses >= discount.perUserLimit()) {
+                userUsage.put(key, uses);
+                reject("user_limit", "Coupon " + couponCode + " was already used the maximum number of times");
+            }
+            afterCommit(() -> userUsage.put(key, uses + 1));
+        }
+        jdbcTemplate.update(INSERT_COUPON, userId, orderId, discount.id(), couponCode, now);
+        meterRegistry.counter("coupons.redemptions", "result", "redeemed").increment();
+    }
+
+    private void claimCode(CouponCodeValidator.Check code, String couponCode, Long orderId, Timestamp now) {
+        long campaignId = code.campaign().id();
+        if (jdbcTemplate.update(CLAIM_CODE, now, orderId, campaignId, code.sequence()) == 0) {
+            // Redeemed on another node since the validator last refreshed
+            codeValidator.markRedeemed(campaignId, code.sequence(), true);
+            reject("redeemed", "Coupon " + couponCode + " was already redeemed");
+        }
+        afterCommit(() -> codeValidator.markRedeemed(campaignId, code.sequence(), true));
+    }
+
+    /**
+     * Gives back the coupon uses of an order that did not go through, e.g. a failed checkout.
+     * Campaign codes the order redeemed become redeemable again.
+     */
+    public void release(long orderId) {
+        List<long[]> codes = jdbcTemplate.query("SELECT campaign_id, sequence FROM coupon_codes WHERE order_id = ?",
+            (rs, rowNum) -> new long[] {rs.getLong("campaign_id"), rs.getLong("sequence")}, orderId);
+        if (!codes.isEmpty()) {
+            // released_at is how the other nodes' validators learn the codes are redeemable again
+            jdbcTemplate.update("UPDATE coupon_codes SET redeemed_at = NULL, order_id = NULL, released_at = ? WHERE order_id = ?",
+                Timestamp.valueOf(LocalDateTime.now()), orderId);
+            afterCommit(() -> codes.forEach(code -> codeValidator.markRedeemed(code[0], code[1], false)));
+        }
+        List<UsageKey> released = jdbcTemplate.query("SELECT discount_id, user_id FROM coupons WHERE order_id = ?",
+            (rs, rowNum) -> new UsageKey(rs.getLong("discount_id"), rs.getLong("user_id")), orderId);
+        if (released.isEmpty()) {
+            return;
+        }
+        jdbcTemplate.update("DELETE FROM coupons WHERE order_id = ?", orderId);
+        List<Object[]> rows = new ArrayList<>(released.size());
+        released.forEach(key -> rows.add(new Object[] {key.discountId()}));
+        jdbcTemplate.batchUpdate("UPDATE discounts SET usage_count = GREATEST(usage_count - 1, 0) WHERE id = ?", rows);
+        afterCommit(() -> released.forEach(key -> {
+            userUsage.invalidate(key);
+            eligibility.discountChanged(key.discountId());
+        }));
+    }
+
+    /**
+     * @return how often the user has redeemed the discount, for {@code Discount#canBeUsedBy}
+     */
+    public int userUsageCount(long discountId, long userId) {
+        try {
+            return userUsage.get(new UsageKey(discountId, userId), () -> {
+                Integer used = jdbcTemplate.queryForObject(COUNT_USER_USES, Integer.class, discountId, userId);
+                return used != null ? used : 0;
+            });
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Coupon usage could not be counted", e.getCause());
+        }
+    }
+
+    private void reject(String reason, String message) {
+        meterRegistry.counter("coupons.redemptions", "result", reason).increment();
+        throw new BusinessException(message);
+    }
+
+    private static void afterCommit(Runnable action) {
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
+
+    private record DiscountLimits(long id, Integer perUserLimit) {
+    }
+
+    private record UsageKey(long discountId, long userId) {
+    }
+}
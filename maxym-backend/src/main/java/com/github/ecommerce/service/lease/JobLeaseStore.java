@@ -0,0 +1,43 @@
+package com.github.ecommerce.service.lease;
+
+import com.github.ecommerce.util.SnowflakeIdGenerator;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * Leases on {@code job_leases} rows for jobs that must run on one node at a time but cannot
+ * keep a row locked while they work, for example because they wait on a payment gateway. A
+ * lease is taken and renewed with single auto-committed updates and expires on its own if its
+ * node dies. A job should renew well within the lease duration and stop when renewal fails.
+ */
+@Component
+public class JobLeaseStore {
+
+    private final JdbcTemplate jdbcTemplate;
+    private final String owner;
+
+    public JobLeaseStore(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.owner = "node-" + SnowflakeIdGenerator.getInstance().getNodeId() + "-" + UUID.randomUUID();
+    }
+
+    /**
+     * Takes the lease if it is free or expired, or extends it if this node holds it already.
+     */
+    public boolean acquire(String name, Duration duration) {
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        jdbcTemplate.update("INSERT IGNORE INTO job_leases (name, owner, expires_at) VALUES (?, NULL, ?)", name, now);
+        return jdbcTemplate.update(
+            "UPDATE job_leases SET owner = ?, expires_at = ? WHERE name = ? AND (owner = ? OR owner IS NULL OR expires_at < ?)",
+            owner, Timestamp.valueOf(LocalDateTime.now().plus(duration)), name, owner, now) > 0;
+    }
+
+    public void release(String name) {
+        jdbcTemplate.update("UPDATE job_leases SET owner = NULL WHERE name = ? AND owner = ?", name, owner);
+    }
+}
@@ -0,0 +1,61 @@
+package com.github.ecommerce.service.outbox;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+
+/**
+ * Delivers outbox batches to the {@link OutboxConsumer} beans of this application. Every
+ * consumer has its own offset: events at or below it are filtered out, which absorbs relay
+ * retries, and the offset moves forward in the consumer's own transaction. A failing consumer
+ * fails the batch, so the relay retries it while consumers that already succeeded skip it.
+ */
+@Component
+@Slf4j
+public class InProcessOutboxSink implements OutboxSink {
+
+    private final ObjectProvider<OutboxConsumer> consumers;
+    private final OutboxOffsetStore offsetStore;
+    private final TransactionTemplate consumerTransaction;
+    private final MeterRegistry meterRegistry;
+
+    public InProcessOutboxSink(ObjectProvider<OutboxConsumer> consumers,
+                               OutboxOffsetStore offsetStore,
+                               PlatformTransactionManager transactionManager,
+                               MeterRegistry meterRegistry) {
+        this.consumers = consumers;
+        this.offsetStore = offsetStore;
+        this.consumerTransaction = new TransactionTemplate(transactionManager);
+        this.consumerTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Override
+    public String name() {
+        return "in-process";
+    }
+
+    @Override
+    public void publish(List<OutboxMessage> batch) {
+        long lastSequence = batch.get(batch.size() - 1).sequence();
+        consumers.orderedStream().forEach(consumer -> consumerTransaction.executeWithoutResult(status -> {
+            long offset = offsetStore.lock(consumer.name());
+            List<OutboxMessage> pending = batch.stream()
+                .filter(event -> event.sequence() > offset)
+                .filter(event -> consumer.eventTypes().isEmpty() || consumer.eventTypes().contains(event.eventType()))
+                .toList();
+            if (!pending.isEmpty()) {
+                meterRegistry.timer("outbox.consumer.batch.duration", "consumer", consumer.name())
+                    .record(() -> consumer.consume(pending));
+                meterRegistry.counter("outbox.consumer.events", "consumer", consumer.name()).increment(pending.size());
+            }
+            offsetStore.advance(consumer.name(), lastSequence);
+        }));
+    }
+}
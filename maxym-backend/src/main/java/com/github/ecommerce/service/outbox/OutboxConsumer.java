@@ -0,0 +1,21 @@
+package com.github.ecommerce.service.outbox;
+
+import java.util.List;
+import java.util.Set;
+
+/**
+ * In-process subscriber fed by {@link InProcessOutboxSink}. Each call receives the events of
+ * one relay batch that match {@link #eventTypes()}, in commit order. The consumer runs in its own
+ * transaction together with its offset update, so database side effects happen once;
+ * anything outside the database may see a batch again after a failure.
+ */
+public interface OutboxConsumer {
+
+    // Stable name, used as the key of the consumer offset
+    String name();
+
+    // Event types to receive; empty means all
+    Set<String> eventTypes();
+
+    void consume(List<OutboxMessage> events);
+}
@@ -0,0 +1,12 @@
+package com.github.ecommerce.service.outbox;
+
+import java.time.LocalDateTime;
+
+public record OutboxMessage(Long id,
+                            long sequence,
+                            String aggregateType,
+                            String aggregateId,
+                            String eventType,
+                            String payload,
+                            LocalDateTime createdAt) {
+}
@@ -0,0 +1,47 @@
+package com.github.ecommerce.service.outbox;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+
+@Component
+@RequiredArgsConstructor
+public class OutboxOffsetStore {
+
+    private final JdbcTemplate jdbcTemplate;
+
+    /**
+     * Reads the offset of a consumer and keeps its row locked until the surrounding
+     * transaction ends, so only one node advances a given offset at a time.
+     */
+    public long lock(String consumer) {
+        // Takes the exclusive lock straight away; INSERT IGNORE takes a shared one first, and two
+        // callers holding it would deadlock on the FOR UPDATE below
+        jdbcTemplate.update("INSERT INTO outbox_offsets (consumer, last_event_id, updated_at) VALUES (?, 0, ?) " +
+            "ON DUPLICATE KEY UPDATE consumer = consumer",
+            consumer, Timestamp.valueOf(LocalDateTime.now()));
+        Long offset = jdbcTemplate.queryForObject(
+            "SELECT last_event_id FROM outbox_offsets WHERE consumer = ? FOR UPDATE", Long.class, consumer);
+        return offset != null ? offset : 0L;
+    }
+
+    /**
+     * Takes the next {@code count} numbers of a counter and returns the first. The counter row
+     * stays locked until the transaction commits, so numbers are handed out in commit order.
+     * Only the counter's own row is touched; on an existing schema it is seeded by migration
+     * {@code V7} above every stored offset, so offsets written before it stay valid.
+     */
+    public long reserve(String counter, int count) {
+        long last = lock(counter);
+        advance(counter, last + count);
+        return last + 1;
+    }
+
+    public void advance(String consumer, long lastEventId) {
+        jdbcTemplate.update("UPDATE outbox_offsets SET last_event_id = ?, updated_at = ? WHERE consumer = ? AND last_event_id < ?",
+            lastEventId, Timestamp.valueOf(LocalDateTime.now()), consumer, lastEventId);
+    }
+}
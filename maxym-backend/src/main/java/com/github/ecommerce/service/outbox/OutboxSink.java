@@ -0,0 +1,15 @@
+package com.github.ecommerce.service.outbox;
+
+import java.util.List;
+
+/**
+ * Destination the relay publishes outbox batches to. A sink either accepts the whole batch
+ * or throws; the relay then retries the same batch, so delivery is at least once and
+ * downstream consumers must tolerate duplicates (every message carries its event id).
+ */
+public interface OutboxSink {
+
+    String name();
+
+    void publish(List<OutboxMessage> batch);
+}
@@ -0,0 +1,133 @@
+package com.github.ecommerce.service.outbox;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.ecommerce.util.SnowflakeIdGenerator;
+import jakarta.persistence.EntityManager;
+import org.hibernate.engine.spi.SessionImplementor;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Appends events to {@code outbox_events} on the connection of the caller's transaction, so an
+ * event is stored if and only if the state change it describes commits. Uses plain JDBC so it
+ * can also be called from entity lifecycle callbacks during a flush.
+ * <p>
+ * Ids and {@code created_at} are taken at append time, which says nothing about when the
+ * transaction commits. The events of a transaction are therefore numbered once more at the
+ * very end, after Hibernate's last flush, from the {@code sequence} counter whose row lock is
+ * held until commit. Commit sequences follow commit order, so a reader that has seen sequence
+ * n can never later find a committed event below it.
+ */
+@Service
+public class OutboxWriter {
+
+    private static final String INSERT_EVENT =
+        "INSERT INTO outbox_events (id, aggregate_type, aggregate_id, event_type, payload, created_at) " +
+        "VALUES (?, ?, ?, ?, ?, ?)";
+
+    private static final String SEQUENCE = "sequence";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final ObjectMapper objectMapper;
+    private final OutboxOffsetStore offsetStore;
+    // Resolved lazily: entity listeners that write events are created while the entity manager is being built
+    private final ObjectProvider<EntityManager> entityManager;
+
+    public OutboxWriter(JdbcTemplate jdbcTemplate,
+                        ObjectMapper objectMapper,
+                        OutboxOffsetStore offsetStore,
+                        ObjectProvider<EntityManager> entityManager) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.objectMapper = objectMapper;
+        this.offsetStore = offsetStore;
+        this.entityManager = entityManager;
+    }
+
+    public void append(String aggregateType, Object aggregateId, String eventType, Map<String, ?> payload) {
+        appendAll(List.of(new PendingEvent(aggregateType, aggregateId, eventType, payload)));
+    }
+
+    public void appendAll(List<PendingEvent> events) {
+        if (events.isEmpty()) {
+            return;
+        }
+        if (!TransactionSynchronizationManager.isActualTransactionActive()) {
+            throw new IllegalStateException("Outbox events must be written inside the transaction of the state change");
+        }
+        SnowflakeIdGenerator idGenerator = SnowflakeIdGenerator.getInstance();
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        List<Object[]> rows = new ArrayList<>(events.size());
+        List<Long> ids = new ArrayList<>(events.size());
+        for (PendingEvent event : events) {
+            long id = idGenerator.nextId();
+            ids.add(id);
+            rows.add(new Object[] {
+                id,
+                event.aggregateType(),
+                String.valueOf(event.aggregateId()),
+                event.eventType(),
+                toJson(event.payload()),
+                now
+            });
+        }
+        jdbcTemplate.batchUpdate(INSERT_EVENT, rows);
+        unsequenced().addAll(ids);
+    }
+
+    // Events of the current transaction still waiting for their commit sequence
+    private List<Long> unsequenced() {
+        // Kept on a synchronization of the transaction: those are suspended with it, so the
+        // events of a nested REQUIRES_NEW transaction are numbered at its own commit
+        for (TransactionSynchronization synchronization : TransactionSynchronizationManager.getSynchronizations()) {
+            if (synchronization instanceof Unsequenced pending && pending.writer == this) {
+                return pending.ids;
+            }
+        }
+        Unsequenced pending = new Unsequenced(this);
+        TransactionSynchronizationManager.registerSynchronization(pending);
+        // Hibernate runs this after its commit-time flush, so events appended by listeners are included
+        entityManager.getObject().unwrap(SessionImplementor.class).getActionQueue()
+            .registerProcess(session -> assignSequences(pending.ids));
+        return pending.ids;
+    }
+
+    private void assignSequences(List<Long> ids) {
+        long first = offsetStore.reserve(SEQUENCE, ids.size());
+        List<Object[]> rows = new ArrayList<>(ids.size());
+        for (int i = 0; i < ids.size(); i++) {
+            rows.add(new Object[] {first + i, ids.get(i)});
+        }
+        jdbcTemplate.batchUpdate("UPDATE outbox_events SET commit_sequence = ? WHERE id = ?", rows);
+    }
+
+    private String toJson(Map<String, ?> payload) {
+        try {
+            return objectMapper.writeValueAsString(payload);
+        } catch (JsonProcessingException e) {
+            throw new IllegalArgumentException("Outbox payload is not serializable", e);
+        }
+    }
+
+    private static final class Unsequenced implements TransactionSynchronization {
+
+        private final OutboxWriter writer;
+        private final List<Long> ids = new ArrayList<>();
+
+        private Unsequenced(OutboxWriter writer) {
+            this.writer = writer;
+        }
+    }
+
+    public record PendingEvent(String aggregateType, Object aggregateId, String eventType, Map<String, ?> payload) {
+    }
+}
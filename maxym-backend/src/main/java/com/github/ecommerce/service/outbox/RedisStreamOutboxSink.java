@@ -0,0 +1,73 @@
+package com.github.ecommerce.service.outbox;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.redis.connection.stream.StreamRecords;
+import org.springframework.data.redis.core.RedisOperations;
+import org.springframework.data.redis.core.SessionCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Appends outbox batches to one Redis stream per aggregate type ({@code outbox:order},
+ * {@code outbox:inventory}, ...) in a single pipelined round trip. Downstream services read
+ * the streams through consumer groups, which keep their offsets and pending lists in Redis;
+ * they deduplicate relay retries by the {@code eventId} field.
+ */
+@Component
+public class RedisStreamOutboxSink implements OutboxSink {
+
+    private final StringRedisTemplate redisTemplate;
+
+    @Value("${app.outbox.redis.stream-prefix:outbox:}")
+    private String streamPrefix;
+
+    @Value("${app.outbox.redis.max-length:1000000}")
+    private long maxLength;
+
+    public RedisStreamOutboxSink(StringRedisTemplate redisTemplate) {
+        this.redisTemplate = redisTemplate;
+    }
+
+    @Override
+    public String name() {
+        return "redis";
+    }
+
+    @Override
+    public void publish(List<OutboxMessage> batch) {
+        Set<String> streams = new HashSet<>();
+        redisTemplate.executePipelined(new SessionCallback<Object>() {
+            @Override
+            @SuppressWarnings("unchecked")
+            public Object execute(RedisOperations operations) throws DataAccessException {
+                for (OutboxMessage message : batch) {
+                    String stream = streamPrefix + message.aggregateType();
+                    streams.add(stream);
+                    operations.opsForStream().add(StreamRecords.string(fields(message)).withStreamKey(stream));
+                }
+                // Approximate trimming is cheap and keeps each stream bounded
+                for (String stream : streams) {
+                    operations.opsForStream().trim(stream, maxLength, true);
+                }
+                return null;
+            }
+        });
+    }
+
+    private static Map<String, String> fields(OutboxMessage message) {
+        Map<String, String> fields = new LinkedHashMap<>();
+        fields.put("eventId", String.valueOf(message.id()));
+        fields.put("eventType", message.eventType());
+        fields.put("aggregateId", message.aggregateId());
+        fields.put("payload", message.payload());
+        fields.put("createdAt", message.createdAt().toString());
+        return fields;
+    }
+}
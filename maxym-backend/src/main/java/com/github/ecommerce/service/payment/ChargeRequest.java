@@ -0,0 +1,7 @@
+package com.github.ecommerce.service.payment;
+
+import com.github.ecommerce.util.Money;
+
+// The idempotency key lets a retried charge return the original one instead of creating another
+public record ChargeRequest(String orderNumber, Money amount, String idempotencyKey) {
+}
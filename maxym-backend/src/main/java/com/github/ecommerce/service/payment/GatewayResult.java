@@ -0,0 +1,6 @@
+package com.github.ecommerce.service.payment;
+
+import com.github.ecommerce.entity.Payment.PaymentStatus;
+
+public record GatewayResult(String transactionId, PaymentStatus status, String responseCode, String message) {
+}
@@ -0,0 +1,38 @@
+package com.github.ecommerce.service.payment;
+
+import org.springframework.core.env.Environment;
+
+import java.time.Duration;
+
+/**
+ * Tuning of one gateway, read from {@code app.payment.gateways.<name>.*}. Every gateway gets
+ * its own copy so a slow provider can be given less room without touching the others.
+ */
+public record GatewaySettings(int maxConcurrentCalls,
+                              int queueCapacity,
+                              Duration connectTimeout,
+                              Duration callTimeout,
+                              Duration statusTimeout,
+                              Duration hedgeDelay,
+                              int windowSize,
+                              int minimumCalls,
+                              int failureRateThreshold,
+                              Duration openDuration,
+                              int halfOpenCalls) {
+
+    public static GatewaySettings of(Environment environment, String gateway) {
+        String prefix = "app.payment.gateways." + gateway + ".";
+        return new GatewaySettings(
+            environment.getProperty(prefix + "max-concurrent-calls", Integer.class, 20),
+            environment.getProperty(prefix + "queue-capacity", Integer.class, 0),
+            Duration.ofMillis(environment.getProperty(prefix + "connect-timeout-millis", Long.class, 1000L)),
+            Duration.ofMillis(environment.getProperty(prefix + "call-timeout-millis", Long.class, 5000L)),
+            Duration.ofMillis(environment.getProperty(prefix + "status-timeout-millis", Long.class, 2000L)),
+            Duration.ofMillis(environment.getProperty(prefix + "hedge-delay-millis", Long.class, 300L)),
+            environment.getProperty(prefix + "circuit.window-size", Integer.class, 50),
+            environment.getProperty(prefix + "circuit.minimum-calls", Integer.class, 20),
+            environment.getProperty(prefix + "circuit.failure-rate-threshold", Integer.class, 50),
+            Duration.ofSeconds(environment.getProperty(prefix + "circuit.open-seconds", Long.class, 30L)),
+            environment.getProperty(prefix + "circuit.half-open-calls", Integer.class, 3));
+    }
+}
@@ -0,0 +1,84 @@
+package com.github.ecommerce.service.payment;
+
+import com.github.ecommerce.entity.Payment.PaymentStatus;
+import com.github.ecommerce.exception.PaymentGatewayException;
+import com.paypal.core.PayPalEnvironment;
+import com.paypal.core.PayPalHttpClient;
+import com.paypal.http.HttpResponse;
+import com.paypal.http.exceptions.HttpException;
+import com.paypal.orders.AmountWithBreakdown;
+import com.paypal.orders.Order;
+import com.paypal.orders.OrderRequest;
+import com.paypal.orders.OrdersCreateRequest;
+import com.paypal.orders.OrdersGetRequest;
+import com.paypal.orders.PurchaseUnitRequest;
+
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * PayPal orders through the checkout SDK. The SDK client has no per-call read timeout, so a
+ * hung call is bounded by the gateway's own pool and timeout in {@link ResilientPaymentGateway}
+ * rather than by the socket.
+ */
+public class PayPalPaymentGateway implements PaymentGateway {
+
+    private final PayPalHttpClient client;
+
+    public PayPalPaymentGateway(String clientId, String clientSecret, String mode) {
+        this.client = new PayPalHttpClient("live".equals(mode)
+            ? new PayPalEnvironment.Live(clientId, clientSecret)
+            : new PayPalEnvironment.Sandbox(clientId, clientSecret));
+    }
+
+    @Override
+    public String name() {
+        return "paypal";
+    }
+
+    @Override
+    public GatewayResult charge(ChargeRequest request) {
+        OrdersCreateRequest create = new OrdersCreateRequest();
+        create.header("PayPal-Request-Id", request.idempotencyKey());
+        create.header("Prefer", "return=minimal");
+        create.requestBody(new OrderRequest()
+            .checkoutPaymentIntent("CAPTURE")
+            .purchaseUnits(List.of(new PurchaseUnitRequest()
+                .referenceId(request.orderNumber())
+                .amountWithBreakdown(new AmountWithBreakdown()
+                    .currencyCode(request.amount().getCurrencyCode())
+                    .value(request.amount().toBigDecimal().toPlainString())))));
+        try {
+            HttpResponse<Order> response = client.execute(create);
+            return toResult(response.result());
+        } catch (IOException e) {
+            throw translate(e);
+        }
+    }
+
+    @Override
+    public GatewayResult fetchStatus(String transactionId) {
+        try {
+            HttpResponse<Order> response = client.execute(new OrdersGetRequest(transactionId));
+            return toResult(response.result());
+        } catch (IOException e) {
+            throw translate(e);
+        }
+    }
+
+    private static GatewayResult toResult(Order order) {
+        PaymentStatus status = switch (order.status()) {
+            case "COMPLETED" -> PaymentStatus.COMPLETED;
+            case "APPROVED", "SAVED" -> PaymentStatus.PROCESSING;
+            case "VOIDED" -> PaymentStatus.CANCELLED;
+            default -> PaymentStatus.PENDING;
+        };
+        return new GatewayResult(order.id(), status, order.status(), null);
+    }
+
+    private static PaymentGatewayException translate(IOException e) {
+        // Anything but an HTTP error is a network problem and worth retrying
+        boolean retryable = !(e instanceof HttpException http) || http.statusCode() == 429 || http.statusCode() >= 500;
+        return new PaymentGatewayException("PayPal: " + e.getMessage(), retryable, e);
+    }
+}
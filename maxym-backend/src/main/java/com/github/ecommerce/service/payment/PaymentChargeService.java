@@ -0,0 +1,195 @@
+package com.github.ecommerce.service.payment;
+
+import com.github.ecommerce.entity.Payment;
+import com.github.ecommerce.entity.Payment.PaymentStatus;
+import com.github.ecommerce.exception.PaymentGatewayException;
+import com.github.ecommerce.repository.PaymentRepository;
+import com.github.ecommerce.util.Money;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Optional;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Talks to the gateway about one payment in three steps: read what the gateway needs in a
+ * short transaction, call the gateway with no transaction open, then store the answer in a
+ * second short transaction. No pooled connection is held while the provider is working.
+ * <p>
+ * {@link #charge} is the first charge from checkout. {@link #retry} is used by the retry
+ * scheduler: it charges again when the first charge got no answer, or asks the gateway for the
+ * status of a payment that should have settled by now. Each retry counts against the payment's
+ * budget and is claimed under a row lock by moving {@code next_retry_at} to the next backoff
+ * step before the call, so a second worker holding a lapsed lease skips it, and a node that
+ * dies mid-call leaves the payment scheduled rather than lost.
+ * <p>
+ * Every charge of a payment uses the same idempotency key. A charge that timed out may still
+ * have gone through at the provider; charging it again under that key returns the original
+ * charge and its transaction id instead of billing the customer a second time.
+ */
+@Service
+@Slf4j
+public class PaymentChargeService {
+
+    private static final String GATEWAY_UNAVAILABLE = "GATEWAY_UNAVAILABLE";
+
+    private final PaymentRepository paymentRepository;
+    private final PaymentGatewayRouter gatewayRouter;
+    private final PaymentStatusApplier statusApplier;
+    private final TransactionTemplate transactionTemplate;
+    private final Counter exhaustedCounter;
+
+    @Value("${app.payment.retry.max-attempts:8}")
+    private int maxAttempts;
+
+    @Value("${app.payment.retry.base-delay-seconds:30}")
+    private long baseDelaySeconds;
+
+    @Value("${app.payment.retry.max-delay-seconds:3600}")
+    private long maxDelaySeconds;
+
+    @Value("${app.payment.retry.status-check-delay-seconds:900}")
+    private long statusCheckDelaySeconds;
+
+    public PaymentChargeService(PaymentRepository paymentRepository,
+                                PaymentGatewayRouter gatewayRouter,
+                                PaymentStatusApplier statusApplier,
+                                TransactionTemplate transactionTemplate,
+                                MeterRegistry meterRegistry) {
+        this.paymentRepository = paymentRepository;
+        this.gatewayRouter = gatewayRouter;
+        this.statusApplier = statusApplier;
+        this.transactionTemplate = transactionTemplate;
+        this.exhaustedCounter = meterRegistry.counter("payments.retry.exhausted");
+    }
+
+    public void charge(Long paymentId) {
+        call(paymentId, false);
+    }
+
+    public void retry(Long paymentId) {
+        call(paymentId, true);
+    }
+
+    private void call(Long paymentId, boolean retry) {
+        GatewayCall call = transactionTemplate.execute(status -> paymentRepository.findByIdForUpdate(paymentId)
+            .map(payment -> prepare(payment, retry))
+            .orElse(null));
+        if (call == null) {
+            return;
+        }
+
+        GatewayResult result = null;
+        PaymentGatewayException failure = null;
+        try {
+            result = call.isCharge()
+                ? call.gateway().charge(call.request())
+                : call.gateway().fetchStatus(call.transactionId());
+        } catch (PaymentGatewayException e) {
+            log.warn("{} of payment {} through {} failed: {}", call.isCharge() ? "Charge" : "Status check",
+                paymentId, call.gateway().name(), e.getMessage());
+            failure = e;
+        }
+
+        GatewayResult answer = result;
+        PaymentGatewayException error = failure;
+        transactionTemplate.executeWithoutResult(status -> paymentRepository.findByIdForUpdate(paymentId).ifPresent(payment -> {
+            if (error != null) {
+                recordFailure(payment, call, error);
+            } else {
+                recordResult(payment, call, answer);
+            }
+            if (payment.getNextRetryAt() != null && payment.getRetryAttempts() >= maxAttempts) {
+                log.warn("Payment {} used up its {} retries", paymentId, maxAttempts);
+                payment.setNextRetryAt(null);
+                exhaustedCounter.increment();
+            }
+            if (payment.getStatus() == PaymentStatus.FAILED && payment.getNextRetryAt() == null) {
+                statusApplier.abandon(payment);
+            }
+        }));
+    }
+
+    private GatewayCall prepare(Payment payment, boolean retry) {
+        Optional<PaymentGateway> gateway = gatewayRouter.forMethod(payment.getMethod());
+        boolean unanswered = payment.getStatus() == PaymentStatus.FAILED
+            && GATEWAY_UNAVAILABLE.equals(payment.getGatewayResponseCode());
+        boolean awaitingCharge = payment.getTransactionId() == null
+            && (payment.getStatus() == PaymentStatus.PENDING || (retry && unanswered));
+        boolean awaitingStatus = retry && payment.getTransactionId() != null && payment.getStatus().isOpen();
+        if (retry) {
+            // Another node may have taken it already, or a webhook settled it meanwhile
+            if (payment.getNextRetryAt() == null || payment.getNextRetryAt().isAfter(LocalDateTime.now())) {
+                return null;
+            }
+            if (gateway.isEmpty() || (!awaitingCharge && !awaitingStatus)) {
+                payment.setNextRetryAt(null);
+                return null;
+            }
+            payment.setRetryAttempts(payment.getRetryAttempts() + 1);
+            payment.setNextRetryAt(LocalDateTime.now().plus(backoff(payment.getRetryAttempts())));
+        } else if (gateway.isEmpty() || !awaitingCharge) {
+            return null;
+        }
+        ChargeRequest request = awaitingCharge
+            ? new ChargeRequest(payment.getOrder().getOrderNumber(),
+                Money.of(payment.getAmount(), payment.getCurrencyCode()),
+                // Stable across attempts: an unanswered charge that went through is returned, not repeated
+                "payment-" + payment.getId())
+            : null;
+        return new GatewayCall(gateway.get(), request, awaitingCharge ? null : payment.getTransactionId());
+    }
+
+    private void recordResult(Payment payment, GatewayCall call, GatewayResult result) {
+        if (call.isCharge()) {
+            if (result.transactionId() != null) {
+                payment.setTransactionId(result.transactionId());
+            }
+            payment.setGatewayResponseMessage(result.message());
+            // A charge retried after an unanswered one starts over
+            payment.setStatus(PaymentStatus.PENDING);
+            if (result.status() == PaymentStatus.FAILED) {
+                payment.setFailureReason(Optional.ofNullable(result.message()).orElse(result.responseCode()));
+            }
+        }
+        statusApplier.apply(payment, result.status(), result.transactionId(), result.responseCode());
+        if (payment.getStatus().isOpen() && payment.getNextRetryAt() == null) {
+            // The webhook should settle it; look again only if it does not arrive
+            payment.setNextRetryAt(LocalDateTime.now().plusSeconds(statusCheckDelaySeconds));
+        }
+    }
+
+    private void recordFailure(Payment payment, GatewayCall call, PaymentGatewayException e) {
+        if (call.isCharge()) {
+            payment.setStatus(PaymentStatus.FAILED);
+            payment.setGatewayResponseCode(e.isRetryable() ? GATEWAY_UNAVAILABLE : "GATEWAY_ERROR");
+            payment.setFailureReason(e.getMessage());
+        } else {
+            payment.setGatewayResponseMessage(e.getMessage());
+        }
+        if (!e.isRetryable()) {
+            payment.setNextRetryAt(null);
+        } else if (payment.getNextRetryAt() == null) {
+            payment.setNextRetryAt(LocalDateTime.now().plus(backoff(payment.getRetryAttempts() + 1)));
+        }
+    }
+
+    // Exponential with equal jitter: half the step is fixed, the other half random
+    private Duration backoff(int attempt) {
+        long step = Math.min(maxDelaySeconds, baseDelaySeconds << Math.min(attempt - 1, 20)) * 1000;
+        return Duration.ofMillis(step / 2 + ThreadLocalRandom.current().nextLong(step / 2 + 1));
+    }
+
+    private record GatewayCall(PaymentGateway gateway, ChargeRequest request, String transactionId) {
+
+        boolean isCharge() {
+            return request != null;
+        }
+    }
+}
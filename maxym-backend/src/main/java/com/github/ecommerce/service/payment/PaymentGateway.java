@@ -0,0 +1,15 @@
+package com.github.ecommerce.service.payment;
+
+/**
+ * Remote payment provider. Implementations make blocking SDK calls and translate provider
+ * errors: a decline is a {@link GatewayResult} with a failed status, anything that leaves the
+ * outcome unknown is a {@link com.github.ecommerce.exception.PaymentGatewayException}.
+ */
+public interface PaymentGateway {
+
+    String name();
+
+    GatewayResult charge(ChargeRequest request);
+
+    GatewayResult fetchStatus(String transactionId);
+}
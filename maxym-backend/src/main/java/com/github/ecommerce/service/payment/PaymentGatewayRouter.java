@@ -0,0 +1,65 @@
+package com.github.ecommerce.service.payment;
+
+import com.github.ecommerce.entity.Payment.PaymentMethod;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.core.env.Environment;
+import org.springframework.stereotype.Service;
+
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+
+/**
+ * Resolves the gateway behind a {@link PaymentMethod}. Each configured gateway is wrapped once
+ * in a {@link ResilientPaymentGateway} with its own settings, so they never share a pool or a
+ * circuit. Methods settled outside the application (bank transfer, cash on delivery) have no
+ * gateway.
+ */
+@Service
+@Slf4j
+public class PaymentGatewayRouter {
+
+    private final Map<String, ResilientPaymentGateway> gateways = new HashMap<>();
+    private final Map<PaymentMethod, ResilientPaymentGateway> byMethod = new EnumMap<>(PaymentMethod.class);
+
+    public PaymentGatewayRouter(List<PaymentGateway> gateways, Environment environment, MeterRegistry meterRegistry) {
+        gateways.forEach(gateway -> this.gateways.put(gateway.name(),
+            new ResilientPaymentGateway(gateway, GatewaySettings.of(environment, gateway.name()), meterRegistry)));
+        for (PaymentMethod method : PaymentMethod.values()) {
+            String name = gatewayName(method);
+            if (name != null && this.gateways.containsKey(name)) {
+                byMethod.put(method, this.gateways.get(name));
+            }
+        }
+        log.info("Payment gateways by method: {}", byMethod.entrySet().stream()
+            .map(entry -> entry.getKey() + "=" + entry.getValue().name()).toList());
+    }
+
+    public Optional<PaymentGateway> forMethod(PaymentMethod method) {
+        return Optional.ofNullable(byMethod.get(method));
+    }
+
+    // Methods that are settled through a gateway
+    public Set<PaymentMethod> methods() {
+        return Collections.unmodifiableSet(byMethod.keySet());
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        gateways.values().forEach(ResilientPaymentGateway::shutdown);
+    }
+
+    private static String gatewayName(PaymentMethod method) {
+        return switch (method) {
+            case CREDIT_CARD, DEBIT_CARD, STRIPE, WALLET -> "stripe";
+            case PAYPAL -> "paypal";
+            case BANK_TRANSFER, CASH_ON_DELIVERY -> null;
+        };
+    }
+}
@@ -0,0 +1,67 @@
+package com.github.ecommerce.service.payment;
+
+import com.github.ecommerce.entity.Order;
+import com.github.ecommerce.entity.Payment;
+import com.github.ecommerce.entity.Payment.PaymentStatus;
+import com.github.ecommerce.repository.CheckoutRequestRepository;
+import com.github.ecommerce.service.StockJournalService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+/**
+ * Moves a managed payment, and its order, to a status reported by the gateway, whether the
+ * report came from a webhook or from polling. A status never moves backwards, so a report
+ * older than what is already known is ignored. The outcome of a charge also settles the stock
+ * its checkout reserved: sold when the charge completes, given back when it does not.
+ */
+@Component
+@RequiredArgsConstructor
+public class PaymentStatusApplier {
+
+    private final CheckoutRequestRepository checkoutRequestRepository;
+    private final StockJournalService stockJournalService;
+
+    /**
+     * @return false if the payment already has this status or a later one
+     */
+    public boolean apply(Payment payment, PaymentStatus target, String reference, String responseCode) {
+        if (!target.supersedes(payment.getStatus())) {
+            return false;
+        }
+        payment.setStatus(target);
+        payment.setGatewayReferenceId(reference);
+        payment.setGatewayResponseCode(responseCode != null && responseCode.length() > 50 ? responseCode.substring(0, 50) : responseCode);
+        if (!target.isOpen()) {
+            payment.setNextRetryAt(null);
+        }
+
+        Order order = payment.getOrder();
+        Order.OrderStatus orderStatus = switch (target) {
+            case COMPLETED -> Order.OrderStatus.PAID;
+            case FAILED -> Order.OrderStatus.FAILED;
+            case CANCELLED -> Order.OrderStatus.CANCELLED;
+            case REFUNDED -> Order.OrderStatus.REFUNDED;
+            default -> null;
+        };
+        if (orderStatus != null && order.getStatus().canTransitionTo(orderStatus)) {
+            order.setStatus(orderStatus);
+        }
+        if (target == PaymentStatus.COMPLETED || target == PaymentStatus.FAILED || target == PaymentStatus.CANCELLED) {
+            settleStock(payment, target == PaymentStatus.COMPLETED);
+        }
+        return true;
+    }
+
+    /**
+     * Gives back the stock of a payment that failed for good without an answer from the gateway,
+     * e.g. once its retries are used up.
+     */
+    public void abandon(Payment payment) {
+        settleStock(payment, false);
+    }
+
+    private void settleStock(Payment payment, boolean sold) {
+        checkoutRequestRepository.findByOrderId(payment.getOrder().getId()).ifPresent(request ->
+            stockJournalService.settleReservations(request.getIdempotencyKey(), sold));
+    }
+}
@@ -0,0 +1,185 @@
+package com.github.ecommerce.service.payment;
+
+import com.github.ecommerce.exception.PaymentGatewayException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tag;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
+
+/**
+ * Wraps a {@link PaymentGateway} so that a slow or failing provider cannot take the rest of
+ * the application down with it.
+ * <ul>
+ *   <li>Bulkhead: calls run on a small pool owned by this gateway. When it is full the call is
+ *   refused at once, so callers never queue up behind a stuck provider.</li>
+ *   <li>Timeouts: the caller stops waiting after the call or status timeout even if the SDK
+ *   has not returned yet.</li>
+ *   <li>Circuit breaker: timeouts and provider errors open the circuit, after which calls fail
+ *   fast until trial calls succeed again.</li>
+ *   <li>Hedging: a status read that is still running after the hedge delay is sent a second
+ *   time, and the first answer wins. Only reads are hedged; charges are not.</li>
+ * </ul>
+ * Every call is timed into a {@code payments.gateway.duration} histogram tagged by gateway,
+ * operation and outcome. Calling from inside a transaction is refused, because the pooled
+ * connection would sit idle for as long as the provider takes.
+ */
+public class ResilientPaymentGateway implements PaymentGateway {
+
+    private final PaymentGateway delegate;
+    private final GatewaySettings settings;
+    private final ThreadPoolExecutor executor;
+    private final CircuitBreaker circuitBreaker;
+    private final MeterRegistry meterRegistry;
+    private final Counter hedgeCounter;
+    private final Counter shortCircuitCounter;
+
+    public ResilientPaymentGateway(PaymentGateway delegate, GatewaySettings settings, MeterRegistry meterRegistry) {
+        this.delegate = delegate;
+        this.settings = settings;
+        BlockingQueue<Runnable> queue = settings.queueCapacity() > 0
+            ? new ArrayBlockingQueue<>(settings.queueCapacity())
+            : new SynchronousQueue<>();
+        CustomizableThreadFactory threadFactory = new CustomizableThreadFactory("gateway-" + delegate.name() + "-");
+        threadFactory.setDaemon(true);
+        this.executor = new ThreadPoolExecutor(settings.maxConcurrentCalls(), settings.maxConcurrentCalls(),
+            60, TimeUnit.SECONDS, queue, threadFactory, new ThreadPoolExecutor.AbortPolicy());
+        this.executor.allowCoreThreadTimeOut(true);
+        this.circuitBreaker = new CircuitBreaker(settings.windowSize(), settings.minimumCalls(),
+            settings.failureRateThreshold(), settings.openDuration(), settings.halfOpenCalls());
+        this.meterRegistry = meterRegistry;
+        this.hedgeCounter = meterRegistry.counter("payments.gateway.hedged", "gateway", delegate.name());
+        this.shortCircuitCounter = meterRegistry.counter("payments.gateway.short-circuited", "gateway", delegate.name());
+        meterRegistry.gauge("payments.gateway.in-flight", List.of(Tag.of("gateway", delegate.name())),
+            executor, ThreadPoolExecutor::getActiveCount);
+        meterRegistry.gauge("payments.gateway.circuit.state", List.of(Tag.of("gateway", delegate.name())),
+            circuitBreaker, breaker -> breaker.state().ordinal());
+    }
+
+    @Override
+    public String name() {
+        return delegate.name();
+    }
+
+    @Override
+    public GatewayResult charge(ChargeRequest request) {
+        return execute("charge", settings.callTimeout(), null, () -> delegate.charge(request));
+    }
+
+    @Override
+    public GatewayResult fetchStatus(String transactionId) {
+        return execute("status", settings.statusTimeout(), settings.hedgeDelay(), () -> delegate.fetchStatus(transactionId));
+    }
+
+    public CircuitBreaker.State circuitState() {
+        return circuitBreaker.state();
+    }
+
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    private GatewayResult execute(String operation, Duration timeout, Duration hedgeDelay, Supplier<GatewayResult> call) {
+        if (TransactionSynchronizationManager.isActualTransactionActive()) {
+            throw new IllegalStateException("Gateway calls must not run inside a transaction");
+        }
+        if (!circuitBreaker.tryAcquire()) {
+            shortCircuitCounter.increment();
+            throw new PaymentGatewayException(name() + " circuit is open", true);
+        }
+        long started = System.nanoTime();
+        String outcome = "error";
+        try {
+            GatewayResult result = await(call, timeout, hedgeDelay);
+            circuitBreaker.onSuccess();
+            outcome = "success";
+            return result;
+        } catch (RejectedExecutionException e) {
+            circuitBreaker.release();
+            outcome = "rejected";
+            throw new PaymentGatewayException(name() + " has no free capacity", true, e);
+        } catch (TimeoutException e) {
+            circuitBreaker.onFailure();
+            outcome = "timeout";
+            throw new PaymentGatewayException(name() + " " + operation + " timed out after " + timeout.toMillis() + " ms", true, e);
+        } catch (PaymentGatewayException e) {
+            // A request the provider refused as invalid says nothing about the provider's health
+            if (e.isRetryable()) {
+                circuitBreaker.onFailure();
+            } else {
+                circuitBreaker.onSuccess();
+            }
+            throw e;
+        } catch (RuntimeException e) {
+            circuitBreaker.onFailure();
+            throw e;
+        } finally {
+            Timer.builder("payments.gateway.duration")
+                .tags("gateway", name(), "operation", operation, "outcome", outcome)
+                .publishPercentileHistogram()
+                .register(meterRegistry)
+                .record(System.nanoTime() - started, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    private GatewayResult await(Supplier<GatewayResult> call, Duration timeout, Duration hedgeDelay) throws TimeoutException {
+        long deadline = System.nanoTime() + timeout.toNanos();
+        List<CompletableFuture<GatewayResult>> attempts = new CopyOnWriteArrayList<>();
+        CompletableFuture<GatewayResult> result = new CompletableFuture<>();
+        submit(call, attempts, result);
+        try {
+            if (hedgeDelay != null && hedgeDelay.compareTo(timeout) < 0) {
+                try {
+                    return result.get(hedgeDelay.toNanos(), TimeUnit.NANOSECONDS);
+                } catch (TimeoutException slow) {
+                    try {
+                        submit(call, attempts, result);
+                        hedgeCounter.increment();
+                    } catch (RejectedExecutionException full) {
+                        // No spare capacity for a second attempt; keep waiting for the first
+                    }
+                }
+            }
+            return result.get(deadline - System.nanoTime(), TimeUnit.NANOSECONDS);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof PaymentGatewayException gatewayException) {
+                throw gatewayException;
+            }
+            throw new PaymentGatewayException(name() + " call failed: " + e.getCause().getMessage(), true, e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new PaymentGatewayException("Interrupted while waiting for " + name(), true, e);
+        } finally {
+            attempts.forEach(attempt -> attempt.cancel(true));
+        }
+    }
+
+    // The first attempt to succeed completes the result; it only fails once every attempt has
+    private void submit(Supplier<GatewayResult> call, List<CompletableFuture<GatewayResult>> attempts,
+                        CompletableFuture<GatewayResult> result) {
+        CompletableFuture<GatewayResult> attempt = CompletableFuture.supplyAsync(call, executor);
+        attempts.add(attempt);
+        attempt.whenComplete((value, error) -> {
+            if (error == null) {
+                result.complete(value);
+            } else if (attempts.stream().allMatch(CompletableFuture::isDone)) {
+                result.completeExceptionally(error);
+            }
+        });
+    }
+}
@@ -0,0 +1,82 @@
+package com.github.ecommerce.service.payment;
+
+import com.github.ecommerce.entity.Payment.PaymentStatus;
+import com.github.ecommerce.exception.PaymentGatewayException;
+import com.stripe.StripeClient;
+import com.stripe.exception.ApiConnectionException;
+import com.stripe.exception.CardException;
+import com.stripe.exception.RateLimitException;
+import com.stripe.exception.StripeException;
+import com.stripe.model.PaymentIntent;
+import com.stripe.net.RequestOptions;
+import com.stripe.param.PaymentIntentCreateParams;
+
+/**
+ * Stripe payment intents through a client of our own instead of the static {@code Stripe}
+ * configuration, so the timeouts apply to this gateway only. The SDK's own retries are off:
+ * retrying is decided by the caller, which knows the idempotency key and the time budget.
+ */
+public class StripePaymentGateway implements PaymentGateway {
+
+    private final StripeClient client;
+
+    public StripePaymentGateway(String apiKey, GatewaySettings settings) {
+        this.client = StripeClient.builder()
+            .setApiKey(apiKey)
+            .setConnectTimeout((int) settings.connectTimeout().toMillis())
+            .setReadTimeout((int) settings.callTimeout().toMillis())
+            .setMaxNetworkRetries(0)
+            .build();
+    }
+
+    @Override
+    public String name() {
+        return "stripe";
+    }
+
+    @Override
+    public GatewayResult charge(ChargeRequest request) {
+        PaymentIntentCreateParams params = PaymentIntentCreateParams.builder()
+            .setAmount(request.amount().getMinorUnits())
+            .setCurrency(request.amount().getCurrencyCode().toLowerCase())
+            .putMetadata("order_number", request.orderNumber())
+            .build();
+        RequestOptions options = RequestOptions.builder()
+            .setIdempotencyKey(request.idempotencyKey())
+            .build();
+        try {
+            return toResult(client.paymentIntents().create(params, options));
+        } catch (CardException e) {
+            return new GatewayResult(null, PaymentStatus.FAILED, e.getCode(), e.getMessage());
+        } catch (StripeException e) {
+            throw translate(e);
+        }
+    }
+
+    @Override
+    public GatewayResult fetchStatus(String transactionId) {
+        try {
+            return toResult(client.paymentIntents().retrieve(transactionId));
+        } catch (StripeException e) {
+            throw translate(e);
+        }
+    }
+
+    private static GatewayResult toResult(PaymentIntent intent) {
+        PaymentStatus status = switch (intent.getStatus()) {
+            case "succeeded" -> PaymentStatus.COMPLETED;
+            case "processing", "requires_capture" -> PaymentStatus.PROCESSING;
+            case "canceled" -> PaymentStatus.CANCELLED;
+            default -> PaymentStatus.PENDING;
+        };
+        return new GatewayResult(intent.getId(), status, intent.getStatus(), null);
+    }
+
+    private static PaymentGatewayException translate(StripeException e) {
+        boolean retryable = e instanceof ApiConnectionException
+            || e instanceof RateLimitException
+            || e.getStatusCode() == null
+            || e.getStatusCode() >= 500;
+        return new PaymentGatewayException("Stripe: " + e.getMessage(), retryable, e);
+    }
+}
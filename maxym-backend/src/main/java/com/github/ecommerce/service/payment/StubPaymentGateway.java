@@ -0,0 +1,102 @@
+package com.github.ecommerce.service.payment;
+
+import com.github.ecommerce.entity.Payment.PaymentStatus;
+import com.github.ecommerce.exception.PaymentGatewayException;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * In-process gateway for tests and load runs, enabled with {@code app.payment.gateway-mode=stub}.
+ * Latency, provider errors and declines can be injected while it runs, and charges honour
+ * idempotency keys the way the real providers do.
+ */
+public class StubPaymentGateway implements PaymentGateway {
+
+    private final String name;
+    private final Map<String, String> transactionsByKey = new ConcurrentHashMap<>();
+    private final Map<String, PaymentStatus> statuses = new ConcurrentHashMap<>();
+
+    private volatile Duration latency = Duration.ZERO;
+    private volatile Duration jitter = Duration.ZERO;
+    private volatile double failureRate;
+    private volatile double declineRate;
+
+    public StubPaymentGateway(String name) {
+        this.name = name;
+    }
+
+    @Override
+    public String name() {
+        return name;
+    }
+
+    public void injectLatency(Duration latency, Duration jitter) {
+        this.latency = latency;
+        this.jitter = jitter;
+    }
+
+    // Share of calls, between 0 and 1, that fail with a retryable provider error
+    public void injectFailures(double failureRate) {
+        this.failureRate = failureRate;
+    }
+
+    // Share of charges, between 0 and 1, that the provider declines
+    public void injectDeclines(double declineRate) {
+        this.declineRate = declineRate;
+    }
+
+    public void reset() {
+        latency = Duration.ZERO;
+        jitter = Duration.ZERO;
+        failureRate = 0;
+        declineRate = 0;
+        transactionsByKey.clear();
+        statuses.clear();
+    }
+
+    @Override
+    public GatewayResult charge(ChargeRequest request) {
+        simulate();
+        String transactionId = transactionsByKey.computeIfAbsent(request.idempotencyKey(), key -> {
+            String id = "stub_" + UUID.randomUUID().toString().replace("-", "");
+            statuses.put(id, ThreadLocalRandom.current().nextDouble() < declineRate
+                ? PaymentStatus.FAILED
+                : PaymentStatus.COMPLETED);
+            return id;
+        });
+        PaymentStatus status = statuses.get(transactionId);
+        return new GatewayResult(transactionId, status, status == PaymentStatus.FAILED ? "card_declined" : "succeeded", null);
+    }
+
+    @Override
+    public GatewayResult fetchStatus(String transactionId) {
+        simulate();
+        PaymentStatus status = statuses.get(transactionId);
+        if (status == null) {
+            throw new PaymentGatewayException("No such transaction: " + transactionId, false);
+        }
+        return new GatewayResult(transactionId, status, status.name().toLowerCase(), null);
+    }
+
+    private void simulate() {
+        long delay = latency.toMillis();
+        if (!jitter.isZero()) {
+            delay += ThreadLocalRandom.current().nextLong(jitter.toMillis() + 1);
+        }
+        if (delay > 0) {
+            try {
+                Thread.sleep(delay);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new PaymentGatewayException("Interrupted", true, e);
+            }
+        }
+        if (ThreadLocalRandom.current().nextDouble() < failureRate) {
+            throw new PaymentGatewayException(name + " stub failure", true);
+        }
+    }
+}
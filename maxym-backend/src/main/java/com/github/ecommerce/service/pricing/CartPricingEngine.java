@@ -0,0 +1,134 @@
+package com.github.ecommerce.service.pricing;
+
+import com.github.ecommerce.entity.Cart;
+import com.github.ecommerce.entity.CartItem;
+import com.github.ecommerce.service.coupon.CouponCodeValidator;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Prices carts against a compiled {@link PricingPlan}. Quotes are memoized by cart content
+ * and plan version; installing a new plan (on a discount change or when the current plan's
+ * validity window closes) makes every older quote unreachable. Plans are compiled from the
+ * {@link DiscountEligibilityService} index, so a recompile reads nothing from the database.
+ */
+@Service
+@Slf4j
+public class CartPricingEngine {
+
+    private final DiscountEligibilityService eligibility;
+    private final CouponCodeValidator couponCodeValidator;
+    private final AtomicLong planVersions = new AtomicLong();
+    private final Cache<QuoteKey, CartQuote> quotes;
+    private volatile InstalledPlan installed;
+
+    public CartPricingEngine(DiscountEligibilityService eligibility,
+                             CouponCodeValidator couponCodeValidator,
+                             @Value("${app.pricing.quote-cache-size:100000}") long quoteCacheSize) {
+        this.eligibility = eligibility;
+        this.couponCodeValidator = couponCodeValidator;
+        this.quotes = CacheBuilder.newBuilder()
+            .maximumSize(quoteCacheSize)
+            .build();
+    }
+
+    public CartQuote quote(Cart cart) {
+        List<PricingLine> lines = new ArrayList<>(cart.getItems().size());
+        for (CartItem item : cart.getItems()) {
+            lines.add(new PricingLine(
+                item.getProduct().getId(),
+                item.getProductVariant() != null ? item.getProductVariant().getId() : null,
+                item.getProduct().getCategory() != null ? item.getProduct().getCategory().getId() : null,
+                item.getQuantity(),
+                item.getUnitPrice(),
+                item.getDiscount()));
+        }
+        // A campaign code prices as the discount it redeems
+        String couponCode = cart.getCouponCode() != null ? couponCodeValidator.discountCodeFor(cart.getCouponCode()) : null;
+        return quote(lines, couponCode);
+    }
+
+    /**
+     * @param couponCode a discount code; campaign codes must already be mapped to theirs
+     */
+    public CartQuote quote(List<PricingLine> lines, String couponCode) {
+        PricingPlan current = currentPlan();
+        QuoteKey key = new QuoteKey(current.getVersion(), couponCode, lines);
+        CartQuote quote = quotes.getIfPresent(key);
+        if (quote == null) {
+            quote = current.price(lines, couponCode);
+            quotes.put(key, quote);
+        }
+        return quote;
+    }
+
+    /**
+     * Drops the current plan; the next quote recompiles it. Call after any discount change.
+     */
+    public void invalidate() {
+        eligibility.invalidate();
+        installed = null;
+        quotes.invalidateAll();
+    }
+
+    /**
+     * Installs a plan compiled elsewhere; it is used until its validity window closes.
+     */
+    public void install(PricingPlan newPlan) {
+        install(new InstalledPlan(newPlan, null));
+    }
+
+    // Rebuilds the index in full as well, for discount changes made outside JPA
+    @Scheduled(fixedDelayString = "${app.pricing.plan-refresh-interval:60000}")
+    public void refresh() {
+        eligibility.rebuild();
+        install(compile(eligibility.current()));
+    }
+
+    private void install(InstalledPlan plan) {
+        installed = plan;
+        quotes.invalidateAll();
+    }
+
+    // One clock read per quote, shared by every staleness check it makes
+    private PricingPlan currentPlan() {
+        LocalDateTime now = LocalDateTime.now();
+        InstalledPlan current = installed;
+        if (current == null || current.isStale(eligibility, now)) {
+            synchronized (this) {
+                current = installed;
+                if (current == null || current.isStale(eligibility, now)) {
+                    current = compile(eligibility.current(now));
+                    install(current);
+                }
+            }
+        }
+        return current.plan();
+    }
+
+    private InstalledPlan compile(DiscountEligibilityIndex index) {
+        PricingPlan compiled = PricingPlan.compile(planVersions.incrementAndGet(), index);
+        log.debug("Compiled pricing plan v{} from eligibility index v{}", compiled.getVersion(), index.getVersion());
+        return new InstalledPlan(compiled, index);
+    }
+
+    // A plan compiled from an index is current while the service still hands out that same index
+    private record InstalledPlan(PricingPlan plan, DiscountEligibilityIndex source) {
+
+        boolean isStale(DiscountEligibilityService eligibility, LocalDateTime now) {
+            return source == null ? plan.isExpired(now) : source != eligibility.current(now);
+        }
+    }
+
+    private record QuoteKey(long planVersion, String couponCode, List<PricingLine> lines) {
+    }
+}
@@ -0,0 +1,8 @@
+package com.github.ecommerce.service.pricing;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+public record CartQuote(BigDecimal subtotal, BigDecimal discountAmount, BigDecimal total,
+                        List<String> appliedDiscountCodes, long planVersion) {
+}
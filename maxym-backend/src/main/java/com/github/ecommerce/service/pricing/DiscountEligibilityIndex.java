@@ -0,0 +1,363 @@
+package com.github.ecommerce.service.pricing;
+
+import com.github.ecommerce.entity.Discount;
+import com.github.ecommerce.entity.Discount.AppliesTo;
+
+import java.time.LocalDateTime;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Which active discounts can apply to which products, precompiled so a cart line never
+ * touches the lazy {@code products} and {@code categories} sets of {@link Discount}. Product
+ * ids and category ids map to candidate discount ids; a category target is expanded to every
+ * descendant category, and {@code ALL} discounts sit in one array that every line shares.
+ * <p>
+ * Dates are handled by time slices: the index records which discounts are valid at the
+ * slice start and when the next start or end date falls, and {@link #at(LocalDateTime)} only
+ * recomputes that set once the slice is over. The target maps are copied on write, so
+ * {@link #with} and {@link #without} only rewrite the keys of the one discount
+ * that changed.
+ */
+public final class DiscountEligibilityIndex {
+
+    private static final long[] NO_DISCOUNTS = new long[0];
+
+    private final long version;
+    private final Map<Long, Entry> entries;
+    private final long[] global;
+    private final Map<Long, long[]> byProduct;
+    private final Map<Long, long[]> byCategory;
+    private final Map<Long, long[]> subtrees;
+    private final Set<Long> valid;
+    private final LocalDateTime validUntil;
+
+    private DiscountEligibilityIndex(long version, Map<Long, Entry> entries, long[] global,
+                                     Map<Long, long[]> byProduct, Map<Long, long[]> byCategory,
+                                     Map<Long, long[]> subtrees, Set<Long> valid, LocalDateTime validUntil) {
+        this.version = version;
+        this.entries = entries;
+        this.global = global;
+        this.byProduct = byProduct;
+        this.byCategory = byCategory;
+        this.subtrees = subtrees;
+        this.valid = valid;
+        this.validUntil = validUntil;
+    }
+
+    /**
+     * One active discount with its targets, detached from the persistence context.
+     * {@code categoryIds} are the categories the discount names, before expansion.
+     */
+    public record Entry(PricingRule rule, AppliesTo appliesTo, LocalDateTime startDate, LocalDateTime endDate,
+                        boolean exhausted, long[] productIds, long[] categoryIds) {
+
+        public static Entry of(Discount discount, long[] productIds, long[] categoryIds) {
+            return new Entry(PricingRule.of(discount), discount.getAppliesTo(), discount.getStartDate(),
+                discount.getEndDate(),
+                discount.getUsageLimit() != null && discount.getUsageCount() >= discount.getUsageLimit(),
+                productIds, categoryIds);
+        }
+
+        public long discountId() {
+            return rule.discountId();
+        }
+    }
+
+    /**
+     * @param categoryParents every category id mapped to its parent id, or to null for a root
+     */
+    public static DiscountEligibilityIndex build(long version, Collection<Entry> entries,
+                                                 Map<Long, Long> categoryParents, LocalDateTime now) {
+        Map<Long, long[]> subtrees = subtrees(categoryParents);
+        Map<Long, Entry> byId = new HashMap<>(entries.size() * 2);
+        Map<Long, List<Long>> byProduct = new HashMap<>();
+        Map<Long, List<Long>> byCategory = new HashMap<>();
+        List<Long> global = new ArrayList<>();
+        for (Entry entry : entries) {
+            long id = entry.discountId();
+            byId.put(id, entry);
+            switch (entry.appliesTo()) {
+                case ALL -> global.add(id);
+                case SPECIFIC_PRODUCTS -> {
+                    for (long productId : entry.productIds()) {
+                        byProduct.computeIfAbsent(productId, k -> new ArrayList<>()).add(id);
+                    }
+                }
+                case SPECIFIC_CATEGORIES -> {
+                    for (long categoryId : expand(entry.categoryIds(), subtrees)) {
+                        byCategory.computeIfAbsent(categoryId, k -> new ArrayList<>()).add(id);
+                    }
+                }
+            }
+        }
+        return sliced(version, byId, toArray(global), freeze(byProduct), freeze(byCategory), subtrees, now);
+    }
+
+    /**
+     * @return a copy with {@code entry} added, or replacing the discount with the same id
+     */
+    public DiscountEligibilityIndex with(Entry entry, long newVersion, LocalDateTime now) {
+        Map<Long, Entry> entries = new HashMap<>(this.entries);
+        entries.put(entry.discountId(), entry);
+        Targets targets = new Targets(this);
+        Entry previous = this.entries.get(entry.discountId());
+        if (previous != null) {
+            targets.remove(previous);
+        }
+        targets.add(entry);
+        return sliced(newVersion, entries, targets.global, targets.byProduct, targets.byCategory, subtrees, now);
+    }
+
+    public DiscountEligibilityIndex without(long discountId, long newVersion, LocalDateTime now) {
+        Entry previous = entries.get(discountId);
+        if (previous == null) {
+            return this;
+        }
+        Map<Long, Entry> entries = new HashMap<>(this.entries);
+        entries.remove(discountId);
+        Targets targets = new Targets(this);
+        targets.remove(previous);
+        return sliced(newVersion, entries, targets.global, targets.byProduct, targets.byCategory, subtrees, now);
+    }
+
+    /**
+     * @return this index if its slice still covers {@code now}, otherwise the same index
+     * with the slice recomputed; the target maps are shared
+     */
+    public DiscountEligibilityIndex at(LocalDateTime now) {
+        return isExpired(now) ? sliced(version, entries, global, byProduct, byCategory, subtrees, now) : this;
+    }
+
+    /**
+     * Ids of the discounts valid in this slice that can apply to a line of the product,
+     * {@code ALL} discounts first. {@code categoryId} is the product's own category.
+     */
+    public long[] candidates(long productId, Long categoryId) {
+        long[] forProduct = byProduct.getOrDefault(productId, NO_DISCOUNTS);
+        long[] forCategory = categoryId != null ? byCategory.getOrDefault(categoryId, NO_DISCOUNTS) : NO_DISCOUNTS;
+        long[] candidates = new long[global.length + forProduct.length + forCategory.length];
+        int size = copyValid(global, candidates, 0);
+        size = copyValid(forProduct, candidates, size);
+        size = copyValid(forCategory, candidates, size);
+        return size == candidates.length ? candidates : Arrays.copyOf(candidates, size);
+    }
+
+    public boolean appliesTo(long discountId, long productId, Long categoryId) {
+        Entry entry = entries.get(discountId);
+        if (entry == null || !valid.contains(discountId)) {
+            return false;
+        }
+        return switch (entry.appliesTo()) {
+            case ALL -> true;
+            case SPECIFIC_PRODUCTS -> contains(byProduct.get(productId), discountId);
+            case SPECIFIC_CATEGORIES -> categoryId != null && contains(byCategory.get(categoryId), discountId);
+        };
+    }
+
+    public boolean isValid(long discountId) {
+        return valid.contains(discountId);
+    }
+
+    public long getVersion() {
+        return version;
+    }
+
+    public LocalDateTime getValidUntil() {
+        return validUntil;
+    }
+
+    public boolean isExpired(LocalDateTime now) {
+        return validUntil != null && !now.isBefore(validUntil);
+    }
+
+    Collection<Entry> entries() {
+        return entries.values();
+    }
+
+    long[] globalTargets() {
+        return global;
+    }
+
+    Map<Long, long[]> productTargets() {
+        return byProduct;
+    }
+
+    Map<Long, long[]> categoryTargets() {
+        return byCategory;
+    }
+
+    private int copyValid(long[] source, long[] target, int size) {
+        for (long id : source) {
+            if (valid.contains(id)) {
+                target[size++] = id;
+            }
+        }
+        return size;
+    }
+
+    // Discounts valid at now: started, not yet ended, usage limit not reached
+    private static DiscountEligibilityIndex sliced(long version, Map<Long, Entry> entries, long[] global,
+                                                   Map<Long, long[]> byProduct, Map<Long, long[]> byCategory,
+                                                   Map<Long, long[]> subtrees, LocalDateTime now) {
+        Set<Long> valid = new HashSet<>(entries.size() * 2);
+        LocalDateTime validUntil = null;
+        for (Entry entry : entries.values()) {
+            if (entry.startDate().isAfter(now)) {
+                validUntil = earliest(validUntil, entry.startDate());
+                continue;
+            }
+            if (entry.endDate() != null) {
+                if (!entry.endDate().isAfter(now)) {
+                    continue;
+                }
+                validUntil = earliest(validUntil, entry.endDate());
+            }
+            if (!entry.exhausted()) {
+                valid.add(entry.discountId());
+            }
+        }
+        return new DiscountEligibilityIndex(version, entries, global, byProduct, byCategory, subtrees,
+            Collections.unmodifiableSet(valid), validUntil);
+    }
+
+    // Each category mapped to itself and all of its descendants
+    private static Map<Long, long[]> subtrees(Map<Long, Long> parents) {
+        Map<Long, List<Long>> children = new HashMap<>();
+        parents.forEach((id, parent) -> {
+            if (parent != null) {
+                children.computeIfAbsent(parent, k -> new ArrayList<>()).add(id);
+            }
+        });
+        Map<Long, long[]> subtrees = new HashMap<>(parents.size() * 2);
+        for (Long root : parents.keySet()) {
+            List<Long> members = new ArrayList<>();
+            Set<Long> seen = new HashSet<>();
+            Deque<Long> pending = new ArrayDeque<>();
+            pending.push(root);
+            while (!pending.isEmpty()) {
+                Long id = pending.pop();
+                // A cycle in bad data must not loop forever
+                if (seen.add(id)) {
+                    members.add(id);
+                    children.getOrDefault(id, List.of()).forEach(pending::push);
+                }
+            }
+            subtrees.put(root, toArray(members));
+        }
+        return Collections.unmodifiableMap(subtrees);
+    }
+
+    private static long[] expand(long[] categoryIds, Map<Long, long[]> subtrees) {
+        Set<Long> expanded = new HashSet<>();
+        for (long categoryId : categoryIds) {
+            long[] subtree = subtrees.get(categoryId);
+            if (subtree == null) {
+                expanded.add(categoryId);
+            } else {
+                for (long member : subtree) {
+                    expanded.add(member);
+                }
+            }
+        }
+        return expanded.stream().mapToLong(Long::longValue).toArray();
+    }
+
+    private static boolean contains(long[] ids, long id) {
+        if (ids != null) {
+            for (long candidate : ids) {
+                if (candidate == id) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    private static LocalDateTime earliest(LocalDateTime current, LocalDateTime candidate) {
+        return current == null || candidate.isBefore(current) ? candidate : current;
+    }
+
+    private static Map<Long, long[]> freeze(Map<Long, List<Long>> source) {
+        Map<Long, long[]> frozen = new HashMap<>(source.size() * 2);
+        source.forEach((key, value) -> frozen.put(key, toArray(value)));
+        return Collections.unmodifiableMap(frozen);
+    }
+
+    private static long[] toArray(List<Long> values) {
+        return values.stream().mapToLong(Long::longValue).toArray();
+    }
+
+    // Copy-on-write view of the target maps, touched only at the keys of one discount
+    private static final class Targets {
+
+        private final Map<Long, long[]> subtrees;
+        private long[] global;
+        private Map<Long, long[]> byProduct;
+        private Map<Long, long[]> byCategory;
+
+        Targets(DiscountEligibilityIndex index) {
+            this.subtrees = index.subtrees;
+            this.global = index.global;
+            this.byProduct = index.byProduct;
+            this.byCategory = index.byCategory;
+        }
+
+        void add(Entry entry) {
+            long id = entry.discountId();
+            switch (entry.appliesTo()) {
+                case ALL -> global = append(global, id);
+                case SPECIFIC_PRODUCTS -> byProduct = update(byProduct, entry.productIds(), id, true);
+                case SPECIFIC_CATEGORIES -> byCategory = update(byCategory, expand(entry.categoryIds(), subtrees), id, true);
+            }
+        }
+
+        void remove(Entry entry) {
+            long id = entry.discountId();
+            switch (entry.appliesTo()) {
+                case ALL -> global = removed(global, id);
+                case SPECIFIC_PRODUCTS -> byProduct = update(byProduct, entry.productIds(), id, false);
+                case SPECIFIC_CATEGORIES -> byCategory = update(byCategory, expand(entry.categoryIds(), subtrees), id, false);
+            }
+        }
+
+        private static Map<Long, long[]> update(Map<Long, long[]> source, long[] keys, long id, boolean add) {
+            if (keys.length == 0) {
+                return source;
+            }
+            Map<Long, long[]> copy = new HashMap<>(source);
+            for (long key : keys) {
+                long[] ids = copy.getOrDefault(key, NO_DISCOUNTS);
+                long[] changed = add ? append(ids, id) : removed(ids, id);
+                if (changed.length == 0) {
+                    copy.remove(key);
+                } else {
+                    copy.put(key, changed);
+                }
+            }
+            return Collections.unmodifiableMap(copy);
+        }
+
+        private static long[] append(long[] ids, long id) {
+            if (contains(ids, id)) {
+                return ids;
+            }
+            long[] appended = Arrays.copyOf(ids, ids.length + 1);
+            appended[ids.length] = id;
+            return appended;
+        }
+
+        private static long[] removed(long[] ids, long id) {
+            return Arrays.stream(ids).filter(candidate -> candidate != id).toArray();
+        }
+    }
+}
@@ -0,0 +1,133 @@
+package com.github.ecommerce.service.pricing;
+
+import com.github.ecommerce.entity.Discount;
+import com.github.ecommerce.repository.DiscountRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Owns the live {@link DiscountEligibilityIndex}. The first lookup builds it from the active
+ * discounts with three queries; after that a discount change only reloads that discount's
+ * row and targets, see {@link #discountChanged(Long)}. Category moves are rare and
+ * restructure every expanded target, so they go through {@link #invalidate()}.
+ */
+@Service
+@Slf4j
+public class DiscountEligibilityService {
+
+    private final DiscountRepository discountRepository;
+    private final JdbcTemplate jdbcTemplate;
+    private final AtomicLong indexVersions = new AtomicLong();
+    private volatile DiscountEligibilityIndex index;
+
+    public DiscountEligibilityService(DiscountRepository discountRepository, JdbcTemplate jdbcTemplate) {
+        this.discountRepository = discountRepository;
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    public DiscountEligibilityIndex current() {
+        return current(LocalDateTime.now());
+    }
+
+    /**
+     * @return the index with a time slice covering {@code now}; read the clock once per cart
+     * and pass it to every lookup, not once per line
+     */
+    public DiscountEligibilityIndex current(LocalDateTime now) {
+        DiscountEligibilityIndex current = index;
+        if (current == null || current.isExpired(now)) {
+            synchronized (this) {
+                current = index;
+                if (current == null) {
+                    current = build(now);
+                } else if (current.isExpired(now)) {
+                    current = current.at(now);
+                }
+                index = current;
+            }
+        }
+        return current;
+    }
+
+    public long[] candidates(long productId, Long categoryId, LocalDateTime now) {
+        return current(now).candidates(productId, categoryId);
+    }
+
+    /**
+     * Replaces one discount in the index, or drops it if it was deleted or deactivated. Call
+     * after the change has committed, since the discount is read back from the database. The
+     * read happens under the index lock, so concurrent changes of one discount apply in the
+     * order they read it and a slower, older read cannot overwrite a newer one.
+     */
+    public synchronized void discountChanged(Long discountId) {
+        DiscountEligibilityIndex current = index;
+        if (current == null) {
+            return;
+        }
+        Optional<Discount> discount = discountRepository.findById(discountId).filter(d -> Boolean.TRUE.equals(d.getActive()));
+        DiscountEligibilityIndex.Entry entry = discount.map(d -> DiscountEligibilityIndex.Entry.of(d,
+                toArray(discountRepository.findProductTargetIds(discountId)),
+                toArray(discountRepository.findCategoryTargetIds(discountId))))
+            .orElse(null);
+        LocalDateTime now = LocalDateTime.now();
+        index = entry != null
+            ? current.with(entry, indexVersions.incrementAndGet(), now)
+            : current.without(discountId, indexVersions.incrementAndGet(), now);
+        log.debug("Updated discount {} in the eligibility index", discountId);
+    }
+
+    /**
+     * Drops the index; the next lookup rebuilds it in full.
+     */
+    public synchronized void invalidate() {
+        index = null;
+    }
+
+    public synchronized void rebuild() {
+        index = build(LocalDateTime.now());
+    }
+
+    private DiscountEligibilityIndex build(LocalDateTime now) {
+        List<Discount> discounts = discountRepository.findActiveNotEnded(now);
+        Map<Long, List<Long>> productTargets = group(discountRepository.findActiveProductTargets());
+        Map<Long, List<Long>> categoryTargets = group(discountRepository.findActiveCategoryTargets());
+        Map<Long, Long> categoryParents = new HashMap<>();
+        jdbcTemplate.query("SELECT id, parent_id FROM categories", rs -> {
+            long parentId = rs.getLong("parent_id");
+            categoryParents.put(rs.getLong("id"), rs.wasNull() ? null : parentId);
+        });
+
+        List<DiscountEligibilityIndex.Entry> entries = new ArrayList<>(discounts.size());
+        for (Discount discount : discounts) {
+            entries.add(DiscountEligibilityIndex.Entry.of(discount,
+                toArray(productTargets.getOrDefault(discount.getId(), List.of())),
+                toArray(categoryTargets.getOrDefault(discount.getId(), List.of()))));
+        }
+        DiscountEligibilityIndex built = DiscountEligibilityIndex.build(indexVersions.incrementAndGet(), entries, categoryParents, now);
+        log.debug("Built discount eligibility index v{} from {} active discounts and {} categories",
+            built.getVersion(), discounts.size(), categoryParents.size());
+        return built;
+    }
+
+    private static Map<Long, List<Long>> group(List<Object[]> pairs) {
+        Map<Long, List<Long>> grouped = new HashMap<>();
+        for (Object[] pair : pairs) {
+            grouped.computeIfAbsent((Long) pair[0], k -> new ArrayList<>()).add((Long) pair[1]);
+        }
+        return grouped;
+    }
+
+    private static long[] toArray(Collection<Long> ids) {
+        return ids.stream().mapToLong(Long::longValue).toArray();
+    }
+}
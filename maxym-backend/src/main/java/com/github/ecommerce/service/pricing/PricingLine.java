@@ -0,0 +1,17 @@
+package com.github.ecommerce.service.pricing;
+
+import com.github.ecommerce.util.Money;
+
+import java.math.BigDecimal;
+
+/**
+ * One cart line as seen by the pricing engine. Being a record, equality covers the full
+ * line content, which is what makes it usable in a memoization key.
+ */
+public record PricingLine(Long productId, Long variantId, Long categoryId, int quantity,
+                          BigDecimal unitPrice, BigDecimal lineDiscount) {
+
+    public long totalMinor() {
+        return Math.multiplyExact(Money.toMinor(unitPrice), quantity) - Money.toMinor(lineDiscount);
+    }
+}
@@ -0,0 +1,163 @@
+package com.github.ecommerce.service.pricing;
+
+import com.github.ecommerce.util.Money;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Active discount rules compiled into lookup tables. A plan only contains rules that are
+ * valid at compile time and stays correct until {@link #getValidUntil()}, the next start or
+ * end date of any discount, so pricing never has to look at the clock.
+ */
+public final class PricingPlan {
+
+    private static final int[] NO_RULES = new int[0];
+
+    private final long version;
+    private final PricingRule[] rules;
+    private final int[] globalRules;
+    private final Map<Long, int[]> rulesByProduct;
+    private final Map<Long, int[]> rulesByCategory;
+    private final LocalDateTime validUntil;
+
+    private PricingPlan(long version, PricingRule[] rules, int[] globalRules,
+                        Map<Long, int[]> rulesByProduct, Map<Long, int[]> rulesByCategory,
+                        LocalDateTime validUntil) {
+        this.version = version;
+        this.rules = rules;
+        this.globalRules = globalRules;
+        this.rulesByProduct = rulesByProduct;
+        this.rulesByCategory = rulesByCategory;
+        this.validUntil = validUntil;
+    }
+
+    public static PricingPlan empty(long version) {
+        return new PricingPlan(version, new PricingRule[0], NO_RULES, Collections.emptyMap(), Collections.emptyMap(), null);
+    }
+
+    /**
+     * Compiles the discounts valid in the index's current slice. Category targets come
+     * expanded to descendant categories, and nothing is read from the database.
+     */
+    public static PricingPlan compile(long version, DiscountEligibilityIndex index) {
+        List<PricingRule> rules = new ArrayList<>();
+        Map<Long, Integer> ruleIndexes = new HashMap<>();
+        List<DiscountEligibilityIndex.Entry> entries = new ArrayList<>(index.entries());
+        entries.sort(Comparator.comparingLong(DiscountEligibilityIndex.Entry::discountId));
+        for (DiscountEligibilityIndex.Entry entry : entries) {
+            if (index.isValid(entry.discountId())) {
+                ruleIndexes.put(entry.discountId(), rules.size());
+                rules.add(entry.rule());
+            }
+        }
+        return new PricingPlan(version, rules.toArray(new PricingRule[0]), ruleIndexesOf(index.globalTargets(), ruleIndexes),
+            remap(index.productTargets(), ruleIndexes), remap(index.categoryTargets(), ruleIndexes), index.getValidUntil());
+    }
+
+    /**
+     * Prices the lines in a single pass: each line's total is added to the running
+     * subtotal and to the eligible amount of every rule it matches. Sums are kept in minor
+     * units and only the quote is converted back to decimals.
+     */
+    public CartQuote price(List<PricingLine> lines, String couponCode) {
+        long subtotal = 0;
+        long[] eligible = new long[rules.length];
+        boolean[] matched = new boolean[rules.length];
+
+        for (PricingLine line : lines) {
+            long lineTotal = line.totalMinor();
+            subtotal += lineTotal;
+            accumulate(eligible, matched, globalRules, lineTotal);
+            accumulate(eligible, matched, rulesByProduct.getOrDefault(line.productId(), NO_RULES), lineTotal);
+            if (line.categoryId() != null) {
+                accumulate(eligible, matched, rulesByCategory.getOrDefault(line.categoryId(), NO_RULES), lineTotal);
+            }
+        }
+
+        long combined = 0;
+        List<String> combinedCodes = new ArrayList<>();
+        long bestExclusive = 0;
+        String bestExclusiveCode = null;
+
+        for (int i = 0; i < rules.length; i++) {
+            PricingRule rule = rules[i];
+            if (!matched[i] || !rule.matchesCoupon(couponCode)) {
+                continue;
+            }
+            long discount = rule.discountFor(eligible[i]);
+            if (discount <= 0) {
+                continue;
+            }
+            if (rule.combinable()) {
+                combined += discount;
+                combinedCodes.add(rule.code());
+            } else if (discount > bestExclusive) {
+                bestExclusive = discount;
+                bestExclusiveCode = rule.code();
+            }
+        }
+
+        long discountAmount;
+        List<String> appliedCodes;
+        if (bestExclusive > combined) {
+            discountAmount = bestExclusive;
+            appliedCodes = List.of(bestExclusiveCode);
+        } else {
+            discountAmount = combined;
+            appliedCodes = List.copyOf(combinedCodes);
+        }
+        discountAmount = Math.min(discountAmount, subtotal);
+
+        return new CartQuote(Money.toDecimal(subtotal), Money.toDecimal(discountAmount),
+            Money.toDecimal(subtotal - discountAmount), appliedCodes, version);
+    }
+
+    public long getVersion() {
+        return version;
+    }
+
+    public LocalDateTime getValidUntil() {
+        return validUntil;
+    }
+
+    public boolean isExpired(LocalDateTime now) {
+        return validUntil != null && !now.isBefore(validUntil);
+    }
+
+    private static void accumulate(long[] eligible, boolean[] matched, int[] ruleIndexes, long amount) {
+        for (int index : ruleIndexes) {
+            eligible[index] += amount;
+            matched[index] = true;
+        }
+    }
+
+    private static Map<Long, int[]> remap(Map<Long, long[]> discountIds, Map<Long, Integer> ruleIndexes) {
+        Map<Long, int[]> remapped = new HashMap<>(discountIds.size() * 2);
+        discountIds.forEach((key, ids) -> {
+            int[] indexes = ruleIndexesOf(ids, ruleIndexes);
+            if (indexes.length > 0) {
+                remapped.put(key, indexes);
+            }
+        });
+        return Collections.unmodifiableMap(remapped);
+    }
+
+    private static int[] ruleIndexesOf(long[] discountIds, Map<Long, Integer> ruleIndexes) {
+        int[] indexes = new int[discountIds.length];
+        int size = 0;
+        for (long id : discountIds) {
+            Integer index = ruleIndexes.get(id);
+            if (index != null) {
+                indexes[size++] = index;
+            }
+        }
+        return size == indexes.length ? indexes : Arrays.copyOf(indexes, size);
+    }
+}
@@ -0,0 +1,34 @@
+package com.github.ecommerce.service.pricing;
+
+import com.github.ecommerce.entity.Discount;
+import com.github.ecommerce.util.Money;
+
+/**
+ * Immutable, pre-validated form of a {@link Discount}, detached from the persistence context.
+ * Amounts are in minor units and {@code value} is scaled as in {@link Discount#discountMinor}.
+ */
+public record PricingRule(Long discountId, String code, Discount.DiscountType type, long value,
+                          long minimumPurchaseMinor, Long maximumDiscountMinor,
+                          boolean requiresCoupon, boolean combinable) {
+
+    public static PricingRule of(Discount discount) {
+        return new PricingRule(
+            discount.getId(),
+            discount.getCode(),
+            discount.getType(),
+            Money.toMinor(discount.getValue()),
+            Money.toMinor(discount.getMinimumPurchaseAmount()),
+            discount.getMaximumDiscountAmount() != null ? Money.toMinor(discount.getMaximumDiscountAmount()) : null,
+            Boolean.TRUE.equals(discount.getRequiresCoupon()),
+            Boolean.TRUE.equals(discount.getCombineWithOtherDiscounts()));
+    }
+
+    // Discount.calculateDiscountMinor minus the validity check done at compile time
+    public long discountFor(long amountMinor) {
+        return Discount.discountMinor(type, value, minimumPurchaseMinor, maximumDiscountMinor, amountMinor);
+    }
+
+    public boolean matchesCoupon(String couponCode) {
+        return !requiresCoupon || (couponCode != null && code.equalsIgnoreCase(couponCode));
+    }
+}
@@ -0,0 +1,9 @@
+package com.github.ecommerce.service.reconciliation;
+
+import java.util.Iterator;
+
+interface CloseableIterator<T> extends Iterator<T>, AutoCloseable {
+
+    @Override
+    void close();
+}
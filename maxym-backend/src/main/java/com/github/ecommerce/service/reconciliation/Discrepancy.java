@@ -0,0 +1,11 @@
+package com.github.ecommerce.service.reconciliation;
+
+public enum Discrepancy {
+    // In the settlement report but not in payments
+    MISSING_PAYMENT,
+    // A settled payment of the period that the report does not contain
+    MISSING_SETTLEMENT,
+    AMOUNT_MISMATCH,
+    STATUS_MISMATCH,
+    DUPLICATE_SETTLEMENT
+}
@@ -0,0 +1,71 @@
+package com.github.ecommerce.service.reconciliation;
+
+import com.github.ecommerce.entity.Payment.PaymentStatus;
+import com.github.ecommerce.util.Money;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * Walks the payments of an id range in transaction id order, one keyset page at a time along
+ * {@code idx_payment_transaction}. The index also holds the primary key, so the id range is
+ * filtered inside the index, and no connection stays open between pages.
+ */
+class PaymentCursor implements Iterator<PaymentRow> {
+
+    static final String COLUMNS = "id, transaction_id, amount, currency_code, status, refund_amount";
+
+    private static final String SELECT_PAGE =
+        "SELECT " + COLUMNS + " FROM payments " +
+        "WHERE transaction_id > ? AND id >= ? AND id < ? ORDER BY transaction_id LIMIT ?";
+
+    static final RowMapper<PaymentRow> ROW_MAPPER = (rs, rowNum) -> {
+        String currencyCode = rs.getString("currency_code");
+        return new PaymentRow(
+            rs.getLong("id"),
+            rs.getString("transaction_id"),
+            Money.toMinor(rs.getBigDecimal("amount"), currencyCode),
+            currencyCode,
+            PaymentStatus.valueOf(rs.getString("status")),
+            Money.toMinor(rs.getBigDecimal("refund_amount"), currencyCode));
+    };
+
+    private final JdbcTemplate jdbcTemplate;
+    private final long fromId;
+    private final long toId;
+    private final int pageSize;
+    private final Deque<PaymentRow> page = new ArrayDeque<>();
+    private String lastTransactionId = "";
+    private boolean exhausted;
+
+    PaymentCursor(JdbcTemplate jdbcTemplate, long fromId, long toId, int pageSize) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.fromId = fromId;
+        this.toId = toId;
+        this.pageSize = pageSize;
+    }
+
+    @Override
+    public boolean hasNext() {
+        if (page.isEmpty() && !exhausted) {
+            page.addAll(jdbcTemplate.query(SELECT_PAGE, ROW_MAPPER, lastTransactionId, fromId, toId, pageSize));
+            exhausted = page.size() < pageSize;
+            if (!page.isEmpty()) {
+                lastTransactionId = page.peekLast().transactionId();
+            }
+        }
+        return !page.isEmpty();
+    }
+
+    @Override
+    public PaymentRow next() {
+        if (!hasNext()) {
+            throw new NoSuchElementException();
+        }
+        return page.poll();
+    }
+}
@@ -0,0 +1,6 @@
+package com.github.ecommerce.service.reconciliation;
+
+import com.github.ecommerce.entity.Payment.PaymentStatus;
+
+record PaymentRow(long id, String transactionId, long amountMinor, String currencyCode, PaymentStatus status, long refundedMinor) {
+}
@@ -0,0 +1,14 @@
+package com.github.ecommerce.service.reconciliation;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Map;
+
+public record ReconciliationSummary(long settlementLines,
+                                    long paymentsScanned,
+                                    long matched,
+                                    Map<Discrepancy, Long> discrepancies,
+                                    boolean externallySorted,
+                                    Path report,
+                                    Duration elapsed) {
+}
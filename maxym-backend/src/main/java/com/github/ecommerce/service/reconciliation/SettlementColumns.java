@@ -0,0 +1,8 @@
+package com.github.ecommerce.service.reconciliation;
+
+/**
+ * Header names of the settlement file columns, matched case-insensitively. The refunded column
+ * is optional; without it every line counts as not refunded.
+ */
+public record SettlementColumns(String transactionId, String amount, String currency, String status, String refunded) {
+}
@@ -0,0 +1,145 @@
+package com.github.ecommerce.service.reconciliation;
+
+import com.github.ecommerce.exception.BusinessException;
+import com.github.ecommerce.util.Money;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.NoSuchElementException;
+
+/**
+ * Reads a settlement CSV one line at a time; only the current line is ever in memory. Fields
+ * may be quoted, with {@code ""} for a quote inside a quoted field. Quoted line breaks are not
+ * supported, which no settlement report uses.
+ */
+class SettlementCsvReader implements CloseableIterator<SettlementRecord> {
+
+    private final BufferedReader reader;
+    private final int transactionIdColumn;
+    private final int amountColumn;
+    private final int currencyColumn;
+    private final int statusColumn;
+    private final int refundedColumn;
+    private long lineNumber;
+    private SettlementRecord next;
+
+    SettlementCsvReader(Path file, SettlementColumns columns) throws IOException {
+        this.reader = Files.newBufferedReader(file, StandardCharsets.UTF_8);
+        String header = reader.readLine();
+        if (header == null) {
+            reader.close();
+            throw new BusinessException("Settlement file is empty: " + file);
+        }
+        lineNumber = 1;
+        List<String> names = split(header.startsWith("\uFEFF") ? header.substring(1) : header).stream()
+            .map(name -> name.trim().toLowerCase(Locale.ROOT))
+            .toList();
+        this.transactionIdColumn = require(names, columns.transactionId());
+        this.amountColumn = require(names, columns.amount());
+        this.currencyColumn = require(names, columns.currency());
+        this.statusColumn = require(names, columns.status());
+        this.refundedColumn = columns.refunded() != null ? names.indexOf(columns.refunded().toLowerCase(Locale.ROOT)) : -1;
+        advance();
+    }
+
+    @Override
+    public boolean hasNext() {
+        return next != null;
+    }
+
+    @Override
+    public SettlementRecord next() {
+        if (next == null) {
+            throw new NoSuchElementException();
+        }
+        SettlementRecord current = next;
+        advance();
+        return current;
+    }
+
+    @Override
+    public void close() {
+        try {
+            reader.close();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private void advance() {
+        try {
+            String line;
+            do {
+                line = reader.readLine();
+                lineNumber++;
+            } while (line != null && line.isBlank());
+            next = line != null ? parse(line) : null;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private SettlementRecord parse(String line) {
+        List<String> fields = split(line);
+        try {
+            String transactionId = fields.get(transactionIdColumn).trim();
+            if (transactionId.isEmpty()) {
+                throw new BusinessException("Settlement line " + lineNumber + " has no transaction id");
+            }
+            String refunded = refundedColumn >= 0 ? fields.get(refundedColumn).trim() : "";
+            String currencyCode = fields.get(currencyColumn).trim().toUpperCase(Locale.ROOT);
+            return new SettlementRecord(
+                transactionId,
+                Money.toMinor(new BigDecimal(fields.get(amountColumn).trim()), currencyCode),
+                currencyCode,
+                fields.get(statusColumn).trim(),
+                refunded.isEmpty() ? 0 : Money.toMinor(new BigDecimal(refunded), currencyCode));
+        } catch (IndexOutOfBoundsException | IllegalArgumentException e) {
+            throw new BusinessException("Settlement line " + lineNumber + " is malformed: " + e.getMessage(), e);
+        }
+    }
+
+    private static int require(List<String> names, String column) {
+        int index = names.indexOf(column.toLowerCase(Locale.ROOT));
+        if (index < 0) {
+            throw new BusinessException("Settlement file has no '" + column + "' column");
+        }
+        return index;
+    }
+
+    static List<String> split(String line) {
+        List<String> fields = new ArrayList<>();
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (quoted) {
+                if (c == '"' && i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                    field.append('"');
+                    i++;
+                } else if (c == '"') {
+                    quoted = false;
+                } else {
+                    field.append(c);
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                fields.add(field.toString());
+                field.setLength(0);
+            } else {
+                field.append(c);
+            }
+        }
+        fields.add(field.toString());
+        return fields;
+    }
+}
@@ -0,0 +1,288 @@
+package com.github.ecommerce.service.reconciliation;
+
+import com.github.ecommerce.entity.Payment.PaymentStatus;
+import com.github.ecommerce.util.Money;
+import com.github.ecommerce.util.SnowflakeIdGenerator;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Reconciles a gateway settlement report against {@code payments} with a sort-merge join.
+ * <p>
+ * Both sides are read in transaction id order: the report as a stream (through an external
+ * sort when it is not already ordered, which one cheap pass over the file decides), and the
+ * payments created in the period, padded by a few days for settlement lag, as keyset pages.
+ * Memory therefore stays at one page, one sort run and one probe batch however large the
+ * month. Report lines without a payment in the window are looked up in batches by transaction
+ * id, which catches payments created outside it. Findings are written to a CSV report as they
+ * are found.
+ */
+@Service
+@Slf4j
+public class SettlementReconciler {
+
+    private static final String REPORT_HEADER = "discrepancy,transaction_id,payment_id,payment_amount,settled_amount," +
+        "payment_refunded,settled_refunded,payment_status,settled_status,currency_code";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final NamedParameterJdbcTemplate namedJdbcTemplate;
+
+    @Value("${app.reconciliation.page-size:5000}")
+    private int pageSize;
+
+    @Value("${app.reconciliation.sort-run-size:200000}")
+    private int sortRunSize;
+
+    @Value("${app.reconciliation.probe-batch-size:1000}")
+    private int probeBatchSize;
+
+    @Value("${app.reconciliation.window-padding-days:7}")
+    private int windowPaddingDays;
+
+    @Value("${app.reconciliation.temp-directory:${java.io.tmpdir}}")
+    private Path tempDirectory;
+
+    @Value("${app.reconciliation.columns.transaction-id:transaction_id}")
+    private String transactionIdColumn;
+
+    @Value("${app.reconciliation.columns.amount:amount}")
+    private String amountColumn;
+
+    @Value("${app.reconciliation.columns.currency:currency}")
+    private String currencyColumn;
+
+    @Value("${app.reconciliation.columns.status:status}")
+    private String statusColumn;
+
+    @Value("${app.reconciliation.columns.refunded:refunded_amount}")
+    private String refundedColumn;
+
+    public SettlementReconciler(NamedParameterJdbcTemplate namedJdbcTemplate) {
+        this.namedJdbcTemplate = namedJdbcTemplate;
+        this.jdbcTemplate = namedJdbcTemplate.getJdbcTemplate();
+    }
+
+    /**
+     * Reconciles the payments created from {@code from} (inclusive) to {@code to} (exclusive).
+     */
+    public ReconciliationSummary reconcile(Path settlementFile, LocalDate from, LocalDate to, Path reportFile) throws IOException {
+        long started = System.nanoTime();
+        SettlementColumns columns = new SettlementColumns(transactionIdColumn, amountColumn, currencyColumn, statusColumn, refundedColumn);
+        boolean sorted = isSorted(settlementFile, columns);
+        if (!sorted) {
+            log.info("Settlement file {} is not ordered by transaction id, sorting it in runs of {}", settlementFile, sortRunSize);
+        }
+
+        Join join = new Join(idAt(from), idAt(to));
+        PaymentCursor payments = new PaymentCursor(jdbcTemplate,
+            idAt(from.minusDays(windowPaddingDays)), idAt(to.plusDays(windowPaddingDays)), pageSize);
+        try (CloseableIterator<SettlementRecord> settlement = sorted
+                 ? new SettlementCsvReader(settlementFile, columns)
+                 : SettlementSorter.sort(new SettlementCsvReader(settlementFile, columns), sortRunSize, tempDirectory);
+             BufferedWriter writer = Files.newBufferedWriter(reportFile, StandardCharsets.UTF_8)) {
+            writer.write(REPORT_HEADER);
+            writer.newLine();
+            join.writer = writer;
+            join.run(settlement, payments);
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+
+        ReconciliationSummary summary = new ReconciliationSummary(join.settlementLines, join.paymentsScanned, join.matched,
+            join.discrepancies, !sorted, reportFile, Duration.ofNanos(System.nanoTime() - started));
+        log.info("Reconciled {} settlement lines against {} payments in {} s: {} matched, discrepancies {}",
+            summary.settlementLines(), summary.paymentsScanned(), summary.elapsed().toSeconds(), summary.matched(),
+            summary.discrepancies());
+        return summary;
+    }
+
+    private static boolean isSorted(Path settlementFile, SettlementColumns columns) throws IOException {
+        try (SettlementCsvReader reader = new SettlementCsvReader(settlementFile, columns)) {
+            String previous = null;
+            while (reader.hasNext()) {
+                String transactionId = reader.next().transactionId();
+                if (previous != null && previous.compareTo(transactionId) > 0) {
+                    return false;
+                }
+                previous = transactionId;
+            }
+            return true;
+        }
+    }
+
+    private static long idAt(LocalDate date) {
+        return SnowflakeIdGenerator.minIdAt(date.atStartOfDay(ZoneOffset.UTC).toInstant().toEpochMilli());
+    }
+
+    private final class Join {
+
+        private final long periodFromId;
+        private final long periodToId;
+        private final Map<String, SettlementRecord> probes = new LinkedHashMap<>();
+        private final Map<Discrepancy, Long> discrepancies = new EnumMap<>(Discrepancy.class);
+        private BufferedWriter writer;
+        private long settlementLines;
+        private long paymentsScanned;
+        private long matched;
+
+        Join(long periodFromId, long periodToId) {
+            this.periodFromId = periodFromId;
+            this.periodToId = periodToId;
+        }
+
+        void run(CloseableIterator<SettlementRecord> settlement, PaymentCursor payments) {
+            SettlementRecord line = nextLine(settlement, null);
+            PaymentRow payment = nextPayment(payments);
+            while (line != null || payment != null) {
+                int order = line == null ? 1 : payment == null ? -1 : line.transactionId().compareTo(payment.transactionId());
+                if (order < 0) {
+                    probe(line);
+                    line = nextLine(settlement, line);
+                } else if (order > 0) {
+                    unsettled(payment);
+                    payment = nextPayment(payments);
+                } else {
+                    compare(line, payment);
+                    line = nextLine(settlement, line);
+                    payment = nextPayment(payments);
+                }
+            }
+            flushProbes();
+        }
+
+        private SettlementRecord nextLine(CloseableIterator<SettlementRecord> settlement, SettlementRecord previous) {
+            while (settlement.hasNext()) {
+                SettlementRecord line = settlement.next();
+                settlementLines++;
+                if (previous != null && previous.transactionId().equals(line.transactionId())) {
+                    report(Discrepancy.DUPLICATE_SETTLEMENT, line, null);
+                    continue;
+                }
+                return line;
+            }
+            return null;
+        }
+
+        private PaymentRow nextPayment(PaymentCursor payments) {
+            if (!payments.hasNext()) {
+                return null;
+            }
+            paymentsScanned++;
+            return payments.next();
+        }
+
+        // Settled payments of the period must be in the report; the padding days only serve matching
+        private void unsettled(PaymentRow payment) {
+            boolean settled = payment.status() == PaymentStatus.COMPLETED
+                || payment.status() == PaymentStatus.PARTIALLY_REFUNDED
+                || payment.status() == PaymentStatus.REFUNDED;
+            if (settled && payment.id() >= periodFromId && payment.id() < periodToId) {
+                report(Discrepancy.MISSING_SETTLEMENT, null, payment);
+            }
+        }
+
+        private void probe(SettlementRecord line) {
+            probes.put(line.transactionId(), line);
+            if (probes.size() >= probeBatchSize) {
+                flushProbes();
+            }
+        }
+
+        private void flushProbes() {
+            if (probes.isEmpty()) {
+                return;
+            }
+            namedJdbcTemplate.query("SELECT " + PaymentCursor.COLUMNS + " FROM payments WHERE transaction_id IN (:ids)",
+                Map.of("ids", probes.keySet()), rs -> {
+                    PaymentRow payment = PaymentCursor.ROW_MAPPER.mapRow(rs, 0);
+                    SettlementRecord line = probes.remove(payment.transactionId());
+                    if (line != null) {
+                        compare(line, payment);
+                    }
+                });
+            probes.values().forEach(line -> report(Discrepancy.MISSING_PAYMENT, line, null));
+            probes.clear();
+        }
+
+        private void compare(SettlementRecord line, PaymentRow payment) {
+            String currency = Objects.requireNonNullElse(payment.currencyCode(), Money.DEFAULT_CURRENCY);
+            boolean amountsMatch = line.amountMinor() == payment.amountMinor()
+                && line.refundedMinor() == payment.refundedMinor()
+                && line.currencyCode().equalsIgnoreCase(currency);
+            boolean statusesMatch = sameStatus(settledStatus(line.status()), payment.status());
+            if (!amountsMatch) {
+                report(Discrepancy.AMOUNT_MISMATCH, line, payment);
+            }
+            if (!statusesMatch) {
+                report(Discrepancy.STATUS_MISMATCH, line, payment);
+            }
+            if (amountsMatch && statusesMatch) {
+                matched++;
+            }
+        }
+
+        private void report(Discrepancy discrepancy, SettlementRecord line, PaymentRow payment) {
+            discrepancies.merge(discrepancy, 1L, Long::sum);
+            StringBuilder row = new StringBuilder(160)
+                .append(discrepancy).append(',')
+                .append(csv(line != null ? line.transactionId() : payment.transactionId())).append(',')
+                .append(payment != null ? payment.id() : "").append(',')
+                .append(payment != null ? Money.toDecimal(payment.amountMinor(), payment.currencyCode()) : "").append(',')
+                .append(line != null ? Money.toDecimal(line.amountMinor(), line.currencyCode()) : "").append(',')
+                .append(payment != null ? Money.toDecimal(payment.refundedMinor(), payment.currencyCode()) : "").append(',')
+                .append(line != null ? Money.toDecimal(line.refundedMinor(), line.currencyCode()) : "").append(',')
+                .append(payment != null ? payment.status() : "").append(',')
+                .append(line != null ? csv(line.status()) : "").append(',')
+                .append(line != null ? line.currencyCode() : Objects.requireNonNullElse(payment.currencyCode(), ""));
+            try {
+                writer.write(row.toString());
+                writer.newLine();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+    }
+
+    // Gateways name statuses their own way; anything unknown is reported as a mismatch
+    private static PaymentStatus settledStatus(String status) {
+        return switch (status.toLowerCase(Locale.ROOT)) {
+            case "succeeded", "settled", "paid", "completed", "captured" -> PaymentStatus.COMPLETED;
+            case "partially_refunded" -> PaymentStatus.PARTIALLY_REFUNDED;
+            case "refunded" -> PaymentStatus.REFUNDED;
+            case "failed", "declined" -> PaymentStatus.FAILED;
+            case "canceled", "cancelled", "voided" -> PaymentStatus.CANCELLED;
+            case "pending", "processing" -> PaymentStatus.PROCESSING;
+            default -> null;
+        };
+    }
+
+    // Settlement reports do not tell a created payment from one in progress
+    private static boolean sameStatus(PaymentStatus settled, PaymentStatus payment) {
+        if (settled == PaymentStatus.PROCESSING) {
+            return payment == PaymentStatus.PROCESSING || payment == PaymentStatus.PENDING;
+        }
+        return settled == payment;
+    }
+
+    private static String csv(String value) {
+        return value.indexOf(',') >= 0 || value.indexOf('"') >= 0 ? '"' + value.replace("\"", "\"\"") + '"' : value;
+    }
+}
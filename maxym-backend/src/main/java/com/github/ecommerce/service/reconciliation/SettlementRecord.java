@@ -0,0 +1,5 @@
+package com.github.ecommerce.service.reconciliation;
+
+// One settlement line, amounts in minor units; the status is kept as the gateway wrote it
+record SettlementRecord(String transactionId, long amountMinor, String currencyCode, String status, long refundedMinor) {
+}
@@ -0,0 +1,189 @@
+package com.github.ecommerce.service.reconciliation;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.PriorityQueue;
+
+/**
+ * External merge sort of settlement lines by transaction id, for reports that are not already
+ * in that order. Lines are read in runs of {@code runSize}, each run is sorted in memory and
+ * written to a temporary file, and the runs are then merged through a priority queue holding
+ * one line per run. Memory is bounded by one run plus a read buffer per run file. Input that
+ * fits in a single run is never written to disk.
+ */
+class SettlementSorter {
+
+    private static final Comparator<SettlementRecord> BY_TRANSACTION_ID = Comparator.comparing(SettlementRecord::transactionId);
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private SettlementSorter() {
+    }
+
+    static CloseableIterator<SettlementRecord> sort(CloseableIterator<SettlementRecord> source, int runSize, Path tempDirectory)
+            throws IOException {
+        List<Path> runs = new ArrayList<>();
+        List<SettlementRecord> buffer = new ArrayList<>(runSize);
+        try (source) {
+            while (source.hasNext()) {
+                buffer.add(source.next());
+                if (buffer.size() == runSize) {
+                    runs.add(writeRun(buffer, tempDirectory));
+                    buffer.clear();
+                }
+            }
+            if (runs.isEmpty()) {
+                buffer.sort(BY_TRANSACTION_ID);
+                return inMemory(buffer.iterator());
+            }
+            if (!buffer.isEmpty()) {
+                runs.add(writeRun(buffer, tempDirectory));
+                buffer.clear();
+            }
+            return new MergingIterator(runs);
+        } catch (IOException | RuntimeException e) {
+            deleteAll(runs);
+            throw e;
+        }
+    }
+
+    private static Path writeRun(List<SettlementRecord> records, Path tempDirectory) throws IOException {
+        records.sort(BY_TRANSACTION_ID);
+        Path run = Files.createTempFile(tempDirectory, "settlement-run-", ".bin");
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(run), BUFFER_SIZE))) {
+            for (SettlementRecord record : records) {
+                out.writeUTF(record.transactionId());
+                out.writeLong(record.amountMinor());
+                out.writeUTF(record.currencyCode());
+                out.writeUTF(record.status());
+                out.writeLong(record.refundedMinor());
+            }
+        } catch (IOException e) {
+            Files.deleteIfExists(run);
+            throw e;
+        }
+        return run;
+    }
+
+    private static CloseableIterator<SettlementRecord> inMemory(Iterator<SettlementRecord> records) {
+        return new CloseableIterator<>() {
+            @Override
+            public boolean hasNext() {
+                return records.hasNext();
+            }
+
+            @Override
+            public SettlementRecord next() {
+                return records.next();
+            }
+
+            @Override
+            public void close() {
+            }
+        };
+    }
+
+    private static void deleteAll(List<Path> runs) {
+        for (Path run : runs) {
+            try {
+                Files.deleteIfExists(run);
+            } catch (IOException e) {
+                run.toFile().deleteOnExit();
+            }
+        }
+    }
+
+    private static final class MergingIterator implements CloseableIterator<SettlementRecord> {
+
+        private final List<Path> runs;
+        private final List<RunReader> readers = new ArrayList<>();
+        private final PriorityQueue<RunReader> heads = new PriorityQueue<>(Comparator.comparing(RunReader::head, BY_TRANSACTION_ID));
+
+        MergingIterator(List<Path> runs) throws IOException {
+            this.runs = runs;
+            try {
+                for (Path run : runs) {
+                    RunReader reader = new RunReader(run);
+                    readers.add(reader);
+                    if (reader.advance()) {
+                        heads.add(reader);
+                    }
+                }
+            } catch (IOException e) {
+                close();
+                throw e;
+            }
+        }
+
+        @Override
+        public boolean hasNext() {
+            return !heads.isEmpty();
+        }
+
+        @Override
+        public SettlementRecord next() {
+            RunReader reader = heads.poll();
+            if (reader == null) {
+                throw new NoSuchElementException();
+            }
+            SettlementRecord record = reader.head();
+            try {
+                if (reader.advance()) {
+                    heads.add(reader);
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            return record;
+        }
+
+        @Override
+        public void close() {
+            for (RunReader reader : readers) {
+                try {
+                    reader.in.close();
+                } catch (IOException ignored) {
+                    // The run file is deleted next anyway
+                }
+            }
+            deleteAll(runs);
+        }
+    }
+
+    private static final class RunReader {
+
+        private final DataInputStream in;
+        private SettlementRecord head;
+
+        RunReader(Path run) throws IOException {
+            this.in = new DataInputStream(new BufferedInputStream(Files.newInputStream(run), BUFFER_SIZE));
+        }
+
+        SettlementRecord head() {
+            return head;
+        }
+
+        boolean advance() throws IOException {
+            String transactionId;
+            try {
+                transactionId = in.readUTF();
+            } catch (EOFException e) {
+                head = null;
+                return false;
+            }
+            head = new SettlementRecord(transactionId, in.readLong(), in.readUTF(), in.readUTF(), in.readLong());
+            return true;
+        }
+    }
+}
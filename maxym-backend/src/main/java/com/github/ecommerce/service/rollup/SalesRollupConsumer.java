@@ -0,0 +1,67 @@
+package com.github.ecommerce.service.rollup;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.ecommerce.entity.OutboxEvent;
+import com.github.ecommerce.service.outbox.OutboxConsumer;
+import com.github.ecommerce.service.outbox.OutboxMessage;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Applies each outbox batch of paid, refunded and cancelled orders to the sales rollups in one
+ * pass, including orders moved by a bulk transition to one of those statuses. Runs in the
+ * consumer transaction of the in-process sink, so a batch and its offset commit together.
+ */
+@Component
+@RequiredArgsConstructor
+public class SalesRollupConsumer implements OutboxConsumer {
+
+    private static final Set<String> STATUSES = Set.of("PAID", "REFUNDED", "CANCELLED");
+
+    private static final Set<String> EVENT_TYPES = Set.of(
+        "ORDER_PAID", "ORDER_REFUNDED", "ORDER_CANCELLED", OutboxEvent.ORDER_BATCH_TRANSITIONED);
+
+    private final SalesRollupService salesRollupService;
+    private final ObjectMapper objectMapper;
+
+    @Override
+    public String name() {
+        return "sales-rollups";
+    }
+
+    @Override
+    public Set<String> eventTypes() {
+        return EVENT_TYPES;
+    }
+
+    @Override
+    public void consume(List<OutboxMessage> events) {
+        Set<Long> orderIds = new LinkedHashSet<>();
+        for (OutboxMessage event : events) {
+            if (OutboxEvent.ORDER_BATCH_TRANSITIONED.equals(event.eventType())) {
+                addBatchOrders(event, orderIds);
+            } else {
+                orderIds.add(Long.valueOf(event.aggregateId()));
+            }
+        }
+        salesRollupService.applyOrders(orderIds);
+    }
+
+    private void addBatchOrders(OutboxMessage event, Set<Long> orderIds) {
+        JsonNode payload;
+        try {
+            payload = objectMapper.readTree(event.payload());
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Unreadable payload in outbox event " + event.id(), e);
+        }
+        if (STATUSES.contains(payload.path("status").asText())) {
+            payload.path("orderIds").forEach(id -> orderIds.add(id.asLong()));
+        }
+    }
+}
@@ -0,0 +1,302 @@
+package com.github.ecommerce.service.rollup;
+
+import com.github.ecommerce.dto.response.SalesRollupResponse;
+import com.github.ecommerce.entity.Order;
+import com.github.ecommerce.entity.SalesRollup.Dimension;
+import com.github.ecommerce.entity.SalesRollup.Granularity;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Keeps {@code sales_rollups} in step with paid, refunded and cancelled orders, and answers
+ * dashboard queries from the rollups alone.
+ * <p>
+ * {@link #applyOrders} recomputes what each order should contribute, compares it with what
+ * {@code sales_rollup_orders} says was already applied and upserts only the difference. The
+ * per-order rows are locked first, so the live consumer and a backfill can touch the same
+ * order safely, and rollup rows are always upserted in key order so concurrent batches wait
+ * on each other instead of deadlocking.
+ */
+@Service
+@RequiredArgsConstructor
+public class SalesRollupService {
+
+    private static final String ALL_KEY = "*";
+    private static final String UNKNOWN_KEY = "??";
+    private static final int RATIO_SCALE = 6;
+
+    private static final String LOCK_APPLIED =
+        "SELECT order_id, paid_at, applied_ratio FROM sales_rollup_orders WHERE order_id IN (:ids) ORDER BY order_id FOR UPDATE";
+
+    private static final String SELECT_ORDER_LINES =
+        "SELECT o.id, o.status, o.paid_at, o.total_amount, o.refund_amount, o.country, " +
+        "i.quantity, i.total_price, p.category_id, p.brand_id " +
+        "FROM orders o LEFT JOIN order_items i ON i.order_id = o.id LEFT JOIN products p ON p.id = i.product_id " +
+        "WHERE o.id IN (:ids)";
+
+    private static final String UPSERT_ROLLUP =
+        "INSERT INTO sales_rollups (granularity, dimension, bucket_start, dimension_key, revenue, order_count, units) " +
+        "VALUES (:granularity, :dimension, :bucketStart, :dimensionKey, :revenue, :orderCount, :units) " +
+        "ON DUPLICATE KEY UPDATE revenue = revenue + VALUES(revenue), order_count = order_count + VALUES(order_count), " +
+        "units = units + VALUES(units)";
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+
+    @Transactional
+    public void applyOrders(Collection<Long> orderIds) {
+        if (orderIds.isEmpty()) {
+            return;
+        }
+        MapSqlParameterSource ids = new MapSqlParameterSource("ids", orderIds);
+        jdbcTemplate.batchUpdate("INSERT IGNORE INTO sales_rollup_orders (order_id, applied_ratio) VALUES (:orderId, 0)",
+            orderIds.stream().map(id -> new MapSqlParameterSource("orderId", id)).toArray(MapSqlParameterSource[]::new));
+
+        Map<Long, Applied> applied = new HashMap<>();
+        jdbcTemplate.query(LOCK_APPLIED, ids, rs -> {
+            Timestamp paidAt = rs.getTimestamp("paid_at");
+            applied.put(rs.getLong("order_id"), new Applied(
+                paidAt != null ? paidAt.toLocalDateTime() : null, rs.getBigDecimal("applied_ratio")));
+        });
+
+        Map<Long, OrderFacts> orders = new LinkedHashMap<>();
+        jdbcTemplate.query(SELECT_ORDER_LINES, ids, rs -> {
+            long orderId = rs.getLong("id");
+            OrderFacts facts = orders.get(orderId);
+            if (facts == null) {
+                Timestamp paidAt = rs.getTimestamp("paid_at");
+                facts = new OrderFacts(Order.OrderStatus.valueOf(rs.getString("status")),
+                    paidAt != null ? paidAt.toLocalDateTime() : null,
+                    rs.getBigDecimal("total_amount"), rs.getBigDecimal("refund_amount"), rs.getString("country"));
+                orders.put(orderId, facts);
+            }
+            int quantity = rs.getInt("quantity");
+            if (rs.wasNull()) {
+                return;
+            }
+            long categoryId = rs.getLong("category_id");
+            String category = rs.wasNull() ? UNKNOWN_KEY : String.valueOf(categoryId);
+            long brandId = rs.getLong("brand_id");
+            String brand = rs.wasNull() ? null : String.valueOf(brandId);
+            facts.lines.add(new Line(quantity, rs.getBigDecimal("total_price"), category, brand));
+        });
+
+        Map<RollupKey, Delta> deltas = new TreeMap<>();
+        List<MapSqlParameterSource> appliedUpdates = new ArrayList<>();
+        for (Map.Entry<Long, OrderFacts> entry : orders.entrySet()) {
+            OrderFacts facts = entry.getValue();
+            Applied previous = applied.get(entry.getKey());
+            BigDecimal ratio = facts.netRatio();
+            if (previous != null && previous.ratio().compareTo(ratio) == 0 && sameTime(previous.paidAt(), facts.paidAt)) {
+                continue;
+            }
+            if (previous != null && previous.ratio().signum() > 0) {
+                contribute(deltas, facts, previous.paidAt(), previous.ratio(), -1);
+            }
+            if (ratio.signum() > 0) {
+                contribute(deltas, facts, facts.paidAt, ratio, 1);
+            }
+            appliedUpdates.add(new MapSqlParameterSource()
+                .addValue("orderId", entry.getKey())
+                .addValue("paidAt", facts.paidAt != null ? Timestamp.valueOf(facts.paidAt) : null)
+                .addValue("ratio", ratio));
+        }
+
+        List<MapSqlParameterSource> upserts = new ArrayList<>();
+        deltas.forEach((key, delta) -> {
+            if (!delta.isZero()) {
+                upserts.add(new MapSqlParameterSource()
+                    .addValue("granularity", key.granularity().name())
+                    .addValue("dimension", key.dimension().name())
+                    .addValue("bucketStart", Timestamp.valueOf(key.bucketStart()))
+                    .addValue("dimensionKey", key.dimensionKey())
+                    .addValue("revenue", delta.revenue)
+                    .addValue("orderCount", delta.orders)
+                    .addValue("units", delta.units));
+            }
+        });
+        jdbcTemplate.batchUpdate(UPSERT_ROLLUP, upserts.toArray(MapSqlParameterSource[]::new));
+        jdbcTemplate.batchUpdate("UPDATE sales_rollup_orders SET paid_at = :paidAt, applied_ratio = :ratio WHERE order_id = :orderId",
+            appliedUpdates.toArray(MapSqlParameterSource[]::new));
+    }
+
+    @Transactional(readOnly = true)
+    public List<SalesRollupResponse> series(Granularity granularity, Dimension dimension, LocalDateTime from, LocalDateTime to) {
+        MapSqlParameterSource params = new MapSqlParameterSource()
+            .addValue("granularity", granularity.name())
+            .addValue("dimension", dimension.name())
+            .addValue("from", Timestamp.valueOf(truncate(from, granularity)))
+            .addValue("to", Timestamp.valueOf(to));
+        return jdbcTemplate.query(
+            "SELECT bucket_start, dimension_key, revenue, order_count, units FROM sales_rollups " +
+            "WHERE granularity = :granularity AND dimension = :dimension AND bucket_start >= :from AND bucket_start < :to " +
+            "ORDER BY bucket_start, dimension_key", params,
+            (rs, rowNum) -> SalesRollupResponse.builder()
+                .bucketStart(rs.getTimestamp("bucket_start").toLocalDateTime())
+                .dimensionKey(rs.getString("dimension_key"))
+                .revenue(rs.getBigDecimal("revenue"))
+                .orderCount(rs.getLong("order_count"))
+                .units(rs.getLong("units"))
+                .build());
+    }
+
+    /**
+     * Totals per dimension key over an arbitrary range, to the hour. Whole days are read from
+     * the daily rollup and only the partial days at either end from the hourly one, so the cost
+     * does not grow with the length of the range.
+     */
+    @Transactional(readOnly = true)
+    public List<SalesRollupResponse> totals(Dimension dimension, LocalDateTime from, LocalDateTime to) {
+        LocalDateTime start = truncate(from, Granularity.HOUR);
+        LocalDateTime end = truncate(to, Granularity.HOUR);
+        LocalDateTime firstDay = truncate(start, Granularity.DAY).equals(start) ? start : truncate(start, Granularity.DAY).plusDays(1);
+        LocalDateTime lastDay = truncate(end, Granularity.DAY);
+
+        Map<String, SalesRollupResponse> totals = new TreeMap<>();
+        if (firstDay.isBefore(lastDay)) {
+            accumulate(totals, series(Granularity.HOUR, dimension, start, firstDay));
+            accumulate(totals, series(Granularity.DAY, dimension, firstDay, lastDay));
+            accumulate(totals, series(Granularity.HOUR, dimension, lastDay, end));
+        } else {
+            accumulate(totals, series(Granularity.HOUR, dimension, start, end));
+        }
+        return new ArrayList<>(totals.values());
+    }
+
+    private static void accumulate(Map<String, SalesRollupResponse> totals, List<SalesRollupResponse> rows) {
+        for (SalesRollupResponse row : rows) {
+            SalesRollupResponse total = totals.computeIfAbsent(row.getDimensionKey(), key -> SalesRollupResponse.builder()
+                .dimensionKey(key)
+                .revenue(BigDecimal.ZERO)
+                .build());
+            total.setRevenue(total.getRevenue().add(row.getRevenue()));
+            total.setOrderCount(total.getOrderCount() + row.getOrderCount());
+            total.setUnits(total.getUnits() + row.getUnits());
+        }
+    }
+
+    private static void contribute(Map<RollupKey, Delta> deltas, OrderFacts facts, LocalDateTime paidAt, BigDecimal ratio, int sign) {
+        long units = facts.lines.stream().mapToLong(Line::quantity).sum();
+        BigDecimal revenue = scale(facts.total, ratio);
+
+        Map<String, Delta> categories = new HashMap<>();
+        Map<String, Delta> brands = new HashMap<>();
+        for (Line line : facts.lines) {
+            BigDecimal lineRevenue = scale(line.totalPrice(), ratio);
+            categories.computeIfAbsent(line.categoryId(), key -> new Delta()).add(lineRevenue, 0, line.quantity());
+            if (line.brandId() != null) {
+                brands.computeIfAbsent(line.brandId(), key -> new Delta()).add(lineRevenue, 0, line.quantity());
+            }
+        }
+
+        for (Granularity granularity : Granularity.values()) {
+            LocalDateTime bucket = truncate(paidAt, granularity);
+            add(deltas, new RollupKey(granularity, Dimension.ALL, bucket, ALL_KEY), revenue, units, sign);
+            add(deltas, new RollupKey(granularity, Dimension.COUNTRY, bucket, facts.country != null ? facts.country : UNKNOWN_KEY),
+                revenue, units, sign);
+            categories.forEach((key, delta) ->
+                add(deltas, new RollupKey(granularity, Dimension.CATEGORY, bucket, key), delta.revenue, delta.units, sign));
+            brands.forEach((key, delta) ->
+                add(deltas, new RollupKey(granularity, Dimension.BRAND, bucket, key), delta.revenue, delta.units, sign));
+        }
+    }
+
+    // Each order counts once per rollup row it touches
+    private static void add(Map<RollupKey, Delta> deltas, RollupKey key, BigDecimal revenue, long units, int sign) {
+        deltas.computeIfAbsent(key, k -> new Delta()).add(sign > 0 ? revenue : revenue.negate(), sign, sign * units);
+    }
+
+    private static BigDecimal scale(BigDecimal amount, BigDecimal ratio) {
+        return amount.multiply(ratio).setScale(2, RoundingMode.HALF_UP);
+    }
+
+    private static LocalDateTime truncate(LocalDateTime time, Granularity granularity) {
+        return time.truncatedTo(granularity == Granularity.HOUR ? ChronoUnit.HOURS : ChronoUnit.DAYS);
+    }
+
+    private static boolean sameTime(LocalDateTime a, LocalDateTime b) {
+        return a == null ? b == null : a.equals(b);
+    }
+
+    private record Applied(LocalDateTime paidAt, BigDecimal ratio) {
+    }
+
+    private record Line(int quantity, BigDecimal totalPrice, String categoryId, String brandId) {
+    }
+
+    private record RollupKey(Granularity granularity, Dimension dimension, LocalDateTime bucketStart, String dimensionKey)
+            implements Comparable<RollupKey> {
+
+        private static final Comparator<RollupKey> ORDER = Comparator.comparing(RollupKey::granularity)
+            .thenComparing(RollupKey::dimension)
+            .thenComparing(RollupKey::bucketStart)
+            .thenComparing(RollupKey::dimensionKey);
+
+        @Override
+        public int compareTo(RollupKey other) {
+            return ORDER.compare(this, other);
+        }
+    }
+
+    private static final class OrderFacts {
+        private final Order.OrderStatus status;
+        private final LocalDateTime paidAt;
+        private final BigDecimal total;
+        private final BigDecimal refundAmount;
+        private final String country;
+        private final List<Line> lines = new ArrayList<>();
+
+        private OrderFacts(Order.OrderStatus status, LocalDateTime paidAt, BigDecimal total, BigDecimal refundAmount, String country) {
+            this.status = status;
+            this.paidAt = paidAt;
+            this.total = total;
+            this.refundAmount = refundAmount;
+            this.country = country;
+        }
+
+        // Share of the order total that counts as net revenue
+        private BigDecimal netRatio() {
+            if (paidAt == null || status == Order.OrderStatus.CANCELLED || status == Order.OrderStatus.REFUNDED
+                    || status == Order.OrderStatus.FAILED) {
+                return BigDecimal.ZERO.setScale(RATIO_SCALE);
+            }
+            if (refundAmount == null || refundAmount.signum() == 0 || total.signum() == 0) {
+                return BigDecimal.ONE.setScale(RATIO_SCALE);
+            }
+            BigDecimal net = total.subtract(refundAmount).max(BigDecimal.ZERO);
+            return net.divide(total, RATIO_SCALE, RoundingMode.HALF_UP);
+        }
+    }
+
+    private static final class Delta {
+        private BigDecimal revenue = BigDecimal.ZERO;
+        private long orders;
+        private long units;
+
+        private void add(BigDecimal revenue, long orders, long units) {
+            this.revenue = this.revenue.add(revenue);
+            this.orders += orders;
+            this.units += units;
+        }
+
+        private boolean isZero() {
+            return revenue.signum() == 0 && orders == 0 && units == 0;
+        }
+    }
+}
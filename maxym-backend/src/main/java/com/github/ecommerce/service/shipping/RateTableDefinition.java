@@ -0,0 +1,33 @@
+package com.github.ecommerce.service.shipping;
+
+import com.github.ecommerce.entity.Shipping.ShippingMethod;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+/**
+ * Rate table file as written by operations, see {@code shipping-rates.json}. Weights are in
+ * kilograms, prices in the table currency, and dimensions in centimetres.
+ * <ul>
+ *   <li>{@code dimensionalDivisor}: cubic centimetres per chargeable kilogram, e.g. 5000.</li>
+ *   <li>{@code weightStepGrams}: quotes are cached per step of chargeable weight.</li>
+ *   <li>{@code zones}: matched in order of longest postal prefix, then country, then {@code "*"}.</li>
+ *   <li>{@code rates}: price brackets per zone and method; above the last bracket
+ *   {@code extraPerKg} is charged per started kilogram, or the method is unavailable.</li>
+ * </ul>
+ */
+public record RateTableDefinition(String currency,
+                                  int dimensionalDivisor,
+                                  int weightStepGrams,
+                                  List<Zone> zones,
+                                  List<Rate> rates) {
+
+    public record Zone(String code, List<String> countries, List<String> postalPrefixes) {
+    }
+
+    public record Rate(String zone, ShippingMethod method, List<Bracket> brackets, BigDecimal extraPerKg, int transitDays) {
+    }
+
+    public record Bracket(BigDecimal upToKg, BigDecimal price) {
+    }
+}
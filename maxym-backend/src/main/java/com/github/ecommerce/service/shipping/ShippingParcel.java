@@ -0,0 +1,45 @@
+package com.github.ecommerce.service.shipping;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.regex.Pattern;
+
+/**
+ * Actual weight and volume of everything in a shipment. Items without a weight count as
+ * weightless and items without parseable dimensions add no volume, so incomplete catalog data
+ * never blocks a quote.
+ */
+public record ShippingParcel(long grams, long cubicCentimetres) {
+
+    public static final ShippingParcel EMPTY = new ShippingParcel(0, 0);
+
+    // "30x20x10", "30 x 20 x 10 cm", "30*20*10"
+    private static final Pattern DIMENSION_SEPARATOR = Pattern.compile("\\s*[xX\\u00D7*]\\s*");
+
+    /**
+     * Adds {@code quantity} items of the given unit weight and "LxWxH" dimensions in centimetres.
+     */
+    public ShippingParcel plus(BigDecimal weightKg, String dimensions, int quantity) {
+        long itemGrams = weightKg != null ? weightKg.movePointRight(3).setScale(0, RoundingMode.CEILING).longValueExact() : 0;
+        return new ShippingParcel(grams + itemGrams * quantity, cubicCentimetres + volumeOf(dimensions) * quantity);
+    }
+
+    static long volumeOf(String dimensions) {
+        if (dimensions == null || dimensions.isBlank()) {
+            return 0;
+        }
+        String[] sides = DIMENSION_SEPARATOR.split(dimensions.trim().replaceFirst("(?i)\\s*cm$", ""));
+        if (sides.length != 3) {
+            return 0;
+        }
+        try {
+            double volume = 1;
+            for (String side : sides) {
+                volume *= Double.parseDouble(side.replace(',', '.'));
+            }
+            return (long) Math.ceil(volume);
+        } catch (NumberFormatException e) {
+            return 0;
+        }
+    }
+}
@@ -0,0 +1,7 @@
+package com.github.ecommerce.service.shipping;
+
+import com.github.ecommerce.entity.Shipping.ShippingMethod;
+import com.github.ecommerce.util.Money;
+
+public record ShippingQuote(ShippingMethod method, String zone, long chargeableGrams, Money price, int transitDays, long tableVersion) {
+}
@@ -0,0 +1,150 @@
+package com.github.ecommerce.service.shipping;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.ecommerce.entity.CartItem;
+import com.github.ecommerce.entity.Product;
+import com.github.ecommerce.entity.ProductVariant;
+import com.github.ecommerce.entity.Shipping.ShippingMethod;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.Resource;
+import org.springframework.core.io.ResourceLoader;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Quotes shipping against a compiled {@link ShippingRateTable}. Quotes are memoized by
+ * destination zone, chargeable weight step and method, so the many carts that fall into the
+ * same bucket share one entry. The rate file is watched and a changed file is compiled and
+ * swapped in without a restart; a file that fails to parse leaves the current table in place.
+ */
+@Service
+@Slf4j
+public class ShippingRateEngine {
+
+    private final ObjectMapper objectMapper;
+    private final Resource rates;
+    private final AtomicLong tableVersions = new AtomicLong();
+    private final Cache<QuoteKey, Optional<ShippingQuote>> quotes;
+    private volatile ShippingRateTable table;
+    private volatile long loadedModified;
+
+    public ShippingRateEngine(ObjectMapper objectMapper,
+                              ResourceLoader resourceLoader,
+                              @Value("${app.shipping.rates.location:classpath:shipping-rates.json}") String location,
+                              @Value("${app.shipping.quote-cache-size:50000}") long quoteCacheSize) {
+        this.objectMapper = objectMapper;
+        this.rates = resourceLoader.getResource(location);
+        this.quotes = CacheBuilder.newBuilder()
+            .maximumSize(quoteCacheSize)
+            .build();
+        reload();
+    }
+
+    public Optional<ShippingQuote> quote(String country, String postalCode, ShippingParcel parcel, ShippingMethod method) {
+        ShippingRateTable current = table;
+        int zone = current.zoneOf(country, postalCode);
+        if (zone < 0) {
+            return Optional.empty();
+        }
+        int weightStep = current.weightStep(parcel);
+        QuoteKey key = new QuoteKey(current.getVersion(), zone, weightStep, method);
+        Optional<ShippingQuote> quote = quotes.getIfPresent(key);
+        if (quote == null) {
+            quote = current.price(zone, weightStep, method);
+            quotes.put(key, quote);
+        }
+        return quote;
+    }
+
+    /**
+     * @return a quote for every method the destination zone offers, cheapest first
+     */
+    public List<ShippingQuote> quotes(String country, String postalCode, ShippingParcel parcel) {
+        ShippingRateTable current = table;
+        int zone = current.zoneOf(country, postalCode);
+        List<ShippingQuote> available = new ArrayList<>();
+        if (zone >= 0) {
+            for (ShippingMethod method : current.methods(zone)) {
+                quote(country, postalCode, parcel, method).ifPresent(available::add);
+            }
+        }
+        available.sort(Comparator.comparing(ShippingQuote::price));
+        return available;
+    }
+
+    public static ShippingParcel parcelOf(Collection<CartItem> items) {
+        ShippingParcel parcel = ShippingParcel.EMPTY;
+        for (CartItem item : items) {
+            Product product = item.getProduct();
+            ProductVariant variant = item.getProductVariant();
+            parcel = parcel.plus(
+                variant != null && variant.getWeight() != null ? variant.getWeight() : product.getWeight(),
+                variant != null && variant.getDimensions() != null ? variant.getDimensions() : product.getDimensions(),
+                item.getQuantity());
+        }
+        return parcel;
+    }
+
+    @Scheduled(fixedDelayString = "${app.shipping.rates.reload-interval:30000}")
+    public void reloadIfChanged() {
+        try {
+            if (rates.lastModified() != loadedModified) {
+                reload();
+            }
+        } catch (IOException e) {
+            // Resources inside a jar have no timestamp and are only read at startup
+        } catch (RuntimeException e) {
+            log.error("Shipping rates at {} could not be reloaded, keeping v{}", rates, table.getVersion(), e);
+        }
+    }
+
+    /**
+     * Compiles the rate file and installs it. Fails only if no table has been loaded yet.
+     */
+    public synchronized void reload() {
+        long modified = lastModified();
+        ShippingRateTable compiled;
+        try (InputStream in = rates.getInputStream()) {
+            RateTableDefinition definition = objectMapper.readValue(in, RateTableDefinition.class);
+            compiled = ShippingRateTable.compile(tableVersions.incrementAndGet(), definition);
+        } catch (IOException | RuntimeException e) {
+            if (table == null) {
+                throw new IllegalStateException("Shipping rates at " + rates + " could not be loaded", e);
+            }
+            loadedModified = modified;
+            log.error("Shipping rates at {} are invalid, keeping v{}", rates, table.getVersion(), e);
+            return;
+        }
+        install(compiled);
+        loadedModified = modified;
+        log.info("Installed shipping rate table v{} from {}", compiled.getVersion(), rates);
+    }
+
+    public void install(ShippingRateTable newTable) {
+        table = newTable;
+        quotes.invalidateAll();
+    }
+
+    private long lastModified() {
+        try {
+            return rates.lastModified();
+        } catch (IOException e) {
+            return 0;
+        }
+    }
+
+    private record QuoteKey(long tableVersion, int zone, int weightStep, ShippingMethod method) {
+    }
+}
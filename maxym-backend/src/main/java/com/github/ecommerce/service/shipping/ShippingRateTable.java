@@ -0,0 +1,213 @@
+package com.github.ecommerce.service.shipping;
+
+import com.github.ecommerce.entity.Shipping.ShippingMethod;
+import com.github.ecommerce.util.Money;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * A rate table compiled for lookups: zones resolve through a per-country list of postal
+ * prefixes, longest first, and every (zone, method) pair becomes a pair of arrays of bracket
+ * limits and prices in grams and minor units. Pricing a weight is a binary search, so a
+ * table never has to be consulted in any slower form while quoting.
+ */
+public final class ShippingRateTable {
+
+    private static final String ANY_COUNTRY = "*";
+
+    private final long version;
+    private final String currency;
+    private final int dimensionalDivisor;
+    private final int weightStepGrams;
+    private final String[] zoneCodes;
+    private final Map<String, CountryZones> zonesByCountry;
+    private final CountryZones anyCountry;
+    private final Map<ShippingMethod, RateCard>[] cards;
+
+    private ShippingRateTable(long version, String currency, int dimensionalDivisor, int weightStepGrams,
+                              String[] zoneCodes, Map<String, CountryZones> zonesByCountry, CountryZones anyCountry,
+                              Map<ShippingMethod, RateCard>[] cards) {
+        this.version = version;
+        this.currency = currency;
+        this.dimensionalDivisor = dimensionalDivisor;
+        this.weightStepGrams = weightStepGrams;
+        this.zoneCodes = zoneCodes;
+        this.zonesByCountry = zonesByCountry;
+        this.anyCountry = anyCountry;
+        this.cards = cards;
+    }
+
+    @SuppressWarnings("unchecked")
+    public static ShippingRateTable compile(long version, RateTableDefinition definition) {
+        if (definition.dimensionalDivisor() <= 0 || definition.weightStepGrams() <= 0) {
+            throw new IllegalArgumentException("dimensionalDivisor and weightStepGrams must be positive");
+        }
+        List<RateTableDefinition.Zone> zones = definition.zones();
+        String[] zoneCodes = new String[zones.size()];
+        Map<String, Integer> zoneIndexes = new HashMap<>();
+        Map<String, List<Prefix>> prefixes = new HashMap<>();
+        Map<String, Integer> countryDefaults = new HashMap<>();
+        for (int index = 0; index < zones.size(); index++) {
+            RateTableDefinition.Zone zone = zones.get(index);
+            zoneCodes[index] = zone.code();
+            if (zoneIndexes.put(zone.code(), index) != null) {
+                throw new IllegalArgumentException("Zone " + zone.code() + " is defined twice");
+            }
+            for (String country : zone.countries()) {
+                String key = country.toUpperCase(Locale.ROOT);
+                if (zone.postalPrefixes() == null || zone.postalPrefixes().isEmpty()) {
+                    countryDefaults.putIfAbsent(key, index);
+                } else {
+                    for (String prefix : zone.postalPrefixes()) {
+                        prefixes.computeIfAbsent(key, k -> new ArrayList<>()).add(new Prefix(normalize(prefix), index));
+                    }
+                }
+            }
+        }
+
+        Map<String, CountryZones> zonesByCountry = new HashMap<>();
+        for (String country : union(prefixes.keySet(), countryDefaults.keySet())) {
+            List<Prefix> sorted = new ArrayList<>(prefixes.getOrDefault(country, List.of()));
+            sorted.sort(Comparator.comparingInt((Prefix prefix) -> prefix.value().length()).reversed());
+            zonesByCountry.put(country, new CountryZones(sorted.toArray(new Prefix[0]), countryDefaults.getOrDefault(country, -1)));
+        }
+        CountryZones anyCountry = zonesByCountry.remove(ANY_COUNTRY);
+
+        Map<ShippingMethod, RateCard>[] cards = new Map[zoneCodes.length];
+        for (int index = 0; index < cards.length; index++) {
+            cards[index] = new EnumMap<>(ShippingMethod.class);
+        }
+        for (RateTableDefinition.Rate rate : definition.rates()) {
+            Integer zone = zoneIndexes.get(rate.zone());
+            if (zone == null) {
+                throw new IllegalArgumentException("Rate for unknown zone " + rate.zone());
+            }
+            cards[zone].put(rate.method(), RateCard.of(rate, definition.currency()));
+        }
+        return new ShippingRateTable(version, definition.currency(), definition.dimensionalDivisor(),
+            definition.weightStepGrams(), zoneCodes, zonesByCountry, anyCountry, cards);
+    }
+
+    public long getVersion() {
+        return version;
+    }
+
+    /**
+     * @return the zone index for a destination, or -1 if the table does not ship there
+     */
+    public int zoneOf(String country, String postalCode) {
+        CountryZones zones = country != null ? zonesByCountry.get(country.toUpperCase(Locale.ROOT)) : null;
+        int zone = zones != null ? zones.resolve(postalCode) : -1;
+        return zone >= 0 || anyCountry == null ? zone : anyCountry.resolve(postalCode);
+    }
+
+    // The greater of actual and dimensional weight, rounded up to whole weight steps
+    public int weightStep(ShippingParcel parcel) {
+        long dimensionalGrams = parcel.cubicCentimetres() * 1000 / dimensionalDivisor;
+        long chargeable = Math.max(1, Math.max(parcel.grams(), dimensionalGrams));
+        return (int) Math.min(Integer.MAX_VALUE, (chargeable + weightStepGrams - 1) / weightStepGrams);
+    }
+
+    public Iterable<ShippingMethod> methods(int zone) {
+        return cards[zone].keySet();
+    }
+
+    public Optional<ShippingQuote> price(int zone, int weightStep, ShippingMethod method) {
+        RateCard card = cards[zone].get(method);
+        if (card == null) {
+            return Optional.empty();
+        }
+        long grams = (long) weightStep * weightStepGrams;
+        long priceMinor = card.priceMinor(grams);
+        if (priceMinor < 0) {
+            return Optional.empty();
+        }
+        return Optional.of(new ShippingQuote(method, zoneCodes[zone], grams, Money.ofMinor(priceMinor, currency),
+            card.transitDays(), version));
+    }
+
+    private static String normalize(String postalCode) {
+        return postalCode.replace(" ", "").replace("-", "").toUpperCase(Locale.ROOT);
+    }
+
+    private static List<String> union(Iterable<String> first, Iterable<String> second) {
+        List<String> all = new ArrayList<>();
+        first.forEach(all::add);
+        second.forEach(value -> {
+            if (!all.contains(value)) {
+                all.add(value);
+            }
+        });
+        return all;
+    }
+
+    private static long toGrams(BigDecimal kilograms) {
+        return kilograms.movePointRight(3).setScale(0, RoundingMode.CEILING).longValueExact();
+    }
+
+    private record Prefix(String value, int zone) {
+    }
+
+    private record CountryZones(Prefix[] prefixes, int defaultZone) {
+
+        int resolve(String postalCode) {
+            if (postalCode != null && prefixes.length > 0) {
+                String normalized = normalize(postalCode);
+                for (Prefix prefix : prefixes) {
+                    if (normalized.startsWith(prefix.value())) {
+                        return prefix.zone();
+                    }
+                }
+            }
+            return defaultZone;
+        }
+    }
+
+    private record RateCard(long[] upToGrams, long[] priceMinor, long extraPerKgMinor, int transitDays) {
+
+        // Minor units of the table's currency, as the quotes' Money expects
+        static RateCard of(RateTableDefinition.Rate rate, String currency) {
+            List<RateTableDefinition.Bracket> brackets = new ArrayList<>(rate.brackets());
+            brackets.sort(Comparator.comparing(RateTableDefinition.Bracket::upToKg));
+            long[] upToGrams = new long[brackets.size()];
+            long[] priceMinor = new long[brackets.size()];
+            for (int i = 0; i < brackets.size(); i++) {
+                upToGrams[i] = toGrams(brackets.get(i).upToKg());
+                priceMinor[i] = Money.toMinor(brackets.get(i).price(), currency);
+            }
+            return new RateCard(upToGrams, priceMinor,
+                rate.extraPerKg() != null ? Money.toMinor(rate.extraPerKg(), currency) : -1, rate.transitDays());
+        }
+
+        // -1 when the weight is above the last bracket and the rate has no per-kilogram extra
+        long priceMinor(long grams) {
+            int low = 0;
+            int high = upToGrams.length - 1;
+            while (low <= high) {
+                int mid = (low + high) >>> 1;
+                if (upToGrams[mid] < grams) {
+                    low = mid + 1;
+                } else {
+                    high = mid - 1;
+                }
+            }
+            if (low < upToGrams.length) {
+                return priceMinor[low];
+            }
+            if (extraPerKgMinor < 0 || upToGrams.length == 0) {
+                return -1;
+            }
+            long extraKilograms = (grams - upToGrams[upToGrams.length - 1] + 999) / 1000;
+            return priceMinor[priceMinor.length - 1] + extraKilograms * extraPerKgMinor;
+        }
+    }
+}
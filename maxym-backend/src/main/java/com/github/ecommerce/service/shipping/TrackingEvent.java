@@ -0,0 +1,13 @@
+package com.github.ecommerce.service.shipping;
+
+import com.github.ecommerce.entity.Shipping.ShippingStatus;
+
+import java.time.LocalDateTime;
+
+public record TrackingEvent(String trackingNumber, ShippingStatus status, LocalDateTime occurredAt) {
+
+    // Later carrier time wins; of two events with the same time, the one read last wins
+    public boolean supersedes(TrackingEvent other) {
+        return !occurredAt.isBefore(other.occurredAt);
+    }
+}
@@ -0,0 +1,168 @@
+package com.github.ecommerce.service.shipping;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.github.ecommerce.entity.Shipping.ShippingStatus;
+import com.github.ecommerce.exception.BusinessException;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.OffsetDateTime;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.time.temporal.TemporalAccessor;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.function.Consumer;
+
+/**
+ * Streams carrier tracking feeds into {@link TrackingEvent}s without holding the feed in
+ * memory. Two formats are read:
+ * <ul>
+ *   <li>JSON: an array of events, or an object with an {@code events} array, each event an
+ *   object with {@code trackingNumber}, {@code status} and {@code occurredAt}.</li>
+ *   <li>CSV: a header naming {@code tracking_number}, {@code status} and {@code occurred_at},
+ *   in any order, followed by one event per line.</li>
+ * </ul>
+ * Times are ISO-8601, with an offset or in the server's zone. Carrier status codes map onto
+ * {@link ShippingStatus}; events with a status that does not map are reported as skipped.
+ */
+public class TrackingFeedParser {
+
+    private static final JsonFactory JSON = new JsonFactory();
+
+    public enum Format {
+        JSON,
+        CSV;
+
+        public static Format of(String contentTypeOrFileName) {
+            String value = contentTypeOrFileName != null ? contentTypeOrFileName.toLowerCase(Locale.ROOT) : "";
+            return value.contains("csv") ? CSV : JSON;
+        }
+    }
+
+    /**
+     * @return the number of events skipped because their status or time could not be read
+     */
+    public static long parse(InputStream in, Format format, Consumer<TrackingEvent> events) throws IOException {
+        return format == Format.CSV ? parseCsv(in, events) : parseJson(in, events);
+    }
+
+    private static long parseJson(InputStream in, Consumer<TrackingEvent> events) throws IOException {
+        long skipped = 0;
+        try (JsonParser parser = JSON.createParser(in)) {
+            JsonToken token = parser.nextToken();
+            if (token == JsonToken.START_OBJECT) {
+                // Wrapped feed: move to the "events" array
+                while ((token = parser.nextToken()) == JsonToken.FIELD_NAME) {
+                    if ("events".equals(parser.getCurrentName())) {
+                        token = parser.nextToken();
+                        break;
+                    }
+                    parser.nextToken();
+                    parser.skipChildren();
+                }
+            }
+            if (token != JsonToken.START_ARRAY) {
+                throw new BusinessException("Tracking feed is neither an event array nor an object with one");
+            }
+            while (parser.nextToken() == JsonToken.START_OBJECT) {
+                String trackingNumber = null;
+                String status = null;
+                String occurredAt = null;
+                while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                    String field = parser.getCurrentName();
+                    parser.nextToken();
+                    switch (field) {
+                        case "trackingNumber" -> trackingNumber = parser.getValueAsString();
+                        case "status" -> status = parser.getValueAsString();
+                        case "occurredAt" -> occurredAt = parser.getValueAsString();
+                        default -> parser.skipChildren();
+                    }
+                }
+                skipped += emit(trackingNumber, status, occurredAt, events);
+            }
+        }
+        return skipped;
+    }
+
+    private static long parseCsv(InputStream in, Consumer<TrackingEvent> events) throws IOException {
+        long skipped = 0;
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8))) {
+            String header = reader.readLine();
+            if (header == null) {
+                return 0;
+            }
+            List<String> names = Arrays.stream((header.startsWith("\uFEFF") ? header.substring(1) : header).split(","))
+                .map(name -> name.trim().toLowerCase(Locale.ROOT))
+                .toList();
+            int trackingNumberColumn = require(names, "tracking_number");
+            int statusColumn = require(names, "status");
+            int occurredAtColumn = require(names, "occurred_at");
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (line.isBlank()) {
+                    continue;
+                }
+                String[] fields = line.split(",", -1);
+                if (fields.length < names.size()) {
+                    skipped++;
+                    continue;
+                }
+                skipped += emit(fields[trackingNumberColumn], fields[statusColumn], fields[occurredAtColumn], events);
+            }
+        }
+        return skipped;
+    }
+
+    private static int emit(String trackingNumber, String status, String occurredAt, Consumer<TrackingEvent> events) {
+        ShippingStatus mapped = status != null ? statusOf(status.trim()) : null;
+        LocalDateTime time = occurredAt != null ? timeOf(occurredAt.trim()) : null;
+        if (trackingNumber == null || trackingNumber.isBlank() || mapped == null || time == null) {
+            return 1;
+        }
+        events.accept(new TrackingEvent(trackingNumber.trim(), mapped, time));
+        return 0;
+    }
+
+    static ShippingStatus statusOf(String carrierStatus) {
+        return switch (carrierStatus.toUpperCase(Locale.ROOT).replace(' ', '_').replace('-', '_')) {
+            case "SHIPPED", "PICKED_UP", "ACCEPTED", "LABEL_SCANNED" -> ShippingStatus.SHIPPED;
+            case "IN_TRANSIT", "ARRIVED_AT_HUB", "DEPARTED_HUB", "CUSTOMS_CLEARED" -> ShippingStatus.IN_TRANSIT;
+            case "OUT_FOR_DELIVERY" -> ShippingStatus.OUT_FOR_DELIVERY;
+            case "DELIVERED", "PICKED_UP_BY_CUSTOMER" -> ShippingStatus.DELIVERED;
+            case "FAILED", "FAILED_ATTEMPT", "DELIVERY_FAILED", "EXCEPTION" -> ShippingStatus.FAILED;
+            case "RETURNED", "RETURNED_TO_SENDER" -> ShippingStatus.RETURNED;
+            default -> null;
+        };
+    }
+
+    private static LocalDateTime timeOf(String value) {
+        try {
+            TemporalAccessor parsed = DateTimeFormatter.ISO_DATE_TIME.parseBest(value, OffsetDateTime::from, LocalDateTime::from);
+            return parsed instanceof OffsetDateTime offset
+                ? offset.atZoneSameInstant(ZoneId.systemDefault()).toLocalDateTime()
+                : (LocalDateTime) parsed;
+        } catch (DateTimeParseException e) {
+            return null;
+        }
+    }
+
+    private static int require(List<String> names, String column) {
+        int index = names.indexOf(column);
+        if (index < 0) {
+            throw new BusinessException("Tracking feed has no '" + column + "' column");
+        }
+        return index;
+    }
+
+    private TrackingFeedParser() {
+    }
+}
@@ -0,0 +1,227 @@
+package com.github.ecommerce.service.shipping;
+
+import com.github.ecommerce.entity.Order.OrderStatus;
+import com.github.ecommerce.entity.OutboxEvent;
+import com.github.ecommerce.entity.Shipping.ShippingStatus;
+import com.github.ecommerce.service.OrderSummaryProjector;
+import com.github.ecommerce.service.outbox.OutboxWriter;
+import com.github.ecommerce.util.SnowflakeIdGenerator;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Applies carrier tracking feeds to shipments in bulk. The feed is parsed as a stream and
+ * gathered into chunks keyed by tracking number, so several events for one parcel collapse
+ * to the latest before anything is written. Each chunk is one transaction: the shipments and
+ * their orders are locked with a single query on {@code idx_shipping_tracking}, and
+ * {@code shipping}, {@code orders} and {@code order_summaries} are updated with JDBC batches.
+ * Orders follow their shipment to SHIPPED or DELIVERED in the same transaction, as
+ * {@link com.github.ecommerce.service.OrderTransitionService} would move them.
+ * <p>
+ * An event is skipped when the shipment already holds a later carrier time, or when its
+ * status would reopen a finished shipment (see {@link ShippingStatus#acceptsCarrierUpdate}),
+ * so replaying a feed or receiving events out of order is harmless.
+ */
+@Service
+@Slf4j
+public class TrackingIngestionService {
+
+    private static final String LOCK_SHIPMENTS =
+        "SELECT s.id, s.order_id, s.tracking_number, s.status, s.tracking_updated_at, o.status AS order_status " +
+        "FROM shipping s JOIN orders o ON o.id = s.order_id WHERE s.tracking_number IN (:trackingNumbers) FOR UPDATE";
+
+    private static final String UPDATE_SHIPMENT =
+        "UPDATE shipping SET status = ?, tracking_updated_at = ?, shipped_at = COALESCE(shipped_at, ?), " +
+        "delivered_at = COALESCE(delivered_at, ?), actual_delivery_date = COALESCE(actual_delivery_date, ?), " +
+        "updated_at = ? WHERE id = ?";
+
+    // Mirrors Order#updateStatusTimestamps; an order delivered straight from PAID gets both timestamps
+    private static final String UPDATE_ORDER =
+        "UPDATE orders SET status = ?, shipped_at = COALESCE(shipped_at, ?), delivered_at = COALESCE(delivered_at, ?), " +
+        "tracking_number = COALESCE(tracking_number, ?), updated_at = ? WHERE id = ?";
+
+    private final NamedParameterJdbcTemplate namedJdbcTemplate;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final OrderSummaryProjector orderSummaryProjector;
+    private final OutboxWriter outboxWriter;
+    private final MeterRegistry meterRegistry;
+
+    @Value("${app.shipping.tracking.chunk-size:1000}")
+    private int chunkSize;
+
+    public TrackingIngestionService(NamedParameterJdbcTemplate namedJdbcTemplate,
+                                    TransactionTemplate transactionTemplate,
+                                    OrderSummaryProjector orderSummaryProjector,
+                                    OutboxWriter outboxWriter,
+                                    MeterRegistry meterRegistry) {
+        this.namedJdbcTemplate = namedJdbcTemplate;
+        this.jdbcTemplate = namedJdbcTemplate.getJdbcTemplate();
+        this.transactionTemplate = transactionTemplate;
+        this.orderSummaryProjector = orderSummaryProjector;
+        this.outboxWriter = outboxWriter;
+        this.meterRegistry = meterRegistry;
+    }
+
+    public TrackingIngestionSummary ingest(InputStream feed, TrackingFeedParser.Format format) throws IOException {
+        long started = System.nanoTime();
+        long batchId = SnowflakeIdGenerator.getInstance().nextId();
+        Counts counts = new Counts();
+        Map<String, TrackingEvent> pending = new LinkedHashMap<>();
+        long skipped = TrackingFeedParser.parse(feed, format, event -> {
+            counts.events++;
+            pending.merge(event.trackingNumber(), event, (current, next) -> next.supersedes(current) ? next : current);
+            if (pending.size() >= chunkSize) {
+                applyChunk(batchId, pending.values(), counts);
+                pending.clear();
+            }
+        });
+        if (!pending.isEmpty()) {
+            applyChunk(batchId, pending.values(), counts);
+        }
+
+        long durationNanos = System.nanoTime() - started;
+        meterRegistry.timer("shipping.tracking.ingest.duration").record(durationNanos, TimeUnit.NANOSECONDS);
+        meterRegistry.counter("shipping.tracking.events", "result", "applied").increment(counts.updated);
+        meterRegistry.counter("shipping.tracking.events", "result", "stale").increment(counts.stale);
+        meterRegistry.counter("shipping.tracking.events", "result", "unmatched").increment(counts.unmatched);
+        meterRegistry.counter("shipping.tracking.events", "result", "skipped").increment(skipped);
+        TrackingIngestionSummary summary = new TrackingIngestionSummary(batchId, counts.events, skipped, counts.updated,
+            counts.stale, counts.unmatched, counts.shipped, counts.delivered, Duration.ofNanos(durationNanos));
+        log.info("Tracking feed {}: {}", batchId, summary);
+        return summary;
+    }
+
+    private void applyChunk(long batchId, Collection<TrackingEvent> events, Counts counts) {
+        transactionTemplate.executeWithoutResult(status -> {
+            MapSqlParameterSource params = new MapSqlParameterSource()
+                .addValue("trackingNumbers", events.stream().map(TrackingEvent::trackingNumber).toList());
+            Map<String, List<LockedShipment>> shipments = new HashMap<>();
+            namedJdbcTemplate.query(LOCK_SHIPMENTS, params, (rs, rowNum) -> {
+                    Timestamp trackingUpdatedAt = rs.getTimestamp("tracking_updated_at");
+                    return new LockedShipment(rs.getLong("id"), rs.getLong("order_id"), rs.getString("tracking_number"),
+                        ShippingStatus.valueOf(rs.getString("status")),
+                        trackingUpdatedAt != null ? trackingUpdatedAt.toLocalDateTime() : null,
+                        OrderStatus.valueOf(rs.getString("order_status")));
+                })
+                .forEach(shipment -> shipments.computeIfAbsent(shipment.trackingNumber(), k -> new ArrayList<>(1)).add(shipment));
+
+            Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+            List<Object[]> shipmentRows = new ArrayList<>(events.size());
+            List<Object[]> orderRows = new ArrayList<>();
+            Map<Long, String> shippedOrders = new LinkedHashMap<>();
+            Map<Long, String> deliveredOrders = new LinkedHashMap<>();
+            List<Long> otherOrders = new ArrayList<>();
+            for (TrackingEvent event : events) {
+                List<LockedShipment> matched = shipments.get(event.trackingNumber());
+                if (matched == null) {
+                    counts.unmatched++;
+                    continue;
+                }
+                for (LockedShipment shipment : matched) {
+                    if (!shipment.accepts(event)) {
+                        counts.stale++;
+                        continue;
+                    }
+                    Timestamp occurredAt = Timestamp.valueOf(event.occurredAt());
+                    boolean delivered = event.status() == ShippingStatus.DELIVERED;
+                    shipmentRows.add(new Object[] {
+                        event.status().name(),
+                        occurredAt,
+                        event.status().hasLeftWarehouse() ? occurredAt : null,
+                        delivered ? occurredAt : null,
+                        delivered ? occurredAt : null,
+                        now,
+                        shipment.id()
+                    });
+
+                    OrderStatus target = orderTarget(shipment.orderStatus(), event.status());
+                    if (target == null) {
+                        otherOrders.add(shipment.orderId());
+                        continue;
+                    }
+                    orderRows.add(new Object[] {
+                        target.name(), occurredAt, delivered ? occurredAt : null, event.trackingNumber(), now, shipment.orderId()});
+                    (target == OrderStatus.DELIVERED ? deliveredOrders : shippedOrders).put(shipment.orderId(), event.trackingNumber());
+                }
+            }
+
+            if (!shipmentRows.isEmpty()) {
+                jdbcTemplate.batchUpdate(UPDATE_SHIPMENT, shipmentRows);
+            }
+            if (!orderRows.isEmpty()) {
+                jdbcTemplate.batchUpdate(UPDATE_ORDER, orderRows);
+            }
+            ordersMoved(batchId, OrderStatus.SHIPPED, shippedOrders);
+            ordersMoved(batchId, OrderStatus.DELIVERED, deliveredOrders);
+            if (!otherOrders.isEmpty()) {
+                orderSummaryProjector.shippingStatusesChanged(otherOrders);
+            }
+
+            counts.updated += shipmentRows.size();
+            counts.shipped += shippedOrders.size();
+            counts.delivered += deliveredOrders.size();
+        });
+    }
+
+    private void ordersMoved(long batchId, OrderStatus target, Map<Long, String> trackingNumbers) {
+        if (trackingNumbers.isEmpty()) {
+            return;
+        }
+        orderSummaryProjector.statusChanged(target, trackingNumbers);
+        Map<String, Object> payload = new HashMap<>();
+        payload.put("batchId", batchId);
+        payload.put("status", target);
+        payload.put("orderIds", List.copyOf(trackingNumbers.keySet()));
+        outboxWriter.append(OutboxEvent.AGGREGATE_ORDER_BATCH, batchId, OutboxEvent.ORDER_BATCH_TRANSITIONED, payload);
+    }
+
+    // The order status a shipment update implies, or null if the order stays where it is
+    private static OrderStatus orderTarget(OrderStatus order, ShippingStatus shipment) {
+        if (shipment == ShippingStatus.DELIVERED
+            && (order.canTransitionTo(OrderStatus.DELIVERED) || order.canTransitionTo(OrderStatus.SHIPPED))) {
+            return OrderStatus.DELIVERED;
+        }
+        if (shipment.hasLeftWarehouse() && order.canTransitionTo(OrderStatus.SHIPPED)) {
+            return OrderStatus.SHIPPED;
+        }
+        return null;
+    }
+
+    private record LockedShipment(long id, long orderId, String trackingNumber, ShippingStatus status,
+                                  LocalDateTime trackingUpdatedAt, OrderStatus orderStatus) {
+
+        boolean accepts(TrackingEvent event) {
+            return (trackingUpdatedAt == null || event.occurredAt().isAfter(trackingUpdatedAt))
+                && status.acceptsCarrierUpdate(event.status());
+        }
+    }
+
+    private static final class Counts {
+        long events;
+        long updated;
+        long stale;
+        long unmatched;
+        long shipped;
+        long delivered;
+    }
+}
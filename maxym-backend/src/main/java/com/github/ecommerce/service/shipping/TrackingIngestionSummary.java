@@ -0,0 +1,14 @@
+package com.github.ecommerce.service.shipping;
+
+import java.time.Duration;
+
+public record TrackingIngestionSummary(long batchId,
+                                       long events,
+                                       long skipped,
+                                       long shipmentsUpdated,
+                                       long stale,
+                                       long unmatched,
+                                       long ordersShipped,
+                                       long ordersDelivered,
+                                       Duration elapsed) {
+}
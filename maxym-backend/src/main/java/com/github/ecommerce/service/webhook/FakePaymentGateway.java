@@ -0,0 +1,81 @@
+package com.github.ecommerce.service.webhook;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import org.springframework.http.HttpHeaders;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.UUID;
+
+/**
+ * Local stand-in for a payment gateway, enabled with {@code app.webhooks.fake-gateway.enabled}.
+ * It builds Stripe-shaped events for a transaction, signs them with its own secret and feeds
+ * them through the same ingestion path as real webhooks, so load tests exercise signature
+ * checks, de-duplication and per-transaction ordering without a gateway account.
+ */
+public class FakePaymentGateway {
+
+    public static final String PROVIDER = "fake";
+
+    private final String secret;
+    private final PaymentWebhookIngestor ingestor;
+    private final ObjectMapper objectMapper;
+
+    public FakePaymentGateway(String secret, PaymentWebhookIngestor ingestor, ObjectMapper objectMapper) {
+        this.secret = secret;
+        this.ingestor = ingestor;
+        this.objectMapper = objectMapper;
+    }
+
+    public Delivery succeeded(String transactionId) {
+        return send(event("payment_intent.succeeded", transactionId, 0, 0));
+    }
+
+    public Delivery failed(String transactionId) {
+        return send(event("payment_intent.payment_failed", transactionId, 0, 0));
+    }
+
+    public Delivery refunded(String transactionId, long amountMinor, long refundedMinor) {
+        return send(event("charge.refunded", transactionId, amountMinor, refundedMinor));
+    }
+
+    /**
+     * Sends an event body again with a fresh signature, the way a gateway retries a delivery
+     * it did not see acknowledged.
+     */
+    public Delivery redeliver(Delivery delivery) {
+        return send(delivery.body());
+    }
+
+    private byte[] event(String type, String transactionId, long amountMinor, long refundedMinor) {
+        ObjectNode event = objectMapper.createObjectNode();
+        event.put("id", "evt_" + UUID.randomUUID().toString().replace("-", ""));
+        event.put("type", type);
+        event.put("created", System.currentTimeMillis() / 1000);
+        ObjectNode object = event.putObject("data").putObject("object");
+        if (type.startsWith("charge.")) {
+            object.put("id", "ch_" + UUID.randomUUID().toString().replace("-", ""));
+            object.put("payment_intent", transactionId);
+            object.put("amount", amountMinor);
+            object.put("amount_refunded", refundedMinor);
+        } else {
+            object.put("id", transactionId);
+        }
+        try {
+            return objectMapper.writeValueAsBytes(event);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private Delivery send(byte[] body) {
+        HttpHeaders headers = new HttpHeaders();
+        headers.set(StripeWebhookProvider.SIGNATURE_HEADER,
+            StripeWebhookProvider.signatureHeader(secret, System.currentTimeMillis() / 1000, body));
+        return new Delivery(body, ingestor.ingest(PROVIDER, headers, body));
+    }
+
+    public record Delivery(byte[] body, PaymentWebhookIngestor.Result result) {
+    }
+}
@@ -0,0 +1,150 @@
+package com.github.ecommerce.service.webhook;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.ecommerce.entity.Payment.PaymentStatus;
+import com.github.ecommerce.exception.WebhookSignatureException;
+import org.springframework.http.HttpHeaders;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.Signature;
+import java.security.cert.CertificateFactory;
+import java.security.cert.X509Certificate;
+import java.time.Duration;
+import java.util.Base64;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.zip.CRC32;
+
+/**
+ * Verifies PayPal transmission signatures offline: the {@code PAYPAL-TRANSMISSION-SIG} header is
+ * a SHA256withRSA signature of {@code "<transmission id>|<transmission time>|<webhook id>|<crc32 of
+ * body>"}, checked against the certificate named by {@code PAYPAL-CERT-URL}. Certificates are
+ * fetched once per url and only from paypal.com, so after the first event no request leaves
+ * the process; the verify-webhook-signature API would add a round trip to every webhook.
+ */
+public class PayPalWebhookProvider implements PaymentWebhookProvider {
+
+    private static final int MAX_CACHED_CERTIFICATES = 32;
+
+    private final String webhookId;
+    private final ObjectMapper objectMapper;
+    private final HttpClient httpClient;
+    private final Map<String, X509Certificate> certificates = new ConcurrentHashMap<>();
+
+    public PayPalWebhookProvider(String webhookId, ObjectMapper objectMapper) {
+        this.webhookId = webhookId;
+        this.objectMapper = objectMapper;
+        this.httpClient = HttpClient.newBuilder().connectTimeout(Duration.ofSeconds(2)).build();
+    }
+
+    @Override
+    public String name() {
+        return "paypal";
+    }
+
+    @Override
+    public WebhookEnvelope verify(HttpHeaders headers, byte[] body) {
+        if (webhookId == null || webhookId.isBlank()) {
+            throw new WebhookSignatureException("No PayPal webhook id configured");
+        }
+        String transmissionId = headers.getFirst("PAYPAL-TRANSMISSION-ID");
+        String transmissionTime = headers.getFirst("PAYPAL-TRANSMISSION-TIME");
+        String transmissionSig = headers.getFirst("PAYPAL-TRANSMISSION-SIG");
+        String certUrl = headers.getFirst("PAYPAL-CERT-URL");
+        if (transmissionId == null || transmissionTime == null || transmissionSig == null || certUrl == null) {
+            throw new WebhookSignatureException("Missing PayPal transmission headers");
+        }
+
+        CRC32 crc = new CRC32();
+        crc.update(body);
+        String signed = transmissionId + "|" + transmissionTime + "|" + webhookId + "|" + crc.getValue();
+        try {
+            Signature signature = Signature.getInstance("SHA256withRSA");
+            signature.initVerify(certificate(certUrl));
+            signature.update(signed.getBytes(StandardCharsets.UTF_8));
+            if (!signature.verify(Base64.getDecoder().decode(transmissionSig))) {
+                throw new WebhookSignatureException("Signature does not match");
+            }
+        } catch (GeneralSecurityException | IllegalArgumentException e) {
+            throw new WebhookSignatureException("Signature could not be verified", e);
+        }
+        return parse(body);
+    }
+
+    private X509Certificate certificate(String certUrl) {
+        X509Certificate cached = certificates.get(certUrl);
+        if (cached != null) {
+            return cached;
+        }
+        URI uri = URI.create(certUrl);
+        if (!"https".equals(uri.getScheme()) || uri.getHost() == null || !uri.getHost().endsWith(".paypal.com")) {
+            throw new WebhookSignatureException("Certificate url is not a PayPal url");
+        }
+        try {
+            HttpResponse<InputStream> response = httpClient.send(
+                HttpRequest.newBuilder(uri).timeout(Duration.ofSeconds(2)).GET().build(),
+                HttpResponse.BodyHandlers.ofInputStream());
+            X509Certificate certificate;
+            try (InputStream in = response.body()) {
+                certificate = (X509Certificate) CertificateFactory.getInstance("X.509").generateCertificate(in);
+            }
+            certificate.checkValidity();
+            if (certificates.size() < MAX_CACHED_CERTIFICATES) {
+                certificates.put(certUrl, certificate);
+            }
+            return certificate;
+        } catch (IOException | GeneralSecurityException e) {
+            throw new WebhookSignatureException("PayPal certificate could not be loaded", e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new WebhookSignatureException("Interrupted while loading the PayPal certificate", e);
+        }
+    }
+
+    private WebhookEnvelope parse(byte[] body) {
+        JsonNode event;
+        try {
+            event = objectMapper.readTree(body);
+        } catch (IOException e) {
+            throw new WebhookSignatureException("Signed payload is not valid JSON", e);
+        }
+        String eventId = event.path("id").asText();
+        if (eventId.isEmpty()) {
+            throw new WebhookSignatureException("Signed payload has no event id");
+        }
+        String type = event.path("event_type").asText();
+        JsonNode resource = event.path("resource");
+        return new WebhookEnvelope(eventId, type, captureIdOf(type, resource), statusOf(type));
+    }
+
+    // Refund resources link back to the capture they refund, which is what payments store
+    private static String captureIdOf(String type, JsonNode resource) {
+        if (type.equals("PAYMENT.CAPTURE.REFUNDED")) {
+            for (JsonNode link : resource.path("links")) {
+                String href = link.path("href").asText();
+                if ("up".equals(link.path("rel").asText()) && href.contains("/captures/")) {
+                    return href.substring(href.lastIndexOf('/') + 1);
+                }
+            }
+        }
+        return resource.path("id").asText(null);
+    }
+
+    private static PaymentStatus statusOf(String type) {
+        return switch (type) {
+            case "PAYMENT.CAPTURE.PENDING" -> PaymentStatus.PROCESSING;
+            case "PAYMENT.CAPTURE.COMPLETED" -> PaymentStatus.COMPLETED;
+            case "PAYMENT.CAPTURE.DENIED", "PAYMENT.CAPTURE.DECLINED" -> PaymentStatus.FAILED;
+            case "PAYMENT.CAPTURE.REFUNDED", "PAYMENT.CAPTURE.REVERSED" -> PaymentStatus.REFUNDED;
+            default -> null;
+        };
+    }
+}
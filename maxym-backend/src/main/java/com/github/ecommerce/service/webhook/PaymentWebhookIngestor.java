@@ -0,0 +1,87 @@
+package com.github.ecommerce.service.webhook;
+
+import com.github.ecommerce.exception.WebhookSignatureException;
+import com.github.ecommerce.util.SnowflakeIdGenerator;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpHeaders;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+
+import java.nio.charset.StandardCharsets;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Request-thread half of webhook handling: verify the signature, append the raw event to
+ * {@code webhook_events} with one auto-committed insert, and return. Nothing here touches
+ * payments or orders, so the acknowledgement time does not depend on downstream load.
+ * Redeliveries of an event id are absorbed by {@code INSERT IGNORE} on the unique key.
+ */
+@Service
+@Slf4j
+public class PaymentWebhookIngestor {
+
+    private static final String INSERT_EVENT =
+        "INSERT IGNORE INTO webhook_events (id, provider, event_id, event_type, transaction_id, payment_status, " +
+        "payload, received_at, attempts, available_at) VALUES (?, ?, ?, ?, ?, ?, ?, ?, 0, ?)";
+
+    private final Map<String, PaymentWebhookProvider> providers = new HashMap<>();
+    private final JdbcTemplate jdbcTemplate;
+    private final MeterRegistry meterRegistry;
+    private final Timer ingestTimer;
+
+    public PaymentWebhookIngestor(List<PaymentWebhookProvider> providers, JdbcTemplate jdbcTemplate, MeterRegistry meterRegistry) {
+        providers.forEach(provider -> this.providers.put(provider.name(), provider));
+        this.jdbcTemplate = jdbcTemplate;
+        this.meterRegistry = meterRegistry;
+        this.ingestTimer = Timer.builder("webhooks.ingest.duration")
+            .publishPercentiles(0.5, 0.99)
+            .register(meterRegistry);
+        log.info("Accepting payment webhooks from {}", this.providers.keySet());
+    }
+
+    public Result ingest(String provider, HttpHeaders headers, byte[] body) {
+        PaymentWebhookProvider webhookProvider = providers.get(provider);
+        if (webhookProvider == null) {
+            return Result.UNKNOWN_PROVIDER;
+        }
+        long started = System.nanoTime();
+        String outcome = "ERROR";
+        try {
+            WebhookEnvelope envelope = webhookProvider.verify(headers, body);
+            Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+            int inserted = jdbcTemplate.update(INSERT_EVENT,
+                SnowflakeIdGenerator.getInstance().nextId(),
+                provider,
+                envelope.eventId(),
+                envelope.eventType(),
+                envelope.transactionId(),
+                envelope.paymentStatus() != null ? envelope.paymentStatus().name() : null,
+                new String(body, StandardCharsets.UTF_8),
+                now,
+                now);
+            Result result = inserted > 0 ? Result.ACCEPTED : Result.DUPLICATE;
+            outcome = result.name();
+            return result;
+        } catch (WebhookSignatureException e) {
+            outcome = "REJECTED";
+            log.warn("Rejected {} webhook: {}", provider, e.getMessage());
+            throw e;
+        } finally {
+            ingestTimer.record(System.nanoTime() - started, TimeUnit.NANOSECONDS);
+            meterRegistry.counter("webhooks.received", "provider", provider, "result", outcome).increment();
+        }
+    }
+
+    public enum Result {
+        ACCEPTED,
+        DUPLICATE,
+        UNKNOWN_PROVIDER
+    }
+}
@@ -0,0 +1,113 @@
+package com.github.ecommerce.service.webhook;
+
+import com.github.ecommerce.entity.Payment;
+import com.github.ecommerce.entity.WebhookEvent.Outcome;
+import com.github.ecommerce.repository.PaymentRepository;
+import com.github.ecommerce.service.payment.PaymentStatusApplier;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Applies a lane of queued webhook events to payments, and through them to orders. The whole
+ * lane is one transaction: the payments are loaded with one query, the events are applied in
+ * id order in memory, and the changed rows flush as JDBC batches together with the updates
+ * that mark the events done. A status never moves backwards, so events that arrive out of
+ * order, or after a newer status was reached another way, are recorded as stale.
+ */
+@Service
+@RequiredArgsConstructor
+public class PaymentWebhookProcessor {
+
+    private final PaymentRepository paymentRepository;
+    private final PaymentStatusApplier statusApplier;
+    private final JdbcTemplate jdbcTemplate;
+
+    @Value("${app.webhooks.max-attempts:10}")
+    private int maxAttempts;
+
+    @Value("${app.webhooks.retry-delay-seconds:30}")
+    private long retryDelaySeconds;
+
+    @Transactional
+    public void applyBatch(List<PendingWebhook> events) {
+        Set<String> transactionIds = new HashSet<>();
+        for (PendingWebhook event : events) {
+            if (event.transactionId() != null && event.paymentStatus() != null) {
+                transactionIds.add(event.transactionId());
+            }
+        }
+        Map<String, Payment> payments = new HashMap<>();
+        if (!transactionIds.isEmpty()) {
+            paymentRepository.findAllWithOrderByTransactionIdIn(transactionIds)
+                .forEach(payment -> payments.put(payment.getTransactionId(), payment));
+        }
+
+        LocalDateTime now = LocalDateTime.now();
+        List<Object[]> processed = new ArrayList<>(events.size());
+        List<Object[]> deferred = new ArrayList<>();
+        for (PendingWebhook event : events) {
+            Outcome outcome;
+            if (event.paymentStatus() == null || event.transactionId() == null) {
+                outcome = Outcome.IGNORED;
+            } else {
+                Payment payment = payments.get(event.transactionId());
+                if (payment == null && event.attempts() + 1 < maxAttempts) {
+                    // The webhook can beat the commit that stores the transaction id; try again later
+                    int attempts = event.attempts() + 1;
+                    deferred.add(new Object[] {attempts, Timestamp.valueOf(now.plusSeconds(retryDelaySeconds * attempts)), event.id()});
+                    continue;
+                }
+                outcome = payment == null ? Outcome.UNMATCHED : apply(payment, event);
+            }
+            processed.add(new Object[] {outcome.name(), Timestamp.valueOf(now), event.id()});
+        }
+
+        if (!processed.isEmpty()) {
+            jdbcTemplate.batchUpdate(
+                "UPDATE webhook_events SET outcome = ?, processed_at = ?, attempts = attempts + 1 WHERE id = ?", processed);
+        }
+        if (!deferred.isEmpty()) {
+            jdbcTemplate.batchUpdate("UPDATE webhook_events SET attempts = ?, available_at = ? WHERE id = ?", deferred);
+        }
+    }
+
+    /**
+     * Pushes back a lane whose batch failed, so the dispatcher does not retry it in a tight
+     * loop. Events that keep failing are given up on with the {@code FAILED} outcome.
+     */
+    @Transactional
+    public void deferFailed(List<PendingWebhook> events) {
+        LocalDateTime now = LocalDateTime.now();
+        List<Object[]> rows = new ArrayList<>(events.size());
+        for (PendingWebhook event : events) {
+            int attempts = event.attempts() + 1;
+            rows.add(new Object[] {
+                attempts,
+                Timestamp.valueOf(now.plusSeconds(retryDelaySeconds * attempts)),
+                attempts >= maxAttempts ? Timestamp.valueOf(now) : null,
+                attempts >= maxAttempts ? Outcome.FAILED.name() : null,
+                event.id()
+            });
+        }
+        jdbcTemplate.batchUpdate(
+            "UPDATE webhook_events SET attempts = ?, available_at = ?, processed_at = ?, outcome = ? WHERE id = ?", rows);
+    }
+
+    private Outcome apply(Payment payment, PendingWebhook event) {
+        return statusApplier.apply(payment, event.paymentStatus(), event.eventId(), event.eventType())
+            ? Outcome.APPLIED
+            : Outcome.STALE;
+    }
+}
@@ -0,0 +1,16 @@
+package com.github.ecommerce.service.webhook;
+
+import com.github.ecommerce.exception.WebhookSignatureException;
+import org.springframework.http.HttpHeaders;
+
+/**
+ * Gateway-specific half of webhook ingestion: checks the signature of a raw request body and
+ * extracts the envelope. Implementations must stay cheap, since they run on the request thread.
+ */
+public interface PaymentWebhookProvider {
+
+    // Path segment under /api/webhook and value of webhook_events.provider
+    String name();
+
+    WebhookEnvelope verify(HttpHeaders headers, byte[] body) throws WebhookSignatureException;
+}
@@ -0,0 +1,17 @@
+package com.github.ecommerce.service.webhook;
+
+import com.github.ecommerce.entity.Payment;
+
+public record PendingWebhook(long id,
+                             String provider,
+                             String eventId,
+                             String eventType,
+                             String transactionId,
+                             Payment.PaymentStatus paymentStatus,
+                             int attempts) {
+
+    // Events of one transaction always share a lane, which keeps them in order
+    public String orderingKey() {
+        return transactionId != null ? transactionId : eventId;
+    }
+}
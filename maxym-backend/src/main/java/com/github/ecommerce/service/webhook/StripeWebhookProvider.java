@@ -0,0 +1,134 @@
+package com.github.ecommerce.service.webhook;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.ecommerce.entity.Payment.PaymentStatus;
+import com.github.ecommerce.exception.WebhookSignatureException;
+import com.google.common.hash.HashFunction;
+import com.google.common.hash.Hashing;
+import org.springframework.http.HttpHeaders;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Verifies the {@code Stripe-Signature} header: an HMAC-SHA256 of {@code "<t>.<body>"} under the
+ * endpoint secret, with the timestamp {@code t} within the tolerance window to stop replays.
+ * The local fake gateway signs its events the same way with its own secret.
+ */
+public class StripeWebhookProvider implements PaymentWebhookProvider {
+
+    public static final String SIGNATURE_HEADER = "Stripe-Signature";
+
+    private final String name;
+    private final HashFunction hmac;
+    private final long toleranceSeconds;
+    private final ObjectMapper objectMapper;
+
+    public StripeWebhookProvider(String name, String secret, long toleranceSeconds, ObjectMapper objectMapper) {
+        this.name = name;
+        this.hmac = secret == null || secret.isBlank() ? null : Hashing.hmacSha256(secret.getBytes(StandardCharsets.UTF_8));
+        this.toleranceSeconds = toleranceSeconds;
+        this.objectMapper = objectMapper;
+    }
+
+    @Override
+    public String name() {
+        return name;
+    }
+
+    @Override
+    public WebhookEnvelope verify(HttpHeaders headers, byte[] body) {
+        if (hmac == null) {
+            throw new WebhookSignatureException("No webhook secret configured for " + name);
+        }
+        String header = headers.getFirst(SIGNATURE_HEADER);
+        if (header == null) {
+            throw new WebhookSignatureException("Missing " + SIGNATURE_HEADER + " header");
+        }
+
+        String timestamp = null;
+        List<String> signatures = new ArrayList<>(2);
+        for (String part : header.split(",")) {
+            if (part.startsWith("t=")) {
+                timestamp = part.substring(2);
+            } else if (part.startsWith("v1=")) {
+                signatures.add(part.substring(3));
+            }
+        }
+        long age;
+        try {
+            age = Math.abs(System.currentTimeMillis() / 1000 - Long.parseLong(timestamp));
+        } catch (NumberFormatException e) {
+            // Also covers a missing timestamp, as parseLong(null) throws it too
+            throw new WebhookSignatureException("Signature header has no valid timestamp");
+        }
+        if (age > toleranceSeconds) {
+            throw new WebhookSignatureException("Signature timestamp outside the tolerance window");
+        }
+
+        byte[] expected = sign(hmac, timestamp, body).getBytes(StandardCharsets.US_ASCII);
+        boolean matched = false;
+        for (String signature : signatures) {
+            matched |= MessageDigest.isEqual(expected, signature.getBytes(StandardCharsets.US_ASCII));
+        }
+        if (!matched) {
+            throw new WebhookSignatureException("Signature does not match");
+        }
+        return parse(body);
+    }
+
+    /**
+     * Builds a {@code Stripe-Signature} header value for {@code body}, as the gateway would.
+     */
+    public static String signatureHeader(String secret, long timestampSeconds, byte[] body) {
+        String timestamp = Long.toString(timestampSeconds);
+        HashFunction hmac = Hashing.hmacSha256(secret.getBytes(StandardCharsets.UTF_8));
+        return "t=" + timestamp + ",v1=" + sign(hmac, timestamp, body);
+    }
+
+    private static String sign(HashFunction hmac, String timestamp, byte[] body) {
+        return hmac.newHasher()
+            .putString(timestamp, StandardCharsets.UTF_8)
+            .putByte((byte) '.')
+            .putBytes(body)
+            .hash()
+            .toString();
+    }
+
+    private WebhookEnvelope parse(byte[] body) {
+        JsonNode event;
+        try {
+            event = objectMapper.readTree(body);
+        } catch (IOException e) {
+            throw new WebhookSignatureException("Signed payload is not valid JSON", e);
+        }
+        String eventId = event.path("id").asText();
+        if (eventId.isEmpty()) {
+            throw new WebhookSignatureException("Signed payload has no event id");
+        }
+        String type = event.path("type").asText();
+        JsonNode object = event.path("data").path("object");
+        // Charge events point at their payment intent, which is what payments store
+        String transactionId = object.path("payment_intent").isTextual()
+            ? object.path("payment_intent").asText()
+            : object.path("id").asText(null);
+        return new WebhookEnvelope(eventId, type, transactionId, statusOf(type, object));
+    }
+
+    private static PaymentStatus statusOf(String type, JsonNode object) {
+        return switch (type) {
+            case "payment_intent.processing" -> PaymentStatus.PROCESSING;
+            case "payment_intent.succeeded" -> PaymentStatus.COMPLETED;
+            case "payment_intent.payment_failed" -> PaymentStatus.FAILED;
+            case "payment_intent.canceled" -> PaymentStatus.CANCELLED;
+            case "charge.refunded" -> object.path("amount_refunded").asLong() < object.path("amount").asLong()
+                ? PaymentStatus.PARTIALLY_REFUNDED
+                : PaymentStatus.REFUNDED;
+            default -> null;
+        };
+    }
+}
@@ -0,0 +1,14 @@
+package com.github.ecommerce.service.webhook;
+
+import com.github.ecommerce.entity.Payment;
+
+/**
+ * The parts of a verified webhook the queue needs: the gateway's event id for de-duplication,
+ * the transaction id that orders processing, and the payment status the event maps to (null
+ * when the event type does not change a payment).
+ */
+public record WebhookEnvelope(String eventId,
+                              String eventType,
+                              String transactionId,
+                              Payment.PaymentStatus paymentStatus) {
+}
@@ -0,0 +1,226 @@
+package com.github.ecommerce.util;
+
+import java.io.Serializable;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.Currency;
+
+/**
+ * Fixed-point monetary amount: a {@code long} count of minor units plus a currency. A minor
+ * unit is what the currency's fraction digits make it: a cent for EUR, a yen for JPY, a fils
+ * for BHD.
+ * <p>
+ * Arithmetic works on the {@code long} directly and every operation that can lose precision
+ * takes an explicit {@link RoundingPolicy}. The static {@code *Minor} helpers do the same on
+ * bare minor units of the same scale, so hot loops can accumulate totals without creating any
+ * objects and convert to {@link BigDecimal} once; the forms without a currency code use
+ * {@link #DEFAULT_CURRENCY}.
+ */
+public final class Money implements Comparable<Money>, Serializable {
+
+    public static final String DEFAULT_CURRENCY = "EUR";
+
+    private static final int DEFAULT_DIGITS = fractionDigits(DEFAULT_CURRENCY);
+
+    private static final long BASIS_POINTS = 10_000;
+
+    private final long minorUnits;
+    private final Currency currency;
+
+    private Money(long minorUnits, Currency currency) {
+        this.minorUnits = minorUnits;
+        this.currency = currency;
+    }
+
+    public static Money ofMinor(long minorUnits, String currencyCode) {
+        return new Money(minorUnits, Currency.getInstance(currencyCode));
+    }
+
+    public static Money of(BigDecimal amount, String currencyCode) {
+        return of(amount, currencyCode, RoundingPolicy.HALF_UP);
+    }
+
+    public static Money of(BigDecimal amount, String currencyCode, RoundingPolicy rounding) {
+        return new Money(toMinor(amount, fractionDigits(currencyCode), rounding), Currency.getInstance(currencyCode));
+    }
+
+    public static Money zero(String currencyCode) {
+        return ofMinor(0, currencyCode);
+    }
+
+    public Money plus(Money other) {
+        requireSameCurrency(other);
+        return new Money(Math.addExact(minorUnits, other.minorUnits), currency);
+    }
+
+    public Money minus(Money other) {
+        requireSameCurrency(other);
+        return new Money(Math.subtractExact(minorUnits, other.minorUnits), currency);
+    }
+
+    public Money times(long quantity) {
+        return new Money(Math.multiplyExact(minorUnits, quantity), currency);
+    }
+
+    /**
+     * Share of this amount given in basis points (1/100 of a percent), e.g. 1250 for 12.5%.
+     */
+    public Money percentage(long basisPoints, RoundingPolicy rounding) {
+        return new Money(percentageMinor(minorUnits, basisPoints, rounding), currency);
+    }
+
+    public Money negate() {
+        return new Money(Math.negateExact(minorUnits), currency);
+    }
+
+    public Money min(Money other) {
+        return compareTo(other) <= 0 ? this : other;
+    }
+
+    public Money max(Money other) {
+        return compareTo(other) >= 0 ? this : other;
+    }
+
+    public boolean isZero() {
+        return minorUnits == 0;
+    }
+
+    public boolean isNegative() {
+        return minorUnits < 0;
+    }
+
+    public long getMinorUnits() {
+        return minorUnits;
+    }
+
+    public String getCurrencyCode() {
+        return currency.getCurrencyCode();
+    }
+
+    public BigDecimal toBigDecimal() {
+        return BigDecimal.valueOf(minorUnits, fractionDigits(currency));
+    }
+
+    @Override
+    public int compareTo(Money other) {
+        requireSameCurrency(other);
+        return Long.compare(minorUnits, other.minorUnits);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        return o instanceof Money other && minorUnits == other.minorUnits && currency.equals(other.currency);
+    }
+
+    @Override
+    public int hashCode() {
+        return Long.hashCode(minorUnits) * 31 + currency.hashCode();
+    }
+
+    @Override
+    public String toString() {
+        return toBigDecimal().toPlainString() + " " + currency.getCurrencyCode();
+    }
+
+    private void requireSameCurrency(Money other) {
+        if (!currency.equals(other.currency)) {
+            throw new IllegalArgumentException("Currency mismatch: " + currency + " vs " + other.currency);
+        }
+    }
+
+    // Minor-unit helpers, at the same scale as Money of the currency
+
+    public static int fractionDigits(String currencyCode) {
+        return currencyCode == null ? DEFAULT_DIGITS : fractionDigits(Currency.getInstance(currencyCode));
+    }
+
+    private static int fractionDigits(Currency currency) {
+        return Math.max(0, currency.getDefaultFractionDigits());
+    }
+
+    public static long toMinor(BigDecimal amount) {
+        return toMinor(amount, DEFAULT_DIGITS, RoundingPolicy.HALF_UP);
+    }
+
+    public static long toMinor(BigDecimal amount, RoundingPolicy rounding) {
+        return toMinor(amount, DEFAULT_DIGITS, rounding);
+    }
+
+    public static long toMinor(BigDecimal amount, String currencyCode) {
+        return toMinor(amount, fractionDigits(currencyCode), RoundingPolicy.HALF_UP);
+    }
+
+    private static long toMinor(BigDecimal amount, int digits, RoundingPolicy rounding) {
+        if (amount == null) {
+            return 0;
+        }
+        BigDecimal scaled = amount.scale() == digits ? amount : amount.setScale(digits, rounding.mode);
+        return scaled.unscaledValue().longValueExact();
+    }
+
+    public static BigDecimal toDecimal(long minorUnits) {
+        return BigDecimal.valueOf(minorUnits, DEFAULT_DIGITS);
+    }
+
+    public static BigDecimal toDecimal(long minorUnits, String currencyCode) {
+        return BigDecimal.valueOf(minorUnits, fractionDigits(currencyCode));
+    }
+
+    public static long percentageMinor(long minorUnits, long basisPoints, RoundingPolicy rounding) {
+        long product;
+        try {
+            product = Math.multiplyExact(minorUnits, basisPoints);
+        } catch (ArithmeticException e) {
+            return BigDecimal.valueOf(minorUnits).multiply(BigDecimal.valueOf(basisPoints))
+                .divide(BigDecimal.valueOf(BASIS_POINTS), 0, rounding.mode)
+                .longValueExact();
+        }
+        return divide(product, BASIS_POINTS, rounding);
+    }
+
+    /**
+     * Ratio of {@code part} to {@code whole} in basis points, e.g. 2500 for a quarter.
+     */
+    public static long ratioBasisPoints(long part, long whole, RoundingPolicy rounding) {
+        return divide(Math.multiplyExact(part, BASIS_POINTS), whole, rounding);
+    }
+
+    public static long divide(long dividend, long divisor, RoundingPolicy rounding) {
+        long quotient = dividend / divisor;
+        long remainder = dividend % divisor;
+        if (remainder == 0) {
+            return quotient;
+        }
+        // Sign of the exact quotient, which the truncated quotient may have lost
+        long sign = (dividend ^ divisor) < 0 ? -1 : 1;
+        long absRemainder = Math.abs(remainder);
+        int halfComparison = Long.compare(absRemainder, Math.abs(divisor) - absRemainder);
+        return switch (rounding) {
+            case DOWN -> quotient;
+            case UP -> quotient + sign;
+            case FLOOR -> sign < 0 ? quotient - 1 : quotient;
+            case CEILING -> sign > 0 ? quotient + 1 : quotient;
+            case HALF_UP -> halfComparison >= 0 ? quotient + sign : quotient;
+            case HALF_EVEN -> halfComparison > 0 || (halfComparison == 0 && (quotient & 1) != 0) ? quotient + sign : quotient;
+        };
+    }
+
+    public enum RoundingPolicy {
+        HALF_UP(RoundingMode.HALF_UP),
+        HALF_EVEN(RoundingMode.HALF_EVEN),
+        DOWN(RoundingMode.DOWN),
+        UP(RoundingMode.UP),
+        FLOOR(RoundingMode.FLOOR),
+        CEILING(RoundingMode.CEILING);
+
+        private final RoundingMode mode;
+
+        RoundingPolicy(RoundingMode mode) {
+            this.mode = mode;
+        }
+
+        public RoundingMode toRoundingMode() {
+            return mode;
+        }
+    }
+}
@@ -0,0 +1,112 @@
+package com.github.ecommerce.util;
+
+import java.time.LocalDate;
+import java.util.Arrays;
+
+/**
+ * Compact, sortable order numbers such as {@code ORD-240115-0A905GR8EPW14X}.
+ * <p>
+ * The body is a snowflake id written as 13 fixed-width Crockford base32 characters, so numbers
+ * from one node are strictly increasing, numbers from different nodes never collide, and
+ * lexicographic order follows creation time. New rows therefore land at the right-hand edge of
+ * {@code idx_order_number}. A trailing Luhn mod 32 check character catches single-character
+ * typos and adjacent transpositions before a lookup. The optional date prefix is informational
+ * and keeps the numbers readable.
+ */
+public final class OrderNumberGenerator {
+
+    private static final char[] ALPHABET = "0123456789ABCDEFGHJKMNPQRSTVWXYZ".toCharArray();
+    private static final int[] VALUES = new int[128];
+    private static final int BODY_LENGTH = 13;
+    private static final String PREFIX = "ORD-";
+
+    private static final OrderNumberGenerator DEFAULT = new OrderNumberGenerator(SnowflakeIdGenerator.getInstance(), true);
+
+    static {
+        Arrays.fill(VALUES, -1);
+        for (int i = 0; i < ALPHABET.length; i++) {
+            VALUES[ALPHABET[i]] = i;
+            VALUES[Character.toLowerCase(ALPHABET[i])] = i;
+        }
+    }
+
+    private final SnowflakeIdGenerator idGenerator;
+    private final boolean datePrefix;
+
+    public OrderNumberGenerator(SnowflakeIdGenerator idGenerator, boolean datePrefix) {
+        this.idGenerator = idGenerator;
+        this.datePrefix = datePrefix;
+    }
+
+    public static OrderNumberGenerator getInstance() {
+        return DEFAULT;
+    }
+
+    public String next() {
+        long id = idGenerator.nextId();
+        char[] out = new char[PREFIX.length() + (datePrefix ? 7 : 0) + BODY_LENGTH + 1];
+        int pos = 0;
+        for (int i = 0; i < PREFIX.length(); i++) {
+            out[pos++] = PREFIX.charAt(i);
+        }
+        if (datePrefix) {
+            LocalDate date = LocalDate.ofEpochDay(Math.floorDiv(SnowflakeIdGenerator.timestampOf(id), 86_400_000L));
+            pos = writeTwoDigits(out, pos, date.getYear() % 100);
+            pos = writeTwoDigits(out, pos, date.getMonthValue());
+            pos = writeTwoDigits(out, pos, date.getDayOfMonth());
+            out[pos++] = '-';
+        }
+        int bodyStart = pos;
+        for (int i = BODY_LENGTH - 1; i >= 0; i--) {
+            out[bodyStart + i] = ALPHABET[(int) (id & 31)];
+            id >>>= 5;
+        }
+        pos += BODY_LENGTH;
+        out[pos] = checkCharacter(out, bodyStart, BODY_LENGTH);
+        return new String(out);
+    }
+
+    /**
+     * Verifies the check character without touching the database.
+     */
+    public static boolean isValid(String orderNumber) {
+        if (orderNumber == null || orderNumber.length() < PREFIX.length() + BODY_LENGTH + 1 || !orderNumber.startsWith(PREFIX)) {
+            return false;
+        }
+        char[] chars = orderNumber.toCharArray();
+        int bodyStart = chars.length - BODY_LENGTH - 1;
+        for (int i = bodyStart; i < chars.length; i++) {
+            if (chars[i] >= 128 || VALUES[chars[i]] < 0) {
+                return false;
+            }
+        }
+        return Character.toUpperCase(chars[chars.length - 1]) == checkCharacter(chars, bodyStart, BODY_LENGTH);
+    }
+
+    public static long timestampOf(String orderNumber) {
+        long id = 0;
+        int bodyStart = orderNumber.length() - BODY_LENGTH - 1;
+        for (int i = bodyStart; i < bodyStart + BODY_LENGTH; i++) {
+            id = (id << 5) | VALUES[orderNumber.charAt(i)];
+        }
+        return SnowflakeIdGenerator.timestampOf(id);
+    }
+
+    // Luhn mod N over the base32 alphabet
+    private static char checkCharacter(char[] chars, int start, int length) {
+        int factor = 2;
+        int sum = 0;
+        for (int i = start + length - 1; i >= start; i--) {
+            int addend = factor * VALUES[chars[i]];
+            factor = factor == 2 ? 1 : 2;
+            sum += addend / 32 + addend % 32;
+        }
+        return ALPHABET[(32 - sum % 32) % 32];
+    }
+
+    private static int writeTwoDigits(char[] out, int pos, int value) {
+        out[pos] = (char) ('0' + value / 10);
+        out[pos + 1] = (char) ('0' + value % 10);
+        return pos + 2;
+    }
+}
@@ -0,0 +1,92 @@
+package com.github.ecommerce.util;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Lock-free, time-ordered 64-bit id generator.
+ * <pre>
+ *  | 41 bits: millis since 2024-01-01 | 10 bits: node | 12 bits: sequence |
+ * </pre>
+ * Ids are strictly increasing per node. When the sequence of a millisecond is exhausted, or
+ * the wall clock steps backwards, the generator keeps counting into the next logical
+ * millisecond instead of blocking or reusing ids.
+ */
+public final class SnowflakeIdGenerator {
+
+    public static final long EPOCH_MILLIS = 1704067200000L;
+
+    public static final int NODE_BITS = 10;
+    public static final int SEQUENCE_BITS = 12;
+    public static final long MAX_NODE_ID = (1L << NODE_BITS) - 1;
+    private static final long SEQUENCE_MASK = (1L << SEQUENCE_BITS) - 1;
+
+    private static volatile SnowflakeIdGenerator instance;
+
+    private final long nodeId;
+    // (logical millis << SEQUENCE_BITS) | sequence of the last id handed out
+    private final AtomicLong state = new AtomicLong();
+
+    public SnowflakeIdGenerator(long nodeId) {
+        if (nodeId < 0 || nodeId > MAX_NODE_ID) {
+            throw new IllegalArgumentException("Node id must be between 0 and " + MAX_NODE_ID);
+        }
+        this.nodeId = nodeId;
+    }
+
+    /**
+     * Process-wide generator. The node id comes from the {@code app.node-id} system property or
+     * the {@code APP_NODE_ID} environment variable and must be unique among running nodes; two
+     * nodes sharing one would generate the same primary keys. There is no fallback: the first
+     * call fails without one, and Hibernate makes that call while starting up.
+     */
+    public static SnowflakeIdGenerator getInstance() {
+        SnowflakeIdGenerator current = instance;
+        if (current == null) {
+            synchronized (SnowflakeIdGenerator.class) {
+                current = instance;
+                if (current == null) {
+                    current = new SnowflakeIdGenerator(resolveNodeId());
+                    instance = current;
+                }
+            }
+        }
+        return current;
+    }
+
+    public long nextId() {
+        long next;
+        while (true) {
+            long current = state.get();
+            long now = System.currentTimeMillis() - EPOCH_MILLIS;
+            next = now > (current >>> SEQUENCE_BITS) ? now << SEQUENCE_BITS : current + 1;
+            if (state.compareAndSet(current, next)) {
+                break;
+            }
+        }
+        long millis = next >>> SEQUENCE_BITS;
+        long sequence = next & SEQUENCE_MASK;
+        return (millis << (NODE_BITS + SEQUENCE_BITS)) | (nodeId << SEQUENCE_BITS) | sequence;
+    }
+
+    public long getNodeId() {
+        return nodeId;
+    }
+
+    public static long timestampOf(long id) {
+        return (id >>> (NODE_BITS + SEQUENCE_BITS)) + EPOCH_MILLIS;
+    }
+
+    // Smallest id any node can generate at the given time; ids below it were created earlier
+    public static long minIdAt(long epochMillis) {
+        return Math.max(0, epochMillis - EPOCH_MILLIS) << (NODE_BITS + SEQUENCE_BITS);
+    }
+
+    private static long resolveNodeId() {
+        String configured = System.getProperty("app.node-id", System.getenv("APP_NODE_ID"));
+        if (configured == null || configured.isBlank()) {
+            throw new IllegalStateException("No node id: set the app.node-id system property or APP_NODE_ID " +
+                "to a value between 0 and " + MAX_NODE_ID + " that no other running node uses");
+        }
+        return Long.parseLong(configured.trim());
+    }
+}
@@ -0,0 +1,70 @@
+package db.migration;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Creates the cold tier copy of an order table: {@code <table>_archive}, without foreign keys,
+ * compressed, and range-partitioned by id. Snowflake ids start with the creation time, so id
+ * ranges are time ranges; the archive job splits monthly partitions off {@code p_max} as it
+ * goes. MySQL requires every unique key of a partitioned table to contain the partition column,
+ * so unique indexes other than the primary key become plain indexes (order numbers and
+ * transaction ids are already unique in the hot tables they were copied from).
+ * <p>
+ * Used by {@link V3__Order_archive_tables} for existing schemas and by the archive job for
+ * schemas whose hot tables were created by Hibernate after the migrations ran.
+ */
+public final class ArchiveTables {
+
+    public static final List<String> TABLES = List.of("orders", "order_items", "payments", "shipping");
+
+    private ArchiveTables() {
+    }
+
+    // Returns false when the hot table does not exist yet, so there is nothing to copy the layout from
+    public static boolean create(Connection connection, String table) throws SQLException {
+        String archive = table + "_archive";
+        if (exists(connection, archive)) {
+            return true;
+        }
+        if (!exists(connection, table)) {
+            return false;
+        }
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("CREATE TABLE " + archive + " LIKE " + table);
+            for (Map.Entry<String, List<String>> index : uniqueIndexes(connection, archive).entrySet()) {
+                statement.execute("ALTER TABLE " + archive + " DROP INDEX " + index.getKey() +
+                    ", ADD INDEX " + index.getKey() + " (" + String.join(", ", index.getValue()) + ")");
+            }
+            statement.execute("ALTER TABLE " + archive + " ROW_FORMAT=COMPRESSED KEY_BLOCK_SIZE=8");
+            statement.execute("ALTER TABLE " + archive +
+                " PARTITION BY RANGE (id) (PARTITION p_max VALUES LESS THAN MAXVALUE)");
+        }
+        return true;
+    }
+
+    public static boolean exists(Connection connection, String table) throws SQLException {
+        try (ResultSet tables = connection.getMetaData().getTables(connection.getCatalog(), null, table, new String[] {"TABLE"})) {
+            return tables.next();
+        }
+    }
+
+    private static Map<String, List<String>> uniqueIndexes(Connection connection, String table) throws SQLException {
+        Map<String, List<String>> indexes = new LinkedHashMap<>();
+        try (ResultSet rs = connection.getMetaData().getIndexInfo(connection.getCatalog(), null, table, true, false)) {
+            while (rs.next()) {
+                String name = rs.getString("INDEX_NAME");
+                if (name != null && !"PRIMARY".equals(name)) {
+                    indexes.computeIfAbsent(name, key -> new ArrayList<>()).add(rs.getString("COLUMN_NAME"));
+                }
+            }
+        }
+        return indexes;
+    }
+}
@@ -0,0 +1,46 @@
+package db.migration;
+
+import org.flywaydb.core.api.migration.BaseJavaMigration;
+import org.flywaydb.core.api.migration.Context;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.List;
+
+/**
+ * Moves high-volume tables from AUTO_INCREMENT to application-assigned snowflake ids.
+ * Existing rows keep their ids: snowflake ids start above 2^22 and are far larger than any
+ * auto-increment value, so old and new ids never collide and stay ordered by creation.
+ * Tables that do not exist yet are skipped and are created by the schema without
+ * AUTO_INCREMENT.
+ */
+public class V2__Snowflake_ids extends BaseJavaMigration {
+
+    private static final List<String> TABLES = List.of(
+        "orders", "order_items", "cart_items", "audit_logs", "payments", "shipping");
+
+    @Override
+    public void migrate(Context context) throws SQLException {
+        Connection connection = context.getConnection();
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("SET FOREIGN_KEY_CHECKS = 0");
+            try {
+                for (String table : TABLES) {
+                    if (isAutoIncrement(connection, table)) {
+                        statement.execute("ALTER TABLE " + table + " MODIFY id BIGINT NOT NULL");
+                    }
+                }
+            } finally {
+                statement.execute("SET FOREIGN_KEY_CHECKS = 1");
+            }
+        }
+    }
+
+    private boolean isAutoIncrement(Connection connection, String table) throws SQLException {
+        try (ResultSet columns = connection.getMetaData().getColumns(connection.getCatalog(), null, table, "id")) {
+            return columns.next() && "YES".equals(columns.getString("IS_AUTOINCREMENT"));
+        }
+    }
+}
@@ -0,0 +1,45 @@
+package db.migration;
+
+import org.flywaydb.core.api.migration.BaseJavaMigration;
+import org.flywaydb.core.api.migration.Context;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.List;
+
+/**
+ * Gives gateway transaction ids a binary collation. Provider ids are case-sensitive, which the
+ * default case-insensitive collation does not respect in the unique key, and reconciliation
+ * merges the transaction id index against files sorted by plain string order, which only a
+ * binary collation matches.
+ * <p>
+ * Converts existing tables only, and {@code payments_archive} is copied from {@code payments}
+ * by the archive job. The collation is MySQL's, so it is declared here alone: the
+ * {@code Payment} mapping only gives the length, and a schema Hibernate creates from it, e.g.
+ * in development or on H2 in tests, keeps the default collation.
+ */
+public class V4__Binary_transaction_ids extends BaseJavaMigration {
+
+    private static final List<String> TABLES = List.of("payments", "payments_archive");
+
+    @Override
+    public void migrate(Context context) throws SQLException {
+        Connection connection = context.getConnection();
+        try (Statement statement = connection.createStatement()) {
+            for (String table : TABLES) {
+                if (exists(connection, table)) {
+                    statement.execute("ALTER TABLE " + table +
+                        " MODIFY transaction_id VARCHAR(100) CHARACTER SET utf8mb4 COLLATE utf8mb4_bin NULL");
+                }
+            }
+        }
+    }
+
+    private boolean exists(Connection connection, String table) throws SQLException {
+        try (ResultSet tables = connection.getMetaData().getTables(connection.getCatalog(), null, table, new String[] {"TABLE"})) {
+            return tables.next();
+        }
+    }
+}
@@ -0,0 +1,56 @@
+package db.migration;
+
+import org.flywaydb.core.api.migration.BaseJavaMigration;
+import org.flywaydb.core.api.migration.Context;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+/**
+ * Seeds the {@code sequence} row of {@code outbox_offsets}, the counter outbox commit
+ * sequences are taken from, above every stored offset, so offsets written before the counter
+ * existed stay valid. Writers then lock that row alone instead of reading the other offsets on
+ * every commit. On a fresh schema there are no offsets and the counter starts at zero.
+ */
+public class V7__Outbox_sequence_counter extends BaseJavaMigration {
+
+    private static final String COUNTER = "sequence";
+
+    @Override
+    public void migrate(Context context) throws SQLException {
+        Connection connection = context.getConnection();
+        if (!exists(connection, "outbox_offsets") || hasCounter(connection)) {
+            return;
+        }
+        long start;
+        try (Statement statement = connection.createStatement();
+             ResultSet max = statement.executeQuery("SELECT COALESCE(MAX(last_event_id), 0) FROM outbox_offsets")) {
+            max.next();
+            start = max.getLong(1);
+        }
+        try (PreparedStatement insert = connection.prepareStatement(
+                "INSERT INTO outbox_offsets (consumer, last_event_id, updated_at) VALUES (?, ?, CURRENT_TIMESTAMP)")) {
+            insert.setString(1, COUNTER);
+            insert.setLong(2, start);
+            insert.executeUpdate();
+        }
+    }
+
+    private boolean hasCounter(Connection connection) throws SQLException {
+        try (PreparedStatement select = connection.prepareStatement("SELECT 1 FROM outbox_offsets WHERE consumer = ?")) {
+            select.setString(1, COUNTER);
+            try (ResultSet rows = select.executeQuery()) {
+                return rows.next();
+            }
+        }
+    }
+
+    private boolean exists(Connection connection, String table) throws SQLException {
+        try (ResultSet tables = connection.getMetaData().getTables(connection.getCatalog(), null, table, new String[] {"TABLE"})) {
+            return tables.next();
+        }
+    }
+}
@@ -0,0 +1,43 @@
+package db.migration;
+
+import org.flywaydb.core.api.migration.BaseJavaMigration;
+import org.flywaydb.core.api.migration.Context;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+/**
+ * Adds {@code released_at} to {@code coupon_codes}. A released code gets its redemption
+ * cleared and this stamped, which is how other nodes' code validators learn to clear the
+ * redeemed bit, the same way {@code redeemed_at} tells them to set it. Converts an existing
+ * table only; on a fresh schema Hibernate creates the column from the {@code CouponCode}
+ * mapping.
+ */
+public class V8__Coupon_code_released_at extends BaseJavaMigration {
+
+    @Override
+    public void migrate(Context context) throws SQLException {
+        Connection connection = context.getConnection();
+        if (!exists(connection, "coupon_codes") || hasColumn(connection, "coupon_codes", "released_at")) {
+            return;
+        }
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("ALTER TABLE coupon_codes ADD COLUMN released_at DATETIME(6) NULL");
+            statement.execute("CREATE INDEX idx_coupon_code_released ON coupon_codes (released_at)");
+        }
+    }
+
+    private boolean exists(Connection connection, String table) throws SQLException {
+        try (ResultSet tables = connection.getMetaData().getTables(connection.getCatalog(), null, table, new String[] {"TABLE"})) {
+            return tables.next();
+        }
+    }
+
+    private boolean hasColumn(Connection connection, String table, String column) throws SQLException {
+        try (ResultSet columns = connection.getMetaData().getColumns(connection.getCatalog(), null, table, column)) {
+            return columns.next();
+        }
+    }
+}
@@ -0,0 +1,165 @@
+package com.github.ecommerce.benchmark;
+
+import com.github.ecommerce.entity.Category;
+import com.github.ecommerce.entity.Discount;
+import com.github.ecommerce.entity.Product;
+import com.github.ecommerce.service.pricing.CartPricingEngine;
+import com.github.ecommerce.service.pricing.CartQuote;
+import com.github.ecommerce.service.pricing.DiscountEligibilityIndex;
+import com.github.ecommerce.service.pricing.DiscountEligibilityService;
+import com.github.ecommerce.service.pricing.PricingLine;
+import com.github.ecommerce.service.pricing.PricingPlan;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Prices carts of 1, 10 and 100 lines against 50 active discounts, comparing the entity-based
+ * path (appliesToProduct + calculateDiscount per line and discount) with the compiled plan
+ * and with a memoized quote. The plan is compiled from a {@link DiscountEligibilityIndex},
+ * as the engine does in production.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class CartPricingBenchmark {
+
+    private static final int DISCOUNTS = 50;
+    private static final int CATALOG = 1_000;
+
+    @Param({"1", "10", "100"})
+    private int lines;
+
+    private List<Discount> discounts;
+    private List<Product> cartProducts;
+    private List<PricingLine> pricingLines;
+    private PricingPlan plan;
+    private CartPricingEngine engine;
+
+    @Setup
+    public void setUp() {
+        LocalDateTime now = LocalDateTime.now();
+        List<Category> categories = new ArrayList<>();
+        for (long i = 1; i <= 20; i++) {
+            categories.add(Category.builder().id(i).name("c" + i).slug("c" + i).build());
+        }
+        List<Product> catalog = new ArrayList<>();
+        for (long i = 1; i <= CATALOG; i++) {
+            catalog.add(Product.builder()
+                .id(i)
+                .price(BigDecimal.valueOf(5 + i % 200, 0))
+                .category(categories.get((int) (i % categories.size())))
+                .build());
+        }
+
+        discounts = new ArrayList<>();
+        List<DiscountEligibilityIndex.Entry> entries = new ArrayList<>();
+        for (long d = 1; d <= DISCOUNTS; d++) {
+            Discount.AppliesTo appliesTo = Discount.AppliesTo.values()[(int) (d % 3)];
+            Discount discount = Discount.builder()
+                .id(d)
+                .code("PROMO" + d)
+                .type(d % 2 == 0 ? Discount.DiscountType.PERCENTAGE : Discount.DiscountType.FIXED_AMOUNT)
+                .value(BigDecimal.valueOf(d % 2 == 0 ? 10 : 5))
+                .startDate(now.minusDays(1))
+                .endDate(now.plusDays(30))
+                .appliesTo(appliesTo)
+                .requiresCoupon(false)
+                .combineWithOtherDiscounts(d % 4 == 0)
+                .products(new HashSet<>())
+                .categories(new HashSet<>())
+                .build();
+            if (appliesTo == Discount.AppliesTo.SPECIFIC_PRODUCTS) {
+                for (int p = 0; p < 100; p++) {
+                    discount.getProducts().add(catalog.get((int) ((d * 37 + p * 11) % CATALOG)));
+                }
+            } else if (appliesTo == Discount.AppliesTo.SPECIFIC_CATEGORIES) {
+                discount.getCategories().add(categories.get((int) (d % categories.size())));
+            }
+            discounts.add(discount);
+            entries.add(DiscountEligibilityIndex.Entry.of(discount,
+                discount.getProducts().stream().mapToLong(Product::getId).toArray(),
+                discount.getCategories().stream().mapToLong(Category::getId).toArray()));
+        }
+
+        cartProducts = new ArrayList<>();
+        pricingLines = new ArrayList<>();
+        for (int i = 0; i < lines; i++) {
+            Product product = catalog.get((i * 7) % CATALOG);
+            cartProducts.add(product);
+            pricingLines.add(new PricingLine(product.getId(), null, product.getCategory().getId(), 2,
+                product.getPrice(), BigDecimal.ZERO));
+        }
+
+        Map<Long, Long> categoryParents = new HashMap<>();
+        categories.forEach(category -> categoryParents.put(category.getId(), null));
+        DiscountEligibilityIndex index = DiscountEligibilityIndex.build(1, entries, categoryParents, now);
+        plan = PricingPlan.compile(1, index);
+        // Carts without a coupon never consult the code validator
+        engine = new CartPricingEngine(new FixedEligibility(index), null, 10_000);
+    }
+
+    @Benchmark
+    public BigDecimal entityDiscounts() {
+        BigDecimal subtotal = BigDecimal.ZERO;
+        BigDecimal best = BigDecimal.ZERO;
+        for (Discount discount : discounts) {
+            BigDecimal eligible = BigDecimal.ZERO;
+            for (Product product : cartProducts) {
+                if (discount.appliesToProduct(product)) {
+                    eligible = eligible.add(product.getPrice().multiply(BigDecimal.valueOf(2)));
+                }
+            }
+            best = best.max(discount.calculateDiscount(eligible));
+        }
+        for (Product product : cartProducts) {
+            subtotal = subtotal.add(product.getPrice().multiply(BigDecimal.valueOf(2)));
+        }
+        return subtotal.subtract(best.min(subtotal));
+    }
+
+    @Benchmark
+    public CartQuote compiledPlan() {
+        return plan.price(pricingLines, null);
+    }
+
+    @Benchmark
+    public CartQuote memoizedQuote() {
+        return engine.quote(pricingLines, null);
+    }
+
+    // Hands out one prebuilt index, so the engine compiles its plan without a database
+    private static final class FixedEligibility extends DiscountEligibilityService {
+
+        private final DiscountEligibilityIndex index;
+
+        private FixedEligibility(DiscountEligibilityIndex index) {
+            super(null, null);
+            this.index = index;
+        }
+
+        @Override
+        public DiscountEligibilityIndex current(LocalDateTime now) {
+            return index;
+        }
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+            .include(CartPricingBenchmark.class.getSimpleName())
+            .build()).run();
+    }
+}
@@ -0,0 +1,154 @@
+package com.github.ecommerce.benchmark;
+
+import com.github.ecommerce.entity.Cart;
+import com.github.ecommerce.entity.CartItem;
+import com.github.ecommerce.entity.Discount;
+import com.github.ecommerce.entity.Order;
+import com.github.ecommerce.entity.Product;
+import com.github.ecommerce.util.Money;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Hot pricing paths before and after the move to minor-unit arithmetic. The {@code legacy*}
+ * methods are verbatim copies of the previous BigDecimal implementations. Run through
+ * {@link #main} to get the GC profiler's {@code gc.alloc.rate.norm} (bytes per operation)
+ * next to the throughput.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class MoneyBenchmark {
+
+    private static final BigDecimal HUNDRED = new BigDecimal("100");
+
+    @Param({"10", "100"})
+    private int lines;
+
+    private Cart cart;
+    // The line amounts as the BigDecimal columns used to hold them, for the legacy paths
+    private List<BigDecimal[]> legacyLines;
+    private BigDecimal legacyCartDiscount;
+    private Order order;
+    private Discount discount;
+    private Product product;
+    private BigDecimal amount;
+
+    @Setup
+    public void setUp() {
+        cart = Cart.builder().build();
+        List<CartItem> items = new ArrayList<>();
+        legacyLines = new ArrayList<>();
+        for (long i = 1; i <= lines; i++) {
+            BigDecimal price = new BigDecimal("19.99").add(BigDecimal.valueOf(i, 2));
+            CartItem item = CartItem.builder()
+                .cart(cart)
+                .product(Product.builder().id(i).build())
+                .quantity((int) (i % 5) + 1)
+                .price(Money.of(price, Money.DEFAULT_CURRENCY))
+                .build();
+            items.add(item);
+            legacyLines.add(new BigDecimal[] {price, new BigDecimal(item.getQuantity()), BigDecimal.ZERO});
+        }
+        cart.setItems(items);
+        legacyCartDiscount = cart.getDiscountAmount().toBigDecimal();
+
+        order = Order.builder()
+            .subtotalAmount(new BigDecimal("249.90"))
+            .taxAmount(new BigDecimal("52.48"))
+            .shippingAmount(new BigDecimal("4.99"))
+            .discountAmount(new BigDecimal("25.00"))
+            .build();
+        discount = Discount.builder()
+            .type(Discount.DiscountType.PERCENTAGE)
+            .value(new BigDecimal("15.00"))
+            .maximumDiscountAmount(new BigDecimal("50.00"))
+            .minimumPurchaseAmount(new BigDecimal("20.00"))
+            .active(true)
+            .startDate(LocalDateTime.now().minusDays(1))
+            .build();
+        product = Product.builder()
+            .price(new BigDecimal("59.99"))
+            .compareAtPrice(new BigDecimal("89.99"))
+            .build();
+        amount = new BigDecimal("249.90");
+    }
+
+    @Benchmark
+    public BigDecimal legacyCartTotals() {
+        BigDecimal subtotal = BigDecimal.ZERO;
+        for (BigDecimal[] line : legacyLines) {
+            BigDecimal itemTotal = line[0].multiply(line[1]);
+            subtotal = subtotal.add(itemTotal.subtract(line[2]));
+        }
+        return subtotal.subtract(legacyCartDiscount);
+    }
+
+    @Benchmark
+    public BigDecimal cartTotals() {
+        long subtotal = 0;
+        for (CartItem item : cart.getItems()) {
+            subtotal += item.getTotalMinor();
+        }
+        return Money.toDecimal(subtotal - cart.getDiscountAmount().getMinorUnits());
+    }
+
+    @Benchmark
+    public BigDecimal legacyOrderTotal() {
+        return order.getSubtotalAmount()
+            .add(order.getTaxAmount())
+            .add(order.getShippingAmount())
+            .subtract(order.getDiscountAmount() != null ? order.getDiscountAmount() : BigDecimal.ZERO);
+    }
+
+    @Benchmark
+    public BigDecimal orderTotal() {
+        order.calculateTotalAmount();
+        return order.getTotalAmount();
+    }
+
+    @Benchmark
+    public BigDecimal legacyPercentageDiscount() {
+        BigDecimal value = amount.multiply(discount.getValue()).divide(HUNDRED);
+        if (value.compareTo(discount.getMaximumDiscountAmount()) > 0) {
+            value = discount.getMaximumDiscountAmount();
+        }
+        return value.min(amount);
+    }
+
+    @Benchmark
+    public long percentageDiscount() {
+        return discount.calculateDiscountMinor(249_90);
+    }
+
+    @Benchmark
+    public BigDecimal legacyDiscountPercentage() {
+        BigDecimal saving = product.getCompareAtPrice().subtract(product.getPrice());
+        return saving.divide(product.getCompareAtPrice(), 2, RoundingMode.HALF_UP).multiply(HUNDRED);
+    }
+
+    @Benchmark
+    public BigDecimal discountPercentage() {
+        return product.getDiscountPercentage();
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+            .include(MoneyBenchmark.class.getSimpleName())
+            .addProfiler(GCProfiler.class)
+            .build()).run();
+    }
+}
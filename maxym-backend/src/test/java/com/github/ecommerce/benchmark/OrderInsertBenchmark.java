@@ -0,0 +1,111 @@
+package com.github.ecommerce.benchmark;
+
+import com.github.ecommerce.util.SnowflakeIdGenerator;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Inserts one order with 20 items the way Hibernate does with each id strategy: IDENTITY
+ * forces one round trip per row to read back the generated key, while pre-assigned snowflake
+ * ids let the items go out as a single JDBC batch. Runs against in-memory H2, so it shows
+ * the statement count effect; the gap is wider over a real network.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class OrderInsertBenchmark {
+
+    private static final int ITEMS_PER_ORDER = 20;
+
+    private Connection connection;
+    private SnowflakeIdGenerator idGenerator;
+
+    @Setup
+    public void setUp() throws SQLException {
+        connection = DriverManager.getConnection("jdbc:h2:mem:orders" + System.nanoTime() + ";DB_CLOSE_DELAY=-1");
+        connection.setAutoCommit(false);
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("CREATE TABLE identity_orders (id BIGINT AUTO_INCREMENT PRIMARY KEY, order_number VARCHAR(50))");
+            statement.execute("CREATE TABLE identity_order_items (id BIGINT AUTO_INCREMENT PRIMARY KEY, order_id BIGINT, quantity INT)");
+            statement.execute("CREATE TABLE snowflake_orders (id BIGINT PRIMARY KEY, order_number VARCHAR(50))");
+            statement.execute("CREATE TABLE snowflake_order_items (id BIGINT PRIMARY KEY, order_id BIGINT, quantity INT)");
+        }
+        idGenerator = new SnowflakeIdGenerator(1);
+    }
+
+    @TearDown
+    public void tearDown() throws SQLException {
+        connection.close();
+    }
+
+    @Benchmark
+    public long identityInserts() throws SQLException {
+        long orderId;
+        try (PreparedStatement order = connection.prepareStatement(
+                "INSERT INTO identity_orders (order_number) VALUES (?)", Statement.RETURN_GENERATED_KEYS)) {
+            order.setString(1, "ORD");
+            order.executeUpdate();
+            orderId = generatedKey(order);
+        }
+        try (PreparedStatement item = connection.prepareStatement(
+                "INSERT INTO identity_order_items (order_id, quantity) VALUES (?, ?)", Statement.RETURN_GENERATED_KEYS)) {
+            for (int i = 0; i < ITEMS_PER_ORDER; i++) {
+                item.setLong(1, orderId);
+                item.setInt(2, i);
+                item.executeUpdate();
+                generatedKey(item);
+            }
+        }
+        connection.commit();
+        return orderId;
+    }
+
+    @Benchmark
+    public long snowflakeBatchedInserts() throws SQLException {
+        long orderId = idGenerator.nextId();
+        try (PreparedStatement order = connection.prepareStatement(
+                "INSERT INTO snowflake_orders (id, order_number) VALUES (?, ?)")) {
+            order.setLong(1, orderId);
+            order.setString(2, "ORD");
+            order.executeUpdate();
+        }
+        try (PreparedStatement item = connection.prepareStatement(
+                "INSERT INTO snowflake_order_items (id, order_id, quantity) VALUES (?, ?, ?)")) {
+            for (int i = 0; i < ITEMS_PER_ORDER; i++) {
+                item.setLong(1, idGenerator.nextId());
+                item.setLong(2, orderId);
+                item.setInt(3, i);
+                item.addBatch();
+            }
+            item.executeBatch();
+        }
+        connection.commit();
+        return orderId;
+    }
+
+    private static long generatedKey(PreparedStatement statement) throws SQLException {
+        try (ResultSet keys = statement.getGeneratedKeys()) {
+            keys.next();
+            return keys.getLong(1);
+        }
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+            .include(OrderInsertBenchmark.class.getSimpleName())
+            .build()).run();
+    }
+}
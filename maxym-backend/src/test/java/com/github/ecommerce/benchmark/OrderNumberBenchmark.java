@@ -0,0 +1,43 @@
+package com.github.ecommerce.benchmark;
+
+import com.github.ecommerce.util.OrderNumberGenerator;
+import com.github.ecommerce.util.SnowflakeIdGenerator;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Order number generation under contention: the previous millis + UUID scheme (which takes
+ * the SecureRandom lock on every call) against the lock-free snowflake generator.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@Threads(16)
+@State(Scope.Benchmark)
+public class OrderNumberBenchmark {
+
+    private final OrderNumberGenerator generator = new OrderNumberGenerator(new SnowflakeIdGenerator(1), true);
+
+    @Benchmark
+    public String millisAndUuid() {
+        return "ORD-" + System.currentTimeMillis() + "-" + UUID.randomUUID().toString().substring(0, 8).toUpperCase();
+    }
+
+    @Benchmark
+    public String snowflakeBase32() {
+        return generator.next();
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+            .include(OrderNumberBenchmark.class.getSimpleName())
+            .build()).run();
+    }
+}
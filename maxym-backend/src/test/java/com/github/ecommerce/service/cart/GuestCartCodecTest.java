@@ -0,0 +1,69 @@
+package com.github.ecommerce.service.cart;
+
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class GuestCartCodecTest {
+
+    @Test
+    void roundTripKeepsEveryField() {
+        GuestCart cart = GuestCart.builder()
+            .sessionId("0f8fad5b-d9cb-469f-a165-70867728950e")
+            .lines(new ArrayList<>(List.of(
+                new GuestCart.Line(1L, null, 2, new BigDecimal("19.99")),
+                new GuestCart.Line(1L, 0L, 1, new BigDecimal("0.00")),
+                new GuestCart.Line(1L << 40, (1L << 50) + 3, 300, new BigDecimal("123456.78")))))
+            .couponCode("SUMMER-7K2M-QX4P")
+            .discountAmount(new BigDecimal("5.50"))
+            .expiresAt(LocalDateTime.of(2026, 11, 18, 9, 30, 15))
+            .build();
+
+        GuestCart decoded = GuestCartCodec.decode(GuestCartCodec.encode(cart));
+
+        assertThat(decoded).isEqualTo(cart);
+    }
+
+    @Test
+    void roundTripKeepsAnEmptyCartEmpty() {
+        GuestCart cart = GuestCart.builder().sessionId("s").build();
+
+        GuestCart decoded = GuestCartCodec.decode(GuestCartCodec.encode(cart));
+
+        assertThat(decoded.getSessionId()).isEqualTo("s");
+        assertThat(decoded.getLines()).isEmpty();
+        assertThat(decoded.getCouponCode()).isNull();
+        assertThat(decoded.getDiscountAmount()).isEqualByComparingTo(BigDecimal.ZERO);
+        assertThat(decoded.getExpiresAt()).isNull();
+    }
+
+    @Test
+    void amountsAreKeptToTheCent() {
+        GuestCart cart = GuestCart.builder()
+            .sessionId("s")
+            .lines(new ArrayList<>(List.of(new GuestCart.Line(7L, null, 1, new BigDecimal("9.995")))))
+            .discountAmount(new BigDecimal("1"))
+            .build();
+
+        GuestCart decoded = GuestCartCodec.decode(GuestCartCodec.encode(cart));
+
+        assertThat(decoded.getLines().get(0).getPrice()).isEqualTo(new BigDecimal("10.00"));
+        assertThat(decoded.getDiscountAmount()).isEqualTo(new BigDecimal("1.00"));
+    }
+
+    @Test
+    void rejectsAnUnknownFormatVersion() {
+        byte[] data = GuestCartCodec.encode(GuestCart.builder().sessionId("s").build());
+        data[0] = 99;
+
+        assertThatThrownBy(() -> GuestCartCodec.decode(data))
+            .isInstanceOf(IllegalArgumentException.class)
+            .hasMessageContaining("99");
+    }
+}
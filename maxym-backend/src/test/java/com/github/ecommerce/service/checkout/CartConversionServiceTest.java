@@ -0,0 +1,159 @@
+package com.github.ecommerce.service.checkout;
+
+import com.github.ecommerce.entity.Cart;
+import com.github.ecommerce.entity.CartItem;
+import com.github.ecommerce.entity.Category;
+import com.github.ecommerce.entity.Inventory;
+import com.github.ecommerce.entity.Order;
+import com.github.ecommerce.entity.OrderItem;
+import com.github.ecommerce.entity.Product;
+import com.github.ecommerce.entity.ProductImage;
+import com.github.ecommerce.entity.ProductVariant;
+import com.github.ecommerce.repository.CartRepository;
+import com.github.ecommerce.service.OrderSummaryProjector;
+import com.github.ecommerce.service.StockJournalService;
+import com.github.ecommerce.service.outbox.OutboxOffsetStore;
+import com.github.ecommerce.service.outbox.OutboxWriter;
+import com.github.ecommerce.util.Money;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.json.AutoConfigureJson;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Counts the statements Hibernate prepares for a cart-to-order conversion and checks that the
+ * count does not grow with the number of cart lines.
+ */
+@DataJpaTest(properties = {
+    "spring.flyway.enabled=false",
+    "spring.jpa.hibernate.ddl-auto=create-drop",
+    "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+    "spring.jpa.properties.hibernate.generate_statistics=true"
+})
+@AutoConfigureJson
+// Dependencies of the entity listeners, which Hibernate creates through the Spring context
+@Import({CartConversionService.class, OrderSummaryProjector.class, OutboxWriter.class, OutboxOffsetStore.class,
+    StockJournalService.class})
+class CartConversionServiceTest {
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private CartRepository cartRepository;
+
+    @Autowired
+    private CartConversionService cartConversionService;
+
+    @Test
+    void conversionIssuesAFixedNumberOfQueriesWhateverTheCartSize() {
+        // Both carts hold plain and variant lines, so both need every prefetch query
+        long twoLines = countConversionQueries(createCart("small", 2));
+        long fiftyLines = countConversionQueries(createCart("large", 50));
+
+        // Cart with items, products with inventory, variants with inventory, image urls
+        assertThat(twoLines).isEqualTo(4);
+        assertThat(fiftyLines).isEqualTo(twoLines);
+    }
+
+    @Test
+    void snapshotsFollowTheCartItemRules() {
+        Long cartId = createCart("rules", 2);
+        entityManager.flush();
+        entityManager.clear();
+
+        Cart cart = cartRepository.findWithItemsById(cartId).orElseThrow();
+        CartConversionService.Catalog catalog = cartConversionService.prefetch(cart);
+        for (CartItem item : cart.getItems()) {
+            assertThat(catalog.productName(item)).isEqualTo(item.getProductName());
+            assertThat(catalog.inventoryId(item)).isNotNull();
+        }
+        List<OrderItem> items = cartConversionService.toOrderItems(cart, Order.builder().build());
+        assertThat(items).extracting(OrderItem::getProductImageUrl)
+            .containsExactlyInAnyOrder("https://img.test/rules-0-primary.jpg", "https://img.test/rules-1-variant.jpg");
+        assertThat(items).extracting(OrderItem::getProductSku)
+            .containsExactlyInAnyOrder("rules-0", "rules-1-v");
+    }
+
+    private long countConversionQueries(Long cartId) {
+        entityManager.flush();
+        entityManager.clear();
+        Statistics statistics = entityManager.getEntityManager().getEntityManagerFactory()
+            .unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+
+        Cart cart = cartRepository.findWithItemsById(cartId).orElseThrow();
+        List<OrderItem> items = cartConversionService.toOrderItems(cart, Order.builder().build());
+        items.forEach(item -> {
+            assertThat(item.getProductName()).isNotNull();
+            assertThat(item.getProductSku()).isNotNull();
+            assertThat(item.getProductImageUrl()).isNotNull();
+        });
+        assertThat(items).hasSize(cart.getItems().size());
+        return statistics.getPrepareStatementCount();
+    }
+
+    // Even lines are plain products, odd lines are variants; every product has two images
+    private Long createCart(String prefix, int lines) {
+        Category category = entityManager.persist(Category.builder()
+            .name(prefix)
+            .slug(prefix)
+            .build());
+        Cart cart = Cart.builder().sessionId(prefix).build();
+        for (int i = 0; i < lines; i++) {
+            String key = prefix + "-" + i;
+            Product product = entityManager.persist(Product.builder()
+                .name("Product " + key)
+                .slug(key)
+                .sku(key)
+                .price(new BigDecimal("19.99"))
+                .category(category)
+                .build());
+            entityManager.persist(ProductImage.builder()
+                .product(product)
+                .url("https://img.test/" + key + "-secondary.jpg")
+                .title(key)
+                .displayOrder(0)
+                .build());
+            entityManager.persist(ProductImage.builder()
+                .product(product)
+                .url("https://img.test/" + key + "-primary.jpg")
+                .title(key)
+                .displayOrder(1)
+                .isPrimary(true)
+                .build());
+
+            ProductVariant variant = null;
+            if (i % 2 == 1) {
+                variant = entityManager.persist(ProductVariant.builder()
+                    .product(product)
+                    .name("Large")
+                    .sku(key + "-v")
+                    .price(new BigDecimal("24.99"))
+                    .imageUrl("https://img.test/" + key + "-variant.jpg")
+                    .build());
+                entityManager.persist(Inventory.builder().productVariant(variant).quantity(10).build());
+            } else {
+                entityManager.persist(Inventory.builder().product(product).quantity(10).build());
+            }
+
+            cart.getItems().add(CartItem.builder()
+                .cart(cart)
+                .product(product)
+                .productVariant(variant)
+                .quantity(1)
+                .price(Money.of(variant != null ? variant.getPrice() : product.getPrice(), Money.DEFAULT_CURRENCY))
+                .build());
+        }
+        return entityManager.persist(cart).getId();
+    }
+}
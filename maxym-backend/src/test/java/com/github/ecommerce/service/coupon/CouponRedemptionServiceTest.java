@@ -0,0 +1,180 @@
+package com.github.ecommerce.service.coupon;
+
+import com.github.ecommerce.entity.Discount;
+import com.github.ecommerce.entity.User;
+import com.github.ecommerce.exception.BusinessException;
+import com.github.ecommerce.service.OrderSummaryProjector;
+import com.github.ecommerce.service.StockJournalService;
+import com.github.ecommerce.service.outbox.OutboxOffsetStore;
+import com.github.ecommerce.service.outbox.OutboxWriter;
+import com.github.ecommerce.service.pricing.DiscountEligibilityService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.json.AutoConfigureJson;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.entry;
+
+/**
+ * Fires many redemptions of one coupon at once and checks that exactly the allowed number go
+ * through, for the global limit and for one user's limit. Each redemption commits its own
+ * transaction, as it would in checkout, so the test itself runs without one.
+ */
+@DataJpaTest(properties = {
+    "spring.flyway.enabled=false",
+    "spring.jpa.hibernate.ddl-auto=create-drop",
+    "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+    // MySQL mode for the outbox offset upserts; discounts has a column named value
+    "spring.datasource.url=jdbc:h2:mem:coupons;MODE=MySQL;NON_KEYWORDS=VALUE;DB_CLOSE_DELAY=-1;LOCK_TIMEOUT=30000",
+    "spring.datasource.hikari.maximum-pool-size=16"
+})
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+// The rest are needed by the entity listeners, which are created with the EntityManagerFactory
+@AutoConfigureJson
+@Import({CouponRedemptionService.class, CouponCodeValidator.class, SimpleMeterRegistry.class,
+    DiscountEligibilityService.class, OrderSummaryProjector.class, StockJournalService.class,
+    OutboxWriter.class, OutboxOffsetStore.class})
+class CouponRedemptionServiceTest {
+
+    private static final int THREADS = 32;
+
+    @Autowired
+    private CouponRedemptionService couponRedemptionService;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void globalLimitHoldsExactlyUnderConcurrentRedemptions() throws Exception {
+        long discountId = createDiscount("GLOBAL25", 25, null);
+        List<Long> users = createUsers("global", 400);
+
+        Outcome outcome = redeemConcurrently("GLOBAL25", users);
+
+        assertThat(outcome.redeemed()).isEqualTo(25);
+        assertThat(outcome.rejected()).containsOnly(entry("Coupon GLOBAL25 is no longer available", 375));
+        assertThat(usageCount(discountId)).isEqualTo(25);
+        assertThat(jdbcTemplate.queryForObject("SELECT COUNT(*) FROM coupons WHERE discount_id = ?", Integer.class, discountId))
+            .isEqualTo(25);
+    }
+
+    @Test
+    void perUserLimitHoldsExactlyWhenOneUserRedeemsConcurrently() throws Exception {
+        long discountId = createDiscount("TWICE", null, 2);
+        Long user = createUsers("single", 1).get(0);
+        List<Long> attempts = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            attempts.add(user);
+        }
+
+        Outcome outcome = redeemConcurrently("TWICE", attempts);
+
+        assertThat(outcome.redeemed()).isEqualTo(2);
+        assertThat(outcome.rejected())
+            .containsOnly(entry("Coupon TWICE was already used the maximum number of times", 98));
+        assertThat(usageCount(discountId)).isEqualTo(2);
+        assertThat(couponRedemptionService.userUsageCount(discountId, user)).isEqualTo(2);
+    }
+
+    // Starts every redemption at once and counts the accepted ones and the rejections by message
+    private Outcome redeemConcurrently(String couponCode, List<Long> userIds) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+        AtomicInteger redeemed = new AtomicInteger();
+        Map<String, Integer> rejected = new ConcurrentHashMap<>();
+        List<Future<?>> results = new ArrayList<>();
+        try {
+            for (Long userId : userIds) {
+                results.add(executor.submit(() -> {
+                    start.await();
+                    try {
+                        transactionTemplate.executeWithoutResult(status ->
+                            couponRedemptionService.redeem(couponCode, userId, null));
+                        redeemed.incrementAndGet();
+                    } catch (BusinessException e) {
+                        // Over a limit; the rollback gave the claimed use back
+                        rejected.merge(e.getMessage(), 1, Integer::sum);
+                    }
+                    return null;
+                }));
+            }
+            start.countDown();
+            for (Future<?> result : results) {
+                result.get(60, TimeUnit.SECONDS);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        return new Outcome(redeemed.get(), Map.copyOf(rejected));
+    }
+
+    private long createDiscount(String code, Integer usageLimit, Integer usageLimitPerUser) {
+        return transactionTemplate.execute(status -> {
+            Discount discount = Discount.builder()
+                .code(code)
+                .description(code)
+                .type(Discount.DiscountType.PERCENTAGE)
+                .value(new BigDecimal("10.00"))
+                .usageLimit(usageLimit)
+                .usageLimitPerUser(usageLimitPerUser)
+                .startDate(LocalDateTime.now().minusDays(1))
+                .requiresCoupon(true)
+                .build();
+            entityManager.persist(discount);
+            return discount.getId();
+        });
+    }
+
+    private List<Long> createUsers(String prefix, int count) {
+        return transactionTemplate.execute(status -> {
+            List<Long> ids = new ArrayList<>(count);
+            for (int i = 0; i < count; i++) {
+                User user = User.builder()
+                    .email(prefix + i + "@coupons.test")
+                    .password("x")
+                    .firstName("Test")
+                    .lastName(prefix + i)
+                    .build();
+                entityManager.persist(user);
+                ids.add(user.getId());
+            }
+            return ids;
+        });
+    }
+
+    private int usageCount(long discountId) {
+        return jdbcTemplate.queryForObject("SELECT usage_count FROM discounts WHERE id = ?", Integer.class, discountId);
+    }
+
+    private record Outcome(int redeemed, Map<String, Integer> rejected) {
+    }
+}